@@ -0,0 +1,137 @@
+package org.swrlapi.builtins;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.exceptions.SWRLBuiltInLibraryException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A built-in library whose built-ins are dispatched through the {@link SWRLBuiltInIndex} generated for it at build
+ * time. The {@link SWRLBuiltInLibraryManager} invokes all built-ins of an indexed library through the single
+ * {@link #dispatch} method, so it neither looks up nor checks a method per built-in; libraries built without an index
+ * are invoked reflectively as before.
+ */
+public abstract class AbstractIndexedSWRLBuiltInLibrary extends AbstractSWRLBuiltInLibrary
+{
+  /** The name of the method all indexed built-ins are invoked through. */
+  public static final String DISPATCH_METHOD_NAME = "dispatch";
+
+  private static final Logger log = LoggerFactory.getLogger(AbstractIndexedSWRLBuiltInLibrary.class);
+
+  private final SWRLBuiltInIndex index;
+
+  protected AbstractIndexedSWRLBuiltInLibrary(@NonNull String prefix, @NonNull String namespace,
+    @NonNull Set<@NonNull String> builtInNames)
+  {
+    super(prefix, namespace, builtInNames);
+    this.index = loadIndex();
+  }
+
+  /**
+   * @return the dispatch index of this library, or empty if it was built without one
+   */
+  @NonNull public Optional<@NonNull SWRLBuiltInIndex> getIndex()
+  {
+    return Optional.ofNullable(this.index);
+  }
+
+  /**
+   * @param builtInName the name of a built-in
+   * @return the number of arguments of the built-in, or -1 if it is variable; recorded in the generated index
+   */
+  public int getBuiltInArity(@NonNull String builtInName)
+  {
+    return -1;
+  }
+
+  @Override public boolean invokeBuiltInMethod(@NonNull Method method, @NonNull SWRLBuiltInBridge bridge,
+    @NonNull String ruleName, @NonNull String prefix, @NonNull String builtInMethodName, int builtInIndex,
+    boolean isInConsequent, @NonNull List<@NonNull SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    if (this.index == null || !DISPATCH_METHOD_NAME.equals(method.getName()))
+      return super.invokeBuiltInMethod(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex,
+        isInConsequent, arguments);
+
+    // the name travels with the arguments, so concurrent invocations share no state
+    return super.invokeBuiltInMethod(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex, isInConsequent,
+      new DispatchedArguments(builtInMethodName, arguments));
+  }
+
+  /**
+   * Invokes a built-in through the index. Called by
+   * {@link #invokeBuiltInMethod(Method, SWRLBuiltInBridge, String, String, String, int, boolean, List)}, which sets up
+   * the invocation context and passes the name of the built-in with the arguments; not a built-in itself.
+   *
+   * @param arguments the built-in arguments
+   * @return the result of the built-in
+   * @throws SWRLBuiltInException if the built-in fails
+   */
+  public final boolean dispatch(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    if (this.index == null || !(arguments instanceof DispatchedArguments))
+      throw new SWRLBuiltInLibraryException("no indexed built-in is being dispatched in library " + getPrefix());
+    DispatchedArguments dispatched = (DispatchedArguments)arguments;
+    return this.index.invoke(this, dispatched.builtInName, dispatched.arguments);
+  }
+
+  private SWRLBuiltInIndex loadIndex()
+  {
+    Optional<@NonNull SWRLBuiltInLibraryDescriptor> descriptor = SWRLBuiltInLibraryDescriptor
+      .read(getClass().getPackage().getName(), getPrefix(), getClass().getClassLoader());
+    if (!descriptor.isPresent() || !descriptor.get().getIndexClassName().isPresent()) {
+      log.warn("No built-in index generated for library " + getPrefix()
+        + "; its built-ins are invoked reflectively. The index is generated in the process-classes phase.");
+      return null;
+    }
+
+    String indexClassName = descriptor.get().getIndexClassName().get();
+    try {
+      return (SWRLBuiltInIndex)Class.forName(indexClassName, true, getClass().getClassLoader())
+        .getDeclaredConstructor().newInstance();
+    } catch (@NonNull ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException
+      | InvocationTargetException | ClassCastException e) {
+      throw new SWRLBuiltInLibraryException("error loading built-in index " + indexClassName + " of library "
+        + getPrefix() + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * The arguments of a built-in together with its name. Results bound by the built-in are written through to the
+   * arguments supplied by the rule engine.
+   */
+  private static final class DispatchedArguments extends AbstractList<SWRLBuiltInArgument>
+  {
+    private final String builtInName;
+    private final List<SWRLBuiltInArgument> arguments;
+
+    private DispatchedArguments(String builtInName, List<SWRLBuiltInArgument> arguments)
+    {
+      this.builtInName = builtInName;
+      this.arguments = arguments;
+    }
+
+    @Override public SWRLBuiltInArgument get(int index)
+    {
+      return this.arguments.get(index);
+    }
+
+    @Override public SWRLBuiltInArgument set(int index, SWRLBuiltInArgument argument)
+    {
+      return this.arguments.set(index, argument);
+    }
+
+    @Override public int size()
+    {
+      return this.arguments.size();
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package org.swrlapi.builtins;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Set;
+
+/**
+ * A built-in library that declares which of its built-ins are pure predicates: they have no side effects and never
+ * bind an argument, so their result depends on the argument values only. The {@link SWRLBuiltInLibraryManager}
+ * invokes such built-ins without generating argument patterns.
+ *
+ * @see org.swrlapi.builtins.SWRLBuiltInLibrary
+ */
+public interface PureSWRLBuiltInLibrary extends SWRLBuiltInLibrary
+{
+  /**
+   * @return the names (without prefix) of the pure built-ins of this library
+   */
+  @NonNull Set<@NonNull String> getPureBuiltInNames();
+
+  /**
+   * @return true if the result of the last built-in invoked by the current thread is degraded, e.g. approximated or
+   * given up on because it exceeded a budget, so it must not be memoized
+   */
+  default boolean isLastResultDegraded()
+  {
+    return false;
+  }
+}
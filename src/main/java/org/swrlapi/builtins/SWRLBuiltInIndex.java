@@ -0,0 +1,39 @@
+package org.swrlapi.builtins;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A dispatch index of a SWRL built-in library, generated at build time by {@link SWRLBuiltInIndexGenerator} from the
+ * library implementation. The signatures of the indexed built-ins are validated when the index is generated, and
+ * built-ins are invoked with direct calls instead of reflection.
+ *
+ * @see AbstractIndexedSWRLBuiltInLibrary
+ */
+public interface SWRLBuiltInIndex
+{
+  /**
+   * @return the names of the indexed built-ins
+   */
+  @NonNull Set<@NonNull String> getBuiltInNames();
+
+  /**
+   * @param builtInName the name of a built-in
+   * @return the number of arguments of the built-in, or -1 if it is variable or unknown
+   */
+  int getArity(@NonNull String builtInName);
+
+  /**
+   * @param library     the library the index was generated from
+   * @param builtInName the name of the built-in
+   * @param arguments   the built-in arguments
+   * @return the result of the built-in
+   * @throws SWRLBuiltInException if the built-in is not indexed or fails
+   */
+  boolean invoke(@NonNull SWRLBuiltInLibrary library, @NonNull String builtInName,
+    @NonNull List<@NonNull SWRLBuiltInArgument> arguments) throws SWRLBuiltInException;
+}
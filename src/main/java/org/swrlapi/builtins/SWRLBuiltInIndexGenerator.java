@@ -0,0 +1,198 @@
+package org.swrlapi.builtins;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.IncompatibleBuiltInMethodException;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.exceptions.SWRLBuiltInLibraryException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates the {@link SWRLBuiltInLibraryDescriptor} and, for libraries extending
+ * {@link AbstractIndexedSWRLBuiltInLibrary}, the {@link SWRLBuiltInIndex} of built-in libraries from their compiled
+ * implementation classes. The build runs it after compilation:
+ * <pre>
+ *   SWRLBuiltInIndexGenerator &lt;generated source directory&gt; &lt;class output directory&gt; &lt;prefix&gt;...
+ * </pre>
+ * The method of every built-in is checked as the {@link SWRLBuiltInLibraryManager} would check it at runtime, so a
+ * built-in without a valid method fails the build. The index of library <code>prefix</code> is written as the class
+ * <code>org.swrlapi.builtins.prefix.SWRLBuiltInLibraryImplIndex</code> and compiled in a second pass. The generated
+ * source directory is emptied first, so no index of an earlier build outlives a change to its library.
+ * <p>
+ * The generator instantiates each library to read its built-in names, arities and pure built-ins, which an
+ * annotation processor could not do before the library is compiled.
+ */
+public class SWRLBuiltInIndexGenerator
+{
+  private static final Logger log = LoggerFactory.getLogger(SWRLBuiltInIndexGenerator.class);
+
+  private static final String SWRLBuiltInLibraryPackageBaseName = "org.swrlapi.builtins";
+  private static final String SWRLBuiltInLibraryImplementationClassName = "SWRLBuiltInLibraryImpl";
+  private static final String IndexClassName = "SWRLBuiltInLibraryImplIndex";
+
+  public static void main(String[] args) throws IOException, SWRLBuiltInException
+  {
+    // runs inside the build, so failures are thrown rather than ending the JVM
+    if (args.length < 3)
+      throw new IllegalArgumentException(
+        "Usage: SWRLBuiltInIndexGenerator <generated source directory> <class output directory> <prefix>...");
+
+    Path sourceDirectory = Paths.get(args[0]);
+    Path classDirectory = Paths.get(args[1]);
+    delete(sourceDirectory);
+    for (String prefix : Arrays.copyOfRange(args, 2, args.length))
+      generate(prefix, sourceDirectory, classDirectory);
+  }
+
+  /**
+   * Generates the descriptor and index of a library.
+   *
+   * @param prefix          the prefix of the library
+   * @param sourceDirectory the directory to write the index source to
+   * @param classDirectory  the class output directory to write the descriptor to
+   * @throws IOException          if a file cannot be written
+   * @throws SWRLBuiltInException if the library cannot be loaded or a built-in has no valid method
+   */
+  public static void generate(@NonNull String prefix, @NonNull Path sourceDirectory, @NonNull Path classDirectory)
+    throws IOException, SWRLBuiltInException
+  {
+    String packageName = SWRLBuiltInLibraryPackageBaseName + "." + prefix;
+    SWRLBuiltInLibrary library = instantiate(packageName + "." + SWRLBuiltInLibraryImplementationClassName);
+    Set<@NonNull String> builtInNames = new TreeSet<>(library.getBuiltInNames());
+
+    for (String builtInName : builtInNames)
+      checkSWRLBuiltInMethod(prefix, library.getClass(), builtInName);
+
+    SWRLBuiltInLibraryDescriptor descriptor = SWRLBuiltInLibraryDescriptor.of(library);
+    if (library instanceof AbstractIndexedSWRLBuiltInLibrary) {
+      writeIndex(packageName, (AbstractIndexedSWRLBuiltInLibrary)library, builtInNames, sourceDirectory);
+      descriptor = new SWRLBuiltInLibraryDescriptor(descriptor.getPrefix(), descriptor.getNamespace(),
+        descriptor.getBuiltInNames(), descriptor.getPureBuiltInNames(), packageName + "." + IndexClassName);
+    }
+    descriptor.write(classDirectory, packageName);
+    log.info("Generated built-in index of library " + prefix + " with " + builtInNames.size() + " built-ins");
+  }
+
+  private static void delete(@NonNull Path directory) throws IOException
+  {
+    if (!Files.exists(directory))
+      return;
+    List<Path> paths;
+    try (Stream<Path> walk = Files.walk(directory)) {
+      paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    }
+    for (Path path : paths)
+      Files.delete(path);
+  }
+
+  @NonNull private static SWRLBuiltInLibrary instantiate(@NonNull String className) throws SWRLBuiltInLibraryException
+  {
+    try {
+      return (SWRLBuiltInLibrary)Class.forName(className).getDeclaredConstructor().newInstance();
+    } catch (@NonNull ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException
+      | InvocationTargetException | ClassCastException e) {
+      throw new SWRLBuiltInLibraryException("error loading built-in library " + className + ": " + e.getMessage());
+    }
+  }
+
+  private static void checkSWRLBuiltInMethod(@NonNull String prefix, @NonNull Class<?> cls,
+    @NonNull String builtInName) throws IncompatibleBuiltInMethodException
+  {
+    Method method;
+    try {
+      method = cls.getMethod(builtInName, List.class);
+    } catch (NoSuchMethodException e) {
+      throw new IncompatibleBuiltInMethodException("", prefix, builtInName,
+        "no public Java method " + builtInName + "(List) in " + cls.getName());
+    }
+
+    if (Modifier.isStatic(method.getModifiers()))
+      throw new IncompatibleBuiltInMethodException("", prefix, builtInName, "Java method must not be static");
+
+    if (method.getReturnType() != Boolean.TYPE)
+      throw new IncompatibleBuiltInMethodException("", prefix, builtInName, "Java method must return a boolean");
+
+    Class<?> exceptionTypes[] = method.getExceptionTypes();
+
+    if ((exceptionTypes.length != 1) || (exceptionTypes[0] != SWRLBuiltInException.class))
+      throw new IncompatibleBuiltInMethodException("", prefix, builtInName,
+        "Java method must throw a single exception of type BuiltInException");
+
+    Type parameterType = method.getGenericParameterTypes()[0];
+
+    if (!(parameterType instanceof ParameterizedType)
+      || ((ParameterizedType)parameterType).getActualTypeArguments().length != 1
+      || ((ParameterizedType)parameterType).getActualTypeArguments()[0] != SWRLBuiltInArgument.class)
+      throw new IncompatibleBuiltInMethodException("", prefix, builtInName,
+        "Java built-in method implementation must accept a single List of SWRLBuiltInArgument objects");
+  }
+
+  private static void writeIndex(@NonNull String packageName, @NonNull AbstractIndexedSWRLBuiltInLibrary library,
+    @NonNull Set<@NonNull String> builtInNames, @NonNull Path sourceDirectory) throws IOException
+  {
+    Path sourceFile = sourceDirectory.resolve(packageName.replace('.', '/')).resolve(IndexClassName + ".java");
+    Files.createDirectories(sourceFile.getParent());
+
+    try (Writer out = Files.newBufferedWriter(sourceFile, StandardCharsets.UTF_8)) {
+      out.write("package " + packageName + ";\n\n");
+      out.write("import org.swrlapi.builtins.SWRLBuiltInIndex;\n");
+      out.write("import org.swrlapi.builtins.SWRLBuiltInLibrary;\n");
+      out.write("import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;\n");
+      out.write("import org.swrlapi.exceptions.SWRLBuiltInException;\n\n");
+      out.write("import java.util.Arrays;\n");
+      out.write("import java.util.Collections;\n");
+      out.write("import java.util.HashSet;\n");
+      out.write("import java.util.List;\n");
+      out.write("import java.util.Set;\n\n");
+      out.write("/**\n * Dispatch index of the " + library.getPrefix() + " built-in library.\n"
+        + " * Generated by SWRLBuiltInIndexGenerator from " + SWRLBuiltInLibraryImplementationClassName
+        + "; do not edit.\n */\n");
+      out.write("public final class " + IndexClassName + " implements SWRLBuiltInIndex\n{\n");
+
+      out.write("  private static final Set<String> builtInNames = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(");
+      boolean first = true;
+      for (String builtInName : builtInNames) {
+        out.write((first ? "\n    " : ",\n    ") + "\"" + builtInName + "\"");
+        first = false;
+      }
+      out.write(")));\n\n");
+
+      out.write("  @Override public Set<String> getBuiltInNames()\n  {\n    return builtInNames;\n  }\n\n");
+
+      out.write("  @Override public int getArity(String builtInName)\n  {\n    switch (builtInName) {\n");
+      for (String builtInName : builtInNames)
+        out.write("    case \"" + builtInName + "\":\n      return " + library.getBuiltInArity(builtInName) + ";\n");
+      out.write("    default:\n      return -1;\n    }\n  }\n\n");
+
+      out.write("  @Override public boolean invoke(SWRLBuiltInLibrary library, String builtInName,\n"
+        + "    List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException\n  {\n");
+      out.write("    " + SWRLBuiltInLibraryImplementationClassName + " implementation = ("
+        + SWRLBuiltInLibraryImplementationClassName + ")library;\n");
+      out.write("    switch (builtInName) {\n");
+      for (String builtInName : builtInNames)
+        out.write("    case \"" + builtInName + "\":\n      return implementation." + builtInName + "(arguments);\n");
+      out.write("    default:\n      throw new SWRLBuiltInException(\"built-in \" + builtInName + \" is not indexed in library "
+        + library.getPrefix() + "\");\n    }\n  }\n}\n");
+    }
+  }
+}
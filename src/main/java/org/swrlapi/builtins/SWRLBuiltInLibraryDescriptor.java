@@ -0,0 +1,165 @@
+package org.swrlapi.builtins;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.swrlapi.exceptions.SWRLBuiltInLibraryException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The metadata of a SWRL built-in library: its prefix, namespace and built-in names. Libraries that ship a descriptor
+ * are registered by the {@link SWRLBuiltInLibraryManager} without loading their implementation class, which is only
+ * loaded and instantiated when one of their built-ins is first invoked.
+ * <p>
+ * A descriptor is a properties resource named <code>builtins.properties</code> in the package of the library
+ * implementation, e.g. <code>org/swrlapi/builtins/swrlgeo/builtins.properties</code>, with the keys
+ * <code>namespace</code>, <code>builtIns</code> and optionally <code>pureBuiltIns</code>, comma-separated built-in
+ * names, and <code>index</code>, the class name of the {@link SWRLBuiltInIndex} of the library. Descriptors are written
+ * at build time by the {@link SWRLBuiltInIndexGenerator}.
+ */
+public final class SWRLBuiltInLibraryDescriptor
+{
+  /** The name of the descriptor resource in the package of a library implementation. */
+  public static final String DESCRIPTOR_RESOURCE_NAME = "builtins.properties";
+
+  @NonNull private final String prefix;
+  @NonNull private final String namespace;
+  @NonNull private final Set<@NonNull String> builtInNames;
+  @NonNull private final Set<@NonNull String> pureBuiltInNames;
+  private final String indexClassName;
+
+  public SWRLBuiltInLibraryDescriptor(@NonNull String prefix, @NonNull String namespace,
+    @NonNull Set<@NonNull String> builtInNames, @NonNull Set<@NonNull String> pureBuiltInNames)
+  {
+    this(prefix, namespace, builtInNames, pureBuiltInNames, null);
+  }
+
+  public SWRLBuiltInLibraryDescriptor(@NonNull String prefix, @NonNull String namespace,
+    @NonNull Set<@NonNull String> builtInNames, @NonNull Set<@NonNull String> pureBuiltInNames,
+    String indexClassName)
+  {
+    this.prefix = prefix;
+    this.namespace = namespace;
+    this.builtInNames = Collections.unmodifiableSet(new HashSet<>(builtInNames));
+    this.pureBuiltInNames = Collections.unmodifiableSet(new HashSet<>(pureBuiltInNames));
+    this.indexClassName = indexClassName;
+  }
+
+  /**
+   * @param library an instantiated library
+   * @return the descriptor of the library
+   */
+  @NonNull public static SWRLBuiltInLibraryDescriptor of(@NonNull SWRLBuiltInLibrary library)
+  {
+    Set<@NonNull String> pureBuiltInNames = library instanceof PureSWRLBuiltInLibrary ?
+      ((PureSWRLBuiltInLibrary)library).getPureBuiltInNames() :
+      Collections.emptySet();
+    return new SWRLBuiltInLibraryDescriptor(library.getPrefix(), library.getNamespace(), library.getBuiltInNames(),
+      pureBuiltInNames);
+  }
+
+  /**
+   * Reads the descriptor of a library without loading its implementation class.
+   *
+   * @param packageName the package of the library implementation
+   * @param prefix      the prefix of the library
+   * @param classLoader the class loader of the library
+   * @return the descriptor, or empty if the library has none
+   * @throws SWRLBuiltInLibraryException if the descriptor cannot be read or lacks the namespace
+   */
+  @NonNull public static Optional<@NonNull SWRLBuiltInLibraryDescriptor> read(@NonNull String packageName,
+    @NonNull String prefix, @NonNull ClassLoader classLoader) throws SWRLBuiltInLibraryException
+  {
+    String resourceName = packageName.replace('.', '/') + "/" + DESCRIPTOR_RESOURCE_NAME;
+    Properties properties = new Properties();
+    try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+      if (in == null)
+        return Optional.empty();
+      properties.load(in);
+    } catch (IOException e) {
+      throw new SWRLBuiltInLibraryException("error reading built-in library descriptor " + resourceName + ": "
+        + e.getMessage());
+    }
+    String namespace = properties.getProperty("namespace");
+    if (namespace == null)
+      throw new SWRLBuiltInLibraryException("built-in library descriptor " + resourceName + " has no namespace");
+
+    return Optional.of(new SWRLBuiltInLibraryDescriptor(prefix, namespace, split(properties.getProperty("builtIns")),
+      split(properties.getProperty("pureBuiltIns")), properties.getProperty("index")));
+  }
+
+  /**
+   * Writes this descriptor to the package directory of a library under a class output directory.
+   *
+   * @param outputDirectory the class output directory
+   * @param packageName     the package of the library implementation
+   * @throws IOException if the descriptor cannot be written
+   */
+  public void write(@NonNull Path outputDirectory, @NonNull String packageName) throws IOException
+  {
+    Properties properties = new Properties();
+    properties.setProperty("namespace", this.namespace);
+    properties.setProperty("builtIns", join(this.builtInNames));
+    properties.setProperty("pureBuiltIns", join(this.pureBuiltInNames));
+    if (this.indexClassName != null)
+      properties.setProperty("index", this.indexClassName);
+
+    Path descriptorFile = outputDirectory.resolve(packageName.replace('.', '/')).resolve(DESCRIPTOR_RESOURCE_NAME);
+    Files.createDirectories(descriptorFile.getParent());
+    try (OutputStream out = Files.newOutputStream(descriptorFile)) {
+      properties.store(out, "Built-in library " + this.prefix + "; generated by SWRLBuiltInIndexGenerator");
+    }
+  }
+
+  @NonNull public String getPrefix()
+  {
+    return this.prefix;
+  }
+
+  @NonNull public String getNamespace()
+  {
+    return this.namespace;
+  }
+
+  @NonNull public Set<@NonNull String> getBuiltInNames()
+  {
+    return this.builtInNames;
+  }
+
+  @NonNull public Set<@NonNull String> getPureBuiltInNames()
+  {
+    return this.pureBuiltInNames;
+  }
+
+  /**
+   * @return the class name of the dispatch index of the library, or empty if it has none
+   */
+  @NonNull public Optional<@NonNull String> getIndexClassName()
+  {
+    return Optional.ofNullable(this.indexClassName);
+  }
+
+  @NonNull private static String join(@NonNull Set<@NonNull String> names)
+  {
+    return String.join(",", new TreeSet<>(names));
+  }
+
+  @NonNull private static Set<@NonNull String> split(String names)
+  {
+    Set<@NonNull String> values = new HashSet<>();
+    if (names != null)
+      for (String name : names.split(","))
+        if (!name.trim().isEmpty())
+          values.add(name.trim());
+    return values;
+  }
+}
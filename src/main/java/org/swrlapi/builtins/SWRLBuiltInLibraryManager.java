@@ -8,6 +8,7 @@ import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
 import org.swrlapi.builtins.arguments.SWRLMultiValueVariableBuiltInArgument;
 import org.swrlapi.exceptions.IncompatibleBuiltInMethodException;
 import org.swrlapi.exceptions.IncompatibleSWRLBuiltInClassException;
+import org.swrlapi.exceptions.InvalidSWRLBuiltInArgumentNumberException;
 import org.swrlapi.exceptions.SWRLBuiltInException;
 import org.swrlapi.exceptions.SWRLBuiltInLibraryException;
 import org.swrlapi.exceptions.UnresolvedSWRLBuiltInClassException;
@@ -45,77 +46,153 @@ public class SWRLBuiltInLibraryManager
 
   private static final String SWRLBuiltInLibraryPackageBaseName = "org.swrlapi.builtins";
   private static final String SWRLBuiltInLibraryImplementationClassName = "SWRLBuiltInLibraryImpl";
-  private static final String preCannedSWRLBuiltInLibraryPrefixNames[] = { "swrlb","swrlgeo", "sqwrl", "swrlx", "swrlm", "abox",
-    "tbox", "rbox", "temporal" };
+  private static final String preCannedSWRLBuiltInLibraryPrefixNames[] = { "swrlb","swrlgeo", "swrlgeotime", "swrlgeoraster",
+    "sqwrl", "swrlx", "swrlm", "abox", "tbox", "rbox", "temporal" };
   private static final Set<String> preCannedSWRLBuiltInLibraryPrefixes = new HashSet<>(
     Arrays.asList(preCannedSWRLBuiltInLibraryPrefixNames));
 
+  /**
+   * Comma-separated prefixes of built-in libraries whose results are memoized within a reasoning session. Only
+   * libraries whose built-ins are free of side effects may be listed. Defaults to swrlgeo and swrlgeotime; an empty
+   * value disables memoization.
+   */
+  public static final String MEMOIZED_LIBRARY_PREFIXES_PROPERTY = "swrlapi.memoizedBuiltInLibraries";
+
   @NonNull private Map<@NonNull IRI, @NonNull String> swrlBuiltInIRI2PrefixedName = new HashMap<>();
   @NonNull private Map<@NonNull String, @NonNull IRI> swrlBuiltInPrefixedName2IRI = new HashMap<>();
 
   // Map of built-in library prefix name to SWRLBuiltInLibrary instance
   @NonNull private final Map<@NonNull String, @NonNull SWRLBuiltInLibrary> swrlBuiltInLibraryImplementations;
 
+  // Map of built-in library prefix name to the registration of a library whose implementation is not yet instantiated
+  @NonNull private final Map<@NonNull String, @NonNull SWRLBuiltInLibraryRegistration> deferredSWRLBuiltInLibraries;
+
   // Map of prefix:methodName to method implementation
   @NonNull private final Map<@NonNull String, @NonNull Method> swrlBuiltInMethods;
 
+  // Prefixes of libraries whose results are memoized
+  @NonNull private final Set<@NonNull String> memoizedLibraryPrefixes;
+
+  // Prefixed names of built-ins declared pure by their library
+  @NonNull private final Set<@NonNull String> pureSWRLBuiltIns;
+
+  // Map of prefixed built-in name to the tree of its results in the current reasoning session, keyed by argument
+  @NonNull private final Map<@NonNull String, @NonNull MemoizedResult> sessionResults;
+
+  private long builtInInvocations;
+  private long memoizedInvocations;
+
   public SWRLBuiltInLibraryManager()
   {
     this.swrlBuiltInLibraryImplementations = new HashMap<>();
+    this.deferredSWRLBuiltInLibraries = new HashMap<>();
     this.swrlBuiltInMethods = new HashMap<>();
+    this.memoizedLibraryPrefixes = new HashSet<>();
+    this.pureSWRLBuiltIns = new HashSet<>();
+    this.sessionResults = new HashMap<>();
+
+    for (String prefix : System.getProperty(MEMOIZED_LIBRARY_PREFIXES_PROPERTY, "swrlgeo,swrlgeotime").split(","))
+      if (!prefix.trim().isEmpty())
+        this.memoizedLibraryPrefixes.add(prefix.trim());
 
+    long start = System.nanoTime();
     loadInternalSWRLBuiltInLibraries(preCannedSWRLBuiltInLibraryPrefixes);
+    log.debug("Registered " + this.swrlBuiltInIRI2PrefixedName.size() + " built-ins of "
+      + preCannedSWRLBuiltInLibraryPrefixes.size() + " libraries in " + (System.nanoTime() - start) / 1000000 + " ms, "
+      + this.deferredSWRLBuiltInLibraries.size() + " of them deferred");
   }
 
+  /**
+   * Loads the external built-in libraries in the sub-directories of a directory. Each sub-directory holds the classes
+   * of the library whose prefix is the name of the sub-directory. The sub-directories are processed in parallel;
+   * libraries with a {@link SWRLBuiltInLibraryDescriptor} are registered without loading their implementation class.
+   *
+   * @param swrlBuiltInLibraryDirectory the directory
+   */
   public void loadExternalSWRLBuiltInLibraries(@NonNull File swrlBuiltInLibraryDirectory)
   {
     if (swrlBuiltInLibraryDirectory.exists() && swrlBuiltInLibraryDirectory.isDirectory()) {
-      File[] swrlBuiltInLibrarySubDirectories = swrlBuiltInLibraryDirectory.listFiles();
-      for (int builtInLibraryIndex = 0;
-           builtInLibraryIndex < swrlBuiltInLibrarySubDirectories.length; builtInLibraryIndex++) {
-        if (swrlBuiltInLibrarySubDirectories[builtInLibraryIndex].isDirectory()) {
-          File swrlBuiltInLibrarySubDirectory = swrlBuiltInLibrarySubDirectories[builtInLibraryIndex];
-          String swrlBuiltInLibrarySubDirectoryName = swrlBuiltInLibrarySubDirectory.getName();
-          try {
-            URL swrlBuiltInLibrarySubDirectoryURL = new URL(
-              "file:" + swrlBuiltInLibrarySubDirectory.getCanonicalPath());
-            URLClassLoader classLoader = new URLClassLoader(new URL[] { swrlBuiltInLibrarySubDirectoryURL },
-              this.getClass().getClassLoader());
-            SWRLBuiltInLibrary swrlBuiltInLibrary = instantiateSWRLBuiltInLibraryImplementation(
-              swrlBuiltInLibrarySubDirectoryName);
-            String swrlBuiltInLibraryPrefix = swrlBuiltInLibrary.getPrefix();
-            if (preCannedSWRLBuiltInLibraryPrefixes.contains(swrlBuiltInLibraryPrefix)) {
-              log.warn("External built-in library prefix " + swrlBuiltInLibraryPrefix
-                + " collides with in-built library prefix");
-            } else if (swrlBuiltInLibraryPrefix.equals(swrlBuiltInLibrarySubDirectoryName)) {
-              log.info("Loading external SWRL built-in library " + swrlBuiltInLibraryPrefix);
-              registerSWRLBuiltIns(swrlBuiltInLibraryPrefix, swrlBuiltInLibrary.getNamespace(),
-                swrlBuiltInLibrary.getBuiltInNames());
-              this.swrlBuiltInLibraryImplementations.put(swrlBuiltInLibraryPrefix, swrlBuiltInLibrary);
-            } else
-              log.warn("Invalid sub-directory name " + swrlBuiltInLibrarySubDirectoryName
-                + " for SWRL built-in library with prefix " + swrlBuiltInLibraryPrefix
-                + " - sub-directory and prefix should match!");
-          } catch (IOException e) {
-            log.warn(
-              "Internal error processing SWRL built-in directory " + swrlBuiltInLibraryDirectory.getAbsolutePath());
-          }
-        } else
-          log.warn("SWRL built-in directory " + swrlBuiltInLibraryDirectory.getAbsolutePath()
-            + " does not exist or is not a directory!");
+      List<@NonNull SWRLBuiltInLibraryRegistration> registrations = Arrays
+        .stream(swrlBuiltInLibraryDirectory.listFiles()).parallel().filter(File::isDirectory)
+        .map(this::loadExternalSWRLBuiltInLibrary).filter(Optional::isPresent).map(Optional::get)
+        .collect(Collectors.toList());
+
+      for (SWRLBuiltInLibraryRegistration registration : registrations) {
+        String swrlBuiltInLibraryPrefix = registration.descriptor.getPrefix();
+        if (preCannedSWRLBuiltInLibraryPrefixes.contains(swrlBuiltInLibraryPrefix)) {
+          log.warn("External built-in library prefix " + swrlBuiltInLibraryPrefix
+            + " collides with in-built library prefix");
+        } else {
+          log.info("Loading external SWRL built-in library " + swrlBuiltInLibraryPrefix);
+          register(registration);
+        }
       }
+    } else
+      log.warn("SWRL built-in directory " + swrlBuiltInLibraryDirectory.getAbsolutePath()
+        + " does not exist or is not a directory!");
+  }
+
+  @NonNull private Optional<@NonNull SWRLBuiltInLibraryRegistration> loadExternalSWRLBuiltInLibrary(
+    @NonNull File swrlBuiltInLibrarySubDirectory)
+  {
+    String swrlBuiltInLibrarySubDirectoryName = swrlBuiltInLibrarySubDirectory.getName();
+    try {
+      URL swrlBuiltInLibrarySubDirectoryURL = swrlBuiltInLibrarySubDirectory.getCanonicalFile().toURI().toURL();
+      URLClassLoader classLoader = new URLClassLoader(new URL[] { swrlBuiltInLibrarySubDirectoryURL },
+        this.getClass().getClassLoader());
+      SWRLBuiltInLibraryRegistration registration = loadSWRLBuiltInLibrary(swrlBuiltInLibrarySubDirectoryName,
+        classLoader);
+      String swrlBuiltInLibraryPrefix = registration.descriptor.getPrefix();
+      if (swrlBuiltInLibraryPrefix.equals(swrlBuiltInLibrarySubDirectoryName))
+        return Optional.of(registration);
+      else
+        log.warn("Invalid sub-directory name " + swrlBuiltInLibrarySubDirectoryName
+          + " for SWRL built-in library with prefix " + swrlBuiltInLibraryPrefix
+          + " - sub-directory and prefix should match!");
+    } catch (IOException e) {
+      log.warn("Internal error processing SWRL built-in directory " + swrlBuiltInLibrarySubDirectory.getAbsolutePath());
     }
+    return Optional.empty();
   }
 
   private void loadInternalSWRLBuiltInLibraries(Set<@NonNull String> swrlBuiltInLibraryPrefixes)
   {
-    for (String swrlBuiltInLibraryPrefix : swrlBuiltInLibraryPrefixes) {
-      SWRLBuiltInLibrary swrlBuiltInLibrary = instantiateSWRLBuiltInLibraryImplementation(swrlBuiltInLibraryPrefix);
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    List<@NonNull SWRLBuiltInLibraryRegistration> registrations = swrlBuiltInLibraryPrefixes.parallelStream()
+      .map(swrlBuiltInLibraryPrefix -> loadSWRLBuiltInLibrary(swrlBuiltInLibraryPrefix, classLoader))
+      .collect(Collectors.toList());
 
-      registerSWRLBuiltIns(swrlBuiltInLibrary.getPrefix(), swrlBuiltInLibrary.getNamespace(),
-        swrlBuiltInLibrary.getBuiltInNames());
-      this.swrlBuiltInLibraryImplementations.put(swrlBuiltInLibraryPrefix, swrlBuiltInLibrary);
-    }
+    registrations.forEach(this::register);
+  }
+
+  /**
+   * Reads the descriptor of a library, or loads and instantiates the library if it has none. Safe to call from
+   * several threads.
+   */
+  @NonNull private SWRLBuiltInLibraryRegistration loadSWRLBuiltInLibrary(@NonNull String swrlBuiltInLibraryPrefix,
+    @NonNull ClassLoader classLoader) throws SWRLBuiltInLibraryException
+  {
+    Optional<@NonNull SWRLBuiltInLibraryDescriptor> descriptor = SWRLBuiltInLibraryDescriptor
+      .read(SWRLBuiltInLibraryPackageBaseName + "." + swrlBuiltInLibraryPrefix, swrlBuiltInLibraryPrefix,
+        classLoader);
+    if (descriptor.isPresent())
+      return new SWRLBuiltInLibraryRegistration(descriptor.get(), null, classLoader);
+
+    SWRLBuiltInLibrary swrlBuiltInLibrary = instantiateSWRLBuiltInLibraryImplementation(swrlBuiltInLibraryPrefix,
+      classLoader);
+    return new SWRLBuiltInLibraryRegistration(SWRLBuiltInLibraryDescriptor.of(swrlBuiltInLibrary), swrlBuiltInLibrary,
+      classLoader);
+  }
+
+  private void register(@NonNull SWRLBuiltInLibraryRegistration registration)
+  {
+    SWRLBuiltInLibraryDescriptor descriptor = registration.descriptor;
+    registerSWRLBuiltIns(descriptor.getPrefix(), descriptor.getNamespace(), descriptor.getBuiltInNames());
+    registerPureSWRLBuiltIns(descriptor);
+    if (registration.library != null)
+      this.swrlBuiltInLibraryImplementations.put(descriptor.getPrefix(), registration.library);
+    else
+      this.deferredSWRLBuiltInLibraries.put(descriptor.getPrefix(), registration);
   }
 
   public boolean isSWRLBuiltInIRI(@NonNull IRI iri)
@@ -159,6 +236,15 @@ public class SWRLBuiltInLibraryManager
    * combination of arguments that evaluates to true.
    * <p>
    * If the built-in evaluates to false, it will return an empty argument pattern list.
+   * <p>
+   * Built-ins of the libraries listed in {@link #MEMOIZED_LIBRARY_PREFIXES_PROPERTY} whose arguments are all bound are
+   * evaluated at most once per argument tuple in a reasoning session, so rule chains that fire repeatedly on the same
+   * bindings do not repeat expensive evaluations. Results a {@link PureSWRLBuiltInLibrary} reports as degraded are
+   * not memoized, so the built-in is evaluated again on the next invocation.
+   * <p>
+   * This memo is separate from result caches a library may keep itself, such as the swrlgeo predicate result cache of
+   * delta evaluation. The memo is consulted first and forgotten at the end of the session; on a miss the library is
+   * invoked and may answer from its own cache, which outlives the session.
    *
    * @param bridge                    The built-in bridge
    * @param ruleName                  The name of the invoking rule
@@ -177,17 +263,40 @@ public class SWRLBuiltInLibraryManager
     String builtInMethodName = getBuiltInMethodNameFromPrefixedName(builtInMethodPrefixedName);
     SWRLBuiltInLibrary swrlBuiltInLibrary = getSWRLBuiltInLibraryImplementation(prefix);
     Method method = resolveSWRLBuiltInMethod(ruleName, swrlBuiltInLibrary, prefix, builtInMethodName);
+    checkSWRLBuiltInArity(swrlBuiltInLibrary, builtInMethodName, arguments);
+    boolean isPure = this.pureSWRLBuiltIns.contains(builtInMethodPrefixedName);
+    boolean isMemoized =
+      this.memoizedLibraryPrefixes.contains(prefix) && !isInConsequent && !hasVariableArguments(arguments);
+
+    this.builtInInvocations++;
+    Boolean memoizedResult = isMemoized ? getSessionResult(builtInMethodPrefixedName, arguments) : null;
+    boolean result;
+    if (memoizedResult != null) {
+      this.memoizedInvocations++;
+      result = memoizedResult;
+    } else {
+      result = swrlBuiltInLibrary
+        .invokeBuiltInMethod(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex, isInConsequent,
+          arguments);
+
+      if (isMemoized && !(swrlBuiltInLibrary instanceof PureSWRLBuiltInLibrary
+        && ((PureSWRLBuiltInLibrary)swrlBuiltInLibrary).isLastResultDegraded()))
+        putSessionResult(builtInMethodPrefixedName, arguments, result);
+    }
+
     List<@NonNull List<@NonNull SWRLBuiltInArgument>> argumentPatterns = new ArrayList<>();
 
-    if (swrlBuiltInLibrary
-      .invokeBuiltInMethod(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex, isInConsequent,
-        arguments)) {
+    if (result) {
 
       if (hasUnboundArguments(arguments)) // Make sure the built-in has bound all of its arguments.
         throw new SWRLBuiltInException(
           "built-in " + builtInMethodPrefixedName + "(index " + builtInIndex + ") in rule " + ruleName
             + " returned with unbound arguments");
 
+      // Pure built-ins bind nothing, so their only pattern is the arguments themselves
+      if (isPure)
+        return Collections.singletonList(arguments);
+
       processBoundArguments(arguments);
 
       argumentPatterns.addAll(
@@ -216,7 +325,15 @@ public class SWRLBuiltInLibraryManager
   {
     if (this.swrlBuiltInLibraryImplementations.containsKey(prefix)) // Find the cached implementation
       return this.swrlBuiltInLibraryImplementations.get(prefix);
-    else
+    else if (this.deferredSWRLBuiltInLibraries.containsKey(prefix)) { // Instantiate a library registered from metadata
+      SWRLBuiltInLibraryRegistration registration = this.deferredSWRLBuiltInLibraries.remove(prefix);
+      SWRLBuiltInLibrary swrlBuiltInLibrary = instantiateSWRLBuiltInLibraryImplementation(prefix,
+        registration.classLoader);
+      if (!swrlBuiltInLibrary.getBuiltInNames().equals(registration.descriptor.getBuiltInNames()))
+        log.warn("Built-ins of SWRL built-in library " + prefix + " do not match its descriptor");
+      this.swrlBuiltInLibraryImplementations.put(prefix, swrlBuiltInLibrary);
+      return swrlBuiltInLibrary;
+    } else
       throw new SWRLBuiltInLibraryException("could not find built-in library for prefix " + prefix);
   }
 
@@ -235,10 +352,65 @@ public class SWRLBuiltInLibraryManager
 
   public void invokeAllBuiltInLibrariesResetMethod(@NonNull SWRLBuiltInBridge bridge) throws SWRLBuiltInLibraryException
   {
+    endSession();
     for (SWRLBuiltInLibrary library : this.swrlBuiltInLibraryImplementations.values())
       invokeBuiltInLibraryResetMethod(bridge, library);
   }
 
+  /**
+   * Ends the current reasoning session: logs how many built-in invocations were answered from memoized results and
+   * forgets those results, so the next session sees changes to the ontology.
+   */
+  public void endSession()
+  {
+    if (this.memoizedInvocations > 0)
+      log.info("Avoided " + this.memoizedInvocations + " redundant of " + this.builtInInvocations
+        + " built-in invocations");
+    this.sessionResults.clear();
+    this.builtInInvocations = 0;
+    this.memoizedInvocations = 0;
+  }
+
+  // Walks the result tree of the built-in along the argument values; allocates nothing
+  private Boolean getSessionResult(@NonNull String builtInPrefixedName,
+    @NonNull List<@NonNull SWRLBuiltInArgument> arguments)
+  {
+    MemoizedResult node = this.sessionResults.get(builtInPrefixedName);
+    for (int argumentIndex = 0; node != null && argumentIndex < arguments.size(); argumentIndex++)
+      node = node.children == null ? null : node.children.get(arguments.get(argumentIndex));
+
+    return node == null ? null : node.result;
+  }
+
+  private void putSessionResult(@NonNull String builtInPrefixedName,
+    @NonNull List<@NonNull SWRLBuiltInArgument> arguments, boolean result)
+  {
+    MemoizedResult node = this.sessionResults.computeIfAbsent(builtInPrefixedName, name -> new MemoizedResult());
+    for (SWRLBuiltInArgument argument : arguments) {
+      if (node.children == null)
+        node.children = new HashMap<>();
+      node = node.children.computeIfAbsent(argument, value -> new MemoizedResult());
+    }
+    node.result = result;
+  }
+
+  /**
+   * @return the number of built-in invocations in the current reasoning session
+   */
+  public long getBuiltInInvocationCount()
+  {
+    return this.builtInInvocations;
+  }
+
+  /**
+   * @return the number of built-in invocations in the current reasoning session that were answered from memoized
+   * results instead of being evaluated again
+   */
+  public long getMemoizedInvocationCount()
+  {
+    return this.memoizedInvocations;
+  }
+
   /**
    * This method is called with a list of built-in arguments. Some argument positions may contain multi-arguments,
    * indicating that there is more than one pattern. If the result has more than one multi-argument, each multi-argument
@@ -322,6 +494,10 @@ public class SWRLBuiltInLibraryManager
     return result;
   }
 
+  /**
+   * Built-ins of a library with a generated {@link SWRLBuiltInIndex} all resolve to its dispatch method, whose
+   * signature is fixed, so only the built-ins of libraries without an index are looked up and checked reflectively.
+   */
   @NonNull private Method resolveSWRLBuiltInMethod(@NonNull String ruleName, @NonNull SWRLBuiltInLibrary library,
     @NonNull String prefix, @NonNull String builtInMethodName) throws UnresolvedSWRLBuiltInMethodException
   {
@@ -331,13 +507,25 @@ public class SWRLBuiltInLibraryManager
       return swrlBuiltInMethods.get(key);
     else {
       try {
-        Method method = library.getClass().getMethod(builtInMethodName, List.class);
+        Optional<@NonNull SWRLBuiltInIndex> index = getSWRLBuiltInIndex(library);
+        Method method;
+
+        if (index.isPresent()) {
+          if (!index.get().getBuiltInNames().contains(builtInMethodName))
+            throw new UnresolvedSWRLBuiltInMethodException(ruleName, prefix, builtInMethodName,
+              "built-in is not in the index of library " + prefix, null);
+          method = library.getClass().getMethod(AbstractIndexedSWRLBuiltInLibrary.DISPATCH_METHOD_NAME, List.class);
+        } else {
+          method = library.getClass().getMethod(builtInMethodName, List.class);
 
-        checkSWRLBuiltInMethodSignature(ruleName, prefix, builtInMethodName, method); // Check signature of method
+          checkSWRLBuiltInMethodSignature(ruleName, prefix, builtInMethodName, method); // Check signature of method
+        }
 
         swrlBuiltInMethods.put(key, method);
 
         return method;
+      } catch (UnresolvedSWRLBuiltInMethodException e) {
+        throw e;
       } catch (Exception e) {
         throw new UnresolvedSWRLBuiltInMethodException(ruleName, prefix, builtInMethodName,
           e.getMessage() != null ? e.getMessage() : "", e);
@@ -345,8 +533,27 @@ public class SWRLBuiltInLibraryManager
     }
   }
 
+  @NonNull private Optional<@NonNull SWRLBuiltInIndex> getSWRLBuiltInIndex(@NonNull SWRLBuiltInLibrary library)
+  {
+    return library instanceof AbstractIndexedSWRLBuiltInLibrary ?
+      ((AbstractIndexedSWRLBuiltInLibrary)library).getIndex() :
+      Optional.empty();
+  }
+
+  // Indexed built-ins have a known arity, so a wrong number of arguments is reported before the built-in runs
+  private void checkSWRLBuiltInArity(@NonNull SWRLBuiltInLibrary library, @NonNull String builtInMethodName,
+    @NonNull List<@NonNull SWRLBuiltInArgument> arguments) throws InvalidSWRLBuiltInArgumentNumberException
+  {
+    Optional<@NonNull SWRLBuiltInIndex> index = getSWRLBuiltInIndex(library);
+    if (index.isPresent()) {
+      int arity = index.get().getArity(builtInMethodName);
+      if (arity >= 0 && arguments.size() != arity)
+        throw new InvalidSWRLBuiltInArgumentNumberException(arity, arguments.size());
+    }
+  }
+
   @NonNull private SWRLBuiltInLibrary instantiateSWRLBuiltInLibraryImplementation(
-    @NonNull String swrlBuiltInLibraryPrefix) throws SWRLBuiltInLibraryException
+    @NonNull String swrlBuiltInLibraryPrefix, @NonNull ClassLoader classLoader) throws SWRLBuiltInLibraryException
   {
     Class<?> swrlBuiltInLibraryImplementationClass;
     String swrlBuiltInLibraryImplementationClassName =
@@ -354,7 +561,7 @@ public class SWRLBuiltInLibraryManager
         + SWRLBuiltInLibraryImplementationClassName;
 
     try {
-      swrlBuiltInLibraryImplementationClass = Class.forName(swrlBuiltInLibraryImplementationClassName);
+      swrlBuiltInLibraryImplementationClass = Class.forName(swrlBuiltInLibraryImplementationClassName, true, classLoader);
     } catch (Exception e) {
       throw new UnresolvedSWRLBuiltInClassException(swrlBuiltInLibraryImplementationClassName,
         e.getMessage() != null ? e.getMessage() : "", e);
@@ -411,6 +618,16 @@ public class SWRLBuiltInLibraryManager
     return false;
   }
 
+  // Variable arguments are unbound, or bound to results of other built-ins, so their values are not part of the key
+  private boolean hasVariableArguments(@NonNull List<@NonNull SWRLBuiltInArgument> arguments)
+  {
+    for (SWRLBuiltInArgument argument : arguments)
+      if (argument.isVariable())
+        return true;
+
+    return false;
+  }
+
   @NonNull private Optional<String> extractSWRLBuiltInLibraryPrefixFromClassName(
     @NonNull String swrlBuiltInLibraryImplementationClassName)
   {
@@ -432,6 +649,12 @@ public class SWRLBuiltInLibraryManager
     }
   }
 
+  private void registerPureSWRLBuiltIns(@NonNull SWRLBuiltInLibraryDescriptor descriptor)
+  {
+    for (String builtInName : descriptor.getPureBuiltInNames())
+      this.pureSWRLBuiltIns.add(descriptor.getPrefix() + ":" + builtInName);
+  }
+
   private void registerSWRLBuiltIns(@NonNull String swrlBuiltInLibraryPrefix,
     @NonNull String swrlBuiltInLibraryNamespace, @NonNull Set<@NonNull String> builtInNames)
   {
@@ -504,4 +727,28 @@ public class SWRLBuiltInLibraryManager
 
     return true;
   }
+
+  // A library found at load time: its metadata, and its implementation unless instantiation is deferred to first use
+  private static final class SWRLBuiltInLibraryRegistration
+  {
+    @NonNull private final SWRLBuiltInLibraryDescriptor descriptor;
+    private final SWRLBuiltInLibrary library;
+    @NonNull private final ClassLoader classLoader;
+
+    SWRLBuiltInLibraryRegistration(@NonNull SWRLBuiltInLibraryDescriptor descriptor, SWRLBuiltInLibrary library,
+      @NonNull ClassLoader classLoader)
+    {
+      this.descriptor = descriptor;
+      this.library = library;
+      this.classLoader = classLoader;
+    }
+  }
+
+  // A node of the result tree of a built-in: the result for the argument values on the path to it, if any, and the
+  // nodes for the values of the next argument
+  private static final class MemoizedResult
+  {
+    private Boolean result;
+    private Map<@NonNull SWRLBuiltInArgument, @NonNull MemoizedResult> children;
+  }
 }
@@ -0,0 +1,219 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A thread-safe cache holding at most a fixed number of entries, evicting the least recently used entry first.
+ * <p>
+ * Keys may carry tags, e.g. the geometry literals an entry was computed from. The cache then keeps the keys of every
+ * tag, so {@link #removeTagged} drops the entries of a changed literal without scanning the whole cache.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V>
+{
+  private final int maximumSize;
+  private final Function<? super K, ? extends Collection<?>> tagsOfKey;
+  private final Map<Object, Set<K>> keysByTag;
+  // in insertion order; a hit re-inserts its entry, so the eldest entry is the least recently used one
+  private final LinkedHashMap<K, V> entries;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructor for this class.
+   * @param maximumSize the maximum number of entries held
+   */
+  public BoundedCache(int maximumSize)
+  {
+    this(maximumSize, null);
+  }
+
+  /**
+   * Constructor for this class.
+   * @param maximumSize the maximum number of entries held
+   * @param tagsOfKey the tags of a key, or null if keys have no tags
+   */
+  public BoundedCache(int maximumSize, Function<? super K, ? extends Collection<?>> tagsOfKey)
+  {
+    this.maximumSize = maximumSize;
+    this.tagsOfKey = tagsOfKey;
+    this.keysByTag = tagsOfKey == null ? Collections.<Object, Set<K>>emptyMap() : new HashMap<>();
+    this.entries = new LinkedHashMap<K, V>()
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+      {
+        if (size() <= BoundedCache.this.maximumSize)
+          return false;
+        untag(eldest.getKey());
+        return true;
+      }
+    };
+  }
+
+  /**
+   * @return the maximum number of entries held
+   */
+  public int getMaximumSize()
+  {
+    return this.maximumSize;
+  }
+
+  /**
+   * @param key the key
+   * @return the cached value, or null if there is none
+   */
+  public synchronized V get(K key)
+  {
+    V value = this.entries.remove(key);
+    if (value == null)
+      this.misses++;
+    else {
+      this.hits++;
+      this.entries.put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * @param key the key
+   * @return the cached value, or null if there is none; unlike {@link #get} this neither counts as a lookup nor
+   * changes the eviction order
+   */
+  public synchronized V peek(K key)
+  {
+    return this.entries.get(key);
+  }
+
+  /**
+   * @param key the key
+   * @param value the value to cache
+   */
+  public synchronized void put(K key, V value)
+  {
+    // a replaced entry moves to the most recently used end, as it did when the map was access-ordered
+    if (this.entries.remove(key) == null)
+      tag(key);
+    this.entries.put(key, value);
+  }
+
+  /**
+   * @param key the key of the entry to remove
+   */
+  public synchronized void remove(K key)
+  {
+    if (this.entries.remove(key) != null)
+      untag(key);
+  }
+
+  /**
+   * @param key the key
+   * @return true if a value is cached for the key; unlike {@link #get} this neither counts as a lookup nor changes
+   * the eviction order
+   */
+  public synchronized boolean containsKey(K key)
+  {
+    return this.entries.containsKey(key);
+  }
+
+  /**
+   * Removes all entries whose key matches a condition, scanning all entries.
+   * @param condition the condition
+   * @return the number of entries removed
+   */
+  public synchronized int removeIf(Predicate<? super K> condition)
+  {
+    int removed = 0;
+    for (Iterator<K> keys = this.entries.keySet().iterator(); keys.hasNext(); ) {
+      K key = keys.next();
+      if (condition.test(key)) {
+        keys.remove();
+        untag(key);
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Removes all entries whose key carries a tag, visiting only those entries.
+   * @param tag the tag
+   * @return the number of entries removed
+   */
+  public synchronized int removeTagged(Object tag)
+  {
+    Set<K> keys = this.keysByTag.get(tag);
+    if (keys == null)
+      return 0;
+    int removed = 0;
+    for (K key : new ArrayList<>(keys)) {
+      this.entries.remove(key);
+      untag(key);
+      removed++;
+    }
+    return removed;
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public synchronized void clear()
+  {
+    this.entries.clear();
+    this.keysByTag.clear();
+  }
+
+  /**
+   * @return the number of cached entries
+   */
+  public synchronized int size()
+  {
+    return this.entries.size();
+  }
+
+  /**
+   * @return the number of lookups that found a value
+   */
+  public synchronized long getHits()
+  {
+    return this.hits;
+  }
+
+  /**
+   * @return the number of lookups that found no value
+   */
+  public synchronized long getMisses()
+  {
+    return this.misses;
+  }
+
+  private void tag(K key)
+  {
+    if (this.tagsOfKey != null)
+      for (Object tag : this.tagsOfKey.apply(key))
+        this.keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+  }
+
+  private void untag(K key)
+  {
+    if (this.tagsOfKey != null)
+      for (Object tag : this.tagsOfKey.apply(key)) {
+        Set<K> keys = this.keysByTag.get(tag);
+        if (keys != null && keys.remove(key) && keys.isEmpty())
+          this.keysByTag.remove(tag);
+      }
+  }
+}
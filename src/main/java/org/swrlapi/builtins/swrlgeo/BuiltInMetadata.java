@@ -0,0 +1,99 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a swrlgeo built-in: its argument types, whether it is a pure predicate, whether its two geometry
+ * arguments may be swapped, and a relative cost estimate. Rule planners and caches use it instead of inspecting the
+ * built-in implementation.
+ */
+public final class BuiltInMetadata
+{
+  /** The type of a built-in argument. */
+  public enum ArgumentType
+  {
+    /** A geometry literal. */
+    GEOMETRY,
+    /** A numeric literal, e.g. a distance or an area. */
+    NUMBER,
+    /** A string literal, e.g. a DE-9IM pattern. */
+    STRING,
+    /** An argument the built-in binds to its result. */
+    RESULT
+  }
+
+  private final String name;
+  private final List<ArgumentType> argumentTypes;
+  private final boolean symmetric;
+  private final double cost;
+
+  /**
+   * @param name the name of the built-in, without prefix
+   * @param symmetric true if swapping the first two arguments does not change the result
+   * @param cost the estimated cost of an invocation, relative to a geometry type test
+   * @param argumentTypes the types of the arguments
+   */
+  public BuiltInMetadata(String name, boolean symmetric, double cost, ArgumentType... argumentTypes)
+  {
+    this.name = name;
+    this.argumentTypes = Collections.unmodifiableList(Arrays.asList(argumentTypes));
+    this.symmetric = symmetric;
+    this.cost = cost;
+  }
+
+  /**
+   * @return the name of the built-in, without prefix
+   */
+  public String getName()
+  {
+    return this.name;
+  }
+
+  /**
+   * @return the number of arguments of the built-in
+   */
+  public int getArity()
+  {
+    return this.argumentTypes.size();
+  }
+
+  /**
+   * @return the types of the arguments
+   */
+  public List<ArgumentType> getArgumentTypes()
+  {
+    return this.argumentTypes;
+  }
+
+  /**
+   * @return true if the built-in binds no argument and has no side effects, so its result depends on the argument
+   * values only
+   */
+  public boolean isPure()
+  {
+    return !this.argumentTypes.contains(ArgumentType.RESULT);
+  }
+
+  /**
+   * @return true if swapping the first two arguments does not change the result
+   */
+  public boolean isSymmetric()
+  {
+    return this.symmetric;
+  }
+
+  /**
+   * @return the estimated cost of an invocation on geometries of moderate size, relative to a geometry type test
+   */
+  public double getCost()
+  {
+    return this.cost;
+  }
+
+  @Override public String toString()
+  {
+    return this.name + this.argumentTypes;
+  }
+}
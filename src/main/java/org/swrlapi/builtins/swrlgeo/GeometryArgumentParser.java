@@ -0,0 +1,75 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+/**
+ * Turns geometry literal arguments of built-ins into geometries in the CRS they are evaluated in, for the swrlgeo
+ * built-ins and the raster built-ins alike. Geometries are kept in a {@link GeometryCache}, so a literal is parsed,
+ * reprojected and, in robust evaluation mode, normalized at most once per CRS while it stays cached.
+ */
+public final class GeometryArgumentParser
+{
+  private final GeometryCache cache;
+  private final GeometryNormalizer normalizer;
+
+  /**
+   * @param cache the cache of parsed geometries
+   * @param normalizer the normalizer applied to geometries before they are cached
+   */
+  public GeometryArgumentParser(GeometryCache cache, GeometryNormalizer normalizer)
+  {
+    this.cache = cache;
+    this.normalizer = normalizer;
+  }
+
+  /**
+   * @param literal a geometry literal
+   * @param crs the CRS to reproject the geometry to
+   * @return the normalized geometry, from the cache if it holds the literal
+   * @throws SWRLBuiltInException if the literal cannot be parsed or reprojected
+   */
+  public Geometry parse(OWLLiteral literal, CoordinateReferenceSystem crs) throws SWRLBuiltInException
+  {
+    Geometry geometry = this.cache.get(literal.getLiteral(), crs.getSRID());
+    if (geometry != null)
+      return geometry;
+    return cache(literal.getLiteral(), crs, parseRaw(literal, crs));
+  }
+
+  /**
+   * Normalizes a geometry and caches it under a lexical form, e.g. for geometries computed rather than parsed.
+   * @param literal the lexical form the geometry is cached under
+   * @param crs the CRS of the geometry
+   * @param geometry the geometry
+   * @return the normalized geometry
+   */
+  public Geometry cache(String literal, CoordinateReferenceSystem crs, Geometry geometry)
+  {
+    if (this.normalizer.isEnabled())
+      geometry = this.normalizer.normalize(geometry);
+    this.cache.put(literal, crs.getSRID(), geometry);
+    return geometry;
+  }
+
+  /**
+   * Parses a geometry literal as written, without normalizing or caching it.
+   * @param literal a geometry literal
+   * @param crs the CRS to reproject the geometry to
+   * @return the geometry
+   * @throws SWRLBuiltInException if the literal cannot be parsed or reprojected
+   */
+  public static Geometry parseRaw(OWLLiteral literal, CoordinateReferenceSystem crs) throws SWRLBuiltInException
+  {
+    try {
+      return GeometryLiteralParser.parse(literal.getLiteral(), literal.getDatatype().getIRI().toString(), crs);
+    } catch (ParseException e) {
+      throw new SWRLBuiltInException("Geometry failed to parse: " + literal.getLiteral());
+    } catch (IllegalArgumentException e) {
+      throw new SWRLBuiltInException("Geometry could not be transformed: " + e.getMessage());
+    }
+  }
+}
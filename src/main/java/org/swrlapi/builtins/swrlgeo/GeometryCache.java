@@ -0,0 +1,133 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+import java.util.Collections;
+
+/**
+ * Cache of parsed and reprojected geometries shared by all swrlgeo built-ins. Entries are keyed by the lexical form
+ * of the geometry literal and the SRID of the CRS it was transformed to, so a literal is parsed and reprojected at
+ * most once per working CRS while it stays in the cache. Entries of changed literals are dropped when
+ * {@link GeometryChangeTracker} reports them.
+ */
+public final class GeometryCache implements GeometryChangeListener
+{
+  private static final GeometryCache instance = new GeometryCache(SWRLGeoConfiguration.getGeometryCacheSize());
+
+  static {
+    GeometryChangeTracker.getInstance().addListener(instance);
+  }
+
+  private final BoundedCache<Key, Geometry> geometries;
+  private final int workingSRID;
+
+  GeometryCache(int maximumSize)
+  {
+    this.geometries = new BoundedCache<>(maximumSize, key -> Collections.singleton(key.literal));
+    this.workingSRID = SWRLGeoConfiguration.getWorkingCRS().getSRID();
+  }
+
+  /**
+   * @return the cache shared by the swrlgeo library
+   */
+  public static GeometryCache getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param literal the lexical form of the geometry literal
+   * @param targetSRID the SRID of the CRS the geometry was transformed to
+   * @return the cached geometry, or null
+   */
+  public Geometry get(String literal, int targetSRID)
+  {
+    return this.geometries.get(new Key(literal, targetSRID));
+  }
+
+  /**
+   * @param literal the lexical form of the geometry literal
+   * @param targetSRID the SRID of the CRS the geometry was transformed to
+   * @return the cached geometry, or null; the lookup is not counted in the hit statistics
+   */
+  public Geometry peek(String literal, int targetSRID)
+  {
+    return this.geometries.peek(new Key(literal, targetSRID));
+  }
+
+  /**
+   * @param literal the lexical form of the geometry literal
+   * @param targetSRID the SRID of the CRS the geometry was transformed to
+   * @param geometry the parsed geometry
+   */
+  public void put(String literal, int targetSRID, Geometry geometry)
+  {
+    this.geometries.put(new Key(literal, targetSRID), geometry);
+  }
+
+  /**
+   * @param literal the lexical form of a geometry literal
+   * @return true if the literal is cached for the working CRS
+   */
+  public boolean contains(String literal)
+  {
+    return this.geometries.containsKey(new Key(literal, this.workingSRID));
+  }
+
+  /**
+   * Removes the cached geometries of a literal for all target CRSs.
+   * @param literal the lexical form of the geometry literal
+   */
+  public void invalidate(String literal)
+  {
+    this.geometries.removeTagged(literal);
+  }
+
+  @Override public void geometryChanged(String literal)
+  {
+    invalidate(literal);
+  }
+
+  /**
+   * Removes all cached geometries.
+   */
+  public void clear()
+  {
+    this.geometries.clear();
+  }
+
+  /**
+   * @return the underlying cache, e.g. to read hit statistics
+   */
+  public BoundedCache<?, Geometry> getEntries()
+  {
+    return this.geometries;
+  }
+
+  private static final class Key
+  {
+    private final String literal;
+    private final int srid;
+
+    Key(String literal, int srid)
+    {
+      this.literal = literal;
+      this.srid = srid;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key))
+        return false;
+      Key other = (Key)o;
+      return this.srid == other.srid && this.literal.equals(other.literal);
+    }
+
+    @Override public int hashCode()
+    {
+      return 31 * this.literal.hashCode() + this.srid;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package org.swrlapi.builtins.swrlgeo;
+
+/**
+ * Receives notifications from {@link GeometryChangeTracker} when a geometry literal was added to or removed from an
+ * ontology, so that caches and indexes can drop the entries derived from it.
+ */
+public interface GeometryChangeListener
+{
+  /**
+   * @param literal the lexical form of the changed geometry literal
+   */
+  void geometryChanged(String literal);
+}
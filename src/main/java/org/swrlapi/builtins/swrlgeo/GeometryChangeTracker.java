@@ -0,0 +1,95 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks changes to geometry literals in OWLAPI ontologies. Attached to an ontology manager, it watches added and
+ * removed data property assertions whose value is a <code>geo:wktLiteral</code> or a geometry already known to the
+ * {@link GeometryCache}, and notifies all registered {@link GeometryChangeListener}s of the affected literals. Only
+ * entries involving those literals are invalidated; everything else computed in earlier reasoning runs stays valid.
+ */
+public final class GeometryChangeTracker implements OWLOntologyChangeListener
+{
+  private static final GeometryChangeTracker instance = new GeometryChangeTracker();
+
+  private final List<GeometryChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+  private GeometryChangeTracker()
+  {
+  }
+
+  /**
+   * @return the tracker shared by the swrlgeo library
+   */
+  public static GeometryChangeTracker getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * Starts tracking the ontologies of an ontology manager.
+   * @param ontologyManager the ontology manager
+   */
+  public void attach(OWLOntologyManager ontologyManager)
+  {
+    ontologyManager.addOntologyChangeListener(this);
+  }
+
+  /**
+   * Stops tracking the ontologies of an ontology manager.
+   * @param ontologyManager the ontology manager
+   */
+  public void detach(OWLOntologyManager ontologyManager)
+  {
+    ontologyManager.removeOntologyChangeListener(this);
+  }
+
+  /**
+   * @param listener the listener to notify of changed geometry literals
+   */
+  public void addListener(GeometryChangeListener listener)
+  {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * @param listener the listener to remove
+   */
+  public void removeListener(GeometryChangeListener listener)
+  {
+    this.listeners.remove(listener);
+  }
+
+  @Override public void ontologiesChanged(List<? extends OWLOntologyChange> changes)
+  {
+    for (OWLOntologyChange change : changes) {
+      if (change.isAxiomChange()) {
+        OWLAxiom axiom = change.getAxiom();
+        if (axiom instanceof OWLDataPropertyAssertionAxiom) {
+          OWLLiteral literal = ((OWLDataPropertyAssertionAxiom)axiom).getObject();
+          if (GeometryLiteralParser.isGeometryDatatype(literal.getDatatype().getIRI().toString())
+            || GeometryCache.getInstance().contains(literal.getLiteral()))
+            geometryChanged(literal.getLiteral());
+        }
+      }
+    }
+  }
+
+  /**
+   * Reports a changed geometry literal, e.g. for geometries held outside of an ontology.
+   * @param literal the lexical form of the geometry literal
+   */
+  public void geometryChanged(String literal)
+  {
+    for (GeometryChangeListener listener : this.listeners)
+      listener.geometryChanged(literal);
+  }
+}
@@ -0,0 +1,100 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of geometry literals by the envelopes of their geometries in the working CRS. It is filled by the ingestion
+ * pipeline and consulted by the swrlgeo topological and distance predicates, which decide pairs of indexed literals
+ * whose envelopes are apart without parsing either geometry. Only the envelope is kept per literal, besides the
+ * literal the ontology holds anyway. Entries of changed literals are dropped when {@link GeometryChangeTracker}
+ * reports them.
+ */
+public final class GeometryIndex implements GeometryChangeListener
+{
+  private static final GeometryIndex instance = new GeometryIndex();
+
+  static {
+    GeometryChangeTracker.getInstance().addListener(instance);
+  }
+
+  private final Map<String, Envelope> envelopes = new HashMap<>();
+
+  private GeometryIndex()
+  {
+  }
+
+  /**
+   * @return the index shared by the swrlgeo library
+   */
+  public static GeometryIndex getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * Adds a geometry literal to the index, replacing an earlier entry of the same literal.
+   * @param literal the lexical form of the geometry literal
+   * @param envelope the envelope of the geometry of the literal in the working CRS
+   */
+  public synchronized void insert(String literal, Envelope envelope)
+  {
+    this.envelopes.put(literal, new Envelope(envelope));
+  }
+
+  /**
+   * @param literal the lexical form of the geometry literal to remove
+   */
+  public synchronized void remove(String literal)
+  {
+    this.envelopes.remove(literal);
+  }
+
+  /**
+   * @param literal the lexical form of a geometry literal
+   * @return the indexed envelope of the geometry of the literal, or null
+   */
+  public synchronized Envelope getEnvelope(String literal)
+  {
+    Envelope envelope = this.envelopes.get(literal);
+    return envelope == null ? null : new Envelope(envelope);
+  }
+
+  /**
+   * @param literal1 the lexical form of a geometry literal
+   * @param literal2 the lexical form of another geometry literal
+   * @return the distance between the indexed envelopes of the geometries of both literals in the working CRS, 0 if
+   * they intersect, or -1 if either literal is not indexed or has an empty geometry
+   */
+  public synchronized double getEnvelopeDistance(String literal1, String literal2)
+  {
+    Envelope envelope1 = this.envelopes.get(literal1);
+    Envelope envelope2 = this.envelopes.get(literal2);
+    if (envelope1 == null || envelope2 == null || envelope1.isNull() || envelope2.isNull())
+      return -1;
+    return envelope1.distance(envelope2);
+  }
+
+  /**
+   * @return the number of indexed literals
+   */
+  public synchronized int size()
+  {
+    return this.envelopes.size();
+  }
+
+  @Override public void geometryChanged(String literal)
+  {
+    remove(literal);
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public synchronized void clear()
+  {
+    this.envelopes.clear();
+  }
+}
@@ -0,0 +1,61 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.decode.GeometryDecoderRegistry;
+import org.swrlapi.builtins.swrlgeo.decode.WKTGeometryDecoder;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+
+/**
+ * Parses geometry literals and reprojects them to a target CRS. The format is chosen by the literal datatype through
+ * the {@link GeometryDecoderRegistry}; GeoSPARQL <code>geo:wktLiteral</code> values may start with a CRS IRI in angle
+ * brackets, e.g. <code>&lt;http://www.opengis.net/def/crs/EPSG/0/25832&gt; POINT(412000 5530000)</code>. Literals
+ * without a CRS declaration are in CRS84, as GeoSPARQL specifies, unless
+ * {@link SWRLGeoConfiguration#LEGACY_UNTAGGED_LITERALS_PROPERTY} keeps them in the working CRS.
+ */
+public final class GeometryLiteralParser
+{
+  /** The IRI of the GeoSPARQL WKT literal datatype. */
+  public static final String WKT_LITERAL = WKTGeometryDecoder.WKT_LITERAL;
+
+  private GeometryLiteralParser()
+  {
+  }
+
+  /**
+   * Parses a WKT literal.
+   * @param literal the literal lexical form
+   * @param target the CRS to reproject to
+   * @return the parsed geometry
+   * @throws ParseException if the WKT is malformed
+   * @throws IllegalArgumentException if the literal uses an unsupported CRS
+   */
+  public static Geometry parse(String literal, CoordinateReferenceSystem target) throws ParseException
+  {
+    return parse(literal, WKT_LITERAL, target);
+  }
+
+  /**
+   * @param literal the literal lexical form
+   * @param datatype the IRI of the literal datatype; literals of unknown datatypes are parsed as WKT
+   * @param target the CRS to reproject to
+   * @return the parsed geometry
+   * @throws ParseException if the literal is malformed
+   * @throws IllegalArgumentException if the literal uses an unsupported CRS
+   */
+  public static Geometry parse(String literal, String datatype, CoordinateReferenceSystem target)
+    throws ParseException
+  {
+    return GeometryDecoderRegistry.getInstance().decode(literal, datatype, target);
+  }
+
+  /**
+   * @param datatype the IRI of a literal datatype
+   * @return true if literals of the datatype are geometries, e.g. <code>geo:wktLiteral</code>
+   */
+  public static boolean isGeometryDatatype(String datatype)
+  {
+    return GeometryDecoderRegistry.getInstance().isGeometryDatatype(datatype);
+  }
+}
@@ -0,0 +1,72 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.geom.PrecisionModel;
+import com.vividsolutions.jts.precision.GeometryPrecisionReducer;
+
+/**
+ * Prepares noisy geometries for robust evaluation. Geometries are snapped to a fixed precision model and invalid
+ * polygons are repaired with zero-width buffers, so topological predicates on them do not fail with a
+ * <code>TopologyException</code>. The library applies it once at parse time and caches the result.
+ */
+public final class GeometryNormalizer
+{
+  private final GeometryPrecisionReducer reducer;
+  private final boolean repair;
+
+  /**
+   * @param precisionScale the scale of the fixed precision model, e.g. 1000 to snap metric coordinates to
+   * millimetres, or a value of at most 0 to keep full floating precision
+   * @param repair true if invalid polygons are repaired
+   */
+  public GeometryNormalizer(double precisionScale, boolean repair)
+  {
+    if (precisionScale > 0) {
+      this.reducer = new GeometryPrecisionReducer(new PrecisionModel(precisionScale));
+      this.reducer.setChangePrecisionModel(true);
+    } else
+      this.reducer = null;
+    this.repair = repair;
+  }
+
+  /**
+   * @return true if the normalizer changes geometries at all
+   */
+  public boolean isEnabled()
+  {
+    return this.reducer != null || this.repair;
+  }
+
+  /**
+   * @param geometry the parsed geometry
+   * @return the snapped and repaired geometry, with the SRID of the given one
+   */
+  public Geometry normalize(Geometry geometry)
+  {
+    Geometry normalized = geometry;
+    if (this.repair && normalized instanceof Polygonal && !normalized.isValid())
+      normalized = repair(normalized);
+    if (this.reducer != null) {
+      try {
+        normalized = this.reducer.reduce(normalized);
+      } catch (IllegalArgumentException e) {
+        // snapping collapsed the topology beyond repair; keep the unreduced geometry
+      }
+    }
+    normalized.setSRID(geometry.getSRID());
+    return normalized;
+  }
+
+  /**
+   * Repairs an invalid polygonal geometry with a zero-width buffer. Buffering keeps only the parts of a
+   * self-intersecting ring that match its overall orientation, so the buffer of the reversed geometry is added to keep
+   * e.g. both lobes of a bow-tie.
+   */
+  private static Geometry repair(Geometry geometry)
+  {
+    Geometry repaired = geometry.buffer(0);
+    Geometry reversed = geometry.reverse().buffer(0);
+    return reversed.isEmpty() || repaired.covers(reversed) ? repaired : repaired.union(reversed);
+  }
+}
@@ -0,0 +1,110 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.IntersectionMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Cache of DE-9IM intersection matrices of geometry pairs. All named topological predicates of the swrlgeo library
+ * are answered from the matrix of their argument pair, so testing several relations on the same pair computes the
+ * matrix only once. A pair is also found in reverse order, in which case the transposed matrix is returned.
+ */
+public final class IntersectionMatrixCache implements GeometryChangeListener
+{
+  private static final IntersectionMatrixCache instance = new IntersectionMatrixCache(
+    SWRLGeoConfiguration.getRelateCacheSize());
+
+  static {
+    GeometryChangeTracker.getInstance().addListener(instance);
+  }
+
+  private final BoundedCache<Pair, IntersectionMatrix> matrices;
+
+  IntersectionMatrixCache(int maximumSize)
+  {
+    this.matrices = new BoundedCache<>(maximumSize, pair -> Arrays.asList(pair.literal1, pair.literal2));
+  }
+
+  /**
+   * @return the cache shared by the swrlgeo library
+   */
+  public static IntersectionMatrixCache getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param literal1 the lexical form of the first geometry literal
+   * @param literal2 the lexical form of the second geometry literal
+   * @return the intersection matrix of the first geometry with the second one, or null if it is not cached; the
+   * matrix must not be modified
+   */
+  public IntersectionMatrix get(String literal1, String literal2)
+  {
+    IntersectionMatrix matrix = this.matrices.get(new Pair(literal1, literal2));
+    if (matrix == null) {
+      IntersectionMatrix reverse = this.matrices.get(new Pair(literal2, literal1));
+      if (reverse != null)
+        matrix = new IntersectionMatrix(reverse).transpose();
+    }
+    return matrix;
+  }
+
+  /**
+   * @param literal1 the lexical form of the first geometry literal
+   * @param literal2 the lexical form of the second geometry literal
+   * @param matrix the intersection matrix of the first geometry with the second one
+   */
+  public void put(String literal1, String literal2, IntersectionMatrix matrix)
+  {
+    this.matrices.put(new Pair(literal1, literal2), matrix);
+  }
+
+  @Override public void geometryChanged(String literal)
+  {
+    this.matrices.removeTagged(literal);
+  }
+
+  /**
+   * Removes all cached matrices.
+   */
+  public void clear()
+  {
+    this.matrices.clear();
+  }
+
+  /**
+   * @return the underlying cache, e.g. to read hit statistics
+   */
+  public BoundedCache<?, IntersectionMatrix> getEntries()
+  {
+    return this.matrices;
+  }
+
+  private static final class Pair
+  {
+    private final String literal1;
+    private final String literal2;
+
+    Pair(String literal1, String literal2)
+    {
+      this.literal1 = literal1;
+      this.literal2 = literal2;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (!(o instanceof Pair))
+        return false;
+      Pair other = (Pair)o;
+      return this.literal1.equals(other.literal1) && this.literal2.equals(other.literal2);
+    }
+
+    @Override public int hashCode()
+    {
+      return 31 * this.literal1.hashCode() + this.literal2.hashCode();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.arguments.SWRLLiteralBuiltInArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Results of swrlgeo predicates kept across reasoning runs for delta evaluation. A result is keyed by the built-in
+ * name and the literal values of its arguments. After an ontology change only the results involving changed geometry
+ * literals are dropped, so a new reasoning run recomputes just the predicates over changed geometries.
+ * <p>
+ * A key captures everything a result depends on only for pure predicates evaluated in full. The library therefore
+ * caches neither results that fell back to an approximation or to false under an operation budget or open circuit
+ * breaker, nor results of built-ins that read registered point or feature sets, which may change between runs.
+ */
+public final class PredicateResultCache implements GeometryChangeListener
+{
+  private static final PredicateResultCache instance = new PredicateResultCache(
+    SWRLGeoConfiguration.getResultCacheSize());
+
+  static {
+    GeometryChangeTracker.getInstance().addListener(instance);
+  }
+
+  private final BoundedCache<Key, Boolean> results;
+
+  PredicateResultCache(int maximumSize)
+  {
+    this.results = new BoundedCache<>(maximumSize, Key::getLexicalForms);
+  }
+
+  /**
+   * @return the cache shared by the swrlgeo library
+   */
+  public static PredicateResultCache getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * Creates the cache key of a built-in invocation. The two geometries of symmetric built-ins are put in a canonical
+   * order, so an invocation with swapped geometries finds the same result.
+   * @param builtInName the name of the built-in
+   * @param arguments the built-in arguments
+   * @return the key, or null if an argument is not a literal, e.g. an unbound variable, so the result cannot be cached
+   */
+  public static Key createKey(String builtInName, List<SWRLBuiltInArgument> arguments)
+  {
+    OWLLiteral[] literals = new OWLLiteral[arguments.size()];
+    for (int i = 0; i < literals.length; i++) {
+      SWRLBuiltInArgument argument = arguments.get(i);
+      if (!(argument instanceof SWRLLiteralBuiltInArgument))
+        return null;
+      literals[i] = ((SWRLLiteralBuiltInArgument)argument).getLiteral();
+    }
+    BuiltInMetadata metadata = SWRLGeoBuiltIns.get(builtInName);
+    if (metadata != null && metadata.isSymmetric() && literals.length >= 2
+      && literals[0].getLiteral().compareTo(literals[1].getLiteral()) > 0) {
+      OWLLiteral first = literals[0];
+      literals[0] = literals[1];
+      literals[1] = first;
+    }
+    return new Key(builtInName, literals);
+  }
+
+  /**
+   * @param key the key of the built-in invocation
+   * @return the cached result, or null
+   */
+  public Boolean get(Key key)
+  {
+    return this.results.get(key);
+  }
+
+  /**
+   * @param key the key of the built-in invocation
+   * @param result the result of the built-in
+   */
+  public void put(Key key, boolean result)
+  {
+    this.results.put(key, result);
+  }
+
+  @Override public void geometryChanged(String literal)
+  {
+    this.results.removeTagged(literal);
+  }
+
+  /**
+   * Removes all cached results.
+   */
+  public void clear()
+  {
+    this.results.clear();
+  }
+
+  /**
+   * @return the underlying cache, e.g. to read hit statistics
+   */
+  public BoundedCache<?, Boolean> getEntries()
+  {
+    return this.results;
+  }
+
+  /**
+   * The key of a built-in invocation with literal arguments.
+   */
+  public static final class Key
+  {
+    private final String builtInName;
+    private final OWLLiteral[] arguments;
+    private final int hashCode;
+
+    Key(String builtInName, OWLLiteral[] arguments)
+    {
+      this.builtInName = builtInName;
+      this.arguments = arguments;
+      this.hashCode = 31 * builtInName.hashCode() + Arrays.hashCode(arguments);
+    }
+
+    List<String> getLexicalForms()
+    {
+      List<String> lexicalForms = new ArrayList<>(this.arguments.length);
+      for (OWLLiteral argument : this.arguments)
+        lexicalForms.add(argument.getLiteral());
+      return lexicalForms;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (!(o instanceof Key))
+        return false;
+      Key other = (Key)o;
+      return this.hashCode == other.hashCode && this.builtInName.equals(other.builtInName) && Arrays
+        .equals(this.arguments, other.arguments);
+    }
+
+    @Override public int hashCode()
+    {
+      return this.hashCode;
+    }
+  }
+}
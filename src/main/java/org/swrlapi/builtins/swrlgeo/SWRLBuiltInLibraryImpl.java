@@ -1,63 +1,330 @@
 package org.swrlapi.builtins.swrlgeo;
 
-import org.swrlapi.builtins.AbstractSWRLBuiltInLibrary;
+import org.swrlapi.builtins.AbstractIndexedSWRLBuiltInLibrary;
+import org.swrlapi.builtins.PureSWRLBuiltInLibrary;
+import org.swrlapi.builtins.SWRLBuiltInBridge;
 import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.arguments.SWRLLiteralBuiltInArgument;
+import org.swrlapi.builtins.swrlgeo.budget.BudgetExceededException;
+import org.swrlapi.builtins.swrlgeo.budget.BudgetedOperations;
+import org.swrlapi.builtins.swrlgeo.budget.CircuitBreaker;
+import org.swrlapi.builtins.swrlgeo.budget.OperationBudget;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateTransformer;
+import org.swrlapi.builtins.swrlgeo.crs.GeodesicDistance;
+import org.swrlapi.builtins.swrlgeo.nearest.FeatureSet;
+import org.swrlapi.builtins.swrlgeo.nearest.FeatureSetRegistry;
+import org.swrlapi.builtins.swrlgeo.pip.PointInPolygonKernel;
+import org.swrlapi.builtins.swrlgeo.pip.PointSet;
+import org.swrlapi.builtins.swrlgeo.pip.PointSetRegistry;
+import org.swrlapi.builtins.swrlgeo.stats.StatisticsCollector;
 import org.swrlapi.exceptions.InvalidSWRLBuiltInArgumentException;
 import org.swrlapi.exceptions.SWRLBuiltInException;
 
-import com.vividsolutions.jts.algorithm.distance.DiscreteHausdorffDistance;
 import com.vividsolutions.jts.algorithm.match.AreaSimilarityMeasure;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.IntersectionMatrix;
 import com.vividsolutions.jts.geom.LineString;
-import com.vividsolutions.jts.io.ParseException;
-import com.vividsolutions.jts.io.WKTReader;
 
-//import de.hsmainz.cs.semgis.reasoning.swrl.GMLLiteral;
-//import de.hsmainz.cs.semgis.reasoning.swrl.WKTLiteral;
-
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
+public class SWRLBuiltInLibraryImpl extends AbstractIndexedSWRLBuiltInLibrary implements PureSWRLBuiltInLibrary
 {
-  private static final String[] BuiltInNames = 
-	  { "st_hasAreaSizeBiggerThan", "st_hasAreaSizeSmallerThan", "st_contains","st_coveredBy","st_covers","st_crosses",
-			  "st_hasDimension","st_disjoint","st_equals","st_equalsExact","st_intersects",
-			  "st_isClosed","st_isEmpty","st_isLineString","st_isMultiPoint","st_isMultiPolygon","st_isMultiLineString",
-			  "st_isMultiSurface","st_isPoint","st_isPolygon","st_isPolyhedralSurface","st_isRectangle","st_isSimple","st_isRing","st_isValid",
-			  "st_isSurface","st_isTriangle","st_isTin","st_isWithinDistance",
-			  "st_length","st_numGeometries","st_numPoints","st_overlaps",
-			  "st_symDifference","st_touches","st_union","st_within" };
+  // Set if the current invocation of a thread fell back to an approximate or false result on budget or breaker
+  private static final ThreadLocal<Boolean> degraded = new ThreadLocal<>();
 
-  private static final String Namespace = "http://semgis.de/spatial/swrlgeo#";
+  private final CoordinateReferenceSystem workingCRS;
+  private final GeometryCache geometryCache;
+  private final PredicateResultCache resultCache;
+  private final IntersectionMatrixCache matrixCache;
+  private final GeometryIndex geometryIndex;
+  private final GeometryNormalizer normalizer;
+  private final GeometryArgumentParser geometryArguments;
+  private final CircuitBreaker circuitBreaker;
+  private final SimplificationCache simplificationCache;
+  private final StatisticsCollector statistics;
+  private final Set<String> pureBuiltInNames;
 
   /**
    * Constructor for this class.
    */
   public SWRLBuiltInLibraryImpl()
   {
-    super("swrlgeo", Namespace, new HashSet<>(Arrays.asList(BuiltInNames)));
+    super("swrlgeo", SWRLGeoBuiltIns.NAMESPACE, new HashSet<>(SWRLGeoBuiltIns.getNames()));
+    this.workingCRS = SWRLGeoConfiguration.getWorkingCRS();
+    this.geometryCache = GeometryCache.getInstance();
+    this.resultCache = SWRLGeoConfiguration.isDeltaEvaluation() ? PredicateResultCache.getInstance() : null;
+    this.matrixCache = IntersectionMatrixCache.getInstance();
+    this.geometryIndex = GeometryIndex.getInstance();
+    this.normalizer = SWRLGeoConfiguration.getGeometryNormalizer();
+    this.geometryArguments = new GeometryArgumentParser(this.geometryCache, this.normalizer);
+    this.circuitBreaker = CircuitBreaker.getInstance();
+    this.simplificationCache = SimplificationCache.getInstance();
+    this.statistics = StatisticsCollector.getInstance();
+    this.pureBuiltInNames = new HashSet<>();
+    for (BuiltInMetadata builtIn : SWRLGeoBuiltIns.getAll())
+      if (builtIn.isPure())
+        this.pureBuiltInNames.add(builtIn.getName());
+    this.circuitBreaker
+      .configure(SWRLGeoConfiguration.getBreakerThreshold(), SWRLGeoConfiguration.getBreakerCooldown());
   }
   
   /**
    * Parses a String argument in WKT to a vector graphic geometry representation.
+   * A leading CRS IRI as in GeoSPARQL wktLiterals causes the geometry to be reprojected to the working CRS.
+   * In robust evaluation mode the geometry is also snapped to the configured precision model and repaired if invalid.
+   * Parsed geometries are cached, so repeated arguments are neither parsed, reprojected nor repaired twice.
    * @param id the argument number
    * @param arguments the array of arguments
    * @return the parsed geometry
    * @throws SWRLBuiltInException
    */
   public Geometry getArgumentAsAGeometry(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
-	  WKTReader reader = new WKTReader();
-	  try {
-		return reader.read(getLiteralArgumentAsAString(id, arguments));
-	} catch (ParseException e) {
-		System.out.println(e.getMessage());
-		throw new SWRLBuiltInException("Geometry failed to parse: "+getLiteralArgumentAsAString(id, arguments));
-	}
+	  return this.geometryArguments.parse(getArgumentAsAnOWLLiteral(id, arguments), this.workingCRS);
+  }
+
+  /**
+   * @param id the argument number
+   * @param arguments the array of arguments
+   * @return the lexical form of a geometry literal argument of any datatype, e.g. geo:wktLiteral or xsd:string
+   * @throws SWRLBuiltInException
+   */
+  public String getGeometryArgumentLexicalForm(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+	  return getArgumentAsAnOWLLiteral(id, arguments).getLiteral();
+  }
+
+  /**
+   * Parses a geometry argument as written, without snapping or repairing it, and without caching.
+   * @param id the argument number
+   * @param arguments the array of arguments
+   * @return the parsed geometry in the working CRS
+   * @throws SWRLBuiltInException
+   */
+  public Geometry getArgumentAsARawGeometry(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+	  return GeometryArgumentParser.parseRaw(getArgumentAsAnOWLLiteral(id, arguments), this.workingCRS);
+  }
+
+  /**
+   * Parses a geometry argument and returns it in longitude/latitude, reprojecting it from the working CRS if that
+   * is a projected CRS.
+   * @param id the argument number
+   * @param arguments the array of arguments
+   * @return the geometry in longitude/latitude
+   * @throws SWRLBuiltInException
+   */
+  public Geometry getArgumentAsAGeographicGeometry(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+	  Geometry geometry = getArgumentAsAGeometry(id, arguments);
+	  if (this.workingCRS.isGeographic())
+		  return geometry;
+	  String literal = getGeometryArgumentLexicalForm(id, arguments);
+	  Geometry geographic = this.geometryCache.get(literal, CoordinateReferenceSystem.CRS84_SRID);
+	  if (geographic == null) {
+		  geographic = CoordinateTransformer.transform(geometry, this.workingCRS, CoordinateReferenceSystem.CRS84);
+		  this.geometryCache.put(literal, CoordinateReferenceSystem.CRS84_SRID, geographic);
+	  }
+	  return geographic;
+  }
+
+  /**
+   * Returns the ladder of simplified versions of a geometry argument, creating it if the literal is seen first.
+   * @param id the argument number
+   * @param arguments the array of arguments
+   * @return the simplification ladder of the geometry in the working CRS
+   * @throws SWRLBuiltInException
+   */
+  public SimplificationLadder getArgumentAsASimplificationLadder(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+	  String literal = getGeometryArgumentLexicalForm(id, arguments);
+	  SimplificationLadder ladder = this.simplificationCache.get(literal);
+	  if (ladder == null) {
+		  ladder = new SimplificationLadder(getArgumentAsAGeometry(id, arguments));
+		  this.simplificationCache.put(literal, ladder);
+	  }
+	  return ladder;
+  }
+
+  /**
+   * Returns the DE-9IM intersection matrix of the first two geometry arguments. The matrix is shared by all
+   * topological predicates through the intersection matrix cache, so testing several relations on the same pair of
+   * geometries computes it only once.
+   * @param arguments the array of arguments
+   * @return the intersection matrix of the first geometry with the second one; it must not be modified
+   * @throws SWRLBuiltInException
+   */
+  public IntersectionMatrix getArgumentsAsAnIntersectionMatrix(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+	  String literal1 = getGeometryArgumentLexicalForm(0, arguments);
+	  String literal2 = getGeometryArgumentLexicalForm(1, arguments);
+	  IntersectionMatrix matrix = this.matrixCache.get(literal1, literal2);
+	  if (matrix == null) {
+		  matrix = getArgumentAsAGeometry(0, arguments).relate(getArgumentAsAGeometry(1, arguments));
+		  this.matrixCache.put(literal1, literal2, matrix);
+	  }
+	  return matrix;
+  }
+
+  /**
+   * Returns the distance between the envelopes the ingestion pipeline indexed for the first two geometry arguments,
+   * so predicates that need the geometries to meet can reject pairs whose envelopes are apart without parsing them.
+   * @param arguments the array of arguments
+   * @return the distance between the indexed envelopes in the working CRS, or -1 if either literal is not indexed
+   * @throws SWRLBuiltInException
+   */
+  private double getIndexedEnvelopeDistance(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+	  return this.geometryIndex.getEnvelopeDistance(getGeometryArgumentLexicalForm(0, arguments),
+		  getGeometryArgumentLexicalForm(1, arguments));
+  }
+
+  /**
+   * Writes a geometry in the working CRS as a geometry literal, tagged with the CRS IRI unless it is CRS84.
+   * @param geometry the geometry
+   * @return the literal
+   */
+  public String toGeometryLiteral(Geometry geometry) {
+	  if (this.workingCRS == CoordinateReferenceSystem.CRS84)
+		  return geometry.toText();
+	  return "<" + this.workingCRS.getIRI() + "> " + geometry.toText();
+  }
+
+  /**
+   * Runs an expensive geometry operation within the time and vertex budget of its built-in. If the budget is exceeded,
+   * or the circuit breaker of the built-in is open for inputs of this size, the configured policy decides whether the
+   * operation is repeated on simplified geometries, the built-in returns false or a
+   * {@link BudgetExceededException} is raised. If the repetition on simplified geometries exceeds the budget as well,
+   * the built-in returns false.
+   * @param builtInName the name of the built-in
+   * @param geom1 the first geometry
+   * @param geom2 the second geometry
+   * @param operation the operation
+   * @return the result of the operation, or null if the built-in should return false
+   * @throws SWRLBuiltInException
+   */
+  private <T> T evaluateWithinBudget(String builtInName, Geometry geom1, Geometry geom2,
+    BudgetedOperation<T> operation) throws SWRLBuiltInException {
+	  OperationBudget budget = SWRLGeoConfiguration.createBudget(builtInName);
+	  int vertices = geom1.getNumPoints() + geom2.getNumPoints();
+	  BudgetExceededException exceeded;
+	  if (this.circuitBreaker.isOpen(builtInName, vertices))
+		  exceeded = new BudgetExceededException(builtInName, "circuit breaker is open for " + vertices + " vertices");
+	  else {
+		  try {
+			  budget.checkVertices(vertices);
+			  T result = operation.apply(geom1, geom2, budget);
+			  this.circuitBreaker.recordSuccess(builtInName);
+			  return result;
+		  } catch (BudgetExceededException e) {
+			  this.circuitBreaker.recordTrip(builtInName, vertices);
+			  exceeded = e;
+		  }
+	  }
+	  degraded.set(Boolean.TRUE);
+	  switch (budget.getPolicy()) {
+	  case APPROXIMATE:
+		  int maximumVertices = (budget.getVertexBudget() > 0 ? budget.getVertexBudget() : vertices / 4) / 2;
+		  this.circuitBreaker.recordApproximation(builtInName);
+		  try {
+			  return operation.apply(BudgetedOperations.simplify(geom1, maximumVertices),
+				  BudgetedOperations.simplify(geom2, maximumVertices), budget.restart());
+		  } catch (BudgetExceededException e) {
+			  // even the approximation is too expensive, so the built-in fails to match as under RETURN_FALSE
+			  return null;
+		  }
+	  case RETURN_FALSE:
+		  return null;
+	  default:
+		  throw exceeded;
+	  }
+  }
+
+  private interface BudgetedOperation<T>
+  {
+    T apply(Geometry geom1, Geometry geom2, OperationBudget budget) throws BudgetExceededException;
+  }
+
+  /**
+   * Invokes a built-in. In delta evaluation mode, results of pure predicates with literal arguments are taken from the
+   * predicate result cache, so only predicates involving new or changed geometries are computed again. Degraded
+   * results, given by the budget policy or an open circuit breaker, are not cached. A sample of the evaluated predicate
+   * invocations is recorded by the {@link StatisticsCollector}.
+   */
+  @Override public boolean invokeBuiltInMethod(Method method, SWRLBuiltInBridge bridge, String ruleName,
+    String prefix, String builtInMethodName, int builtInIndex, boolean isInConsequent,
+    List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    degraded.set(Boolean.FALSE);
+    // built-ins that bind results, such as those over registered point and feature sets, depend on more than their
+    // arguments
+    PredicateResultCache.Key key = this.resultCache != null && this.pureBuiltInNames.contains(builtInMethodName) ?
+      PredicateResultCache.createKey(builtInMethodName, arguments) : null;
+    if (key == null)
+      return evaluate(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex, isInConsequent, arguments);
+
+    Boolean result = this.resultCache.get(key);
+    if (result == null) {
+      result = evaluate(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex, isInConsequent, arguments);
+      if (!isLastResultDegraded())
+        this.resultCache.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * @return true if the last built-in invoked by the current thread fell back to an approximate or false result
+   * because its budget was exceeded or its circuit breaker was open, so the result must not be reused
+   */
+  @Override public boolean isLastResultDegraded()
+  {
+    return degraded.get() == Boolean.TRUE;
+  }
+
+  private boolean evaluate(Method method, SWRLBuiltInBridge bridge, String ruleName, String prefix,
+    String builtInMethodName, int builtInIndex, boolean isInConsequent, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    if (!this.pureBuiltInNames.contains(builtInMethodName) || !this.statistics.sample(builtInMethodName))
+      return super.invokeBuiltInMethod(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex,
+        isInConsequent, arguments);
+
+    long start = System.nanoTime();
+    boolean result = super.invokeBuiltInMethod(method, bridge, ruleName, prefix, builtInMethodName, builtInIndex,
+      isInConsequent, arguments);
+    long nanos = System.nanoTime() - start;
+    this.statistics.record(builtInMethodName, result, nanos, getVertexCount(arguments));
+    return result;
+  }
+
+  /**
+   * Counts the vertices of the geometry arguments that were parsed by the invocation, without parsing any.
+   */
+  private int getVertexCount(List<SWRLBuiltInArgument> arguments)
+  {
+    int vertexCount = 0;
+    for (SWRLBuiltInArgument argument : arguments) {
+      if (argument instanceof SWRLLiteralBuiltInArgument) {
+        Geometry geometry = this.geometryCache
+          .peek(((SWRLLiteralBuiltInArgument)argument).getLiteral().getLiteral(), this.workingCRS.getSRID());
+        if (geometry != null)
+          vertexCount += geometry.getNumPoints();
+      }
+    }
+    return vertexCount;
   }
 
   @Override public void reset() { }
+
+  @Override public Set<String> getPureBuiltInNames()
+  {
+    return Collections.unmodifiableSet(this.pureBuiltInNames);
+  }
+
+  @Override public int getBuiltInArity(String builtInName)
+  {
+    BuiltInMetadata builtIn = SWRLGeoBuiltIns.get(builtInName);
+    return builtIn == null ? -1 : builtIn.getArity();
+  }
  
   /**
    * Calculates if a geometry contains another geometry.
@@ -68,9 +335,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_contains(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
-    return geom1.contains(geom2);
+    if (!geom1.getEnvelopeInternal().covers(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isContains();
   }
   /**
    * Indicates if the first geometry is covered by the second geometry.
@@ -81,9 +352,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_coveredBy(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
-    return geom1.coveredBy(geom2);
+    if (!geom2.getEnvelopeInternal().covers(geom1.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isCoveredBy();
   }
 
   /**
@@ -95,9 +370,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_covers(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
-    return geom1.covers(geom2);
+    if (!geom1.getEnvelopeInternal().covers(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isCovers();
   }
   
   /**
@@ -109,9 +388,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_crosses(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
-    return geom1.crosses(geom2);
+    if (!geom1.getEnvelopeInternal().intersects(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isCrosses(geom1.getDimension(), geom2.getDimension());
   }
   
   /**
@@ -123,9 +406,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_disjoint(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return true;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
-    return geom1.disjoint(geom2);
+    if (!geom1.getEnvelopeInternal().intersects(geom2.getEnvelopeInternal()))
+      return true;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isDisjoint();
   }
   
   /**
@@ -137,9 +424,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_equals(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
-    return geom1.equals(geom2);
+    if (!geom1.getEnvelopeInternal().equals(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isEquals(geom1.getDimension(), geom2.getDimension());
   }
   
   public boolean st_equalsExact(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
@@ -158,6 +449,21 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     return geom1.getArea()>areasize;
   }
   
+  /**
+   * Indicates if the area of a geometry is bigger than a given value, evaluated on the coarsest simplification of the
+   * geometry whose error bound still decides the comparison.
+   * @param arguments the geometry as Literal and the area
+   * @return true if the area of the geometry is bigger than the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasAreaSizeBiggerThanApprox(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    SimplificationLadder ladder=getArgumentAsASimplificationLadder(0, arguments);  
+    double areasize=getArgumentAsADouble(1,arguments);   
+    return ladder.testArea(area -> area>areasize);
+  }
+  
   public boolean st_hasAreaSizeEqualTo(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
@@ -174,6 +480,21 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     return geom1.getArea()<areasize;
   }
   
+  /**
+   * Indicates if the area of a geometry is smaller than a given value, evaluated on the coarsest simplification of the
+   * geometry whose error bound still decides the comparison.
+   * @param arguments the geometry as Literal and the area
+   * @return true if the area of the geometry is smaller than the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasAreaSizeSmallerThanApprox(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    SimplificationLadder ladder=getArgumentAsASimplificationLadder(0, arguments);  
+    double areasize=getArgumentAsADouble(1,arguments);   
+    return ladder.testArea(area -> area<areasize);
+  }
+  
   public boolean st_hasDimension(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
@@ -191,6 +512,22 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     return geom1.distance(geom2)>distance;
   }
   
+  /**
+   * Indicates if the distance between two geometries is bigger than a given value, evaluated on the coarsest
+   * simplifications of the geometries whose error bounds still decide the comparison.
+   * @param arguments the first and second geometry as Literal and the distance
+   * @return true if the distance is bigger than the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasDistanceBiggerThanApprox(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    SimplificationLadder ladder1=getArgumentAsASimplificationLadder(0, arguments);  
+    SimplificationLadder ladder2=getArgumentAsASimplificationLadder(1, arguments);
+    double distance=getArgumentAsADouble(2,arguments);
+    return SimplificationLadder.testDistance(ladder1, ladder2, d -> d>distance);
+  }
+  
   public boolean st_hasDistanceEqualTo(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
@@ -209,6 +546,52 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     return geom1.distance(geom2)<distance;
   }
 
+  /**
+   * Indicates if the distance between two geometries is smaller than a given value, evaluated on the coarsest
+   * simplifications of the geometries whose error bounds still decide the comparison.
+   * @param arguments the first and second geometry as Literal and the distance
+   * @return true if the distance is smaller than the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasDistanceSmallerThanApprox(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    SimplificationLadder ladder1=getArgumentAsASimplificationLadder(0, arguments);  
+    SimplificationLadder ladder2=getArgumentAsASimplificationLadder(1, arguments);
+    double distance=getArgumentAsADouble(2,arguments);
+    return SimplificationLadder.testDistance(ladder1, ladder2, d -> d<distance);
+  }
+
+  /**
+   * Indicates if the geodesic distance between two geometries on the WGS 84 ellipsoid is bigger than a given value.
+   * @param arguments the first and second geometry as Literal and the distance in metres
+   * @return true if the geodesic distance is bigger than the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasGeodesicDistanceBiggerThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    Geometry geom1=getArgumentAsAGeographicGeometry(0, arguments);  
+    Geometry geom2=getArgumentAsAGeographicGeometry(1, arguments);
+    Double distance=getArgumentAsADouble(2,arguments);
+    return GeodesicDistance.isBiggerThan(geom1, geom2, distance);
+  }
+
+  /**
+   * Indicates if the geodesic distance between two geometries on the WGS 84 ellipsoid is smaller than a given value.
+   * @param arguments the first and second geometry as Literal and the distance in metres
+   * @return true if the geodesic distance is smaller than the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasGeodesicDistanceSmallerThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    Geometry geom1=getArgumentAsAGeographicGeometry(0, arguments);  
+    Geometry geom2=getArgumentAsAGeographicGeometry(1, arguments);
+    Double distance=getArgumentAsADouble(2,arguments);
+    return GeodesicDistance.isSmallerThan(geom1, geom2, distance);
+  }
+
   public boolean st_hasEqualLength(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
@@ -285,9 +668,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_intersects(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
-    return geom1.intersects(geom2);
+    if (!geom1.getEnvelopeInternal().intersects(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isIntersects();
   }
 
   /**
@@ -311,10 +698,10 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
    */
   public boolean st_isClosed(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
-    checkNumberOfArgumentsEqualTo(arguments.size(), 2);  
-    if(st_isLineString(arguments)) {
-        LineString geom1=(LineString)(Object)getLiteralArgumentAsAString(0, arguments);
-        return geom1.isClosed();
+    checkNumberOfArgumentsEqualTo(arguments.size(), 1);  
+    Geometry geom1=getArgumentAsAGeometry(0, arguments);
+    if(geom1 instanceof LineString) {
+        return ((LineString)geom1).isClosed();
     }else {
     	throw new InvalidSWRLBuiltInArgumentException("Closedness can only be measured on a LineString");
     }
@@ -365,8 +752,8 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
     Double value=getArgumentAsADouble(2, arguments);
-	DiscreteHausdorffDistance distance=new DiscreteHausdorffDistance(geom1, geom2);
-    return distance.distance()>value;
+    Double distance=evaluateWithinBudget("st_hasHausdorffDistanceGreaterThan", geom1, geom2, BudgetedOperations::hausdorffDistance);
+    return distance!=null && distance>value;
   }
   
   public boolean st_hasHausdorffDistanceSmallerThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
@@ -375,8 +762,8 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
     Double value=getArgumentAsADouble(2, arguments);
-	DiscreteHausdorffDistance distance=new DiscreteHausdorffDistance(geom1, geom2);
-    return distance.distance()<value;
+    Double distance=evaluateWithinBudget("st_hasHausdorffDistanceSmallerThan", geom1, geom2, BudgetedOperations::hausdorffDistance);
+    return distance!=null && distance<value;
   }
   
   public boolean st_hasHausdorffDistanceEqualTo(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
@@ -385,8 +772,8 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
     Double value=getArgumentAsADouble(2, arguments);
-	DiscreteHausdorffDistance distance=new DiscreteHausdorffDistance(geom1, geom2);
-    return distance.distance()==value;
+    Double distance=evaluateWithinBudget("st_hasHausdorffDistanceEqualTo", geom1, geom2, BudgetedOperations::hausdorffDistance);
+    return distance!=null && distance.doubleValue()==value;
   }
   
   public boolean st_hasAreaSimilarityMeasureEqualTo(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
@@ -561,10 +948,10 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
    */
   public boolean st_isRing(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
-    checkNumberOfArgumentsEqualTo(arguments.size(), 2);  
-    if(st_isLineString(arguments)) {
-        LineString geom1=(LineString)(Object)getLiteralArgumentAsAString(0, arguments);
-        return geom1.isRing();
+    checkNumberOfArgumentsEqualTo(arguments.size(), 1);  
+    Geometry geom1=getArgumentAsAGeometry(0, arguments);
+    if(geom1 instanceof LineString) {
+        return ((LineString)geom1).isRing();
     }else {
     	throw new InvalidSWRLBuiltInArgumentException("Ring attributes can only be measured on a LineString");
     }
@@ -623,7 +1010,8 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   }
   
   /**
-   * Indicates if the given geometry is valid.
+   * Indicates if the given geometry is valid. In robust evaluation mode the geometry as written is tested, not its
+   * repaired form.
    * @param arguments geometry as Literal
    * @return true if the geometry is valid, false otherwise
    * @throws SWRLBuiltInException on error
@@ -631,7 +1019,7 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_isValid(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 1);    
-    Geometry geom1=getArgumentAsAGeometry(0, arguments);  
+    Geometry geom1=this.normalizer.isEnabled() ? getArgumentAsARawGeometry(0, arguments) : getArgumentAsAGeometry(0, arguments);  
     return geom1.isValid();
   }
   
@@ -644,12 +1032,66 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_isWithinDistance(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    Double distance=getArgumentAsADouble(2, arguments);
+    if (getIndexedEnvelopeDistance(arguments) > distance)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
-    Double distance=getArgumentAsADouble(2, arguments);
     return geom1.isWithinDistance(geom2, distance);
   }
   
+  /**
+   * Indicates if the first geometry is within a given distance of the second geometry, evaluated on the coarsest
+   * simplifications of the geometries whose error bounds still decide the comparison.
+   * @param arguments the first and second geometry as Literal and the distance
+   * @return true if the distance is at most the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_isWithinDistanceApprox(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    SimplificationLadder ladder1=getArgumentAsASimplificationLadder(0, arguments);  
+    SimplificationLadder ladder2=getArgumentAsASimplificationLadder(1, arguments);
+    double distance=getArgumentAsADouble(2, arguments);
+    return SimplificationLadder.testDistance(ladder1, ladder2, d -> d<=distance);
+  }
+  
+  /**
+   * Indicates if the first geometry is within a given geodesic distance of the second geometry.
+   * @param arguments the first and second geometry as Literal and the distance in metres
+   * @return true if the geodesic distance is at most the given value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_isWithinGeodesicDistance(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    Geometry geom1=getArgumentAsAGeographicGeometry(0, arguments);  
+    Geometry geom2=getArgumentAsAGeographicGeometry(1, arguments);
+    Double distance=getArgumentAsADouble(2, arguments);
+    return GeodesicDistance.isWithinDistance(geom1, geom2, distance);
+  }
+
+  /**
+   * Binds the identifiers of the k geometries of a registered feature set that are nearest to a geometry, nearest
+   * first, using a best-first search of the spatial index of the set. Distances are planar, in the working CRS.
+   * @param arguments the unbound result, the geometry as Literal, the name of the feature set and k
+   * @return true if the feature set is not empty
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_nearest(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 4);
+    FeatureSet features=getArgumentAsAFeatureSet(2, arguments);
+    int k=getArgumentAsAnInt(3, arguments);
+    if (k < 1)
+      throw new InvalidSWRLBuiltInArgumentException("Expecting a positive number of neighbours, got " + k);
+    int[] nearest=features.nearest(getArgumentAsAGeometry(1, arguments), k);
+    List<SWRLBuiltInArgument> ids=new ArrayList<>(nearest.length);
+    for (int index : nearest)
+      ids.add(createLiteralBuiltInArgument(features.getId(index)));
+    return processResultArgument(arguments, 0, ids);
+  }
+  
   public boolean st_numPointsGreaterThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
@@ -675,9 +1117,91 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_overlaps(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
-    return geom1.overlaps(geom2);
+    if (!geom1.getEnvelopeInternal().intersects(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isOverlaps(geom1.getDimension(), geom2.getDimension());
+  }
+  
+  /**
+   * Binds the identifiers of the points of a registered point set that lie within a polygon, testing the whole set in
+   * one batch. Equivalent to <code>st_within</code> for every point of the set, but far faster for large sets.
+   * @param arguments the unbound result, the polygon as Literal and the name of the point set
+   * @return true if at least one point lies within the polygon
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_pointsWithin(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);
+    PointSet points=getArgumentAsAPointSet(2, arguments);
+    int[] interior=locatePointsWithin(getArgumentAsAGeometry(1, arguments), points);
+    List<SWRLBuiltInArgument> ids=new ArrayList<>(interior.length);
+    for (int index : interior)
+      ids.add(createLiteralBuiltInArgument(points.getId(index)));
+    return processResultArgument(arguments, 0, ids);
+  }
+
+  /**
+   * Binds the number of points of a registered point set that lie within a polygon.
+   * @param arguments the unbound result, the polygon as Literal and the name of the point set
+   * @return true if the result could be bound
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_countPointsWithin(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);
+    PointSet points=getArgumentAsAPointSet(2, arguments);
+    return processResultArgument(arguments, 0, locatePointsWithin(getArgumentAsAGeometry(1, arguments), points).length);
+  }
+
+  private PointSet getArgumentAsAPointSet(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    String name=getLiteralArgumentAsAString(argumentNumber, arguments);
+    PointSet points=PointSetRegistry.getInstance().get(name);
+    if (points == null)
+      throw new InvalidSWRLBuiltInArgumentException("No point set registered as " + name);
+    return points;
+  }
+
+  private FeatureSet getArgumentAsAFeatureSet(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    String name=getLiteralArgumentAsAString(argumentNumber, arguments);
+    FeatureSet features=FeatureSetRegistry.getInstance().get(name);
+    if (features == null)
+      throw new InvalidSWRLBuiltInArgumentException("No feature set registered as " + name);
+    return features;
+  }
+
+  private static int[] locatePointsWithin(Geometry polygon, PointSet points) throws SWRLBuiltInException
+  {
+    try {
+      return PointInPolygonKernel.locateInterior(polygon, points);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidSWRLBuiltInArgumentException(e.getMessage());
+    }
+  }
+
+  /**
+   * Tests the DE-9IM intersection matrix of two geometries against a pattern, e.g. <code>T*F**F***</code>.
+   * @param arguments the first and second geometry as Literal and the intersection pattern matrix
+   * @return true if the intersection matrix of the geometries matches the pattern, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_relate(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    String pattern=getLiteralArgumentAsAString(2, arguments);
+    if (pattern.length() != 9)
+      throw new InvalidSWRLBuiltInArgumentException("Intersection pattern must have 9 characters: "+pattern);
+    // JTS matches unknown symbols as false rather than rejecting them
+    if (!pattern.matches("[TF*012]{9}"))
+      throw new InvalidSWRLBuiltInArgumentException("Invalid intersection pattern: "+pattern);
+    return getArgumentsAsAnIntersectionMatrix(arguments).matches(pattern);
   }
   
   /**
@@ -689,9 +1213,28 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_touches(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);  
     Geometry geom2=getArgumentAsAGeometry(1, arguments);
-    return geom1.touches(geom2);
+    if (!geom1.getEnvelopeInternal().intersects(geom2.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isTouches(geom1.getDimension(), geom2.getDimension());
+  }
+
+  /**
+   * Computes the union of two geometries. The union is computed within the budget of the built-in.
+   * @param arguments the result as unbound variable or geometry Literal, and the first and second geometry as Literal
+   * @return true if the result is bound to or equals the union of the geometries, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_union(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {   
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);    
+    Geometry geom1=getArgumentAsAGeometry(1, arguments);  
+    Geometry geom2=getArgumentAsAGeometry(2, arguments);
+    Geometry union=evaluateWithinBudget("st_union", geom1, geom2, BudgetedOperations::union);
+    return union!=null && processResultArgument(arguments, 0, toGeometryLiteral(union));
   }
 
   /**
@@ -703,9 +1246,13 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
   public boolean st_within(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
   {   
     checkNumberOfArgumentsEqualTo(arguments.size(), 2);    
+    if (getIndexedEnvelopeDistance(arguments) > 0)
+      return false;
     Geometry geom1=getArgumentAsAGeometry(0, arguments);
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
-    return geom1.within(geom2);
+    if (!geom2.getEnvelopeInternal().covers(geom1.getEnvelopeInternal()))
+      return false;
+    return getArgumentsAsAnIntersectionMatrix(arguments).isWithin();
   }
   
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import static org.swrlapi.builtins.swrlgeo.BuiltInMetadata.ArgumentType.GEOMETRY;
+import static org.swrlapi.builtins.swrlgeo.BuiltInMetadata.ArgumentType.NUMBER;
+import static org.swrlapi.builtins.swrlgeo.BuiltInMetadata.ArgumentType.RESULT;
+import static org.swrlapi.builtins.swrlgeo.BuiltInMetadata.ArgumentType.STRING;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The metadata of all built-ins of the swrlgeo library. It is the single list of built-in names: the library registers
+ * exactly these built-ins, and <code>swrlgeo.owl</code> declares them with the same arity.
+ * <p>
+ * Costs are relative to a geometry type test. Topological and distance predicates are costed for geometries of a few
+ * hundred vertices; their envelope shortcuts make them cheaper on disjoint inputs, overlays (union, Hausdorff distance,
+ * area similarity) are far more expensive on large ones.
+ */
+public final class SWRLGeoBuiltIns
+{
+  /** The namespace of the swrlgeo built-ins. */
+  public static final String NAMESPACE = "http://semgis.de/spatial/swrlgeo#";
+
+  private static final List<BuiltInMetadata> builtIns = Collections.unmodifiableList(Arrays.asList(
+    new BuiltInMetadata("st_contains", false, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_countPointsWithin", false, 500, RESULT, GEOMETRY, STRING),
+    new BuiltInMetadata("st_coveredBy", false, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_covers", false, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_crosses", true, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_disjoint", true, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_equals", true, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_equalsExact", true, 3, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_hasAreaSimilarityMeasureBiggerThan", true, 100, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSimilarityMeasureEqualTo", true, 100, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSimilarityMeasureSmallerThan", true, 100, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSizeBiggerThan", false, 2, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSizeBiggerThanApprox", false, 1.5, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSizeEqualTo", false, 2, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSizeSmallerThan", false, 2, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasAreaSizeSmallerThanApprox", false, 1.5, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasDimension", false, 1, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasDistanceBiggerThan", true, 20, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasDistanceBiggerThanApprox", true, 5, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasDistanceEqualTo", true, 20, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasDistanceSmallerThan", true, 20, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasDistanceSmallerThanApprox", true, 5, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasEqualLength", true, 2, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_hasEqualNumPoints", true, 2, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_hasGeodesicDistanceBiggerThan", true, 15, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasGeodesicDistanceSmallerThan", true, 15, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasHausdorffDistanceEqualTo", true, 100, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasHausdorffDistanceGreaterThan", true, 100, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasHausdorffDistanceSmallerThan", true, 100, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasLengthEqualTo", false, 2, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasLengthGreaterThan", false, 2, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasLengthSmallerThan", false, 2, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_hasNumGeometries", false, 1, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_intersects", true, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_isCircularString", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isClosed", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isCompoundCurve", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isCurve", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isEmpty", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isLineString", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isMultiCurve", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isMultiLineString", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isMultiPoint", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isMultiPolygon", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isMultiSurface", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isPoint", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isPolygon", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isPolyhedralSurface", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isRectangle", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isRing", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isSimple", false, 20, GEOMETRY),
+    new BuiltInMetadata("st_isSurface", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isTin", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isTriangle", false, 1, GEOMETRY),
+    new BuiltInMetadata("st_isValid", false, 20, GEOMETRY),
+    new BuiltInMetadata("st_isWithinDistance", true, 20, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_isWithinDistanceApprox", true, 5, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_isWithinGeodesicDistance", true, 15, GEOMETRY, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_nearest", false, 50, RESULT, GEOMETRY, STRING, NUMBER),
+    new BuiltInMetadata("st_numPointsGreaterThan", false, 1, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_numPointsSmallerThan", false, 1, GEOMETRY, NUMBER),
+    new BuiltInMetadata("st_overlaps", true, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_pointsWithin", false, 500, RESULT, GEOMETRY, STRING),
+    new BuiltInMetadata("st_relate", false, 25, GEOMETRY, GEOMETRY, STRING),
+    new BuiltInMetadata("st_touches", true, 25, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_union", false, 200, RESULT, GEOMETRY, GEOMETRY),
+    new BuiltInMetadata("st_within", false, 25, GEOMETRY, GEOMETRY)));
+
+  private static final Map<String, BuiltInMetadata> builtInsByName = new LinkedHashMap<>();
+
+  static {
+    for (BuiltInMetadata builtIn : builtIns)
+      builtInsByName.put(builtIn.getName(), builtIn);
+  }
+
+  private SWRLGeoBuiltIns()
+  {
+  }
+
+  /**
+   * @return the metadata of all built-ins, ordered by name
+   */
+  public static List<BuiltInMetadata> getAll()
+  {
+    return builtIns;
+  }
+
+  /**
+   * @param name the name of a built-in, without prefix
+   * @return the metadata of the built-in, or null if it is not a swrlgeo built-in
+   */
+  public static BuiltInMetadata get(String name)
+  {
+    return builtInsByName.get(name);
+  }
+
+  /**
+   * @return the names of all built-ins, without prefix
+   */
+  public static Set<String> getNames()
+  {
+    return Collections.unmodifiableSet(builtInsByName.keySet());
+  }
+}
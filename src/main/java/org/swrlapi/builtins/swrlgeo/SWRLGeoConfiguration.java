@@ -0,0 +1,245 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swrlapi.builtins.swrlgeo.budget.BudgetPolicy;
+import org.swrlapi.builtins.swrlgeo.budget.OperationBudget;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Configuration of the swrlgeo built-in library. The library is instantiated reflectively by the built-in library
+ * manager, so settings are read from system properties, e.g. <code>-Dswrlgeo.workingCRS=EPSG:25832</code>.
+ */
+public final class SWRLGeoConfiguration
+{
+  private static final Logger log = LoggerFactory.getLogger(SWRLGeoConfiguration.class);
+
+  // The budget policy of every built-in, parsed on its first invocation
+  private static final Map<String, BudgetPolicy> budgetPolicies = new ConcurrentHashMap<>();
+
+  /** The CRS all geometry literals are reprojected to before evaluation. Defaults to CRS84. */
+  public static final String WORKING_CRS_PROPERTY = "swrlgeo.workingCRS";
+
+  /**
+   * If true, geometry literals without a CRS IRI are taken to be in the working CRS, as before CRS IRIs were supported.
+   * By default they are in CRS84, as GeoSPARQL specifies.
+   */
+  public static final String LEGACY_UNTAGGED_LITERALS_PROPERTY = "swrlgeo.legacyUntaggedLiterals";
+
+  /** The maximum number of parsed geometries held in the geometry cache. */
+  public static final String GEOMETRY_CACHE_SIZE_PROPERTY = "swrlgeo.geometryCacheSize";
+
+  /**
+   * If true, predicate results are kept across reasoning runs and only recomputed for changed geometry literals.
+   */
+  public static final String DELTA_EVALUATION_PROPERTY = "swrlgeo.deltaEvaluation";
+
+  /** The maximum number of predicate results held for delta evaluation. */
+  public static final String RESULT_CACHE_SIZE_PROPERTY = "swrlgeo.resultCacheSize";
+
+  /** The maximum number of DE-9IM intersection matrices held for topological predicates. */
+  public static final String RELATE_CACHE_SIZE_PROPERTY = "swrlgeo.relateCacheSize";
+
+  /**
+   * The scale of the fixed precision model geometries are snapped to at parse time, in units of the working CRS, e.g.
+   * 1000 for millimetres in a metric CRS. Not set or 0 keeps full floating precision.
+   */
+  public static final String PRECISION_SCALE_PROPERTY = "swrlgeo.precisionScale";
+
+  /** If true, invalid polygons are repaired at parse time, so topological predicates do not fail on them. */
+  public static final String REPAIR_INVALID_PROPERTY = "swrlgeo.repairInvalid";
+
+  /** The maximum number of simplification ladders held for approximate built-ins. */
+  public static final String SIMPLIFICATION_CACHE_SIZE_PROPERTY = "swrlgeo.simplificationCacheSize";
+
+  /**
+   * The time budget of expensive geometry operations in milliseconds. Not set or 0 means no limit. Like the other
+   * budget properties it can be set per built-in by appending its name, e.g. <code>swrlgeo.timeBudget.st_union</code>.
+   */
+  public static final String TIME_BUDGET_PROPERTY = "swrlgeo.timeBudget";
+
+  /** The maximum number of input vertices of expensive geometry operations. Not set or 0 means no limit. */
+  public static final String VERTEX_BUDGET_PROPERTY = "swrlgeo.vertexBudget";
+
+  /**
+   * What to do when an operation exceeds its budget: APPROXIMATE, RETURN_FALSE or FAIL (the default). Read once per
+   * built-in; unknown values are logged and replaced by FAIL.
+   */
+  public static final String BUDGET_POLICY_PROPERTY = "swrlgeo.budgetPolicy";
+
+  /** The number of consecutive budget trips that opens the circuit breaker of a built-in. */
+  public static final String BREAKER_THRESHOLD_PROPERTY = "swrlgeo.breakerThreshold";
+
+  /** How long an opened circuit breaker stays open, in milliseconds. */
+  public static final String BREAKER_COOLDOWN_PROPERTY = "swrlgeo.breakerCooldown";
+
+  /**
+   * If false, the bodies of SWRL rules are not reordered by cost before the rule engine is created by the tools of this
+   * library. Defaults to true.
+   */
+  public static final String OPTIMIZE_RULES_PROPERTY = "swrlgeo.optimizeRules";
+
+  /** Sample one in every n invocations of each built-in; 0 disables sampling. */
+  public static final String STATISTICS_SAMPLE_INTERVAL_PROPERTY = "swrlgeo.statisticsSampleInterval";
+
+  /** The properties file built-in statistics are persisted to between runs; not set keeps them in memory only. */
+  public static final String STATISTICS_FILE_PROPERTY = "swrlgeo.statisticsFile";
+
+  private SWRLGeoConfiguration()
+  {
+  }
+
+  /**
+   * @return the configured working CRS
+   */
+  public static CoordinateReferenceSystem getWorkingCRS()
+  {
+    String name = System.getProperty(WORKING_CRS_PROPERTY);
+    return name == null ? CoordinateReferenceSystem.CRS84 : CoordinateReferenceSystem.forName(name);
+  }
+
+  /**
+   * @return the CRS of geometry literals without a CRS IRI, or null if they are taken to be in the working CRS
+   */
+  public static CoordinateReferenceSystem getUntaggedLiteralCRS()
+  {
+    return Boolean.getBoolean(LEGACY_UNTAGGED_LITERALS_PROPERTY) ? null : CoordinateReferenceSystem.CRS84;
+  }
+
+  /**
+   * @return the configured geometry cache size
+   */
+  public static int getGeometryCacheSize()
+  {
+    return Integer.getInteger(GEOMETRY_CACHE_SIZE_PROPERTY, 10000);
+  }
+
+  /**
+   * @return true if delta evaluation is enabled
+   */
+  public static boolean isDeltaEvaluation()
+  {
+    return Boolean.getBoolean(DELTA_EVALUATION_PROPERTY);
+  }
+
+  /**
+   * @return the configured predicate result cache size
+   */
+  public static int getResultCacheSize()
+  {
+    return Integer.getInteger(RESULT_CACHE_SIZE_PROPERTY, 100000);
+  }
+
+  /**
+   * @return the configured intersection matrix cache size
+   */
+  public static int getRelateCacheSize()
+  {
+    return Integer.getInteger(RELATE_CACHE_SIZE_PROPERTY, 10000);
+  }
+
+  /**
+   * @return the configured simplification cache size
+   */
+  public static int getSimplificationCacheSize()
+  {
+    return Integer.getInteger(SIMPLIFICATION_CACHE_SIZE_PROPERTY, 1000);
+  }
+
+  /**
+   * @return the configured precision scale, or 0 for floating precision
+   */
+  public static double getPrecisionScale()
+  {
+    String scale = System.getProperty(PRECISION_SCALE_PROPERTY);
+    return scale == null ? 0 : Double.parseDouble(scale);
+  }
+
+  /**
+   * @return true if invalid polygons are repaired
+   */
+  public static boolean isRepairInvalid()
+  {
+    return Boolean.getBoolean(REPAIR_INVALID_PROPERTY);
+  }
+
+  /**
+   * @return the normalizer for the configured precision and repair settings
+   */
+  public static GeometryNormalizer getGeometryNormalizer()
+  {
+    return new GeometryNormalizer(getPrecisionScale(), isRepairInvalid());
+  }
+
+  /**
+   * Creates the budget of a built-in invocation from the general and the built-in specific budget properties.
+   * @param builtInName the name of the built-in
+   * @return the budget, whose time starts running immediately
+   */
+  public static OperationBudget createBudget(String builtInName)
+  {
+    long timeBudget = Long.getLong(TIME_BUDGET_PROPERTY + "." + builtInName, Long.getLong(TIME_BUDGET_PROPERTY, 0));
+    int vertexBudget = Integer
+      .getInteger(VERTEX_BUDGET_PROPERTY + "." + builtInName, Integer.getInteger(VERTEX_BUDGET_PROPERTY, 0));
+    BudgetPolicy policy = budgetPolicies.computeIfAbsent(builtInName, SWRLGeoConfiguration::readBudgetPolicy);
+    return new OperationBudget(builtInName, timeBudget, vertexBudget, policy);
+  }
+
+  private static BudgetPolicy readBudgetPolicy(String builtInName)
+  {
+    String policy = System
+      .getProperty(BUDGET_POLICY_PROPERTY + "." + builtInName, System.getProperty(BUDGET_POLICY_PROPERTY, "FAIL"));
+    try {
+      return BudgetPolicy.valueOf(policy.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      log.warn("Unknown budget policy " + policy + " for " + builtInName + ", using " + BudgetPolicy.FAIL);
+      return BudgetPolicy.FAIL;
+    }
+  }
+
+  /**
+   * @return the configured number of consecutive trips that opens a circuit breaker
+   */
+  public static int getBreakerThreshold()
+  {
+    return Integer.getInteger(BREAKER_THRESHOLD_PROPERTY, 3);
+  }
+
+  /**
+   * @return the configured circuit breaker cooldown in milliseconds
+   */
+  public static long getBreakerCooldown()
+  {
+    return Long.getLong(BREAKER_COOLDOWN_PROPERTY, 60000);
+  }
+
+  /**
+   * @return true if rule bodies are reordered by cost
+   */
+  public static boolean isOptimizeRules()
+  {
+    return Boolean.parseBoolean(System.getProperty(OPTIMIZE_RULES_PROPERTY, "true"));
+  }
+
+  /**
+   * @return the configured statistics sample interval
+   */
+  public static int getStatisticsSampleInterval()
+  {
+    return Integer.getInteger(STATISTICS_SAMPLE_INTERVAL_PROPERTY, 100);
+  }
+
+  /**
+   * @return the configured statistics file, or null
+   */
+  public static Path getStatisticsFile()
+  {
+    String file = System.getProperty(STATISTICS_FILE_PROPERTY);
+    return file == null ? null : Paths.get(file);
+  }
+}
@@ -0,0 +1,69 @@
+package org.swrlapi.builtins.swrlgeo;
+
+/**
+ * Cache of the {@link SimplificationLadder}s of geometry literals used by the approximate built-ins. Ladders of
+ * changed literals are dropped when {@link GeometryChangeTracker} reports them.
+ */
+public final class SimplificationCache implements GeometryChangeListener
+{
+  private static final SimplificationCache instance = new SimplificationCache(
+    SWRLGeoConfiguration.getSimplificationCacheSize());
+
+  static {
+    GeometryChangeTracker.getInstance().addListener(instance);
+  }
+
+  private final BoundedCache<String, SimplificationLadder> ladders;
+
+  SimplificationCache(int maximumSize)
+  {
+    this.ladders = new BoundedCache<>(maximumSize);
+  }
+
+  /**
+   * @return the cache shared by the swrlgeo library
+   */
+  public static SimplificationCache getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param literal the lexical form of the geometry literal
+   * @return the cached ladder, or null
+   */
+  public SimplificationLadder get(String literal)
+  {
+    return this.ladders.get(literal);
+  }
+
+  /**
+   * @param literal the lexical form of the geometry literal
+   * @param ladder the ladder of the geometry in the working CRS
+   */
+  public void put(String literal, SimplificationLadder ladder)
+  {
+    this.ladders.put(literal, ladder);
+  }
+
+  @Override public void geometryChanged(String literal)
+  {
+    this.ladders.remove(literal);
+  }
+
+  /**
+   * Removes all cached ladders.
+   */
+  public void clear()
+  {
+    this.ladders.clear();
+  }
+
+  /**
+   * @return the underlying cache, e.g. to read hit statistics
+   */
+  public BoundedCache<?, SimplificationLadder> getEntries()
+  {
+    return this.ladders;
+  }
+}
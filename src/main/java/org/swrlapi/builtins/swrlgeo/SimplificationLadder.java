@@ -0,0 +1,131 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Simplified versions of a geometry at decreasing tolerances, built lazily. Level 0 is the coarsest. A topology
+ * preserving simplification with tolerance t stays within distance t of the original geometry, which bounds the
+ * error of measures computed on a level. Approximate predicates start on the coarsest level and refine only while the
+ * bounds leave the answer open, so their results are the same as on full resolution.
+ */
+public final class SimplificationLadder
+{
+  /** The number of simplification levels of a geometry. */
+  public static final int LEVELS = 4;
+
+  // Geometries with fewer vertices are always evaluated on full resolution
+  private static final int MINIMUM_VERTICES = 64;
+
+  private final Geometry geometry;
+  private final Geometry[] levels;
+  private final double coarsestTolerance;
+
+  /**
+   * @param geometry the full resolution geometry
+   */
+  public SimplificationLadder(Geometry geometry)
+  {
+    this.geometry = geometry;
+    this.levels = new Geometry[geometry.getNumPoints() < MINIMUM_VERTICES ? 0 : LEVELS];
+    this.coarsestTolerance =
+      Math.max(geometry.getEnvelopeInternal().getWidth(), geometry.getEnvelopeInternal().getHeight()) / 16;
+  }
+
+  /**
+   * @return the full resolution geometry
+   */
+  public Geometry getGeometry()
+  {
+    return this.geometry;
+  }
+
+  /**
+   * @return the number of simplification levels; 0 for geometries too small to be worth simplifying
+   */
+  public int getLevelCount()
+  {
+    return this.levels.length;
+  }
+
+  /**
+   * @param level the level, 0 being the coarsest
+   * @return the simplification tolerance of the level, or 0 if the level is the full resolution geometry
+   */
+  public double getTolerance(int level)
+  {
+    return level < this.levels.length ? this.coarsestTolerance / Math.pow(4, level) : 0;
+  }
+
+  /**
+   * @param level the level, 0 being the coarsest
+   * @return the simplified geometry of the level, or the full resolution geometry beyond the last level
+   */
+  public synchronized Geometry getLevel(int level)
+  {
+    if (level >= this.levels.length)
+      return this.geometry;
+    if (this.levels[level] == null)
+      this.levels[level] = TopologyPreservingSimplifier.simplify(this.geometry, getTolerance(level));
+    return this.levels[level];
+  }
+
+  /**
+   * @param level the level, 0 being the coarsest
+   * @return the maximum difference between the area of the level and the area of the full resolution geometry
+   */
+  public double getAreaErrorBound(int level)
+  {
+    if (!(this.geometry instanceof Polygonal))
+      return 0;
+    double tolerance = getTolerance(level);
+    int rings = 0;
+    for (int i = 0; i < this.geometry.getNumGeometries(); i++)
+      rings += 1 + ((Polygon)this.geometry.getGeometryN(i)).getNumInteriorRing();
+    // the simplified boundary stays within a band of the tolerance around the original boundary
+    return 2 * tolerance * this.geometry.getLength() + Math.PI * tolerance * tolerance * rings;
+  }
+
+  /**
+   * Tests a predicate on the distance between two geometries, which must be monotone in the distance, e.g.
+   * <code>d -&gt; d &lt;= 500</code>.
+   * @param a the ladder of the first geometry
+   * @param b the ladder of the second geometry
+   * @param predicate the predicate on the distance
+   * @return the value of the predicate for the distance between the full resolution geometries
+   */
+  public static boolean testDistance(SimplificationLadder a, SimplificationLadder b, DoublePredicate predicate)
+  {
+    int levels = Math.max(a.getLevelCount(), b.getLevelCount());
+    for (int level = 0; level < levels; level++) {
+      double distance = a.getLevel(level).distance(b.getLevel(level));
+      double error = a.getTolerance(level) + b.getTolerance(level);
+      boolean lower = predicate.test(Math.max(0, distance - error));
+      if (lower == predicate.test(distance + error))
+        return lower;
+    }
+    return predicate.test(a.getGeometry().distance(b.getGeometry()));
+  }
+
+  /**
+   * Tests a predicate on the area of the geometry, which must be monotone in the area, e.g.
+   * <code>area -&gt; area &gt; 10000</code>.
+   * @param predicate the predicate on the area
+   * @return the value of the predicate for the area of the full resolution geometry
+   */
+  public boolean testArea(DoublePredicate predicate)
+  {
+    for (int level = 0; level < getLevelCount(); level++) {
+      double area = getLevel(level).getArea();
+      double error = getAreaErrorBound(level);
+      boolean lower = predicate.test(Math.max(0, area - error));
+      if (lower == predicate.test(area + error))
+        return lower;
+    }
+    return predicate.test(this.geometry.getArea());
+  }
+}
@@ -0,0 +1,27 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+/**
+ * Raised when a geometry operation exceeds the time or vertex budget of its built-in.
+ */
+public class BudgetExceededException extends SWRLBuiltInException
+{
+  private static final long serialVersionUID = 1L;
+
+  private final String builtInName;
+
+  public BudgetExceededException(String builtInName, String message)
+  {
+    super(builtInName + ": " + message);
+    this.builtInName = builtInName;
+  }
+
+  /**
+   * @return the name of the built-in whose budget was exceeded
+   */
+  public String getBuiltInName()
+  {
+    return this.builtInName;
+  }
+}
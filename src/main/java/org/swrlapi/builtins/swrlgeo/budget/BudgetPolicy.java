@@ -0,0 +1,14 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+/**
+ * What a built-in does when an operation exceeds its time or vertex budget.
+ */
+public enum BudgetPolicy
+{
+  /** Evaluate again on simplified geometries, accepting an approximate answer. */
+  APPROXIMATE,
+  /** Let the built-in fail to match, i.e. return false. */
+  RETURN_FALSE,
+  /** Raise a {@link BudgetExceededException}. */
+  FAIL
+}
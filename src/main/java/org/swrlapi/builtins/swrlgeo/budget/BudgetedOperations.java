@@ -0,0 +1,116 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+import com.vividsolutions.jts.algorithm.distance.DistanceToPoint;
+import com.vividsolutions.jts.algorithm.distance.PointPairDistance;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.operation.union.UnaryUnionOp;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Geometry operations that can run for a long time on large inputs, implemented with budget checkpoints inside their
+ * main loops.
+ */
+public final class BudgetedOperations
+{
+  private BudgetedOperations()
+  {
+  }
+
+  /**
+   * Computes the discrete Hausdorff distance of two geometries, i.e. the same value as JTS'
+   * <code>DiscreteHausdorffDistance</code>, checking the budget once per vertex.
+   * @param g0 the first geometry
+   * @param g1 the second geometry
+   * @param budget the budget of the invocation
+   * @return the discrete Hausdorff distance
+   * @throws BudgetExceededException if the budget runs out
+   */
+  public static double hausdorffDistance(Geometry g0, Geometry g1, OperationBudget budget)
+    throws BudgetExceededException
+  {
+    return Math.max(orientedHausdorffDistance(g0, g1, budget), orientedHausdorffDistance(g1, g0, budget));
+  }
+
+  private static double orientedHausdorffDistance(Geometry from, Geometry to, OperationBudget budget)
+    throws BudgetExceededException
+  {
+    PointPairDistance pointDistance = new PointPairDistance();
+    double maximum = 0;
+    for (Coordinate coordinate : from.getCoordinates()) {
+      budget.checkpoint();
+      pointDistance.initialize();
+      DistanceToPoint.computeDistance(to, coordinate, pointDistance);
+      maximum = Math.max(maximum, pointDistance.getDistance());
+    }
+    return maximum;
+  }
+
+  /**
+   * Computes the union of two geometries. Polygonal inputs are unioned component by component in a binary tree,
+   * checking the time budget between merges; other inputs are unioned in one step.
+   * <p>
+   * A single merge cannot be interrupted, so the time budget may be overrun by the duration of the last merge, which
+   * for two large components or non-polygonal inputs is most of the operation. The vertex budget is therefore checked
+   * before any merge starts; set it to bound the work of a single union.
+   * @param g0 the first geometry
+   * @param g1 the second geometry
+   * @param budget the budget of the invocation
+   * @return the union
+   * @throws BudgetExceededException if the inputs exceed the vertex budget or the time budget runs out
+   */
+  public static Geometry union(Geometry g0, Geometry g1, OperationBudget budget) throws BudgetExceededException
+  {
+    budget.checkVertices(g0.getNumPoints() + g1.getNumPoints());
+    budget.checkpoint();
+    if (!(g0 instanceof Polygonal && g1 instanceof Polygonal)) {
+      Geometry union = UnaryUnionOp.union(Arrays.asList(g0, g1));
+      budget.checkpoint();
+      return union;
+    }
+
+    List<Geometry> parts = new ArrayList<>(g0.getNumGeometries() + g1.getNumGeometries());
+    for (Geometry geometry : Arrays.asList(g0, g1))
+      for (int i = 0; i < geometry.getNumGeometries(); i++)
+        if (!geometry.getGeometryN(i).isEmpty())
+          parts.add(geometry.getGeometryN(i));
+    if (parts.isEmpty())
+      return g0.getFactory().createPolygon(null, null);
+
+    // neighbouring components are merged first, so intermediate results stay small
+    parts.sort(Comparator.comparingDouble(part -> part.getEnvelopeInternal().getMinX()));
+    while (parts.size() > 1) {
+      List<Geometry> merged = new ArrayList<>((parts.size() + 1) / 2);
+      for (int i = 0; i < parts.size(); i += 2) {
+        budget.checkpoint();
+        merged.add(i + 1 < parts.size() ? parts.get(i).union(parts.get(i + 1)) : parts.get(i));
+      }
+      parts = merged;
+    }
+    return parts.get(0);
+  }
+
+  /**
+   * Simplifies a geometry until it has at most the given number of vertices, as a cheaper approximation of it.
+   * @param geometry the geometry
+   * @param maximumVertices the maximum number of vertices
+   * @return the simplified geometry, or the given one if it is small enough
+   */
+  public static Geometry simplify(Geometry geometry, int maximumVertices)
+  {
+    Geometry simplified = geometry;
+    double tolerance = Math.max(geometry.getEnvelopeInternal().getWidth(), geometry.getEnvelopeInternal().getHeight())
+      / 10000;
+    for (int i = 0; i < 12 && simplified.getNumPoints() > maximumVertices && tolerance > 0; i++) {
+      simplified = DouglasPeuckerSimplifier.simplify(geometry, tolerance);
+      tolerance *= 4;
+    }
+    return simplified;
+  }
+}
@@ -0,0 +1,163 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Circuit breaker for budgeted geometry operations. After a number of consecutive budget trips of a built-in, its
+ * breaker opens for a cooldown period. While it is open, inputs at least as large as the smallest one that tripped are
+ * not tried again; the budget policy of the built-in is applied to them at once.
+ */
+public final class CircuitBreaker implements CircuitBreakerMXBean
+{
+  private static final CircuitBreaker instance = new CircuitBreaker();
+
+  static {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+        .registerMBean(instance, new ObjectName("org.swrlapi.builtins.swrlgeo:type=CircuitBreaker"));
+    } catch (JMException e) {
+      // already registered by another class loader; the metrics are still available through getInstance()
+    }
+  }
+
+  private final Map<String, State> states = new ConcurrentHashMap<>();
+  private volatile int tripThreshold = 3;
+  private volatile long cooldownMillis = 60000;
+
+  private CircuitBreaker()
+  {
+  }
+
+  /**
+   * @return the circuit breaker shared by the swrlgeo library
+   */
+  public static CircuitBreaker getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param tripThreshold the number of consecutive trips that opens the breaker of a built-in
+   * @param cooldownMillis how long an opened breaker stays open
+   */
+  public void configure(int tripThreshold, long cooldownMillis)
+  {
+    this.tripThreshold = tripThreshold;
+    this.cooldownMillis = cooldownMillis;
+  }
+
+  /**
+   * @param builtInName the name of the built-in
+   * @param vertices the number of input vertices of the invocation
+   * @return true if the invocation should not be tried
+   */
+  public boolean isOpen(String builtInName, int vertices)
+  {
+    State state = this.states.get(builtInName);
+    if (state == null || System.currentTimeMillis() >= state.openUntil || vertices < state.minimumTrippingVertices)
+      return false;
+    state.shortCircuits.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * @param builtInName the name of the built-in
+   * @param vertices the number of input vertices of the operation that exceeded its budget
+   */
+  public void recordTrip(String builtInName, int vertices)
+  {
+    State state = getState(builtInName);
+    state.trips.incrementAndGet();
+    synchronized (state) {
+      state.minimumTrippingVertices = Math.min(state.minimumTrippingVertices, vertices);
+      if (++state.consecutiveTrips >= this.tripThreshold)
+        state.openUntil = System.currentTimeMillis() + this.cooldownMillis;
+    }
+  }
+
+  /**
+   * @param builtInName the name of the built-in whose operation completed within its budget
+   */
+  public void recordSuccess(String builtInName)
+  {
+    State state = this.states.get(builtInName);
+    if (state != null && state.consecutiveTrips > 0) {
+      synchronized (state) {
+        state.consecutiveTrips = 0;
+        if (System.currentTimeMillis() >= state.openUntil)
+          state.minimumTrippingVertices = Integer.MAX_VALUE;
+      }
+    }
+  }
+
+  /**
+   * @param builtInName the name of the built-in that was answered on simplified geometries
+   */
+  public void recordApproximation(String builtInName)
+  {
+    getState(builtInName).approximations.incrementAndGet();
+  }
+
+  @Override public Map<String, Long> getTrips()
+  {
+    return collect(state -> state.trips.get());
+  }
+
+  @Override public Map<String, Long> getShortCircuits()
+  {
+    return collect(state -> state.shortCircuits.get());
+  }
+
+  @Override public Map<String, Long> getApproximations()
+  {
+    return collect(state -> state.approximations.get());
+  }
+
+  @Override public String[] getOpenBreakers()
+  {
+    long now = System.currentTimeMillis();
+    List<String> open = new ArrayList<>();
+    for (Map.Entry<String, State> entry : this.states.entrySet())
+      if (now < entry.getValue().openUntil)
+        open.add(entry.getKey());
+    return open.toArray(new String[open.size()]);
+  }
+
+  @Override public void reset()
+  {
+    this.states.clear();
+  }
+
+  private State getState(String builtInName)
+  {
+    return this.states.computeIfAbsent(builtInName, name -> new State());
+  }
+
+  private Map<String, Long> collect(Function<State, Long> metric)
+  {
+    Map<String, Long> values = new TreeMap<>();
+    for (Map.Entry<String, State> entry : this.states.entrySet())
+      values.put(entry.getKey(), metric.apply(entry.getValue()));
+    return values;
+  }
+
+  private static final class State
+  {
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong shortCircuits = new AtomicLong();
+    private final AtomicLong approximations = new AtomicLong();
+    private volatile int consecutiveTrips;
+    private volatile int minimumTrippingVertices = Integer.MAX_VALUE;
+    private volatile long openUntil;
+  }
+}
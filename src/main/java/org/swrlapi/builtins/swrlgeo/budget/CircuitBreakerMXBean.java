@@ -0,0 +1,35 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+import java.util.Map;
+
+/**
+ * Metrics of the {@link CircuitBreaker}, per built-in name. Registered with the platform MBean server as
+ * <code>org.swrlapi.builtins.swrlgeo:type=CircuitBreaker</code>.
+ */
+public interface CircuitBreakerMXBean
+{
+  /**
+   * @return the number of operations that exceeded their budget
+   */
+  Map<String, Long> getTrips();
+
+  /**
+   * @return the number of invocations rejected without trying while the breaker was open
+   */
+  Map<String, Long> getShortCircuits();
+
+  /**
+   * @return the number of invocations answered on simplified geometries
+   */
+  Map<String, Long> getApproximations();
+
+  /**
+   * @return the built-ins whose breaker is currently open
+   */
+  String[] getOpenBreakers();
+
+  /**
+   * Closes all breakers and clears the metrics.
+   */
+  void reset();
+}
@@ -0,0 +1,77 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+/**
+ * Time and vertex budget of a single built-in invocation. Long-running loops call {@link #checkpoint()} regularly,
+ * so an operation that runs out of time is cancelled cooperatively instead of stalling the rule engine.
+ */
+public final class OperationBudget
+{
+  private final String builtInName;
+  private final long timeBudgetMillis;
+  private final int vertexBudget;
+  private final BudgetPolicy policy;
+  private final long deadline;
+
+  /**
+   * Creates a budget whose time starts running immediately.
+   * @param builtInName the name of the built-in
+   * @param timeBudgetMillis the time budget in milliseconds, or 0 for no limit
+   * @param vertexBudget the maximum number of input vertices, or 0 for no limit
+   * @param policy what to do when the budget is exceeded
+   */
+  public OperationBudget(String builtInName, long timeBudgetMillis, int vertexBudget, BudgetPolicy policy)
+  {
+    this.builtInName = builtInName;
+    this.timeBudgetMillis = timeBudgetMillis;
+    this.vertexBudget = vertexBudget;
+    this.policy = policy;
+    this.deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1000000L : Long.MAX_VALUE;
+  }
+
+  /**
+   * @return a budget with the same limits whose time starts running now
+   */
+  public OperationBudget restart()
+  {
+    return new OperationBudget(this.builtInName, this.timeBudgetMillis, this.vertexBudget, this.policy);
+  }
+
+  /**
+   * @param vertices the number of input vertices of the operation
+   * @throws BudgetExceededException if the number exceeds the vertex budget
+   */
+  public void checkVertices(int vertices) throws BudgetExceededException
+  {
+    if (this.vertexBudget > 0 && vertices > this.vertexBudget)
+      throw new BudgetExceededException(this.builtInName,
+        vertices + " vertices exceed the budget of " + this.vertexBudget);
+  }
+
+  /**
+   * @throws BudgetExceededException if the time budget has run out
+   */
+  public void checkpoint() throws BudgetExceededException
+  {
+    if (System.nanoTime() > this.deadline)
+      throw new BudgetExceededException(this.builtInName,
+        "operation exceeded the time budget of " + this.timeBudgetMillis + " ms");
+  }
+
+  public String getBuiltInName()
+  {
+    return this.builtInName;
+  }
+
+  /**
+   * @return the maximum number of input vertices, or 0 for no limit
+   */
+  public int getVertexBudget()
+  {
+    return this.vertexBudget;
+  }
+
+  public BudgetPolicy getPolicy()
+  {
+    return this.policy;
+  }
+}
@@ -0,0 +1,170 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A coordinate reference system known to the swrlgeo library. Only CRSs that can be handled by the pure Java
+ * projections in this package are supported, so no registry or network lookup is ever needed:
+ * <ul>
+ * <li>OGC CRS84 and EPSG:4326/EPSG:4258 (geographic; EPSG codes use latitude/longitude axis order)</li>
+ * <li>EPSG:3857 (Pseudo-Mercator)</li>
+ * <li>EPSG:32601-32660 and EPSG:32701-32760 (WGS 84 / UTM)</li>
+ * <li>EPSG:25828-25838 (ETRS89 / UTM)</li>
+ * </ul>
+ * WGS 84 and ETRS89 are treated as identical, which is accurate to the sub-metre level.
+ * Internally all geographic coordinates are held in longitude/latitude order.
+ */
+public final class CoordinateReferenceSystem
+{
+  /** The SRID used for OGC CRS84, the GeoSPARQL default CRS. */
+  public static final int CRS84_SRID = 4326;
+
+  private static final String EPSG_IRI_PREFIX = "http://www.opengis.net/def/crs/EPSG/0/";
+  private static final String CRS84_IRI = "http://www.opengis.net/def/crs/OGC/1.3/CRS84";
+  private static final double WGS84_A = 6378137.0;
+  private static final double WGS84_RF = 298.257223563;
+  private static final double GRS80_RF = 298.257222101;
+
+  private static final Map<Integer, CoordinateReferenceSystem> crsBySRID = new ConcurrentHashMap<>();
+
+  public static final CoordinateReferenceSystem CRS84 = new CoordinateReferenceSystem(CRS84_SRID, CRS84_IRI, null,
+    false);
+
+  private final int srid;
+  private final String iri;
+  private final Projection projection;
+  private final boolean latitudeFirst;
+
+  private CoordinateReferenceSystem(int srid, String iri, Projection projection, boolean latitudeFirst)
+  {
+    this.srid = srid;
+    this.iri = iri;
+    this.projection = projection;
+    this.latitudeFirst = latitudeFirst;
+  }
+
+  /**
+   * Resolves a CRS from its IRI as used in GeoSPARQL literals, e.g.
+   * <code>http://www.opengis.net/def/crs/EPSG/0/25832</code>.
+   * @param iri the CRS IRI
+   * @return the CRS
+   * @throws IllegalArgumentException if the CRS is not supported
+   */
+  public static CoordinateReferenceSystem fromIRI(String iri)
+  {
+    if (CRS84_IRI.equals(iri))
+      return CRS84;
+    if (iri.startsWith(EPSG_IRI_PREFIX)) {
+      try {
+        return forEPSGCode(Integer.parseInt(iri.substring(EPSG_IRI_PREFIX.length())));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid EPSG CRS IRI " + iri);
+      }
+    }
+    throw new IllegalArgumentException("Unsupported CRS " + iri);
+  }
+
+  /**
+   * Resolves a CRS from a short name such as <code>EPSG:25832</code> or <code>CRS84</code>, or from a CRS IRI.
+   * @param name the name
+   * @return the CRS
+   * @throws IllegalArgumentException if the CRS is not supported
+   */
+  public static CoordinateReferenceSystem forName(String name)
+  {
+    String trimmed = name.trim();
+    if ("CRS84".equalsIgnoreCase(trimmed))
+      return CRS84;
+    if (trimmed.toUpperCase().startsWith("EPSG:")) {
+      try {
+        return forEPSGCode(Integer.parseInt(trimmed.substring(5)));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid EPSG code " + name);
+      }
+    }
+    return fromIRI(trimmed);
+  }
+
+  /**
+   * Resolves a CRS from its EPSG code.
+   * @param code the EPSG code
+   * @return the CRS
+   * @throws IllegalArgumentException if the CRS is not supported
+   */
+  public static CoordinateReferenceSystem forEPSGCode(int code)
+  {
+    CoordinateReferenceSystem crs = crsBySRID.get(code);
+    if (crs == null) {
+      crs = createEPSG(code);
+      crsBySRID.put(code, crs);
+    }
+    return crs;
+  }
+
+  private static CoordinateReferenceSystem createEPSG(int code)
+  {
+    String iri = EPSG_IRI_PREFIX + code;
+
+    if (code == 4326 || code == 4258)
+      return new CoordinateReferenceSystem(CRS84_SRID, iri, null, true);
+    else if (code == 3857)
+      return new CoordinateReferenceSystem(code, iri, new WebMercatorProjection(), false);
+    else if (code >= 32601 && code <= 32660)
+      return new CoordinateReferenceSystem(code, iri,
+        TransverseMercatorProjection.utm(WGS84_A, WGS84_RF, code - 32600, false), false);
+    else if (code >= 32701 && code <= 32760)
+      return new CoordinateReferenceSystem(code, iri,
+        TransverseMercatorProjection.utm(WGS84_A, WGS84_RF, code - 32700, true), false);
+    else if (code >= 25828 && code <= 25838)
+      return new CoordinateReferenceSystem(code, iri,
+        TransverseMercatorProjection.utm(WGS84_A, GRS80_RF, code - 25800, false), false);
+    else
+      throw new IllegalArgumentException("Unsupported CRS EPSG:" + code);
+  }
+
+  /**
+   * @return the SRID stored on geometries in this CRS; all geographic CRSs share {@link #CRS84_SRID}
+   */
+  public int getSRID()
+  {
+    return this.srid;
+  }
+
+  /**
+   * @return the IRI of this CRS
+   */
+  public String getIRI()
+  {
+    return this.iri;
+  }
+
+  /**
+   * @return true if coordinates are longitude/latitude in degrees
+   */
+  public boolean isGeographic()
+  {
+    return this.projection == null;
+  }
+
+  /**
+   * @return true if literals in this CRS list latitude before longitude
+   */
+  public boolean isLatitudeFirst()
+  {
+    return this.latitudeFirst;
+  }
+
+  /**
+   * @return the projection, or null for a geographic CRS
+   */
+  public Projection getProjection()
+  {
+    return this.projection;
+  }
+
+  @Override public String toString()
+  {
+    return this.iri;
+  }
+}
@@ -0,0 +1,96 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFilter;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Reprojects JTS geometries between {@link CoordinateReferenceSystem}s. Projected coordinates are converted through
+ * geographic longitude/latitude, so any pair of supported CRSs can be combined.
+ */
+public final class CoordinateTransformer
+{
+  private CoordinateTransformer()
+  {
+  }
+
+  /**
+   * Transforms a geometry into another CRS. The source geometry is not modified.
+   * @param geometry the geometry, with coordinates in longitude/latitude order if the source CRS is geographic
+   * @param source the CRS of the geometry
+   * @param target the CRS to transform to
+   * @return the transformed geometry carrying the SRID of the target CRS
+   */
+  public static Geometry transform(Geometry geometry, CoordinateReferenceSystem source,
+    CoordinateReferenceSystem target)
+  {
+    Geometry result = (Geometry)geometry.clone();
+
+    if (source.getSRID() != target.getSRID())
+      result.apply(new ProjectionFilter(source.getProjection(), target.getProjection()));
+    result.setSRID(target.getSRID());
+    return result;
+  }
+
+  /**
+   * Swaps the x and y ordinates of a geometry in place, e.g. to turn latitude/longitude into longitude/latitude.
+   * @param geometry the geometry to modify
+   */
+  public static void swapAxes(Geometry geometry)
+  {
+    geometry.apply(new CoordinateSequenceFilter()
+    {
+      @Override public void filter(CoordinateSequence sequence, int i)
+      {
+        double x = sequence.getOrdinate(i, CoordinateSequence.X);
+        sequence.setOrdinate(i, CoordinateSequence.X, sequence.getOrdinate(i, CoordinateSequence.Y));
+        sequence.setOrdinate(i, CoordinateSequence.Y, x);
+      }
+
+      @Override public boolean isDone()
+      {
+        return false;
+      }
+
+      @Override public boolean isGeometryChanged()
+      {
+        return true;
+      }
+    });
+  }
+
+  private static class ProjectionFilter implements CoordinateSequenceFilter
+  {
+    private final Projection from;
+    private final Projection to;
+    private final double[] xy = new double[2];
+
+    ProjectionFilter(Projection from, Projection to)
+    {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override public void filter(CoordinateSequence sequence, int i)
+    {
+      this.xy[0] = sequence.getOrdinate(i, CoordinateSequence.X);
+      this.xy[1] = sequence.getOrdinate(i, CoordinateSequence.Y);
+      if (this.from != null)
+        this.from.toGeographic(this.xy);
+      if (this.to != null)
+        this.to.fromGeographic(this.xy);
+      sequence.setOrdinate(i, CoordinateSequence.X, this.xy[0]);
+      sequence.setOrdinate(i, CoordinateSequence.Y, this.xy[1]);
+    }
+
+    @Override public boolean isDone()
+    {
+      return false;
+    }
+
+    @Override public boolean isGeometryChanged()
+    {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.util.LinearComponentExtracter;
+import com.vividsolutions.jts.geom.util.PointExtracter;
+import com.vividsolutions.jts.index.strtree.AbstractNode;
+import com.vividsolutions.jts.index.strtree.Boundable;
+import com.vividsolutions.jts.index.strtree.ItemBoundable;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import java.util.PriorityQueue;
+
+/**
+ * Geodesic distances between geometries in longitude/latitude on the WGS 84 ellipsoid.
+ * <p>
+ * Threshold comparisons are first decided on cheap spherical bounds derived from the geometry envelopes. Only when
+ * the threshold falls between the lower and the upper bound is the ellipsoidal distance computed with Vincenty's
+ * inverse formula, searching the nearest points among the vertex and edge pairs the bounds cannot rule out.
+ */
+public final class GeodesicDistance
+{
+  private static final double A = 6378137.0;
+  private static final double F = 1.0 / 298.257223563;
+  private static final double B = A * (1.0 - F);
+  private static final double MEAN_RADIUS = 6371008.8;
+  // The spherical approximation differs from the ellipsoidal distance by less than this ratio
+  private static final double SPHERE_ERROR = 0.006;
+  private static final double GOLDEN_RATIO = (Math.sqrt(5.0) - 1.0) / 2.0;
+  // The nearest point of an edge is located so that its distance is off by less than this many metres
+  private static final double EDGE_TOLERANCE = 0.001;
+
+  private GeodesicDistance()
+  {
+  }
+
+  /**
+   * @param a the first geometry in longitude/latitude
+   * @param b the second geometry in longitude/latitude
+   * @param threshold the distance threshold in metres
+   * @return true if the geodesic distance between the geometries is smaller than the threshold
+   */
+  public static boolean isSmallerThan(Geometry a, Geometry b, double threshold)
+  {
+    if (lowerBound(a, b) >= threshold)
+      return false;
+    if (upperBound(a, b) < threshold)
+      return true;
+    return distance(a, b, threshold) < threshold;
+  }
+
+  /**
+   * @param a the first geometry in longitude/latitude
+   * @param b the second geometry in longitude/latitude
+   * @param threshold the distance threshold in metres
+   * @return true if the geodesic distance between the geometries is bigger than the threshold
+   */
+  public static boolean isBiggerThan(Geometry a, Geometry b, double threshold)
+  {
+    if (lowerBound(a, b) > threshold)
+      return true;
+    if (upperBound(a, b) <= threshold)
+      return false;
+    double limit = Math.nextUp(threshold);
+    return distance(a, b, limit) >= limit;
+  }
+
+  /**
+   * @param a the first geometry in longitude/latitude
+   * @param b the second geometry in longitude/latitude
+   * @param threshold the distance threshold in metres
+   * @return true if the geodesic distance between the geometries is at most the threshold
+   */
+  public static boolean isWithinDistance(Geometry a, Geometry b, double threshold)
+  {
+    return !isBiggerThan(a, b, threshold);
+  }
+
+  /**
+   * A lower bound of the geodesic distance computed from the envelopes of the geometries. On the sphere,
+   * hav(d) is at least hav(latitude gap) + cos^2(max latitude) * hav(longitude gap).
+   * @param a the first geometry in longitude/latitude
+   * @param b the second geometry in longitude/latitude
+   * @return the lower bound in metres
+   */
+  public static double lowerBound(Geometry a, Geometry b)
+  {
+    return lowerBound(a.getEnvelopeInternal(), b.getEnvelopeInternal());
+  }
+
+  private static double lowerBound(Envelope ea, Envelope eb)
+  {
+    double latGap = Math.toRadians(Math.max(0.0, Math.max(eb.getMinY() - ea.getMaxY(), ea.getMinY() - eb.getMaxY())));
+    double lonGap = Math.toRadians(longitudeGap(ea, eb));
+
+    if (latGap == 0.0 && lonGap == 0.0)
+      return 0.0;
+
+    double maxLat = Math.toRadians(Math.min(90.0,
+      Math.max(Math.max(Math.abs(ea.getMinY()), Math.abs(ea.getMaxY())),
+        Math.max(Math.abs(eb.getMinY()), Math.abs(eb.getMaxY())))));
+    double cosMaxLat = Math.cos(maxLat);
+    double h = haversine(latGap) + cosMaxLat * cosMaxLat * haversine(lonGap);
+
+    return 2.0 * MEAN_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(h))) * (1.0 - SPHERE_ERROR);
+  }
+
+  /**
+   * An upper bound of the geodesic distance: the distance between any pair of vertices bounds the minimum distance.
+   * @param a the first geometry in longitude/latitude
+   * @param b the second geometry in longitude/latitude
+   * @return the upper bound in metres
+   */
+  public static double upperBound(Geometry a, Geometry b)
+  {
+    Coordinate ca = a.getCoordinate(), cb = b.getCoordinate();
+    if (ca == null || cb == null)
+      return Double.POSITIVE_INFINITY;
+    return sphericalDistance(ca, cb) * (1.0 + SPHERE_ERROR);
+  }
+
+  /**
+   * The ellipsoidal distance between the geometries, whose edges are straight lines in longitude/latitude as in JTS.
+   * Points are measured directly. For other geometries the pairs of edges are searched best first, ordered by the
+   * spherical lower bound of the distance between their envelopes, until no pair left can be closer than the nearest
+   * one found.
+   * @param a the first geometry in longitude/latitude
+   * @param b the second geometry in longitude/latitude
+   * @return the distance in metres
+   */
+  public static double distance(Geometry a, Geometry b)
+  {
+    return distance(a, b, 0.0);
+  }
+
+  /**
+   * @param limit the search stops at the first pair of edges closer than this many metres
+   * @return the distance in metres if it is at least the limit, otherwise a distance smaller than the limit
+   */
+  private static double distance(Geometry a, Geometry b, double limit)
+  {
+    if (a instanceof Point && b instanceof Point)
+      return vincenty(a.getCoordinate(), b.getCoordinate());
+    if (a.intersects(b))
+      return 0.0;
+
+    // pairs of edges whose lower bound is not below the best distance are skipped; with a limit, pairs at or beyond
+    // the limit cannot change the answer either
+    double best = limit > 0.0 ? limit : Double.POSITIVE_INFINITY;
+    PriorityQueue<EdgePair> queue = new PriorityQueue<>();
+    queue.add(new EdgePair(edgeTree(a).getRoot(), edgeTree(b).getRoot()));
+
+    while (!queue.isEmpty() && best >= limit) {
+      EdgePair pair = queue.poll();
+      if (pair.bound >= best)
+        break;
+      boolean leafA = pair.a instanceof ItemBoundable, leafB = pair.b instanceof ItemBoundable;
+      if (leafA && leafB) {
+        Coordinate[] edgeA = (Coordinate[])((ItemBoundable)pair.a).getItem();
+        Coordinate[] edgeB = (Coordinate[])((ItemBoundable)pair.b).getItem();
+        // the nearest points of two edges that do not cross include an end point of one of them
+        best = distanceToEdge(edgeA[0], edgeB[0], edgeB[1], best);
+        best = distanceToEdge(edgeA[1], edgeB[0], edgeB[1], best);
+        best = distanceToEdge(edgeB[0], edgeA[0], edgeA[1], best);
+        best = distanceToEdge(edgeB[1], edgeA[0], edgeA[1], best);
+        continue;
+      }
+      // expand the node with the larger envelope, or the one that is not an edge
+      boolean expandA = !leafA && (leafB || ((Envelope)pair.a.getBounds()).getArea() >= ((Envelope)pair.b
+        .getBounds()).getArea());
+      for (Object child : ((AbstractNode)(expandA ? pair.a : pair.b)).getChildBoundables()) {
+        EdgePair childPair = expandA ? new EdgePair((Boundable)child, pair.b) : new EdgePair(pair.a, (Boundable)child);
+        if (childPair.bound < best)
+          queue.add(childPair);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @param p1 the first point as longitude/latitude
+   * @param p2 the second point as longitude/latitude
+   * @return the great circle distance on the sphere of mean earth radius in metres
+   */
+  public static double sphericalDistance(Coordinate p1, Coordinate p2)
+  {
+    double lat1 = Math.toRadians(p1.y), lat2 = Math.toRadians(p2.y);
+    double h = haversine(lat2 - lat1) + Math.cos(lat1) * Math.cos(lat2) * haversine(Math.toRadians(p2.x - p1.x));
+    return 2.0 * MEAN_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+  }
+
+  /**
+   * Vincenty's inverse formula on the WGS 84 ellipsoid. Falls back to the spherical distance for nearly antipodal
+   * points, where the iteration does not converge.
+   * @param p1 the first point as longitude/latitude
+   * @param p2 the second point as longitude/latitude
+   * @return the distance in metres
+   */
+  public static double vincenty(Coordinate p1, Coordinate p2)
+  {
+    double l = Math.toRadians(p2.x - p1.x);
+    double u1 = Math.atan((1.0 - F) * Math.tan(Math.toRadians(p1.y)));
+    double u2 = Math.atan((1.0 - F) * Math.tan(Math.toRadians(p2.y)));
+    double sinU1 = Math.sin(u1), cosU1 = Math.cos(u1), sinU2 = Math.sin(u2), cosU2 = Math.cos(u2);
+    double lambda = l, lambdaP;
+    double sinSigma, cosSigma, sigma, cosSqAlpha, cos2SigmaM;
+    int iterations = 0;
+
+    do {
+      double sinLambda = Math.sin(lambda), cosLambda = Math.cos(lambda);
+      sinSigma = Math.sqrt((cosU2 * sinLambda) * (cosU2 * sinLambda)
+        + (cosU1 * sinU2 - sinU1 * cosU2 * cosLambda) * (cosU1 * sinU2 - sinU1 * cosU2 * cosLambda));
+      if (sinSigma == 0.0)
+        return 0.0; // Coincident points
+      cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+      sigma = Math.atan2(sinSigma, cosSigma);
+      double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+      cosSqAlpha = 1.0 - sinAlpha * sinAlpha;
+      cos2SigmaM = cosSqAlpha != 0.0 ? cosSigma - 2.0 * sinU1 * sinU2 / cosSqAlpha : 0.0; // Equatorial line
+      double c = F / 16.0 * cosSqAlpha * (4.0 + F * (4.0 - 3.0 * cosSqAlpha));
+      lambdaP = lambda;
+      lambda = l + (1.0 - c) * F * sinAlpha * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1.0
+        + 2.0 * cos2SigmaM * cos2SigmaM)));
+    } while (Math.abs(lambda - lambdaP) > 1e-12 && ++iterations < 200);
+
+    if (iterations >= 200)
+      return sphericalDistance(p1, p2);
+
+    double uSq = cosSqAlpha * (A * A - B * B) / (B * B);
+    double bigA = 1.0 + uSq / 16384.0 * (4096.0 + uSq * (-768.0 + uSq * (320.0 - 175.0 * uSq)));
+    double bigB = uSq / 1024.0 * (256.0 + uSq * (-128.0 + uSq * (74.0 - 47.0 * uSq)));
+    double deltaSigma = bigB * sinSigma * (cos2SigmaM + bigB / 4.0 * (cosSigma * (-1.0 + 2.0 * cos2SigmaM
+      * cos2SigmaM) - bigB / 6.0 * cos2SigmaM * (-3.0 + 4.0 * sinSigma * sinSigma) * (-3.0
+      + 4.0 * cos2SigmaM * cos2SigmaM)));
+
+    return B * bigA * (sigma - deltaSigma);
+  }
+
+  /**
+   * Locates the nearest point of an edge by golden section search on the ellipsoidal distance.
+   * @param best the smallest distance found so far
+   * @return the smaller of best and the ellipsoidal distance between the point and the edge in metres
+   */
+  private static double distanceToEdge(Coordinate point, Coordinate start, Coordinate end, double best)
+  {
+    if (lowerBound(new Envelope(point), new Envelope(start, end)) >= best)
+      return best;
+    double length = sphericalDistance(start, end);
+    if (length == 0.0)
+      return Math.min(best, vincenty(point, start));
+
+    double lo = 0.0, hi = 1.0;
+    double t1 = hi - GOLDEN_RATIO * (hi - lo), t2 = lo + GOLDEN_RATIO * (hi - lo);
+    double d1 = vincenty(point, interpolate(start, end, t1));
+    double d2 = vincenty(point, interpolate(start, end, t2));
+    // near the minimum the distance changes with the square of the offset, so a coarser location suffices
+    for (int i = 0; i < 100
+      && (hi - lo) * length > Math.max(EDGE_TOLERANCE, Math.sqrt(2.0 * EDGE_TOLERANCE * Math.min(d1, d2))); i++) {
+      if (d1 < d2) {
+        hi = t2;
+        t2 = t1;
+        d2 = d1;
+        t1 = hi - GOLDEN_RATIO * (hi - lo);
+        d1 = vincenty(point, interpolate(start, end, t1));
+      } else {
+        lo = t1;
+        t1 = t2;
+        d1 = d2;
+        t2 = lo + GOLDEN_RATIO * (hi - lo);
+        d2 = vincenty(point, interpolate(start, end, t2));
+      }
+    }
+    double distance = vincenty(point, interpolate(start, end, (lo + hi) / 2.0));
+    // a minimum at an end point is approached but never evaluated
+    if (lo == 0.0)
+      distance = Math.min(distance, vincenty(point, start));
+    if (hi == 1.0)
+      distance = Math.min(distance, vincenty(point, end));
+    return Math.min(best, distance);
+  }
+
+  private static Coordinate interpolate(Coordinate start, Coordinate end, double t)
+  {
+    return new Coordinate(start.x + t * (end.x - start.x), start.y + t * (end.y - start.y));
+  }
+
+  /**
+   * @return an index of the edges of the lines and polygon rings of a geometry, plus a degenerate edge for every point
+   */
+  private static STRtree edgeTree(Geometry geometry)
+  {
+    STRtree tree = new STRtree();
+    for (Object line : LinearComponentExtracter.getLines(geometry)) {
+      Coordinate[] coordinates = ((LineString)line).getCoordinates();
+      for (int i = 1; i < coordinates.length; i++)
+        tree.insert(new Envelope(coordinates[i - 1], coordinates[i]),
+          new Coordinate[] { coordinates[i - 1], coordinates[i] });
+    }
+    for (Object point : PointExtracter.getPoints(geometry)) {
+      Coordinate coordinate = ((Point)point).getCoordinate();
+      if (coordinate != null)
+        tree.insert(new Envelope(coordinate), new Coordinate[] { coordinate, coordinate });
+    }
+    tree.build();
+    return tree;
+  }
+
+  private static final class EdgePair implements Comparable<EdgePair>
+  {
+    private final Boundable a;
+    private final Boundable b;
+    private final double bound;
+
+    EdgePair(Boundable a, Boundable b)
+    {
+      this.a = a;
+      this.b = b;
+      this.bound = lowerBound((Envelope)a.getBounds(), (Envelope)b.getBounds());
+    }
+
+    @Override public int compareTo(EdgePair other)
+    {
+      return Double.compare(this.bound, other.bound);
+    }
+  }
+
+  private static double longitudeGap(Envelope ea, Envelope eb)
+  {
+    double gap = Double.MAX_VALUE;
+    for (double shift = -360.0; shift <= 360.0; shift += 360.0) {
+      double g = Math.max(0.0, Math.max(eb.getMinX() + shift - ea.getMaxX(), ea.getMinX() - eb.getMaxX() - shift));
+      gap = Math.min(gap, g);
+    }
+    return Math.min(gap, 180.0);
+  }
+
+  private static double haversine(double angle)
+  {
+    double s = Math.sin(angle / 2.0);
+    return s * s;
+  }
+}
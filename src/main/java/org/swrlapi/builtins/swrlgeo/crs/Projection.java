@@ -0,0 +1,20 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+/**
+ * A map projection between geographic coordinates (longitude/latitude in degrees) and projected coordinates.
+ * Implementations work in place on a two element array to avoid allocating per coordinate.
+ */
+public interface Projection
+{
+  /**
+   * Converts projected coordinates to geographic coordinates.
+   * @param xy the projected x and y, replaced by longitude and latitude in degrees
+   */
+  void toGeographic(double[] xy);
+
+  /**
+   * Converts geographic coordinates to projected coordinates.
+   * @param xy longitude and latitude in degrees, replaced by the projected x and y
+   */
+  void fromGeographic(double[] xy);
+}
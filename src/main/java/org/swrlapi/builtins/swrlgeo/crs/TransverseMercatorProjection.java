@@ -0,0 +1,102 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+/**
+ * Transverse Mercator projection using the Krueger series to third order in the third flattening, which is accurate
+ * to well below a millimetre within a UTM zone.
+ */
+public class TransverseMercatorProjection implements Projection
+{
+  private final double lambda0;
+  private final double falseEasting;
+  private final double falseNorthing;
+  private final double kA;
+  private final double sqrtN2;
+  private final double[] alpha;
+  private final double[] beta;
+  private final double[] delta;
+
+  /**
+   * Constructor for this class.
+   * @param semiMajorAxis the semi-major axis of the ellipsoid in metres
+   * @param inverseFlattening the inverse flattening of the ellipsoid
+   * @param centralMeridian the central meridian in degrees
+   * @param scaleFactor the scale factor on the central meridian
+   * @param falseEasting the false easting in metres
+   * @param falseNorthing the false northing in metres
+   */
+  public TransverseMercatorProjection(double semiMajorAxis, double inverseFlattening, double centralMeridian,
+    double scaleFactor, double falseEasting, double falseNorthing)
+  {
+    double f = 1.0 / inverseFlattening;
+    double n = f / (2.0 - f);
+    double n2 = n * n, n3 = n2 * n;
+
+    this.lambda0 = Math.toRadians(centralMeridian);
+    this.falseEasting = falseEasting;
+    this.falseNorthing = falseNorthing;
+    this.kA = scaleFactor * semiMajorAxis / (1.0 + n) * (1.0 + n2 / 4.0 + n2 * n2 / 64.0);
+    this.sqrtN2 = 2.0 * Math.sqrt(n) / (1.0 + n);
+    this.alpha = new double[] { n / 2.0 - 2.0 * n2 / 3.0 + 5.0 * n3 / 16.0, 13.0 * n2 / 48.0 - 3.0 * n3 / 5.0,
+      61.0 * n3 / 240.0 };
+    this.beta = new double[] { n / 2.0 - 2.0 * n2 / 3.0 + 37.0 * n3 / 96.0, n2 / 48.0 + n3 / 15.0,
+      17.0 * n3 / 480.0 };
+    this.delta = new double[] { 2.0 * n - 2.0 * n2 / 3.0 - 2.0 * n3, 7.0 * n2 / 3.0 - 8.0 * n3 / 5.0,
+      56.0 * n3 / 15.0 };
+  }
+
+  /**
+   * Creates the projection of a UTM zone.
+   * @param semiMajorAxis the semi-major axis of the ellipsoid in metres
+   * @param inverseFlattening the inverse flattening of the ellipsoid
+   * @param zone the UTM zone number (1-60)
+   * @param south true for the southern hemisphere
+   * @return the projection
+   */
+  public static TransverseMercatorProjection utm(double semiMajorAxis, double inverseFlattening, int zone,
+    boolean south)
+  {
+    return new TransverseMercatorProjection(semiMajorAxis, inverseFlattening, zone * 6.0 - 183.0, 0.9996, 500000.0,
+      south ? 10000000.0 : 0.0);
+  }
+
+  @Override public void fromGeographic(double[] xy)
+  {
+    double lambda = Math.toRadians(xy[0]) - this.lambda0;
+    double sinPhi = Math.sin(Math.toRadians(xy[1]));
+    double t = Math.sinh(atanh(sinPhi) - this.sqrtN2 * atanh(this.sqrtN2 * sinPhi));
+    double xiP = Math.atan2(t, Math.cos(lambda));
+    double etaP = atanh(Math.sin(lambda) / Math.sqrt(1.0 + t * t));
+    double e = etaP, n = xiP;
+
+    for (int j = 1; j <= 3; j++) {
+      e += this.alpha[j - 1] * Math.cos(2 * j * xiP) * Math.sinh(2 * j * etaP);
+      n += this.alpha[j - 1] * Math.sin(2 * j * xiP) * Math.cosh(2 * j * etaP);
+    }
+    xy[0] = this.falseEasting + this.kA * e;
+    xy[1] = this.falseNorthing + this.kA * n;
+  }
+
+  @Override public void toGeographic(double[] xy)
+  {
+    double xi = (xy[1] - this.falseNorthing) / this.kA;
+    double eta = (xy[0] - this.falseEasting) / this.kA;
+    double xiP = xi, etaP = eta;
+
+    for (int j = 1; j <= 3; j++) {
+      xiP -= this.beta[j - 1] * Math.sin(2 * j * xi) * Math.cosh(2 * j * eta);
+      etaP -= this.beta[j - 1] * Math.cos(2 * j * xi) * Math.sinh(2 * j * eta);
+    }
+    double chi = Math.asin(Math.sin(xiP) / Math.cosh(etaP));
+    double phi = chi;
+    for (int j = 1; j <= 3; j++)
+      phi += this.delta[j - 1] * Math.sin(2 * j * chi);
+
+    xy[0] = Math.toDegrees(this.lambda0 + Math.atan2(Math.sinh(etaP), Math.cos(xiP)));
+    xy[1] = Math.toDegrees(phi);
+  }
+
+  private static double atanh(double x)
+  {
+    return 0.5 * Math.log((1.0 + x) / (1.0 - x));
+  }
+}
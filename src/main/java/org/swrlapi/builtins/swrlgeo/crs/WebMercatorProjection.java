@@ -0,0 +1,21 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+/**
+ * The spherical Pseudo-Mercator projection used by web maps (EPSG:3857).
+ */
+public class WebMercatorProjection implements Projection
+{
+  private static final double RADIUS = 6378137.0;
+
+  @Override public void fromGeographic(double[] xy)
+  {
+    xy[0] = RADIUS * Math.toRadians(xy[0]);
+    xy[1] = RADIUS * Math.log(Math.tan(Math.PI / 4.0 + Math.toRadians(xy[1]) / 2.0));
+  }
+
+  @Override public void toGeographic(double[] xy)
+  {
+    xy[0] = Math.toDegrees(xy[0] / RADIUS);
+    xy[1] = Math.toDegrees(2.0 * Math.atan(Math.exp(xy[1] / RADIUS)) - Math.PI / 2.0);
+  }
+}
@@ -0,0 +1,43 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateTransformer;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+/**
+ * Base class of decoders, with the CRS handling shared by all formats.
+ */
+public abstract class AbstractGeometryDecoder implements GeometryDecoder
+{
+  /** Creates geometries on packed coordinate sequences, which {@link CoordinateBuffer}s are turned into. */
+  protected static final GeometryFactory geometryFactory = new GeometryFactory(
+    PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+  /**
+   * @param geometry the decoded geometry in its source CRS, with the axis order of that CRS
+   * @param source the CRS declared by the literal, or null if it declares none and is thus in CRS84
+   * @param target the CRS to reproject to
+   * @return the geometry in the target CRS, or the given geometry if the literal declares no CRS and
+   * {@link SWRLGeoConfiguration#LEGACY_UNTAGGED_LITERALS_PROPERTY} is set
+   */
+  protected static Geometry reproject(Geometry geometry, CoordinateReferenceSystem source,
+    CoordinateReferenceSystem target)
+  {
+    if (source == null)
+      source = SWRLGeoConfiguration.getUntaggedLiteralCRS();
+    if (source == null)
+      return geometry;
+    // EPSG:4326 and CRS84 share an SRID but not the axis order, so the axes are swapped before the SRIDs are compared
+    if (source.isLatitudeFirst())
+      CoordinateTransformer.swapAxes(geometry);
+    if (source.getSRID() == target.getSRID()) {
+      geometry.setSRID(target.getSRID());
+      return geometry;
+    }
+    return CoordinateTransformer.transform(geometry, source, target);
+  }
+}
@@ -0,0 +1,74 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of ordinates that decoders fill while pulling tokens, turned into a packed coordinate sequence
+ * without creating a <code>Coordinate</code> object per vertex.
+ */
+public final class CoordinateBuffer
+{
+  private final int dimension;
+  private double[] ordinates;
+  private int size;
+
+  /**
+   * @param dimension the number of ordinates per coordinate, 2 or 3
+   */
+  public CoordinateBuffer(int dimension)
+  {
+    this.dimension = dimension;
+    this.ordinates = new double[16 * dimension];
+  }
+
+  public int getDimension()
+  {
+    return this.dimension;
+  }
+
+  /**
+   * Appends a single ordinate; coordinates are complete after every {@link #getDimension()} ordinates.
+   * @param ordinate the ordinate
+   */
+  public void add(double ordinate)
+  {
+    if (this.size == this.ordinates.length)
+      this.ordinates = Arrays.copyOf(this.ordinates, 2 * this.size);
+    this.ordinates[this.size++] = ordinate;
+  }
+
+  /**
+   * @return the number of complete coordinates
+   */
+  public int getCoordinateCount()
+  {
+    return this.size / this.dimension;
+  }
+
+  /**
+   * @return true if the ordinates form complete coordinates
+   */
+  public boolean isComplete()
+  {
+    return this.size % this.dimension == 0;
+  }
+
+  /**
+   * @return a coordinate sequence of the buffered coordinates
+   */
+  public CoordinateSequence toSequence()
+  {
+    return new PackedCoordinateSequence.Double(Arrays.copyOf(this.ordinates, this.size), this.dimension);
+  }
+
+  /**
+   * Removes all coordinates, keeping the allocated array.
+   */
+  public void clear()
+  {
+    this.size = 0;
+  }
+}
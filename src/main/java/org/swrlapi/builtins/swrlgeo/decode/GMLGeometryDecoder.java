@@ -0,0 +1,330 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ParseException;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Decodes GeoSPARQL <code>geo:gmlLiteral</code> values with a StAX pull parser. Simple features of GML 2, 3.1 and 3.2
+ * are supported: points, line strings, curves, polygons, surfaces, envelopes and their multi-geometries, with
+ * coordinates in <code>pos</code>, <code>posList</code>, <code>coordinates</code> or <code>coord</code> elements.
+ * Coordinates are written straight into coordinate buffers; no document tree is built. The CRS is taken from the
+ * <code>srsName</code> of the root element.
+ */
+public class GMLGeometryDecoder extends AbstractGeometryDecoder
+{
+  /** The IRI of the GeoSPARQL GML literal datatype. */
+  public static final String GML_LITERAL = "http://www.opengis.net/ont/geosparql#gmlLiteral";
+
+  private static final XMLInputFactory inputFactory = createInputFactory();
+
+  @Override public String getDatatype()
+  {
+    return GML_LITERAL;
+  }
+
+  @Override public Geometry decode(String lexicalForm, CoordinateReferenceSystem target) throws ParseException
+  {
+    XMLStreamReader reader = null;
+    try {
+      reader = inputFactory.createXMLStreamReader(new StringReader(lexicalForm));
+      while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+        if (!reader.hasNext())
+          throw new ParseException("GML geometry element expected");
+      }
+      String srsName = reader.getAttributeValue(null, "srsName");
+      Geometry geometry = readGeometry(reader, getDimension(reader, 2));
+      return reproject(geometry, srsName == null ? null : toCRS(srsName), target);
+    } catch (XMLStreamException | NumberFormatException e) {
+      throw new ParseException("Malformed GML: " + e.getMessage());
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          // nothing left to release
+        }
+      }
+    }
+  }
+
+  /**
+   * @param srsName a GML srsName as EPSG code, URN or IRI
+   * @return the CRS
+   * @throws IllegalArgumentException if the CRS is not supported
+   */
+  static CoordinateReferenceSystem toCRS(String srsName)
+  {
+    String name = srsName.trim();
+    if (name.startsWith("urn:ogc:def:crs:")) {
+      String code = name.substring(name.lastIndexOf(':') + 1);
+      return "CRS84".equals(code) ? CoordinateReferenceSystem.CRS84 :
+        CoordinateReferenceSystem.forEPSGCode(Integer.parseInt(code));
+    }
+    if (name.startsWith("http://www.opengis.net/gml/srs/epsg.xml#")) {
+      // the legacy GML 2 form always has longitude first
+      int code = Integer.parseInt(name.substring(name.indexOf('#') + 1));
+      return code == CoordinateReferenceSystem.CRS84_SRID ?
+        CoordinateReferenceSystem.CRS84 :
+        CoordinateReferenceSystem.forEPSGCode(code);
+    }
+    return CoordinateReferenceSystem.forName(name);
+  }
+
+  /**
+   * Reads a geometry element and everything inside it.
+   * @param reader the reader, positioned at the start of the geometry element; left at its end
+   * @param dimension the coordinate dimension
+   */
+  private static Geometry readGeometry(XMLStreamReader reader, int dimension) throws XMLStreamException, ParseException
+  {
+    dimension = getDimension(reader, dimension);
+    String name = reader.getLocalName();
+    switch (name) {
+    case "Point":
+      return geometryFactory.createPoint(readCoordinates(reader, dimension));
+    case "LineString":
+    case "Curve":
+    case "LinearRing":
+    case "Ring":
+      return geometryFactory.createLineString(readCoordinates(reader, dimension));
+    case "Polygon":
+    case "PolygonPatch":
+    case "Triangle":
+      return readPolygon(reader, dimension);
+    case "Envelope":
+    case "Box":
+      CoordinateSequence corners = readCoordinates(reader, dimension);
+      if (corners.size() != 2)
+        throw new ParseException("Envelope with " + corners.size() + " corners");
+      return geometryFactory.toGeometry(new Envelope(corners.getCoordinate(0), corners.getCoordinate(1)));
+    case "MultiPoint":
+    case "MultiCurve":
+    case "MultiLineString":
+    case "Surface":
+    case "MultiSurface":
+    case "MultiPolygon":
+    case "MultiGeometry":
+      return readCollection(reader, name, dimension);
+    default:
+      throw new ParseException("Unsupported GML geometry " + name);
+    }
+  }
+
+  private static Polygon readPolygon(XMLStreamReader reader, int dimension) throws XMLStreamException, ParseException
+  {
+    LinearRing shell = null;
+    List<LinearRing> holes = new ArrayList<>();
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String name = reader.getLocalName();
+        if ("exterior".equals(name) || "outerBoundaryIs".equals(name))
+          shell = geometryFactory.createLinearRing(readCoordinates(reader, dimension));
+        else if ("interior".equals(name) || "innerBoundaryIs".equals(name))
+          holes.add(geometryFactory.createLinearRing(readCoordinates(reader, dimension)));
+        else
+          skipElement(reader);
+      } else if (event == XMLStreamConstants.END_ELEMENT)
+        depth--;
+    }
+    if (shell == null)
+      return geometryFactory.createPolygon((LinearRing)null, null);
+    return geometryFactory.createPolygon(shell, holes.toArray(new LinearRing[holes.size()]));
+  }
+
+  private static Geometry readCollection(XMLStreamReader reader, String name, int dimension)
+    throws XMLStreamException, ParseException
+  {
+    List<Geometry> members = new ArrayList<>();
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String child = reader.getLocalName();
+        if (child.endsWith("Member") || child.endsWith("Members") || "patches".equals(child))
+          depth++;
+        else if (depth > 1)
+          members.add(readGeometry(reader, dimension));
+        else
+          skipElement(reader);
+      } else if (event == XMLStreamConstants.END_ELEMENT)
+        depth--;
+    }
+
+    try {
+      switch (name) {
+      case "MultiPoint":
+        return geometryFactory.createMultiPoint(members.toArray(new Point[members.size()]));
+      case "MultiCurve":
+      case "MultiLineString":
+        return geometryFactory.createMultiLineString(members.toArray(new LineString[members.size()]));
+      case "Surface":
+        if (members.size() == 1)
+          return members.get(0);
+        return geometryFactory.createMultiPolygon(members.toArray(new Polygon[members.size()]));
+      case "MultiSurface":
+      case "MultiPolygon":
+        return geometryFactory.createMultiPolygon(members.toArray(new Polygon[members.size()]));
+      default:
+        return geometryFactory.createGeometryCollection(members.toArray(new Geometry[members.size()]));
+      }
+    } catch (ArrayStoreException e) {
+      throw new ParseException("Unexpected member geometry in " + name);
+    }
+  }
+
+  /**
+   * Reads all coordinates inside the current element, in document order.
+   * @param reader the reader, positioned at the start of an element; left at its end
+   * @param dimension the declared coordinate dimension; at most three ordinates are kept
+   * @return the coordinates
+   */
+  private static CoordinateSequence readCoordinates(XMLStreamReader reader, int dimension)
+    throws XMLStreamException, ParseException
+  {
+    CoordinateBuffer buffer = new CoordinateBuffer(Math.min(dimension, 3));
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String name = reader.getLocalName();
+        switch (name) {
+        case "pos":
+        case "posList":
+        case "lowerCorner":
+        case "upperCorner":
+          int tupleDimension = getDimension(reader, dimension);
+          addOrdinates(reader.getElementText(), ' ', tupleDimension, buffer);
+          break;
+        case "coordinates":
+          String separator = reader.getAttributeValue(null, "cs");
+          addOrdinates(reader.getElementText(), separator == null ? ',' : separator.charAt(0), 0, buffer);
+          break;
+        case "coord":
+          readCoord(reader, buffer);
+          break;
+        default:
+          depth++;
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT)
+        depth--;
+    }
+    if (!buffer.isComplete())
+      throw new ParseException("Incomplete coordinates");
+    return buffer.toSequence();
+  }
+
+  /**
+   * Adds the ordinates of a whitespace separated list to a buffer.
+   * @param text the list
+   * @param separator the separator of ordinates within a tuple, or a space if tuples are not delimited
+   * @param dimension the number of ordinates per tuple if they are not delimited
+   * @param buffer the buffer
+   */
+  private static void addOrdinates(String text, char separator, int dimension, CoordinateBuffer buffer)
+    throws ParseException
+  {
+    int length = text.length(), position = 0, index = 0;
+    while (position < length) {
+      while (position < length && Character.isWhitespace(text.charAt(position)))
+        position++;
+      if (position == length)
+        break;
+      int end = position;
+      while (end < length && !Character.isWhitespace(text.charAt(end)))
+        end++;
+      if (separator == ' ') {
+        // undelimited tuples of the given dimension
+        int ordinate = index++ % dimension;
+        if (ordinate < buffer.getDimension())
+          buffer.add(Double.parseDouble(text.substring(position, end)));
+        if (ordinate == dimension - 1)
+          for (int i = dimension; i < buffer.getDimension(); i++)
+            buffer.add(Double.NaN);
+      } else
+        addTuple(text, position, end, separator, buffer);
+      position = end;
+    }
+    if (separator == ' ' && index % dimension != 0)
+      throw new ParseException("Number of ordinates is not a multiple of " + dimension);
+  }
+
+  private static void addTuple(String text, int start, int end, char separator, CoordinateBuffer buffer)
+  {
+    int count = 0;
+    while (start <= end && count < buffer.getDimension()) {
+      int next = text.indexOf(separator, start);
+      if (next < 0 || next > end)
+        next = end;
+      buffer.add(Double.parseDouble(text.substring(start, next)));
+      count++;
+      start = next + 1;
+    }
+    for (; count < buffer.getDimension(); count++)
+      buffer.add(Double.NaN);
+  }
+
+  private static void readCoord(XMLStreamReader reader, CoordinateBuffer buffer) throws XMLStreamException
+  {
+    double x = Double.NaN, y = Double.NaN, z = Double.NaN;
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = reader.getLocalName();
+      double value = Double.parseDouble(reader.getElementText().trim());
+      if ("X".equals(name))
+        x = value;
+      else if ("Y".equals(name))
+        y = value;
+      else if ("Z".equals(name))
+        z = value;
+    }
+    buffer.add(x);
+    buffer.add(y);
+    if (buffer.getDimension() > 2)
+      buffer.add(z);
+  }
+
+  private static int getDimension(XMLStreamReader reader, int inherited)
+  {
+    String dimension = reader.getAttributeValue(null, "srsDimension");
+    return dimension == null ? inherited : Integer.parseInt(dimension.trim());
+  }
+
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException
+  {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT)
+        depth++;
+      else if (event == XMLStreamConstants.END_ELEMENT)
+        depth--;
+    }
+  }
+
+  private static XMLInputFactory createInputFactory()
+  {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+}
@@ -0,0 +1,217 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import com.vividsolutions.jts.io.ParseException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes GeoSPARQL <code>geo:geoJSONLiteral</code> values, i.e. GeoJSON geometries or features, in CRS84. The JSON
+ * is pulled token by token and positions are written straight into coordinate buffers. As members may come in any
+ * order, the coordinate arrays are read by nesting depth and only assembled once the geometry type is known.
+ */
+public class GeoJSONGeometryDecoder extends AbstractGeometryDecoder
+{
+  /** The IRI of the GeoSPARQL GeoJSON literal datatype. */
+  public static final String GEOJSON_LITERAL = "http://www.opengis.net/ont/geosparql#geoJSONLiteral";
+
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
+  @Override public String getDatatype()
+  {
+    return GEOJSON_LITERAL;
+  }
+
+  @Override public Geometry decode(String lexicalForm, CoordinateReferenceSystem target) throws ParseException
+  {
+    try (JsonParser parser = jsonFactory.createParser(lexicalForm)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT)
+        throw new ParseException("GeoJSON object expected");
+      return reproject(readGeometry(parser), CoordinateReferenceSystem.CRS84, target);
+    } catch (IOException e) {
+      throw new ParseException("Malformed GeoJSON: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads a GeoJSON geometry, or the geometry of a GeoJSON feature. The null geometry of an unlocated feature is read
+   * as an empty geometry collection.
+   * @param parser the parser, positioned at the start of the object
+   * @return the geometry, in CRS84
+   * @throws IOException if the object is not a valid GeoJSON geometry or feature
+   */
+  public static Geometry readGeometry(JsonParser parser) throws IOException
+  {
+    String type = null;
+    Object coordinates = null;
+    List<Geometry> geometries = null;
+    Geometry featureGeometry = null;
+    boolean nullGeometry = false;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("type".equals(name))
+        type = parser.getText();
+      else if ("coordinates".equals(name) && value == JsonToken.START_ARRAY)
+        coordinates = readArray(parser, parser.nextToken());
+      else if ("geometries".equals(name) && value == JsonToken.START_ARRAY) {
+        geometries = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT)
+          geometries.add(readGeometry(parser));
+      } else if ("geometry".equals(name) && value == JsonToken.START_OBJECT)
+        featureGeometry = readGeometry(parser);
+      else if ("geometry".equals(name) && value == JsonToken.VALUE_NULL)
+        nullGeometry = true;
+      else
+        parser.skipChildren();
+    }
+
+    if ("Feature".equals(type)) {
+      if (featureGeometry != null)
+        return featureGeometry;
+      if (nullGeometry)
+        return geometryFactory.createGeometryCollection(new Geometry[0]);
+      throw new IOException("Feature without geometry");
+    }
+    if ("GeometryCollection".equals(type))
+      return geometryFactory.createGeometryCollection(geometries == null ? new Geometry[0] :
+        geometries.toArray(new Geometry[geometries.size()]));
+    if (type == null || coordinates == null)
+      throw new IOException("Geometry type and coordinates expected");
+    try {
+      return toGeometry(type, coordinates);
+    } catch (ClassCastException e) {
+      throw new IOException("Coordinates do not match geometry type " + type);
+    }
+  }
+
+  private static Geometry toGeometry(String type, Object coordinates) throws IOException
+  {
+    switch (type) {
+    case "Point":
+      if (coordinates instanceof List)
+        return geometryFactory.createPoint((CoordinateSequence)null);
+      double[] position = (double[])coordinates;
+      return geometryFactory.createPoint(new PackedCoordinateSequence.Double(position, position.length));
+    case "MultiPoint":
+      return geometryFactory.createMultiPoint(toSequence(coordinates));
+    case "LineString":
+      return geometryFactory.createLineString(toSequence(coordinates));
+    case "MultiLineString":
+      List<?> lines = (List<?>)coordinates;
+      LineString[] lineStrings = new LineString[lines.size()];
+      for (int i = 0; i < lineStrings.length; i++)
+        lineStrings[i] = geometryFactory.createLineString(toSequence(lines.get(i)));
+      return geometryFactory.createMultiLineString(lineStrings);
+    case "Polygon":
+      return toPolygon(coordinates);
+    case "MultiPolygon":
+      List<?> members = (List<?>)coordinates;
+      Polygon[] polygons = new Polygon[members.size()];
+      for (int i = 0; i < polygons.length; i++)
+        polygons[i] = toPolygon(members.get(i));
+      return geometryFactory.createMultiPolygon(polygons);
+    default:
+      throw new IOException("Unknown GeoJSON geometry type " + type);
+    }
+  }
+
+  private static Polygon toPolygon(Object coordinates)
+  {
+    List<?> rings = (List<?>)coordinates;
+    if (rings.isEmpty())
+      return geometryFactory.createPolygon((LinearRing)null, null);
+    LinearRing[] holes = new LinearRing[rings.size() - 1];
+    for (int i = 0; i < holes.length; i++)
+      holes[i] = geometryFactory.createLinearRing(toSequence(rings.get(i + 1)));
+    return geometryFactory.createPolygon(geometryFactory.createLinearRing(toSequence(rings.get(0))), holes);
+  }
+
+  private static CoordinateSequence toSequence(Object coordinates)
+  {
+    // an empty array is read as an empty list
+    return coordinates instanceof List ? new PackedCoordinateSequence.Double(new double[0], 2) :
+      (CoordinateSequence)coordinates;
+  }
+
+  /**
+   * Reads a coordinate array: a position as double[], an array of positions as coordinate sequence, or a deeper
+   * array as list.
+   * @param first the first token after the opening bracket
+   */
+  private static Object readArray(JsonParser parser, JsonToken first) throws IOException
+  {
+    if (first == JsonToken.END_ARRAY)
+      return Collections.emptyList();
+    if (first.isNumeric())
+      return readPosition(parser);
+    if (first != JsonToken.START_ARRAY)
+      throw new IOException("Number or array expected at " + parser.getCurrentLocation());
+
+    JsonToken second = parser.nextToken();
+    if (second.isNumeric())
+      return readPositions(parser);
+    List<Object> members = new ArrayList<>();
+    members.add(readArray(parser, second));
+    while (parser.nextToken() == JsonToken.START_ARRAY)
+      members.add(readArray(parser, parser.nextToken()));
+    return members;
+  }
+
+  /**
+   * @return the ordinates of a position, of which the first has been read already
+   */
+  private static double[] readPosition(JsonParser parser) throws IOException
+  {
+    double[] ordinates = new double[3];
+    int count = 0;
+    for (JsonToken token = parser.getCurrentToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+      if (count < ordinates.length)
+        ordinates[count] = parser.getDoubleValue();
+      count++;
+    }
+    if (count < 2)
+      throw new IOException("Position with less than two ordinates at " + parser.getCurrentLocation());
+    return count == 2 ? new double[] { ordinates[0], ordinates[1] } : ordinates;
+  }
+
+  /**
+   * @return the positions of an array, of which the first ordinate of the first position has been read already
+   */
+  private static CoordinateSequence readPositions(JsonParser parser) throws IOException
+  {
+    double[] first = readPosition(parser);
+    CoordinateBuffer buffer = new CoordinateBuffer(first.length);
+    for (double ordinate : first)
+      buffer.add(ordinate);
+
+    int dimension = buffer.getDimension();
+    while (parser.nextToken() == JsonToken.START_ARRAY) {
+      int count = 0;
+      for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+        if (count < dimension)
+          buffer.add(parser.getDoubleValue());
+        count++;
+      }
+      if (count < 2)
+        throw new IOException("Position with less than two ordinates at " + parser.getCurrentLocation());
+      for (; count < dimension; count++)
+        buffer.add(Double.NaN);
+    }
+    return buffer.toSequence();
+  }
+}
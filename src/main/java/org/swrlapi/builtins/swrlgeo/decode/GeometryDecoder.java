@@ -0,0 +1,27 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+
+/**
+ * Decodes the lexical form of geometry literals of one datatype. Implementations are registered with the
+ * {@link GeometryDecoderRegistry}, either explicitly or as a <code>java.util.ServiceLoader</code> service.
+ */
+public interface GeometryDecoder
+{
+  /**
+   * @return the IRI of the literal datatype handled by the decoder
+   */
+  String getDatatype();
+
+  /**
+   * @param lexicalForm the lexical form of the literal
+   * @param target the CRS to reproject to if the literal declares its CRS
+   * @return the decoded geometry
+   * @throws ParseException if the literal is malformed
+   * @throws IllegalArgumentException if the literal uses an unsupported CRS
+   */
+  Geometry decode(String lexicalForm, CoordinateReferenceSystem target) throws ParseException;
+}
@@ -0,0 +1,81 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of geometry decoders by literal datatype. WKT, GML and GeoJSON decoders are registered by default,
+ * further decoders can be registered explicitly or through <code>META-INF/services</code>. Literals of any other
+ * datatype, e.g. plain strings, are decoded as WKT.
+ */
+public final class GeometryDecoderRegistry
+{
+  private static final GeometryDecoderRegistry instance = new GeometryDecoderRegistry();
+
+  private final Map<String, GeometryDecoder> decoders = new ConcurrentHashMap<>();
+  private final GeometryDecoder defaultDecoder = new WKTGeometryDecoder();
+
+  private GeometryDecoderRegistry()
+  {
+    register(this.defaultDecoder);
+    register(new GMLGeometryDecoder());
+    register(new GeoJSONGeometryDecoder());
+    for (GeometryDecoder decoder : ServiceLoader.load(GeometryDecoder.class, GeometryDecoder.class.getClassLoader()))
+      register(decoder);
+  }
+
+  /**
+   * @return the registry shared by the swrlgeo library
+   */
+  public static GeometryDecoderRegistry getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * Registers a decoder, replacing an earlier decoder of the same datatype.
+   * @param decoder the decoder
+   */
+  public void register(GeometryDecoder decoder)
+  {
+    this.decoders.put(decoder.getDatatype(), decoder);
+  }
+
+  /**
+   * @param datatype the IRI of a literal datatype
+   * @return true if a decoder is registered for the datatype
+   */
+  public boolean isGeometryDatatype(String datatype)
+  {
+    return this.decoders.containsKey(datatype);
+  }
+
+  /**
+   * @param datatype the IRI of a literal datatype
+   * @return the decoder of the datatype, or the WKT decoder if none is registered
+   */
+  public GeometryDecoder getDecoder(String datatype)
+  {
+    GeometryDecoder decoder = datatype == null ? null : this.decoders.get(datatype);
+    return decoder == null ? this.defaultDecoder : decoder;
+  }
+
+  /**
+   * @param lexicalForm the lexical form of the literal
+   * @param datatype the IRI of the literal datatype
+   * @param target the CRS to reproject to if the literal declares its CRS
+   * @return the decoded geometry
+   * @throws ParseException if the literal is malformed
+   * @throws IllegalArgumentException if the literal uses an unsupported CRS
+   */
+  public Geometry decode(String lexicalForm, String datatype, CoordinateReferenceSystem target) throws ParseException
+  {
+    return getDecoder(datatype).decode(lexicalForm, target);
+  }
+}
@@ -0,0 +1,39 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+/**
+ * Decodes GeoSPARQL <code>geo:wktLiteral</code> values, which may start with a CRS IRI in angle brackets, e.g.
+ * <code>&lt;http://www.opengis.net/def/crs/EPSG/0/25832&gt; POINT(412000 5530000)</code>. Literals without a CRS IRI
+ * are in CRS84.
+ */
+public class WKTGeometryDecoder extends AbstractGeometryDecoder
+{
+  /** The IRI of the GeoSPARQL WKT literal datatype. */
+  public static final String WKT_LITERAL = "http://www.opengis.net/ont/geosparql#wktLiteral";
+
+  @Override public String getDatatype()
+  {
+    return WKT_LITERAL;
+  }
+
+  @Override public Geometry decode(String lexicalForm, CoordinateReferenceSystem target) throws ParseException
+  {
+    String wkt = lexicalForm.trim();
+    CoordinateReferenceSystem source = null;
+
+    if (wkt.startsWith("<")) {
+      int end = wkt.indexOf('>');
+      if (end < 0)
+        throw new ParseException("Unterminated CRS IRI in " + lexicalForm);
+      source = CoordinateReferenceSystem.fromIRI(wkt.substring(1, end).trim());
+      wkt = wkt.substring(end + 1);
+    }
+
+    return reproject(new WKTReader().read(wkt), source, target);
+  }
+}
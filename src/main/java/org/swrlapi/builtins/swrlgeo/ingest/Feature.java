@@ -0,0 +1,69 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A geometry feature read from a {@link FeatureSource}.
+ */
+public final class Feature
+{
+  private final String id;
+  private final Geometry geometry;
+  private final CoordinateReferenceSystem crs;
+  private final Map<String, Object> properties;
+
+  /**
+   * @param id the feature identifier, or null if the source has none
+   * @param geometry the geometry in its source CRS
+   * @param crs the source CRS, or null if the geometry is already in the working CRS
+   * @param properties the attributes of the feature as strings, numbers and booleans
+   */
+  public Feature(String id, Geometry geometry, CoordinateReferenceSystem crs, Map<String, Object> properties)
+  {
+    this.id = id;
+    this.geometry = geometry;
+    this.crs = crs;
+    this.properties = properties == null ? Collections.<String, Object>emptyMap() : properties;
+  }
+
+  /**
+   * @return the feature identifier, or null
+   */
+  public String getId()
+  {
+    return this.id;
+  }
+
+  public Geometry getGeometry()
+  {
+    return this.geometry;
+  }
+
+  /**
+   * @return the CRS of the geometry, or null if the geometry is in the working CRS
+   */
+  public CoordinateReferenceSystem getCRS()
+  {
+    return this.crs;
+  }
+
+  public Map<String, Object> getProperties()
+  {
+    return this.properties;
+  }
+
+  /**
+   * @param workingCRS the working CRS
+   * @return the lexical form of the <code>geo:wktLiteral</code> of the geometry, tagged with its CRS IRI or with that of
+   * the working CRS, so that the literal does not depend on how untagged literals are read
+   */
+  public String toLiteral(CoordinateReferenceSystem workingCRS)
+  {
+    return "<" + (this.crs == null ? workingCRS : this.crs).getIRI() + "> " + this.geometry.toText();
+  }
+}
@@ -0,0 +1,24 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A stream of features read from a file one at a time, so files of any size can be ingested with bounded memory.
+ */
+public interface FeatureSource extends Closeable
+{
+  /**
+   * @return the next feature, or null at the end of the source
+   * @throws IOException if the source cannot be read or is malformed
+   */
+  Feature next() throws IOException;
+
+  /**
+   * @return the number of features skipped so far because they have no geometry
+   */
+  default long getSkippedFeatureCount()
+  {
+    return 0;
+  }
+}
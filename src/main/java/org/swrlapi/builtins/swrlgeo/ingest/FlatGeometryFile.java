@@ -0,0 +1,145 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Flat geometry files: a binary sequence of features without an index, written and read sequentially.
+ * <p>
+ * A file starts with the magic bytes <code>SWRLGEO1</code> and the IRI of its CRS in modified UTF-8 as written by
+ * <code>DataOutput.writeUTF</code> (empty if the geometries are in the working CRS). Every feature follows as an identifier (a 16 bit length and UTF-8 bytes, length
+ * 0 for none) and its geometry as WKB (a 32 bit length and the bytes).
+ */
+public final class FlatGeometryFile
+{
+  private static final byte[] MAGIC = "SWRLGEO1".getBytes(StandardCharsets.US_ASCII);
+
+  private FlatGeometryFile()
+  {
+  }
+
+  /**
+   * Reads the features of a flat geometry file.
+   */
+  public static class Reader implements FeatureSource
+  {
+    private final DataInputStream input;
+    private final CoordinateReferenceSystem crs;
+    private final WKBReader wkbReader = new WKBReader();
+    private byte[] buffer = new byte[4096];
+
+    /**
+     * @param input the stream of the file
+     * @throws IOException if the file header cannot be read or uses an unsupported CRS
+     */
+    public Reader(InputStream input) throws IOException
+    {
+      this.input = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+      byte[] magic = new byte[MAGIC.length];
+      this.input.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC))
+        throw new IOException("Not a flat geometry file");
+      String crsIRI = this.input.readUTF();
+      try {
+        this.crs = crsIRI.isEmpty() ? null : CoordinateReferenceSystem.fromIRI(crsIRI);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Unsupported CRS " + crsIRI);
+      }
+    }
+
+    @Override public Feature next() throws IOException
+    {
+      int idLength;
+      try {
+        idLength = this.input.readUnsignedShort();
+      } catch (EOFException e) {
+        return null;
+      }
+      String id = idLength == 0 ? null : new String(read(idLength), 0, idLength, StandardCharsets.UTF_8);
+      int wkbLength = this.input.readInt();
+      try {
+        // WKBReader copies the coordinates, so the buffer can be reused for the next feature
+        return new Feature(id, this.wkbReader.read(read(wkbLength)), this.crs, null);
+      } catch (ParseException e) {
+        throw new IOException("Malformed WKB of feature " + id + ": " + e.getMessage());
+      }
+    }
+
+    private byte[] read(int length) throws IOException
+    {
+      if (this.buffer.length < length)
+        this.buffer = new byte[Math.max(length, 2 * this.buffer.length)];
+      this.input.readFully(this.buffer, 0, length);
+      return this.buffer;
+    }
+
+    @Override public void close() throws IOException
+    {
+      this.input.close();
+    }
+  }
+
+  /**
+   * Writes features to a flat geometry file.
+   */
+  public static class Writer implements Flushable, AutoCloseable
+  {
+    private final DataOutputStream output;
+    private final WKBWriter wkbWriter = new WKBWriter();
+
+    /**
+     * @param output the stream to write the file to
+     * @param crs the CRS of the geometries, or null if they are in the working CRS
+     * @throws IOException if the header cannot be written
+     */
+    public Writer(OutputStream output, CoordinateReferenceSystem crs) throws IOException
+    {
+      this.output = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+      this.output.write(MAGIC);
+      this.output.writeUTF(crs == null ? "" : crs.getIRI());
+    }
+
+    /**
+     * @param id the feature identifier, or null
+     * @param geometry the geometry
+     * @throws IOException if the feature cannot be written
+     */
+    public void write(String id, Geometry geometry) throws IOException
+    {
+      byte[] idBytes = id == null ? new byte[0] : id.getBytes(StandardCharsets.UTF_8);
+      if (idBytes.length > 0xFFFF)
+        throw new IOException("Feature identifier too long: " + id);
+      byte[] wkb = this.wkbWriter.write(geometry);
+      this.output.writeShort(idBytes.length);
+      this.output.write(idBytes);
+      this.output.writeInt(wkb.length);
+      this.output.write(wkb);
+    }
+
+    @Override public void flush() throws IOException
+    {
+      this.output.flush();
+    }
+
+    @Override public void close() throws IOException
+    {
+      this.output.close();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.decode.GeoJSONGeometryDecoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vividsolutions.jts.geom.Geometry;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the features of a GeoJSON (RFC 7946) document with a streaming parser. The <code>features</code> array of a
+ * FeatureCollection is read one feature at a time, so only a single feature is held in memory. A sequence of Feature
+ * objects, e.g. newline-delimited GeoJSON, is read the same way. GeoJSON coordinates are always CRS84. Features whose
+ * geometry is null, i.e. unlocated features, are skipped and counted.
+ */
+public class GeoJSONFeatureSource implements FeatureSource
+{
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final JsonParser parser;
+  private boolean inFeatureArray;
+  private long skippedFeatures;
+
+  /**
+   * @param reader the reader of the GeoJSON document
+   * @throws IOException if the document cannot be read
+   */
+  public GeoJSONFeatureSource(Reader reader) throws IOException
+  {
+    this.parser = new JsonFactory(mapper).createParser(reader);
+  }
+
+  @Override public Feature next() throws IOException
+  {
+    while (true) {
+      JsonToken token = this.parser.nextToken();
+      if (token == null)
+        return null;
+
+      if (this.inFeatureArray) {
+        if (token == JsonToken.END_ARRAY)
+          this.inFeatureArray = false;
+        else if (token == JsonToken.START_OBJECT) {
+          Feature feature = toFeature(this.parser.readValueAsTree());
+          if (feature != null)
+            return feature;
+        } else
+          throw new IOException("Feature object expected at " + this.parser.getCurrentLocation());
+      } else if (token == JsonToken.FIELD_NAME && this.parser.getParsingContext().getParent().inRoot()) {
+        // a field of a root FeatureCollection; stream its features, skip everything else
+        if ("features".equals(this.parser.getCurrentName())) {
+          if (this.parser.nextToken() != JsonToken.START_ARRAY)
+            throw new IOException("Array of features expected at " + this.parser.getCurrentLocation());
+          this.inFeatureArray = true;
+        } else {
+          this.parser.nextToken();
+          this.parser.skipChildren();
+        }
+      } else if (token == JsonToken.START_OBJECT && this.parser.getParsingContext().getParent().inRoot()) {
+        JsonNode root = readRootObject();
+        Feature feature = root == null ? null : toFeature(root);
+        if (feature != null)
+          return feature;
+      }
+    }
+  }
+
+  @Override public long getSkippedFeatureCount()
+  {
+    return this.skippedFeatures;
+  }
+
+  /**
+   * Reads a root object up to its <code>features</code> field, if it has one.
+   * @return the root object if it is not a FeatureCollection, null otherwise
+   */
+  private JsonNode readRootObject() throws IOException
+  {
+    Map<String, JsonNode> fields = new LinkedHashMap<>();
+    while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = this.parser.getCurrentName();
+      if ("features".equals(name)) {
+        if (this.parser.nextToken() != JsonToken.START_ARRAY)
+          throw new IOException("Array of features expected at " + this.parser.getCurrentLocation());
+        this.inFeatureArray = true;
+        return null;
+      }
+      this.parser.nextToken();
+      fields.put(name, this.parser.readValueAsTree());
+    }
+    return mapper.valueToTree(fields);
+  }
+
+  /**
+   * @return the feature, or null if its geometry is null
+   */
+  private Feature toFeature(JsonNode node) throws IOException
+  {
+    if (!"Feature".equals(node.path("type").asText()))
+      throw new IOException("GeoJSON Feature expected, found " + node.path("type").asText());
+    JsonNode geometry = node.get("geometry");
+    if (geometry == null)
+      throw new IOException("Feature without geometry");
+    if (geometry.isNull()) {
+      this.skippedFeatures++;
+      return null;
+    }
+    JsonNode id = node.get("id");
+    Map<String, Object> properties = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = node.path("properties").fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode value = field.getValue();
+      if (value.isIntegralNumber())
+        properties.put(field.getKey(), value.longValue());
+      else if (value.isNumber())
+        properties.put(field.getKey(), value.doubleValue());
+      else if (value.isBoolean())
+        properties.put(field.getKey(), value.booleanValue());
+      else if (value.isTextual())
+        properties.put(field.getKey(), value.textValue());
+    }
+    return new Feature(id == null || id.isNull() ? null : id.asText(), toGeometry(geometry),
+      CoordinateReferenceSystem.CRS84, properties);
+  }
+
+  private static Geometry toGeometry(JsonNode node) throws IOException
+  {
+    try (JsonParser geometryParser = node.traverse(mapper)) {
+      geometryParser.nextToken();
+      return GeoJSONGeometryDecoder.readGeometry(geometryParser);
+    }
+  }
+
+  @Override public void close() throws IOException
+  {
+    this.parser.close();
+  }
+}
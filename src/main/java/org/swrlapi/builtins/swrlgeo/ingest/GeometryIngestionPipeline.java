@@ -0,0 +1,233 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swrlapi.builtins.swrlgeo.GeometryCache;
+import org.swrlapi.builtins.swrlgeo.GeometryIndex;
+import org.swrlapi.builtins.swrlgeo.GeometryLiteralParser;
+import org.swrlapi.builtins.swrlgeo.GeometryNormalizer;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateTransformer;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams features from local files into an ontology. Every feature becomes a named individual with a
+ * <code>geo:wktLiteral</code> value of a geometry property and, optionally, a class assertion and data property
+ * assertions for its attributes. Axioms are added in batches, so only one batch of features is held in memory.
+ * <p>
+ * The envelopes of the geometries in the working CRS are put into the swrlgeo {@link GeometryIndex}, where the
+ * topological and distance predicates reject pairs whose envelopes are apart without parsing either literal, and the
+ * geometries themselves into the {@link GeometryCache} while it has room, so rules can be evaluated right after
+ * ingestion without parsing or reprojecting the cached literals again. Geometries beyond the capacity of the cache are
+ * not kept, so ingesting a large file neither holds all its geometries nor evicts what was cached before.
+ */
+public class GeometryIngestionPipeline
+{
+  private static final Logger log = LoggerFactory.getLogger(GeometryIngestionPipeline.class);
+
+  /** The default number of features added to the ontology at once. */
+  public static final int DEFAULT_BATCH_SIZE = 10000;
+
+  private final OWLOntology ontology;
+  private final OWLDataFactory dataFactory;
+  private final String namespace;
+  private final OWLDataProperty geometryProperty;
+  private final OWLClass featureClass;
+  private final OWLDatatype wktLiteral;
+  private final int batchSize;
+  private final CoordinateReferenceSystem workingCRS;
+  private final GeometryNormalizer normalizer;
+  private long generatedIds;
+
+  /**
+   * Constructor for this class.
+   * @param ontology the ontology to add the features to
+   * @param namespace the namespace of the created individuals and attribute properties
+   * @param geometryProperty the data property relating an individual to its geometry literal
+   * @param featureClass the class of the created individuals, or null
+   * @param batchSize the number of features added to the ontology at once
+   */
+  public GeometryIngestionPipeline(OWLOntology ontology, String namespace, IRI geometryProperty, IRI featureClass,
+    int batchSize)
+  {
+    this.ontology = ontology;
+    this.dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+    this.namespace = namespace;
+    this.geometryProperty = this.dataFactory.getOWLDataProperty(geometryProperty);
+    this.featureClass = featureClass == null ? null : this.dataFactory.getOWLClass(featureClass);
+    this.wktLiteral = this.dataFactory.getOWLDatatype(IRI.create(GeometryLiteralParser.WKT_LITERAL));
+    this.batchSize = batchSize;
+    this.workingCRS = SWRLGeoConfiguration.getWorkingCRS();
+    this.normalizer = SWRLGeoConfiguration.getGeometryNormalizer();
+  }
+
+  /**
+   * @param file a GeoJSON file
+   * @return the number of ingested features
+   * @throws IOException if the file cannot be read
+   */
+  public long ingestGeoJSON(Path file) throws IOException
+  {
+    try (FeatureSource source = new GeoJSONFeatureSource(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+      return ingest(source);
+    }
+  }
+
+  /**
+   * @param file a file of newline-delimited WKT
+   * @return the number of ingested features
+   * @throws IOException if the file cannot be read
+   */
+  public long ingestWKT(Path file) throws IOException
+  {
+    try (FeatureSource source = new WKTFeatureSource(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+      return ingest(source);
+    }
+  }
+
+  /**
+   * @param file a flat geometry file
+   * @return the number of ingested features
+   * @throws IOException if the file cannot be read
+   */
+  public long ingestFlatGeometryFile(Path file) throws IOException
+  {
+    try (FeatureSource source = new FlatGeometryFile.Reader(Files.newInputStream(file))) {
+      return ingest(source);
+    }
+  }
+
+  /**
+   * @param source the features to ingest
+   * @return the number of ingested features
+   * @throws IOException if the source cannot be read
+   */
+  public long ingest(FeatureSource source) throws IOException
+  {
+    long start = System.currentTimeMillis(), count = 0;
+    Set<OWLAxiom> axioms = new HashSet<>();
+    List<String> literals = new ArrayList<>(this.batchSize);
+    List<Geometry> geometries = new ArrayList<>(this.batchSize);
+
+    Feature feature;
+    while ((feature = source.next()) != null) {
+      String literal = feature.toLiteral(this.workingCRS);
+      addAxioms(feature, literal, axioms);
+      literals.add(literal);
+      geometries.add(toWorkingGeometry(feature));
+      if (literals.size() >= this.batchSize) {
+        count += flush(axioms, literals, geometries);
+        log.debug("Ingested {} features", count);
+      }
+    }
+    count += flush(axioms, literals, geometries);
+
+    if (source.getSkippedFeatureCount() > 0)
+      log.info("Skipped {} features without geometry", source.getSkippedFeatureCount());
+    log.info("Ingested {} features in {} ms", count, System.currentTimeMillis() - start);
+    return count;
+  }
+
+  private void addAxioms(Feature feature, String literal, Set<OWLAxiom> axioms)
+  {
+    String name = feature.getId() == null ? "feature" + (++this.generatedIds) : encode(feature.getId());
+    OWLNamedIndividual individual = this.dataFactory.getOWLNamedIndividual(IRI.create(this.namespace + name));
+
+    axioms.add(this.dataFactory.getOWLDataPropertyAssertionAxiom(this.geometryProperty, individual,
+      this.dataFactory.getOWLLiteral(literal, this.wktLiteral)));
+    if (this.featureClass != null)
+      axioms.add(this.dataFactory.getOWLClassAssertionAxiom(this.featureClass, individual));
+    for (Map.Entry<String, Object> property : feature.getProperties().entrySet()) {
+      OWLDataProperty dataProperty = this.dataFactory
+        .getOWLDataProperty(IRI.create(this.namespace + encode(property.getKey())));
+      axioms.add(this.dataFactory
+        .getOWLDataPropertyAssertionAxiom(dataProperty, individual, toLiteral(property.getValue())));
+    }
+  }
+
+  private OWLLiteral toLiteral(Object value)
+  {
+    if (value instanceof Long)
+      return this.dataFactory.getOWLLiteral(value.toString(), OWL2Datatype.XSD_INTEGER);
+    if (value instanceof Double)
+      return this.dataFactory.getOWLLiteral((Double)value);
+    if (value instanceof Boolean)
+      return this.dataFactory.getOWLLiteral((Boolean)value);
+    return this.dataFactory.getOWLLiteral(value.toString());
+  }
+
+  /**
+   * Computes the geometry the swrlgeo library would derive from the literal of the feature.
+   */
+  private Geometry toWorkingGeometry(Feature feature)
+  {
+    Geometry geometry = feature.getGeometry();
+    CoordinateReferenceSystem crs = feature.getCRS();
+    if (crs != null) {
+      if (crs.isLatitudeFirst()) {
+        geometry = (Geometry)geometry.clone();
+        CoordinateTransformer.swapAxes(geometry);
+      }
+      geometry = CoordinateTransformer.transform(geometry, crs, this.workingCRS);
+    }
+    return this.normalizer.isEnabled() ? this.normalizer.normalize(geometry) : geometry;
+  }
+
+  /**
+   * Adds a batch of axioms to the ontology and then caches and indexes its geometries. Caching comes second, as an
+   * attached change tracker drops the cache entries of literals added to the ontology.
+   */
+  private int flush(Set<OWLAxiom> axioms, List<String> literals, List<Geometry> geometries)
+  {
+    int count = literals.size();
+    if (!axioms.isEmpty())
+      this.ontology.getOWLOntologyManager().addAxioms(this.ontology, axioms);
+
+    GeometryCache geometryCache = GeometryCache.getInstance();
+    GeometryIndex geometryIndex = GeometryIndex.getInstance();
+    int capacity = geometryCache.getEntries().getMaximumSize();
+    for (int i = 0; i < count; i++) {
+      if (geometryCache.getEntries().size() < capacity)
+        geometryCache.put(literals.get(i), this.workingCRS.getSRID(), geometries.get(i));
+      geometryIndex.insert(literals.get(i), geometries.get(i).getEnvelopeInternal());
+    }
+
+    axioms.clear();
+    literals.clear();
+    geometries.clear();
+    return count;
+  }
+
+  private static String encode(String name)
+  {
+    try {
+      return URLEncoder.encode(name, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
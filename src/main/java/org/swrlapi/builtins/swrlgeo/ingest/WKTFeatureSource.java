@@ -0,0 +1,75 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads newline-delimited WKT. Each line holds a geometry, optionally preceded by a feature identifier and a tab, and
+ * may start with a CRS IRI in angle brackets like a <code>geo:wktLiteral</code>; lines without one are read like
+ * untagged literals, see {@link SWRLGeoConfiguration#getUntaggedLiteralCRS()}. Empty lines and lines starting with
+ * <code>#</code> are skipped.
+ */
+public class WKTFeatureSource implements FeatureSource
+{
+  private final BufferedReader reader;
+  private final WKTReader wktReader = new WKTReader();
+  private int lineNumber;
+
+  /**
+   * @param reader the reader of the WKT lines
+   */
+  public WKTFeatureSource(BufferedReader reader)
+  {
+    this.reader = reader;
+  }
+
+  @Override public Feature next() throws IOException
+  {
+    String line;
+    while ((line = this.reader.readLine()) != null) {
+      this.lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#"))
+        continue;
+
+      String id = null;
+      int tab = line.indexOf('\t');
+      if (tab >= 0) {
+        id = line.substring(0, tab).trim();
+        line = line.substring(tab + 1).trim();
+      }
+
+      CoordinateReferenceSystem crs = SWRLGeoConfiguration.getUntaggedLiteralCRS();
+      if (line.startsWith("<")) {
+        int end = line.indexOf('>');
+        if (end < 0)
+          throw new IOException("Unterminated CRS IRI in line " + this.lineNumber);
+        try {
+          crs = CoordinateReferenceSystem.fromIRI(line.substring(1, end).trim());
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Unsupported CRS in line " + this.lineNumber + ": " + e.getMessage());
+        }
+        line = line.substring(end + 1);
+      }
+
+      try {
+        return new Feature(id, this.wktReader.read(line), crs, null);
+      } catch (ParseException e) {
+        throw new IOException("Malformed WKT in line " + this.lineNumber + ": " + e.getMessage());
+      }
+    }
+    return null;
+  }
+
+  @Override public void close() throws IOException
+  {
+    this.reader.close();
+  }
+}
@@ -0,0 +1,164 @@
+package org.swrlapi.builtins.swrlgeo.nearest;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.strtree.AbstractNode;
+import com.vividsolutions.jts.index.strtree.Boundable;
+import com.vividsolutions.jts.index.strtree.ItemBoundable;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable set of geometries in the working CRS, indexed by an {@link STRtree} for k-nearest-neighbour searches.
+ * Every geometry carries an identifier, e.g. the lexical form of its geometry literal or the IRI of the individual it
+ * belongs to, which <code>st_nearest</code> binds as results.
+ * <p>
+ * The search is best-first: tree nodes are visited in order of the distance of their envelopes from the query, and a
+ * geometry's exact distance is only computed once its envelope is the closest candidate left. Envelope distances never
+ * exceed exact distances, so the search stops as soon as k geometries have come off the queue with exact distances.
+ */
+public final class FeatureSet
+{
+  private final Geometry[] geometries;
+  private final String[] ids;
+  private final STRtree tree;
+
+  private FeatureSet(Geometry[] geometries, String[] ids)
+  {
+    this.geometries = geometries;
+    this.ids = ids;
+    this.tree = new STRtree();
+    for (int i = 0; i < geometries.length; i++)
+      this.tree.insert(geometries[i].getEnvelopeInternal(), i);
+    // the tree is built lazily by the first query; build it while the set is not yet shared between threads
+    this.tree.build();
+  }
+
+  /**
+   * @return the number of geometries
+   */
+  public int size()
+  {
+    return this.geometries.length;
+  }
+
+  /**
+   * @param index the index of a geometry
+   * @return the geometry
+   */
+  public Geometry getGeometry(int index)
+  {
+    return this.geometries[index];
+  }
+
+  /**
+   * @param index the index of a geometry
+   * @return the identifier of the geometry
+   */
+  public String getId(int index)
+  {
+    return this.ids[index];
+  }
+
+  /**
+   * @param query a geometry in the working CRS
+   * @param k the maximum number of geometries to return
+   * @return the indexes of the k geometries closest to the query, nearest first; fewer if the set is smaller
+   */
+  public int[] nearest(Geometry query, int k)
+  {
+    if (k <= 0 || this.geometries.length == 0)
+      return new int[0];
+
+    Envelope envelope = query.getEnvelopeInternal();
+    PriorityQueue<Candidate> queue = new PriorityQueue<>();
+    queue.add(new Candidate(this.tree.getRoot(), 0, false));
+    int[] nearest = new int[Math.min(k, this.geometries.length)];
+    int size = 0;
+
+    while (size < nearest.length && !queue.isEmpty()) {
+      Candidate candidate = queue.poll();
+      if (candidate.exact)
+        nearest[size++] = (Integer)((ItemBoundable)candidate.boundable).getItem();
+      else if (candidate.boundable instanceof ItemBoundable) {
+        int index = (Integer)((ItemBoundable)candidate.boundable).getItem();
+        queue.add(new Candidate(candidate.boundable, this.geometries[index].distance(query), true));
+      } else
+        for (Object child : ((AbstractNode)candidate.boundable).getChildBoundables()) {
+          Boundable boundable = (Boundable)child;
+          queue.add(new Candidate(boundable, ((Envelope)boundable.getBounds()).distance(envelope), false));
+        }
+    }
+    return size == nearest.length ? nearest : Arrays.copyOf(nearest, size);
+  }
+
+  private static final class Candidate implements Comparable<Candidate>
+  {
+    private final Boundable boundable;
+    private final double distance;
+    private final boolean exact;
+
+    Candidate(Boundable boundable, double distance, boolean exact)
+    {
+      this.boundable = boundable;
+      this.distance = distance;
+      this.exact = exact;
+    }
+
+    @Override public int compareTo(Candidate other)
+    {
+      int order = Double.compare(this.distance, other.distance);
+      // at equal distance resolve exact candidates first, so ties do not expand more of the tree
+      return order != 0 ? order : Boolean.compare(other.exact, this.exact);
+    }
+  }
+
+  /**
+   * Collects geometries into a {@link FeatureSet}.
+   */
+  public static final class Builder
+  {
+    private final List<Geometry> geometries;
+    private final List<String> ids;
+
+    public Builder()
+    {
+      this(1024);
+    }
+
+    /**
+     * @param expectedSize the expected number of geometries
+     */
+    public Builder(int expectedSize)
+    {
+      this.geometries = new ArrayList<>(expectedSize);
+      this.ids = new ArrayList<>(expectedSize);
+    }
+
+    /**
+     * @param geometry the geometry in the working CRS
+     * @param id the identifier of the geometry
+     * @return this builder
+     */
+    public Builder add(Geometry geometry, String id)
+    {
+      if (geometry.isEmpty())
+        throw new IllegalArgumentException("empty geometry " + id + " cannot be indexed");
+      this.geometries.add(geometry);
+      this.ids.add(id);
+      return this;
+    }
+
+    /**
+     * @return the feature set; the builder must not be used afterwards
+     */
+    public FeatureSet build()
+    {
+      return new FeatureSet(this.geometries.toArray(new Geometry[0]), this.ids.toArray(new String[0]));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.swrlapi.builtins.swrlgeo.nearest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named feature sets <code>st_nearest</code> searches. Applications register a set before running rules that name
+ * it:
+ * <pre>
+ *   FeatureSet.Builder builder = new FeatureSet.Builder(stations.size());
+ *   for (Station station : stations)
+ *     builder.add(station.getGeometry(), station.getIRI().toString());
+ *   FeatureSetRegistry.getInstance().register("stations", builder.build());
+ * </pre>
+ */
+public final class FeatureSetRegistry
+{
+  private static final FeatureSetRegistry instance = new FeatureSetRegistry();
+
+  private final Map<String, FeatureSet> featureSets = new ConcurrentHashMap<>();
+
+  private FeatureSetRegistry()
+  {
+  }
+
+  /**
+   * @return the registry shared by the swrlgeo library
+   */
+  public static FeatureSetRegistry getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param name the name of the feature set
+   * @param featureSet the feature set, replacing an earlier set of the same name
+   */
+  public void register(String name, FeatureSet featureSet)
+  {
+    this.featureSets.put(name, featureSet);
+  }
+
+  /**
+   * @param name the name of a feature set
+   * @return the feature set, or null if none is registered under the name
+   */
+  public FeatureSet get(String name)
+  {
+    return this.featureSets.get(name);
+  }
+
+  /**
+   * @param name the name of the feature set to remove
+   */
+  public void remove(String name)
+  {
+    this.featureSets.remove(name);
+  }
+}
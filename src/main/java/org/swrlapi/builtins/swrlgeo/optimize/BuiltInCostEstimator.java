@@ -0,0 +1,16 @@
+package org.swrlapi.builtins.swrlgeo.optimize;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Estimates the cost and selectivity of built-ins for the {@link RuleBodyOptimizer}.
+ */
+public interface BuiltInCostEstimator
+{
+  /**
+   * @param builtIn the IRI of a built-in
+   * @return the estimate, or null if the built-in is not a pure predicate known to the estimator; such built-ins are
+   * never moved
+   */
+  BuiltInEstimate estimate(IRI builtIn);
+}
@@ -0,0 +1,51 @@
+package org.swrlapi.builtins.swrlgeo.optimize;
+
+/**
+ * The estimated cost and selectivity of a pure built-in predicate.
+ */
+public final class BuiltInEstimate
+{
+  private final double cost;
+  private final double selectivity;
+
+  /**
+   * @param cost the estimated cost of an invocation, relative to a geometry type test
+   * @param selectivity the estimated fraction of invocations that evaluate to true, between 0 and 1
+   */
+  public BuiltInEstimate(double cost, double selectivity)
+  {
+    this.cost = cost;
+    this.selectivity = Math.max(0, Math.min(1, selectivity));
+  }
+
+  /**
+   * @return the estimated cost of an invocation
+   */
+  public double getCost()
+  {
+    return this.cost;
+  }
+
+  /**
+   * @return the estimated fraction of invocations that evaluate to true
+   */
+  public double getSelectivity()
+  {
+    return this.selectivity;
+  }
+
+  /**
+   * The rank of a predicate in a conjunction of independent filters. Evaluating filters by increasing rank minimises
+   * the expected cost of the conjunction: cheap filters that reject many bindings come first.
+   * @return the cost per rejected binding
+   */
+  public double getRank()
+  {
+    return this.selectivity >= 1 ? Double.POSITIVE_INFINITY : this.cost / (1 - this.selectivity);
+  }
+
+  @Override public String toString()
+  {
+    return "cost " + this.cost + ", selectivity " + this.selectivity;
+  }
+}
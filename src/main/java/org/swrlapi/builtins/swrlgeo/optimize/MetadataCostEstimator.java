@@ -0,0 +1,41 @@
+package org.swrlapi.builtins.swrlgeo.optimize;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.swrlapi.builtins.swrlgeo.BuiltInMetadata;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoBuiltIns;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Estimates built-ins from static knowledge: the cost table of the swrlgeo built-ins and the core comparison built-ins
+ * of the swrlb library, which are cheaper than any geometry test. Selectivities are unknown, so all predicates are
+ * assumed to hold for half of their invocations.
+ */
+public class MetadataCostEstimator implements BuiltInCostEstimator
+{
+  /** The selectivity assumed for predicates without statistics. */
+  public static final double DEFAULT_SELECTIVITY = 0.5;
+
+  private static final String SWRLB_NAMESPACE = "http://www.w3.org/2003/11/swrlb#";
+
+  private static final Set<String> swrlbComparisons = new HashSet<>(Arrays
+    .asList("equal", "notEqual", "lessThan", "lessThanOrEqual", "greaterThan", "greaterThanOrEqual",
+      "stringEqualIgnoreCase", "contains", "containsIgnoreCase", "startsWith", "endsWith", "matches"));
+
+  private static final double SWRLB_COMPARISON_COST = 0.1;
+
+  @Override public BuiltInEstimate estimate(IRI builtIn)
+  {
+    String namespace = builtIn.getNamespace();
+    String name = builtIn.getShortForm();
+    if (SWRLGeoBuiltIns.NAMESPACE.equals(namespace)) {
+      BuiltInMetadata metadata = SWRLGeoBuiltIns.get(name);
+      return metadata != null && metadata.isPure() ? new BuiltInEstimate(metadata.getCost(), DEFAULT_SELECTIVITY) : null;
+    }
+    if (SWRLB_NAMESPACE.equals(namespace) && swrlbComparisons.contains(name))
+      return new BuiltInEstimate(SWRLB_COMPARISON_COST, DEFAULT_SELECTIVITY);
+    return null;
+  }
+}
@@ -0,0 +1,143 @@
+package org.swrlapi.builtins.swrlgeo.optimize;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.SWRLArgument;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.SWRLVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reorders the bodies of SWRL rules so that expensive built-in predicates run on as few bindings as possible. Apply it
+ * to an ontology before creating the rule engine:
+ * <pre>
+ *   new RuleBodyOptimizer(new MetadataCostEstimator()).optimize(ontology);
+ *   SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+ * </pre>
+ * Only pure built-in predicates known to the estimator whose variables are all bound by preceding atoms are moved; they
+ * are filters, so evaluating them later does not change the result of the rule. They are moved behind the class,
+ * property and other atoms up to the next built-in that is not moved, which may bind variables, and are ordered by
+ * increasing rank (cost per rejected binding) among themselves. All other atoms keep their relative order.
+ */
+public class RuleBodyOptimizer
+{
+  private static final Logger log = LoggerFactory.getLogger(RuleBodyOptimizer.class);
+
+  private final BuiltInCostEstimator estimator;
+
+  /**
+   * @param estimator the estimator of built-in costs and selectivities
+   */
+  public RuleBodyOptimizer(BuiltInCostEstimator estimator)
+  {
+    this.estimator = estimator;
+  }
+
+  /**
+   * Replaces the SWRL rules of an ontology, excluding its imports, with their optimized versions.
+   * @param ontology the ontology
+   * @return the number of rules whose bodies were reordered
+   */
+  public int optimize(OWLOntology ontology)
+  {
+    OWLDataFactory dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+    List<OWLOntologyChange> removals = new ArrayList<>();
+    List<OWLOntologyChange> additions = new ArrayList<>();
+
+    for (SWRLRule rule : ontology.getAxioms(AxiomType.SWRL_RULE)) {
+      SWRLRule optimized = optimize(rule, dataFactory);
+      if (optimized != rule) {
+        // rules with the same atoms are equal regardless of order, so the old rule must be removed first
+        removals.add(new RemoveAxiom(ontology, rule));
+        additions.add(new AddAxiom(ontology, optimized));
+      }
+    }
+    ontology.getOWLOntologyManager().applyChanges(removals);
+    ontology.getOWLOntologyManager().applyChanges(additions);
+    log.info("Reordered the bodies of " + additions.size() + " SWRL rules");
+    return additions.size();
+  }
+
+  /**
+   * @param rule the rule
+   * @param dataFactory the data factory to create the optimized rule with
+   * @return the optimized rule, or the given rule if its body is already in the best order
+   */
+  public SWRLRule optimize(SWRLRule rule, OWLDataFactory dataFactory)
+  {
+    List<SWRLAtom> body = new ArrayList<>(rule.getBody());
+    List<SWRLAtom> optimized = new ArrayList<>(body.size());
+    List<SWRLAtom> segment = new ArrayList<>();
+    List<RankedFilter> filters = new ArrayList<>();
+    Set<SWRLVariable> bound = new HashSet<>();
+
+    for (SWRLAtom atom : body) {
+      Set<SWRLVariable> variables = getVariables(atom.getAllArguments());
+      if (atom instanceof SWRLBuiltInAtom) {
+        BuiltInEstimate estimate = this.estimator.estimate(((SWRLBuiltInAtom)atom).getPredicate());
+        if (estimate != null && bound.containsAll(variables)) {
+          filters.add(new RankedFilter(atom, estimate.getRank(), filters.size()));
+          continue;
+        }
+        // a built-in that may bind variables ends the segment atoms can be moved in
+        flush(segment, filters, optimized);
+        optimized.add(atom);
+      } else
+        segment.add(atom);
+      bound.addAll(variables);
+    }
+    flush(segment, filters, optimized);
+
+    if (optimized.equals(body))
+      return rule;
+    return dataFactory.getSWRLRule(new LinkedHashSet<>(optimized), rule.getHead(), rule.getAnnotations());
+  }
+
+  private static void flush(List<SWRLAtom> segment, List<RankedFilter> filters, List<SWRLAtom> optimized)
+  {
+    optimized.addAll(segment);
+    filters.sort(Comparator.comparingDouble((RankedFilter filter) -> filter.rank).thenComparingInt(filter -> filter.index));
+    for (RankedFilter filter : filters)
+      optimized.add(filter.atom);
+    segment.clear();
+    filters.clear();
+  }
+
+  private static Set<SWRLVariable> getVariables(Collection<SWRLArgument> arguments)
+  {
+    Set<SWRLVariable> variables = new HashSet<>();
+    for (SWRLArgument argument : arguments)
+      if (argument instanceof SWRLVariable)
+        variables.add((SWRLVariable)argument);
+    return variables;
+  }
+
+  private static final class RankedFilter
+  {
+    private final SWRLAtom atom;
+    private final double rank;
+    private final int index;
+
+    RankedFilter(SWRLAtom atom, double rank, int index)
+    {
+      this.atom = atom;
+      this.rank = rank;
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.swrlapi.builtins.swrlgeo.optimize;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.swrlapi.builtins.swrlgeo.BuiltInMetadata;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoBuiltIns;
+import org.swrlapi.builtins.swrlgeo.stats.PredicateStatistics;
+import org.swrlapi.builtins.swrlgeo.stats.StatisticsCollector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates swrlgeo built-ins from the statistics observed by the {@link StatisticsCollector} and falls back to the
+ * {@link MetadataCostEstimator} for built-ins without enough samples. Observed latencies are converted to the cost
+ * units of the metadata with the median ratio of observed latency to metadata cost, so observed and static costs can
+ * be compared within one rule.
+ */
+public class StatisticsCostEstimator implements BuiltInCostEstimator
+{
+  /** The number of samples a built-in needs before its statistics are used. */
+  public static final int MIN_SAMPLES = 30;
+
+  private final MetadataCostEstimator fallback = new MetadataCostEstimator();
+  private final Map<String, PredicateStatistics> statistics;
+  private final double nanosPerCostUnit;
+
+  /**
+   * Creates an estimator from a snapshot of the statistics collected so far.
+   */
+  public StatisticsCostEstimator()
+  {
+    this(StatisticsCollector.getInstance().getAll());
+  }
+
+  /**
+   * @param statistics the statistics of the swrlgeo built-ins, by name
+   */
+  public StatisticsCostEstimator(Map<String, PredicateStatistics> statistics)
+  {
+    this.statistics = statistics;
+    this.nanosPerCostUnit = calibrate(statistics);
+  }
+
+  @Override public BuiltInEstimate estimate(IRI builtIn)
+  {
+    BuiltInEstimate estimate = this.fallback.estimate(builtIn);
+    if (estimate == null || !SWRLGeoBuiltIns.NAMESPACE.equals(builtIn.getNamespace()))
+      return estimate;
+
+    PredicateStatistics predicateStatistics = this.statistics.get(builtIn.getShortForm());
+    if (predicateStatistics == null || predicateStatistics.getSamples() < MIN_SAMPLES)
+      return estimate;
+
+    double cost = Double.isNaN(this.nanosPerCostUnit) ?
+      estimate.getCost() :
+      predicateStatistics.getMeanNanos() / this.nanosPerCostUnit;
+    return new BuiltInEstimate(cost, predicateStatistics.getSelectivity());
+  }
+
+  private static double calibrate(Map<String, PredicateStatistics> statistics)
+  {
+    List<Double> ratios = new ArrayList<>();
+    for (Map.Entry<String, PredicateStatistics> entry : statistics.entrySet()) {
+      BuiltInMetadata metadata = SWRLGeoBuiltIns.get(entry.getKey());
+      if (metadata != null && entry.getValue().getSamples() >= MIN_SAMPLES)
+        ratios.add(entry.getValue().getMeanNanos() / metadata.getCost());
+    }
+    if (ratios.isEmpty())
+      return Double.NaN;
+    Collections.sort(ratios);
+    return ratios.get(ratios.size() / 2);
+  }
+}
@@ -0,0 +1,103 @@
+package org.swrlapi.builtins.swrlgeo.partition;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Encoding and decoding of geohash cells. A geohash interleaves longitude and latitude bits and encodes them in
+ * base 32, so cells sharing a prefix are spatially nested.
+ */
+public final class GeoHash
+{
+  private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+  private GeoHash()
+  {
+  }
+
+  /**
+   * @param longitude the longitude in degrees
+   * @param latitude the latitude in degrees
+   * @param precision the number of characters of the geohash
+   * @return the geohash of the cell containing the point
+   */
+  public static String encode(double longitude, double latitude, int precision)
+  {
+    double minLon = -180.0, maxLon = 180.0, minLat = -90.0, maxLat = 90.0;
+    StringBuilder hash = new StringBuilder(precision);
+    boolean evenBit = true;
+    int bit = 0, index = 0;
+
+    while (hash.length() < precision) {
+      if (evenBit) {
+        double mid = (minLon + maxLon) / 2.0;
+        if (longitude >= mid) {
+          index = (index << 1) | 1;
+          minLon = mid;
+        } else {
+          index <<= 1;
+          maxLon = mid;
+        }
+      } else {
+        double mid = (minLat + maxLat) / 2.0;
+        if (latitude >= mid) {
+          index = (index << 1) | 1;
+          minLat = mid;
+        } else {
+          index <<= 1;
+          maxLat = mid;
+        }
+      }
+      evenBit = !evenBit;
+      if (++bit == 5) {
+        hash.append(BASE32.charAt(index));
+        bit = 0;
+        index = 0;
+      }
+    }
+    return hash.toString();
+  }
+
+  /**
+   * @param hash a geohash
+   * @return the cell of the geohash in longitude/latitude
+   */
+  public static Envelope decode(String hash)
+  {
+    double minLon = -180.0, maxLon = 180.0, minLat = -90.0, maxLat = 90.0;
+    boolean evenBit = true;
+
+    for (int i = 0; i < hash.length(); i++) {
+      int index = BASE32.indexOf(hash.charAt(i));
+      if (index < 0)
+        throw new IllegalArgumentException("Invalid geohash " + hash);
+      for (int mask = 16; mask > 0; mask >>= 1) {
+        if (evenBit) {
+          double mid = (minLon + maxLon) / 2.0;
+          if ((index & mask) != 0)
+            minLon = mid;
+          else
+            maxLon = mid;
+        } else {
+          double mid = (minLat + maxLat) / 2.0;
+          if ((index & mask) != 0)
+            minLat = mid;
+          else
+            maxLat = mid;
+        }
+        evenBit = !evenBit;
+      }
+    }
+    return new Envelope(minLon, maxLon, minLat, maxLat);
+  }
+
+  /**
+   * @param precision the number of characters of a geohash
+   * @return the width and height in degrees of the cells at that precision
+   */
+  public static double[] cellSize(int precision)
+  {
+    int bits = 5 * precision;
+    int lonBits = (bits + 1) / 2, latBits = bits / 2;
+    return new double[] { 360.0 / (1L << lonBits), 180.0 / (1L << latBits) };
+  }
+}
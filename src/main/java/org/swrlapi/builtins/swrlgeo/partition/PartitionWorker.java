@@ -0,0 +1,66 @@
+package org.swrlapi.builtins.swrlgeo.partition;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.optimize.RuleBodyOptimizer;
+import org.swrlapi.builtins.swrlgeo.optimize.StatisticsCostEstimator;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Reasons over a single partition in its own JVM. It loads the partition ontology, runs its SWRL rules with the
+ * SWRLAPI rule engine and writes the inferred axioms to an ontology file in functional syntax.
+ * <p>
+ * Usage: <code>PartitionWorker &lt;partition ontology&gt; &lt;inferred axioms output&gt;</code>
+ *
+ * @see PartitionedReasoner
+ */
+public class PartitionWorker
+{
+  public static void main(String[] args)
+  {
+    if (args.length != 2) {
+      System.err.println("Usage: PartitionWorker <partition ontology> <inferred axioms output>");
+      System.exit(-1);
+    }
+
+    try {
+      OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+      OWLOntology ontology = ontologyManager.loadOntologyFromOntologyDocument(new File(args[0]));
+
+      if (SWRLGeoConfiguration.isOptimizeRules())
+        new RuleBodyOptimizer(new StatisticsCostEstimator()).optimize(ontology);
+
+      SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+      ruleEngine.infer();
+
+      OWLOntology inferred = ontologyManager.createOntology(ruleEngine.getInferredOWLAxioms());
+      try (OutputStream out = new FileOutputStream(args[1])) {
+        ontologyManager.saveOntology(inferred, new FunctionalSyntaxDocumentFormat(), out);
+      }
+    } catch (OWLOntologyCreationException e) {
+      System.err.println("Error loading partition ontology: " + e.getMessage());
+      System.exit(-1);
+    } catch (SWRLRuleEngineException e) {
+      System.err.println("Error running SWRL rules: " + e.getMessage());
+      System.exit(-1);
+    } catch (OWLOntologyStorageException | IOException e) {
+      System.err.println("Error writing inferred axioms: " + e.getMessage());
+      System.exit(-1);
+    } catch (RuntimeException e) {
+      System.err.println("Error starting application: " + e.getMessage());
+      System.exit(-1);
+    }
+  }
+}
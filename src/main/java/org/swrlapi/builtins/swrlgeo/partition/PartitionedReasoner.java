@@ -0,0 +1,194 @@
+package org.swrlapi.builtins.swrlgeo.partition;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the SWRL rules of a large ontology partition by partition. The ontology is split by {@link SpatialPartitioner},
+ * each partition is reasoned over by a {@link PartitionWorker} in a separate local JVM, and the inferred axioms of
+ * all partitions are merged into one duplicate free set.
+ * <p>
+ * Usage: <code>PartitionedReasoner &lt;ontology&gt; &lt;inferred axioms output&gt; [--precision n] [--halo metres]
+ * [--workers n] [--geometryProperty iri] [--joinDepth n]</code>
+ * <p>
+ * The merged result equals that of a single JVM as long as every rule can be evaluated within one partition: spatial
+ * relations up to the halo distance and joins along object property chains up to the join depth of the
+ * {@link SpatialPartitioner}.
+ */
+public class PartitionedReasoner
+{
+  private static final Logger log = LoggerFactory.getLogger(PartitionedReasoner.class);
+
+  private final SpatialPartitioner partitioner;
+  private final int workers;
+  private final File workDirectory;
+
+  /**
+   * Constructor for this class.
+   * @param partitioner the partitioner splitting the ontology
+   * @param workers the maximum number of worker JVMs running at the same time
+   * @param workDirectory the directory receiving partition and result files
+   */
+  public PartitionedReasoner(SpatialPartitioner partitioner, int workers, File workDirectory)
+  {
+    this.partitioner = partitioner;
+    this.workers = workers;
+    this.workDirectory = workDirectory;
+  }
+
+  /**
+   * Partitions the ontology, reasons over all partitions in worker processes and merges their results.
+   * @param ontology the ontology with SWRL rules
+   * @return the inferred axioms of all partitions, without duplicates
+   * @throws IOException if a partition cannot be written or a worker fails
+   * @throws OWLOntologyCreationException if a worker result cannot be read
+   */
+  public Set<OWLAxiom> infer(OWLOntology ontology) throws IOException, OWLOntologyCreationException
+  {
+    Map<String, Set<OWLAxiom>> partitions = this.partitioner.partition(ontology);
+    List<File> results = new ArrayList<>();
+    List<Future<Integer>> exitCodes = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.workers));
+
+    try {
+      for (Map.Entry<String, Set<OWLAxiom>> partition : partitions.entrySet()) {
+        File input = new File(this.workDirectory, "partition-" + partition.getKey() + ".ofn");
+        File output = new File(this.workDirectory, "inferred-" + partition.getKey() + ".ofn");
+        writeOntology(partition.getValue(), input);
+        results.add(output);
+        exitCodes.add(executor.submit(() -> runWorker(input, output)));
+      }
+
+      for (int i = 0; i < exitCodes.size(); i++) {
+        int exitCode = exitCodes.get(i).get();
+        if (exitCode != 0)
+          throw new IOException("Worker for " + results.get(i).getName() + " exited with code " + exitCode);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for partition workers", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Error running partition worker: " + e.getCause().getMessage(), e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return mergeResults(results);
+  }
+
+  private Set<OWLAxiom> mergeResults(List<File> results) throws OWLOntologyCreationException
+  {
+    Set<OWLAxiom> inferredAxioms = new HashSet<>();
+    int total = 0;
+
+    for (File result : results) {
+      OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+      Set<OWLAxiom> axioms = ontologyManager.loadOntologyFromOntologyDocument(result).getAxioms();
+      total += axioms.size();
+      inferredAxioms.addAll(axioms);
+    }
+    log.info("Merged " + total + " inferred axioms from " + results.size() + " partitions into "
+      + inferredAxioms.size() + " distinct axioms");
+    return inferredAxioms;
+  }
+
+  private int runWorker(File input, File output) throws IOException, InterruptedException
+  {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    for (String property : System.getProperties().stringPropertyNames())
+      if (property.startsWith("swrlgeo."))
+        command.add("-D" + property + "=" + System.getProperty(property));
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(PartitionWorker.class.getName());
+    command.add(input.getAbsolutePath());
+    command.add(output.getAbsolutePath());
+
+    Process process = new ProcessBuilder(command).inheritIO().start();
+    return process.waitFor();
+  }
+
+  private static void writeOntology(Set<OWLAxiom> axioms, File file) throws IOException
+  {
+    try (OutputStream out = new FileOutputStream(file)) {
+      OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+      ontologyManager.saveOntology(ontologyManager.createOntology(axioms), new FunctionalSyntaxDocumentFormat(), out);
+    } catch (OWLOntologyCreationException | OWLOntologyStorageException e) {
+      throw new IOException("Error writing partition " + file + ": " + e.getMessage(), e);
+    }
+  }
+
+  public static void main(String[] args)
+  {
+    if (args.length < 2) {
+      System.err.println("Usage: PartitionedReasoner <ontology> <inferred axioms output> [--precision n]"
+        + " [--halo metres] [--workers n] [--geometryProperty iri] [--joinDepth n]");
+      System.exit(-1);
+    }
+
+    int precision = 4, workers = Runtime.getRuntime().availableProcessors(), joinDepth = 1;
+    double halo = 0.0;
+    Set<IRI> geometryProperties = new HashSet<>();
+
+    try {
+      for (int i = 2; i + 1 < args.length; i += 2) {
+        if ("--precision".equals(args[i]))
+          precision = Integer.parseInt(args[i + 1]);
+        else if ("--halo".equals(args[i]))
+          halo = Double.parseDouble(args[i + 1]);
+        else if ("--workers".equals(args[i]))
+          workers = Integer.parseInt(args[i + 1]);
+        else if ("--geometryProperty".equals(args[i]))
+          geometryProperties.add(IRI.create(args[i + 1]));
+        else if ("--joinDepth".equals(args[i]))
+          joinDepth = Integer.parseInt(args[i + 1]);
+        else
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+
+      OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+      OWLOntology ontology = ontologyManager.loadOntologyFromOntologyDocument(new File(args[0]));
+      File workDirectory = Files.createTempDirectory("swrlgeo-partitions").toFile();
+
+      long start = System.currentTimeMillis();
+      Set<OWLAxiom> inferred = new PartitionedReasoner(
+        new SpatialPartitioner(precision, halo, geometryProperties, joinDepth), workers, workDirectory).infer(ontology);
+      writeOntology(inferred, new File(args[1]));
+
+      System.out.println(inferred.size() + " axioms inferred in " + (System.currentTimeMillis() - start) + " ms");
+    } catch (OWLOntologyCreationException e) {
+      System.err.println("Error loading ontology: " + e.getMessage());
+      System.exit(-1);
+    } catch (IOException e) {
+      System.err.println("Error running partitions: " + e.getMessage());
+      System.exit(-1);
+    } catch (RuntimeException e) {
+      System.err.println("Error starting application: " + e.getMessage());
+      System.exit(-1);
+    }
+  }
+}
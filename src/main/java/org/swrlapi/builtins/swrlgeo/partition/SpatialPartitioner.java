@@ -0,0 +1,241 @@
+package org.swrlapi.builtins.swrlgeo.partition;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swrlapi.builtins.swrlgeo.GeometryLiteralParser;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateTransformer;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Splits the axioms of an ontology into spatial partitions keyed by geohash.
+ * <p>
+ * Every individual with a geometry literal belongs to the geohash cell containing the centre of its geometry and,
+ * to let relations across cell borders resolve, to every cell within a halo distance of the geometry. ABox axioms
+ * are copied to the partitions of the located individuals they mention; all other axioms, including the SWRL rules,
+ * are copied to every partition. As SWRL is monotonic, every fact inferred in a partition also holds in the full
+ * ontology, so partition results can simply be merged.
+ * <p>
+ * Rules also join individuals without geometries, e.g. <code>ownedBy(?a, ?o) ^ ownedBy(?b, ?o)</code> for located
+ * <code>?a</code> and <code>?b</code> in different cells. To keep such joins within one partition, the cells of every
+ * individual are handed on along object property assertions and <code>SameIndividual</code> axioms, in both
+ * directions, for a number of hops given by the join depth. The join depth should be at least the longest chain of
+ * object property atoms leading away from a located individual in a rule body; joins along longer chains, through
+ * equal data values or between variables the rule body does not connect are only found where all facts happen to meet
+ * in one partition. An individual linked to many others, such as a shared owner, carries the cells of all of them
+ * onwards, so join depths above 1 can replicate large parts of the ontology.
+ */
+public class SpatialPartitioner
+{
+  private static final Logger log = LoggerFactory.getLogger(SpatialPartitioner.class);
+
+  private static final double METRES_PER_DEGREE = 111320.0;
+  private static final int MAXIMUM_CELLS_PER_GEOMETRY = 4096;
+
+  private final int precision;
+  private final double haloMetres;
+  private final Set<IRI> geometryProperties;
+  private final int joinDepth;
+
+  /**
+   * Constructor for this class, with a join depth of 1.
+   * @param precision the geohash length used as partition key
+   * @param haloMetres the distance around each geometry within which it is replicated to neighbouring cells
+   * @param geometryProperties data properties whose values are geometries regardless of their datatype; literals
+   *                           typed <code>geo:wktLiteral</code> are always treated as geometries
+   */
+  public SpatialPartitioner(int precision, double haloMetres, Set<IRI> geometryProperties)
+  {
+    this(precision, haloMetres, geometryProperties, 1);
+  }
+
+  /**
+   * Constructor for this class.
+   * @param precision the geohash length used as partition key
+   * @param haloMetres the distance around each geometry within which it is replicated to neighbouring cells
+   * @param geometryProperties data properties whose values are geometries regardless of their datatype; literals
+   *                           typed <code>geo:wktLiteral</code> are always treated as geometries
+   * @param joinDepth the number of object property links along which the cells of an individual are handed on; 0
+   *                  places individuals by their own geometries only
+   */
+  public SpatialPartitioner(int precision, double haloMetres, Set<IRI> geometryProperties, int joinDepth)
+  {
+    if (joinDepth < 0)
+      throw new IllegalArgumentException("The join depth must not be negative: " + joinDepth);
+    this.precision = precision;
+    this.haloMetres = haloMetres;
+    this.geometryProperties = geometryProperties;
+    this.joinDepth = joinDepth;
+  }
+
+  /**
+   * @param ontology the ontology to partition
+   * @return the axioms of every partition, keyed by geohash
+   */
+  public Map<String, Set<OWLAxiom>> partition(OWLOntology ontology)
+  {
+    Map<OWLIndividual, Set<String>> cellsByIndividual = locateIndividuals(ontology);
+    int locatedIndividuals = cellsByIndividual.size();
+    joinIndividuals(ontology, cellsByIndividual);
+    Map<String, Set<OWLAxiom>> partitions = new TreeMap<>();
+    Set<OWLAxiom> sharedAxioms = new HashSet<>();
+
+    for (Set<String> cells : cellsByIndividual.values())
+      for (String cell : cells)
+        if (!partitions.containsKey(cell))
+          partitions.put(cell, new HashSet<>());
+
+    for (OWLAxiom axiom : ontology.getAxioms(Imports.INCLUDED)) {
+      Set<String> cells = axiom.isOfType(AxiomType.ABoxAxiomTypes) ?
+        cellsOf(axiom.getIndividualsInSignature(), cellsByIndividual) :
+        Collections.<String>emptySet();
+
+      if (cells.isEmpty())
+        sharedAxioms.add(axiom);
+      else
+        for (String cell : cells)
+          partitions.get(cell).add(axiom);
+    }
+
+    for (Set<OWLAxiom> axioms : partitions.values())
+      axioms.addAll(sharedAxioms);
+
+    log.info("Split " + locatedIndividuals + " located and " + (cellsByIndividual.size() - locatedIndividuals)
+      + " joined individuals into " + partitions.size() + " partitions with " + sharedAxioms.size()
+      + " shared axioms");
+    return partitions;
+  }
+
+  private Set<String> cellsOf(Set<OWLNamedIndividual> individuals, Map<OWLIndividual, Set<String>> cellsByIndividual)
+  {
+    Set<String> cells = new HashSet<>();
+    for (OWLNamedIndividual individual : individuals) {
+      Set<String> individualCells = cellsByIndividual.get(individual);
+      if (individualCells != null)
+        cells.addAll(individualCells);
+    }
+    return cells;
+  }
+
+  /**
+   * Hands the cells of every individual on to the individuals it is linked to, one hop per step of the join depth.
+   */
+  private void joinIndividuals(OWLOntology ontology, Map<OWLIndividual, Set<String>> cellsByIndividual)
+  {
+    List<Set<OWLNamedIndividual>> links = new ArrayList<>();
+    for (OWLAxiom axiom : ontology.getABoxAxioms(Imports.INCLUDED))
+      if (axiom.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION, AxiomType.SAME_INDIVIDUAL)) {
+        Set<OWLNamedIndividual> individuals = axiom.getIndividualsInSignature();
+        if (individuals.size() > 1)
+          links.add(individuals);
+      }
+
+    for (int step = 0; step < this.joinDepth; step++) {
+      // cells reached in this step, collected apart so that every step goes exactly one hop further
+      Map<OWLIndividual, Set<String>> reached = new HashMap<>();
+      for (Set<OWLNamedIndividual> individuals : links) {
+        Set<String> cells = cellsOf(individuals, cellsByIndividual);
+        if (!cells.isEmpty())
+          for (OWLNamedIndividual individual : individuals) {
+            Set<String> reachedCells = reached.get(individual);
+            if (reachedCells == null) {
+              reachedCells = new HashSet<>();
+              reached.put(individual, reachedCells);
+            }
+            reachedCells.addAll(cells);
+          }
+      }
+
+      boolean changed = false;
+      for (Map.Entry<OWLIndividual, Set<String>> entry : reached.entrySet()) {
+        Set<String> cells = cellsByIndividual.get(entry.getKey());
+        if (cells == null)
+          cellsByIndividual.put(entry.getKey(), entry.getValue());
+        changed |= cells == null || cells.addAll(entry.getValue());
+      }
+      if (!changed)
+        break;
+    }
+  }
+
+  private Map<OWLIndividual, Set<String>> locateIndividuals(OWLOntology ontology)
+  {
+    Map<OWLIndividual, Set<String>> cellsByIndividual = new HashMap<>();
+    CoordinateReferenceSystem workingCRS = SWRLGeoConfiguration.getWorkingCRS();
+
+    for (OWLDataPropertyAssertionAxiom axiom : ontology.getAxioms(AxiomType.DATA_PROPERTY_ASSERTION,
+      Imports.INCLUDED)) {
+      OWLLiteral literal = axiom.getObject();
+      String datatype = literal.getDatatype().getIRI().toString();
+      boolean isGeometry = GeometryLiteralParser.isGeometryDatatype(datatype) || (!axiom.getProperty().isAnonymous()
+        && this.geometryProperties.contains(axiom.getProperty().asOWLDataProperty().getIRI()));
+
+      if (isGeometry) {
+        try {
+          Geometry geometry = GeometryLiteralParser
+            .parse(literal.getLiteral(), datatype, CoordinateReferenceSystem.CRS84);
+          if (geometry.getSRID() != CoordinateReferenceSystem.CRS84_SRID && !workingCRS.isGeographic())
+            geometry = CoordinateTransformer.transform(geometry, workingCRS, CoordinateReferenceSystem.CRS84);
+          if (!geometry.isEmpty()) {
+            Set<String> cells = cellsByIndividual.get(axiom.getSubject());
+            if (cells == null) {
+              cells = new HashSet<>();
+              cellsByIndividual.put(axiom.getSubject(), cells);
+            }
+            addCells(geometry.getEnvelopeInternal(), cells);
+          }
+        } catch (ParseException | IllegalArgumentException e) {
+          log.warn("Ignoring geometry of " + axiom.getSubject() + ": " + e.getMessage());
+        }
+      }
+    }
+    return cellsByIndividual;
+  }
+
+  private void addCells(Envelope envelope, Set<String> cells)
+  {
+    double latitude = Math.max(Math.abs(envelope.getMinY()), Math.abs(envelope.getMaxY()));
+    double haloLat = this.haloMetres / METRES_PER_DEGREE;
+    double haloLon = haloLat / Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, latitude + haloLat))));
+    double[] size = GeoHash.cellSize(this.precision);
+
+    cells.add(GeoHash.encode(envelope.centre().x, envelope.centre().y, this.precision));
+
+    int minColumn = (int)Math.floor((Math.max(-180.0, envelope.getMinX() - haloLon) + 180.0) / size[0]);
+    int maxColumn = (int)Math.floor((Math.min(180.0, envelope.getMaxX() + haloLon) + 180.0) / size[0]);
+    int minRow = (int)Math.floor((Math.max(-90.0, envelope.getMinY() - haloLat) + 90.0) / size[1]);
+    int maxRow = (int)Math.floor((Math.min(90.0, envelope.getMaxY() + haloLat) + 90.0) / size[1]);
+
+    if ((long)(maxColumn - minColumn + 1) * (maxRow - minRow + 1) > MAXIMUM_CELLS_PER_GEOMETRY) {
+      log.warn("Geometry spans too many cells at geohash precision " + this.precision + ", keeping home cell only");
+      return;
+    }
+
+    for (int column = minColumn; column <= maxColumn; column++)
+      for (int row = minRow; row <= maxRow; row++)
+        cells.add(GeoHash.encode(Math.min(180.0, (column + 0.5) * size[0] - 180.0),
+          Math.min(90.0, (row + 0.5) * size[1] - 90.0), this.precision));
+  }
+}
@@ -0,0 +1,105 @@
+package org.swrlapi.builtins.swrlgeo.pip;
+
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.geom.Polygonal;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Tests a {@link PointSet} against a polygon in one pass. The points are processed in chunks, in parallel for large
+ * sets; every chunk first filters the coordinate arrays by the envelope of the polygon and locates the remaining points
+ * with an {@link IndexedPointInAreaLocator}, which answers in time logarithmic in the number of polygon edges. A point
+ * is inside if it lies in the interior of the polygon, as for <code>st_within</code> and <code>st_contains</code>;
+ * points on the boundary are not.
+ */
+public final class PointInPolygonKernel
+{
+  /** The number of points tested by one task. */
+  public static final int CHUNK_SIZE = 16384;
+
+  private PointInPolygonKernel()
+  {
+  }
+
+  /**
+   * @param polygon a polygon or multi-polygon in the working CRS
+   * @param points the points
+   * @return the indexes of the points in the interior of the polygon, in increasing order
+   */
+  public static int[] locateInterior(Geometry polygon, PointSet points)
+  {
+    IndexedPointInAreaLocator locator = createLocator(polygon);
+    Envelope envelope = polygon.getEnvelopeInternal();
+    int chunks = (points.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    if (chunks == 0 || !envelope.intersects(points.getEnvelope()))
+      return new int[0];
+
+    int[][] results = new int[chunks][];
+    IntStream indexes = IntStream.range(0, chunks);
+    (chunks > 1 ? indexes.parallel() : indexes)
+      .forEach(chunk -> results[chunk] = locateChunk(locator, envelope, points, chunk * CHUNK_SIZE,
+        Math.min(points.size(), (chunk + 1) * CHUNK_SIZE)));
+
+    int size = 0;
+    for (int[] result : results)
+      size += result.length;
+    int[] interior = new int[size];
+    int offset = 0;
+    for (int[] result : results) {
+      System.arraycopy(result, 0, interior, offset, result.length);
+      offset += result.length;
+    }
+    return interior;
+  }
+
+  /**
+   * @param polygon a polygon or multi-polygon in the working CRS
+   * @param points the points
+   * @return the number of points in the interior of the polygon
+   */
+  public static int countInterior(Geometry polygon, PointSet points)
+  {
+    return locateInterior(polygon, points).length;
+  }
+
+  private static IndexedPointInAreaLocator createLocator(Geometry polygon)
+  {
+    if (!(polygon instanceof Polygonal))
+      throw new IllegalArgumentException("expecting a polygon or multi-polygon, got " + polygon.getGeometryType());
+    IndexedPointInAreaLocator locator = new IndexedPointInAreaLocator(polygon);
+    // the edge index is built by the first query; do it before the locator is shared between threads
+    locator.locate(polygon.getEnvelopeInternal().centre());
+    return locator;
+  }
+
+  private static int[] locateChunk(IndexedPointInAreaLocator locator, Envelope envelope, PointSet points, int from,
+    int to)
+  {
+    double[] xs = points.xs();
+    double[] ys = points.ys();
+    double minX = envelope.getMinX(), maxX = envelope.getMaxX(), minY = envelope.getMinY(), maxY = envelope.getMaxY();
+    int[] interior = new int[Math.min(to - from, 64)];
+    int size = 0;
+    Coordinate coordinate = new Coordinate();
+
+    for (int i = from; i < to; i++) {
+      double x = xs[i];
+      double y = ys[i];
+      if (x < minX || x > maxX || y < minY || y > maxY)
+        continue;
+      coordinate.x = x;
+      coordinate.y = y;
+      if (locator.locate(coordinate) == Location.INTERIOR) {
+        if (size == interior.length)
+          interior = Arrays.copyOf(interior, Math.min(to - from, size * 2));
+        interior[size++] = i;
+      }
+    }
+    return Arrays.copyOf(interior, size);
+  }
+}
@@ -0,0 +1,139 @@
+package org.swrlapi.builtins.swrlgeo.pip;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of points in the working CRS, stored as primitive coordinate arrays so millions of points can be
+ * tested without a geometry object per point. Every point carries an identifier, e.g. the lexical form of its geometry
+ * literal or the IRI of the individual it belongs to, which the batch built-ins bind as results.
+ */
+public final class PointSet
+{
+  private final double[] xs;
+  private final double[] ys;
+  private final String[] ids;
+  private final Envelope envelope;
+
+  private PointSet(double[] xs, double[] ys, String[] ids)
+  {
+    this.xs = xs;
+    this.ys = ys;
+    this.ids = ids;
+    this.envelope = new Envelope();
+    for (int i = 0; i < xs.length; i++)
+      this.envelope.expandToInclude(xs[i], ys[i]);
+  }
+
+  /**
+   * @return the number of points
+   */
+  public int size()
+  {
+    return this.xs.length;
+  }
+
+  /**
+   * @param index the index of a point
+   * @return the x coordinate of the point
+   */
+  public double getX(int index)
+  {
+    return this.xs[index];
+  }
+
+  /**
+   * @param index the index of a point
+   * @return the y coordinate of the point
+   */
+  public double getY(int index)
+  {
+    return this.ys[index];
+  }
+
+  /**
+   * @param index the index of a point
+   * @return the identifier of the point
+   */
+  public String getId(int index)
+  {
+    return this.ids[index];
+  }
+
+  /**
+   * @return the envelope of all points
+   */
+  public Envelope getEnvelope()
+  {
+    return new Envelope(this.envelope);
+  }
+
+  // The kernel reads the arrays directly; they are never modified after construction
+  double[] xs()
+  {
+    return this.xs;
+  }
+
+  double[] ys()
+  {
+    return this.ys;
+  }
+
+  /**
+   * Collects points into a {@link PointSet}.
+   */
+  public static final class Builder
+  {
+    private double[] xs;
+    private double[] ys;
+    private String[] ids;
+    private int size;
+
+    public Builder()
+    {
+      this(1024);
+    }
+
+    /**
+     * @param expectedSize the expected number of points
+     */
+    public Builder(int expectedSize)
+    {
+      int capacity = Math.max(16, expectedSize);
+      this.xs = new double[capacity];
+      this.ys = new double[capacity];
+      this.ids = new String[capacity];
+    }
+
+    /**
+     * @param x the x coordinate in the working CRS
+     * @param y the y coordinate in the working CRS
+     * @param id the identifier of the point
+     * @return this builder
+     */
+    public Builder add(double x, double y, String id)
+    {
+      if (this.size == this.xs.length) {
+        int capacity = this.size + (this.size >> 1);
+        this.xs = Arrays.copyOf(this.xs, capacity);
+        this.ys = Arrays.copyOf(this.ys, capacity);
+        this.ids = Arrays.copyOf(this.ids, capacity);
+      }
+      this.xs[this.size] = x;
+      this.ys[this.size] = y;
+      this.ids[this.size] = id;
+      this.size++;
+      return this;
+    }
+
+    /**
+     * @return the point set; the builder must not be used afterwards
+     */
+    public PointSet build()
+    {
+      return new PointSet(Arrays.copyOf(this.xs, this.size), Arrays.copyOf(this.ys, this.size),
+        Arrays.copyOf(this.ids, this.size));
+    }
+  }
+}
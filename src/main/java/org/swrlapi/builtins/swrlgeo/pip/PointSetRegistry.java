@@ -0,0 +1,59 @@
+package org.swrlapi.builtins.swrlgeo.pip;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named point sets the batch point-in-polygon built-ins test against. Applications register a set before running
+ * rules that name it:
+ * <pre>
+ *   PointSet.Builder builder = new PointSet.Builder(observations.size());
+ *   for (Observation observation : observations)
+ *     builder.add(observation.getX(), observation.getY(), observation.getIRI().toString());
+ *   PointSetRegistry.getInstance().register("observations", builder.build());
+ * </pre>
+ */
+public final class PointSetRegistry
+{
+  private static final PointSetRegistry instance = new PointSetRegistry();
+
+  private final Map<String, PointSet> pointSets = new ConcurrentHashMap<>();
+
+  private PointSetRegistry()
+  {
+  }
+
+  /**
+   * @return the registry shared by the swrlgeo library
+   */
+  public static PointSetRegistry getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param name the name of the point set
+   * @param pointSet the point set, replacing an earlier set of the same name
+   */
+  public void register(String name, PointSet pointSet)
+  {
+    this.pointSets.put(name, pointSet);
+  }
+
+  /**
+   * @param name the name of a point set
+   * @return the point set, or null if none is registered under the name
+   */
+  public PointSet get(String name)
+  {
+    return this.pointSets.get(name);
+  }
+
+  /**
+   * @param name the name of the point set to remove
+   */
+  public void remove(String name)
+  {
+    this.pointSets.remove(name);
+  }
+}
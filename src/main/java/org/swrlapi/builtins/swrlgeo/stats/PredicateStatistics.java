@@ -0,0 +1,116 @@
+package org.swrlapi.builtins.swrlgeo.stats;
+
+import java.util.Arrays;
+
+/**
+ * Sampled statistics of a built-in predicate: how often it evaluated to true, how long it took and how large its
+ * geometry arguments were. Histograms have power-of-two buckets; bucket <code>i</code> counts values from
+ * <code>2^i</code> up to <code>2^(i+1)</code>, with values below 2 in bucket 0.
+ */
+public final class PredicateStatistics
+{
+  /** The number of histogram buckets. */
+  public static final int BUCKETS = 32;
+
+  private long samples;
+  private long trueResults;
+  private long totalNanos;
+  private final long[] latencyMicros = new long[BUCKETS];
+  private final long[] vertices = new long[BUCKETS];
+
+  /**
+   * @param result the result of the invocation
+   * @param nanos the duration of the invocation
+   * @param vertexCount the total number of vertices of the geometry arguments
+   */
+  public synchronized void record(boolean result, long nanos, int vertexCount)
+  {
+    this.samples++;
+    if (result)
+      this.trueResults++;
+    this.totalNanos += nanos;
+    this.latencyMicros[bucket(nanos / 1000)]++;
+    this.vertices[bucket(vertexCount)]++;
+  }
+
+  /**
+   * @return the number of sampled invocations
+   */
+  public synchronized long getSamples()
+  {
+    return this.samples;
+  }
+
+  /**
+   * @return the number of sampled invocations that evaluated to true
+   */
+  public synchronized long getTrueResults()
+  {
+    return this.trueResults;
+  }
+
+  /**
+   * @return the fraction of sampled invocations that evaluated to true, or NaN without samples
+   */
+  public synchronized double getSelectivity()
+  {
+    return this.samples == 0 ? Double.NaN : (double)this.trueResults / this.samples;
+  }
+
+  /**
+   * @return the total duration of the sampled invocations in nanoseconds
+   */
+  public synchronized long getTotalNanos()
+  {
+    return this.totalNanos;
+  }
+
+  /**
+   * @return the mean duration of a sampled invocation in nanoseconds, or NaN without samples
+   */
+  public synchronized double getMeanNanos()
+  {
+    return this.samples == 0 ? Double.NaN : (double)this.totalNanos / this.samples;
+  }
+
+  /**
+   * @return the histogram of invocation durations in microseconds
+   */
+  public synchronized long[] getLatencyHistogram()
+  {
+    return this.latencyMicros.clone();
+  }
+
+  /**
+   * @return the histogram of the total vertex counts of the geometry arguments
+   */
+  public synchronized long[] getVertexHistogram()
+  {
+    return this.vertices.clone();
+  }
+
+  /**
+   * Adds statistics, e.g. those persisted by a previous run.
+   */
+  synchronized void add(long samples, long trueResults, long totalNanos, long[] latencyMicros, long[] vertices)
+  {
+    this.samples += samples;
+    this.trueResults += trueResults;
+    this.totalNanos += totalNanos;
+    for (int i = 0; i < BUCKETS && i < latencyMicros.length; i++)
+      this.latencyMicros[i] += latencyMicros[i];
+    for (int i = 0; i < BUCKETS && i < vertices.length; i++)
+      this.vertices[i] += vertices[i];
+  }
+
+  private static int bucket(long value)
+  {
+    return value < 2 ? 0 : Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(value));
+  }
+
+  @Override public synchronized String toString()
+  {
+    return this.samples + " samples, selectivity " + getSelectivity() + ", mean " + getMeanNanos() + " ns, latency "
+      + Arrays.toString(this.latencyMicros) + ", vertices " + Arrays.toString(this.vertices);
+  }
+}
@@ -0,0 +1,231 @@
+package org.swrlapi.builtins.swrlgeo.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Collects statistics of built-in predicates from a sample of their invocations. The first and every <i>n</i>-th
+ * further invocation of each predicate is timed and recorded (<code>swrlgeo.statisticsSampleInterval</code>, default
+ * 100, 0 disables sampling), so the overhead on the other invocations is a counter increment. Counting per predicate
+ * keeps rules that interleave predicates in a fixed pattern from sampling some predicates always and others never. If <code>swrlgeo.statisticsFile</code> names a properties file, the
+ * statistics of earlier runs are loaded from it at startup and the accumulated statistics are written back at
+ * shutdown, so optimizers can plan with the selectivities observed on the same data.
+ */
+public final class StatisticsCollector implements StatisticsCollectorMXBean
+{
+  private static final Logger log = LoggerFactory.getLogger(StatisticsCollector.class);
+
+  private static final StatisticsCollector instance = new StatisticsCollector(
+    SWRLGeoConfiguration.getStatisticsSampleInterval(), SWRLGeoConfiguration.getStatisticsFile());
+
+  static {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+        .registerMBean(instance, new ObjectName("org.swrlapi.builtins.swrlgeo:type=Statistics"));
+    } catch (JMException e) {
+      // already registered by another class loader; the statistics are still available through getInstance()
+    }
+    if (instance.file != null) {
+      if (Files.exists(instance.file)) {
+        try {
+          instance.load(instance.file);
+        } catch (IOException e) {
+          log.warn("Could not read built-in statistics from " + instance.file + ": " + e.getMessage());
+        }
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          instance.save();
+        } catch (IOException e) {
+          log.warn("Could not write built-in statistics to " + instance.file + ": " + e.getMessage());
+        }
+      }));
+    }
+  }
+
+  private final int sampleInterval;
+  private final Path file;
+  private final Map<String, AtomicLong> invocations = new ConcurrentHashMap<>();
+  private final Map<String, PredicateStatistics> statistics = new ConcurrentHashMap<>();
+
+  private StatisticsCollector(int sampleInterval, Path file)
+  {
+    this.sampleInterval = sampleInterval;
+    this.file = file;
+  }
+
+  /**
+   * @return the collector shared by the swrlgeo library
+   */
+  public static StatisticsCollector getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * Counts an invocation of a built-in and decides if it is sampled.
+   * @param builtInName the name of the built-in
+   * @return true if the invocation should be timed and recorded
+   */
+  public boolean sample(String builtInName)
+  {
+    if (this.sampleInterval <= 0)
+      return false;
+    AtomicLong count = this.invocations.get(builtInName);
+    if (count == null)
+      count = this.invocations.computeIfAbsent(builtInName, name -> new AtomicLong());
+    return count.getAndIncrement() % this.sampleInterval == 0;
+  }
+
+  /**
+   * @param builtInName the name of the built-in
+   * @param result the result of the invocation
+   * @param nanos the duration of the invocation
+   * @param vertexCount the total number of vertices of the geometry arguments
+   */
+  public void record(String builtInName, boolean result, long nanos, int vertexCount)
+  {
+    this.statistics.computeIfAbsent(builtInName, name -> new PredicateStatistics()).record(result, nanos, vertexCount);
+  }
+
+  /**
+   * @param builtInName the name of the built-in
+   * @return the statistics of the built-in, or null if none of its invocations was sampled
+   */
+  public PredicateStatistics get(String builtInName)
+  {
+    return this.statistics.get(builtInName);
+  }
+
+  /**
+   * @return the statistics of all sampled built-ins, by name
+   */
+  public Map<String, PredicateStatistics> getAll()
+  {
+    return new TreeMap<>(this.statistics);
+  }
+
+  @Override public Map<String, Long> getSamples()
+  {
+    return collect(PredicateStatistics::getSamples);
+  }
+
+  @Override public Map<String, Double> getSelectivities()
+  {
+    return collect(PredicateStatistics::getSelectivity);
+  }
+
+  @Override public Map<String, Double> getMeanLatencies()
+  {
+    return collect(PredicateStatistics::getMeanNanos);
+  }
+
+  @Override public void save() throws IOException
+  {
+    if (this.file != null)
+      save(this.file);
+  }
+
+  @Override public void reset()
+  {
+    this.statistics.clear();
+  }
+
+  /**
+   * Adds the statistics persisted in a file to the collected ones.
+   * @param path the properties file
+   * @throws IOException if the file cannot be read
+   */
+  public void load(Path path) throws IOException
+  {
+    Properties properties = new Properties();
+    try (InputStream in = Files.newInputStream(path)) {
+      properties.load(in);
+    }
+    for (String key : properties.stringPropertyNames()) {
+      if (!key.endsWith(".samples"))
+        continue;
+      String name = key.substring(0, key.length() - ".samples".length());
+      long samples, trueResults, totalNanos;
+      long[] latencyMicros, vertices;
+      try {
+        samples = Long.parseLong(properties.getProperty(key));
+        trueResults = Long.parseLong(properties.getProperty(name + ".true", "0"));
+        totalNanos = Long.parseLong(properties.getProperty(name + ".nanos", "0"));
+        latencyMicros = parseHistogram(properties.getProperty(name + ".latency", ""));
+        vertices = parseHistogram(properties.getProperty(name + ".vertices", ""));
+      } catch (NumberFormatException e) {
+        log.warn("Ignoring malformed statistics of " + name + " in " + path);
+        continue;
+      }
+      this.statistics.computeIfAbsent(name, n -> new PredicateStatistics())
+        .add(samples, trueResults, totalNanos, latencyMicros, vertices);
+    }
+  }
+
+  /**
+   * Writes the collected statistics to a file.
+   * @param path the properties file
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path path) throws IOException
+  {
+    Properties properties = new Properties();
+    for (Map.Entry<String, PredicateStatistics> entry : this.statistics.entrySet()) {
+      String name = entry.getKey();
+      PredicateStatistics predicateStatistics = entry.getValue();
+      properties.setProperty(name + ".samples", Long.toString(predicateStatistics.getSamples()));
+      properties.setProperty(name + ".true", Long.toString(predicateStatistics.getTrueResults()));
+      properties.setProperty(name + ".nanos", Long.toString(predicateStatistics.getTotalNanos()));
+      properties.setProperty(name + ".latency", formatHistogram(predicateStatistics.getLatencyHistogram()));
+      properties.setProperty(name + ".vertices", formatHistogram(predicateStatistics.getVertexHistogram()));
+    }
+    try (OutputStream out = Files.newOutputStream(path)) {
+      properties.store(out, "swrlgeo built-in statistics");
+    }
+  }
+
+  private <T> Map<String, T> collect(Function<PredicateStatistics, T> value)
+  {
+    Map<String, T> values = new TreeMap<>();
+    for (Map.Entry<String, PredicateStatistics> entry : this.statistics.entrySet())
+      values.put(entry.getKey(), value.apply(entry.getValue()));
+    return values;
+  }
+
+  private static String formatHistogram(long[] histogram)
+  {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < histogram.length; i++)
+      builder.append(i == 0 ? "" : ",").append(histogram[i]);
+    return builder.toString();
+  }
+
+  private static long[] parseHistogram(String histogram)
+  {
+    if (histogram.isEmpty())
+      return new long[0];
+    String[] counts = histogram.split(",");
+    long[] values = new long[counts.length];
+    for (int i = 0; i < counts.length; i++)
+      values[i] = Long.parseLong(counts[i].trim());
+    return values;
+  }
+}
@@ -0,0 +1,37 @@
+package org.swrlapi.builtins.swrlgeo.stats;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sampled predicate statistics of the {@link StatisticsCollector}, per built-in name. Registered with the platform
+ * MBean server as <code>org.swrlapi.builtins.swrlgeo:type=Statistics</code>.
+ */
+public interface StatisticsCollectorMXBean
+{
+  /**
+   * @return the number of sampled invocations
+   */
+  Map<String, Long> getSamples();
+
+  /**
+   * @return the fraction of sampled invocations that evaluated to true
+   */
+  Map<String, Double> getSelectivities();
+
+  /**
+   * @return the mean duration of a sampled invocation in nanoseconds
+   */
+  Map<String, Double> getMeanLatencies();
+
+  /**
+   * Writes the statistics to the configured statistics file.
+   * @throws IOException if the file cannot be written
+   */
+  void save() throws IOException;
+
+  /**
+   * Clears the statistics.
+   */
+  void reset();
+}
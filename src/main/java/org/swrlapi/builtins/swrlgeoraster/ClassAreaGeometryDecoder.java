@@ -0,0 +1,95 @@
+package org.swrlapi.builtins.swrlgeoraster;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateTransformer;
+import org.swrlapi.builtins.swrlgeo.decode.GeometryDecoder;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.CoverageRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.RasterPolygonizer;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Decodes the class area literals bound by <code>swrlgeoraster:st_classArea</code>. Such a literal refers to the
+ * polygonized cells of a coverage rather than holding coordinates, e.g. <code>landcover;3.0;0;8.0,49.0,9.0,50.0</code>
+ * for the cells of value 3 on level 0 of the coverage <code>landcover</code> within the window from (8, 49) to
+ * (9, 50) in the coverage CRS. The built-in puts the geometry into the geometry cache, so the swrlgeo built-ins only
+ * polygonize the coverage again through this decoder once the cached geometry has been evicted.
+ */
+public class ClassAreaGeometryDecoder implements GeometryDecoder
+{
+  /** The IRI of the class area literal datatype. */
+  public static final String CLASS_AREA_LITERAL = SWRLBuiltInLibraryImpl.NAMESPACE + "classArea";
+
+  @Override public String getDatatype()
+  {
+    return CLASS_AREA_LITERAL;
+  }
+
+  /**
+   * @param coverage the name of the coverage
+   * @param classValue the cell value
+   * @param level the level of the coverage
+   * @param window the window in the coverage CRS
+   * @return the lexical form of the class area literal
+   */
+  public static String toLexicalForm(String coverage, double classValue, int level, Envelope window)
+  {
+    return String.format(Locale.ROOT, "%s;%s;%d;%s,%s,%s,%s", coverage, classValue, level, window.getMinX(),
+      window.getMinY(), window.getMaxX(), window.getMaxY());
+  }
+
+  /**
+   * Polygonizes the cells a class area literal refers to.
+   * @param coverage the coverage
+   * @param classValue the cell value
+   * @param level the level of the coverage
+   * @param window the window in the coverage CRS
+   * @param target the CRS to reproject to
+   * @return the area in the target CRS
+   */
+  public static Geometry polygonize(TiledCoverage coverage, double classValue, int level, Envelope window,
+    CoordinateReferenceSystem target)
+  {
+    Geometry area = RasterPolygonizer.polygonize(coverage, level, classValue, window);
+    CoordinateReferenceSystem source = CoordinateReferenceSystem.forEPSGCode(coverage.getSRID());
+    return source.getSRID() == target.getSRID() ? area : CoordinateTransformer.transform(area, source, target);
+  }
+
+  @Override public Geometry decode(String lexicalForm, CoordinateReferenceSystem target) throws ParseException
+  {
+    String[] fields = lexicalForm.trim().split(";");
+    if (fields.length != 4)
+      throw new ParseException("expecting coverage;class;level;window, got " + lexicalForm);
+    String[] bounds = fields[3].split(",");
+    if (bounds.length != 4)
+      throw new ParseException("expecting minX,minY,maxX,maxY as window, got " + fields[3]);
+
+    TiledCoverage coverage;
+    try {
+      coverage = CoverageRegistry.getInstance().get(fields[0]);
+    } catch (IOException e) {
+      throw new ParseException("coverage " + fields[0] + " could not be opened: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      throw new ParseException(e.getMessage());
+    }
+    if (coverage == null)
+      throw new ParseException("no coverage registered as " + fields[0]);
+
+    try {
+      int level = Integer.parseInt(fields[2].trim());
+      if (level < 0 || level >= coverage.getLevelCount())
+        throw new ParseException("coverage " + fields[0] + " has no level " + level);
+      Envelope window = new Envelope(Double.parseDouble(bounds[0]), Double.parseDouble(bounds[2]),
+        Double.parseDouble(bounds[1]), Double.parseDouble(bounds[3]));
+      return polygonize(coverage, Double.parseDouble(fields[1]), level, window, target);
+    } catch (NumberFormatException e) {
+      throw new ParseException("malformed class area " + lexicalForm + ": " + e.getMessage());
+    }
+  }
+}
@@ -1,20 +1,30 @@
 package org.swrlapi.builtins.swrlgeoraster;
 
+import org.semanticweb.owlapi.model.IRI;
 import org.swrlapi.builtins.AbstractSWRLBuiltInLibrary;
 import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.swrlgeo.GeometryCache;
+import org.swrlapi.builtins.swrlgeo.GeometryArgumentParser;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.decode.GeometryDecoderRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.CoverageRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
 import org.swrlapi.exceptions.InvalidSWRLBuiltInArgumentException;
 import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.factory.SWRLAPIOWLDataFactory;
 
 import com.vividsolutions.jts.algorithm.distance.DiscreteHausdorffDistance;
 import com.vividsolutions.jts.algorithm.match.AreaSimilarityMeasure;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.LineString;
-import com.vividsolutions.jts.io.ParseException;
-import com.vividsolutions.jts.io.WKTReader;
+import com.vividsolutions.jts.geom.Point;
 
 //import de.hsmainz.cs.semgis.reasoning.swrl.GMLLiteral;
 //import de.hsmainz.cs.semgis.reasoning.swrl.WKTLiteral;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -27,34 +37,38 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
 			  "st_isClosed","st_isEmpty","st_isLineString","st_isMultiPoint","st_isMultiPolygon","st_isMultiLineString",
 			  "st_isMultiSurface","st_isPoint","st_isPolygon","st_isPolyhedralSurface","st_isRectangle","st_isSimple","st_isRing","st_isValid",
 			  "st_isSurface","st_isTriangle","st_isTin","st_isWithinDistance",
-			  "st_length","st_numGeometries","st_numPoints","st_overlaps",
-			  "st_symDifference","st_touches","st_union","st_within" };
+			  "st_overlaps","st_touches","st_within",
+			  "st_valueAt","st_hasValueGreaterThan","st_hasValueSmallerThan","st_classArea",
+			  "st_add","st_subtract","st_multiply","st_divide","st_ndvi","st_slope","st_greaterThan","st_lessThan" };
 
-  private static final String Namespace = "http://semgis.de/spatial/swrlgeo#";
+  /** The namespace of the swrlgeoraster built-ins. */
+  public static final String NAMESPACE = "http://semgis.de/spatial/swrlgeoraster#";
+
+  private final CoordinateReferenceSystem workingCRS;
+  private final GeometryCache geometryCache;
+  private final GeometryArgumentParser geometryArguments;
 
   /**
    * Constructor for this class.
    */
   public SWRLBuiltInLibraryImpl()
   {
-    super("swrlgeo", Namespace, new HashSet<>(Arrays.asList(BuiltInNames)));
+    super("swrlgeoraster", NAMESPACE, new HashSet<>(Arrays.asList(BuiltInNames)));
+    this.workingCRS = SWRLGeoConfiguration.getWorkingCRS();
+    this.geometryCache = GeometryCache.getInstance();
+    this.geometryArguments = new GeometryArgumentParser(this.geometryCache, SWRLGeoConfiguration.getGeometryNormalizer());
+    GeometryDecoderRegistry.getInstance().register(new ClassAreaGeometryDecoder());
   }
   
   /**
-   * Parses a String argument in WKT to a vector graphic geometry representation.
+   * Parses a geometry literal argument in the working CRS.
    * @param id the argument number
    * @param arguments the array of arguments
    * @return the parsed geometry
-   * @throws SWRLBuiltInException
+   * @throws SWRLBuiltInException if the literal cannot be parsed
    */
-  public Geometry getArgumentAsACoverage(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
-	  WKTReader reader = new WKTReader();
-	  try {
-		return reader.read(getLiteralArgumentAsAString(id, arguments));
-	} catch (ParseException e) {
-		System.out.println(e.getMessage());
-		throw new SWRLBuiltInException("Geometry failed to parse: "+getLiteralArgumentAsAString(id, arguments));
-	}
+  public Geometry getArgumentAsAGeometry(Integer id,List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException {
+    return getArgumentAsAGeometry(id, arguments, this.workingCRS);
   }
 
   @Override public void reset() { }
@@ -707,5 +721,256 @@ public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary
     Geometry geom2=getArgumentAsAGeometry(1, arguments);    
     return geom1.within(geom2);
   }
-  
-}
\ No newline at end of file
+
+  /**
+   * Samples a coverage at a point, e.g. <code>st_valueAt(?elevation, "dem", ?location)</code>. The value is
+   * interpolated bilinearly on the coarsest overview level whose cells are not larger than the optional precision.
+   * @param arguments the result, the name of the coverage, the point as Literal and optionally the precision in units
+   * of the CRS of the coverage
+   * @return true if the coverage has data at the point, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_valueAt(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsInRange(3, 4, arguments.size());
+    double value=sampleCoverage(1, arguments);
+    if (Double.isNaN(value))
+      return false;
+    return processResultArgument(arguments, 0, value);
+  }
+
+  /**
+   * Indicates if a coverage is greater than a threshold at a point, e.g.
+   * <code>st_hasValueGreaterThan("dem", ?location, 500)</code>.
+   * @param arguments the name of the coverage, the point as Literal, the threshold and optionally the precision in
+   * units of the CRS of the coverage
+   * @return true if the coverage has data at the point and its value is greater than the threshold, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasValueGreaterThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsInRange(3, 4, arguments.size());
+    double threshold=getArgumentAsADouble(2, arguments);
+    return sampleCoverage(0, arguments) > threshold;
+  }
+
+  /**
+   * Indicates if a coverage is smaller than a threshold at a point.
+   * @param arguments the name of the coverage, the point as Literal, the threshold and optionally the precision in
+   * units of the CRS of the coverage
+   * @return true if the coverage has data at the point and its value is smaller than the threshold, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_hasValueSmallerThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsInRange(3, 4, arguments.size());
+    double threshold=getArgumentAsADouble(2, arguments);
+    return sampleCoverage(0, arguments) < threshold;
+  }
+
+  /**
+   * Polygonizes the cells of a coverage that hold a class value within a window, e.g.
+   * <code>st_classArea(?forest, "landcover", 3, ?county)</code>. The area is bound as a class area literal referring to
+   * the coverage; its geometry is kept in the geometry cache, so the swrlgeo built-ins use it without parsing.
+   * @param arguments the result, the name of the coverage, the class value, the window as geometry Literal, of which
+   * the envelope is used, and optionally the precision in units of the CRS of the coverage
+   * @return true if at least one cell within the window holds the class value, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_classArea(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsInRange(4, 5, arguments.size());
+    String name=getLiteralArgumentAsAString(1, arguments);
+    TiledCoverage coverage=getArgumentAsACoverage(1, arguments);
+    double classValue=getArgumentAsADouble(2, arguments);
+    Envelope window=getArgumentAsAGeometry(3, arguments, getCoverageCRS(name, coverage)).getEnvelopeInternal();
+    double precision=arguments.size() > 4 ? getArgumentAsADouble(4, arguments) : 0;
+    int level=coverage.getLevel(precision);
+
+    String literal=ClassAreaGeometryDecoder.toLexicalForm(name, classValue, level, window);
+    Geometry area=this.geometryCache.get(literal, this.workingCRS.getSRID());
+    if (area == null) {
+      try {
+        area=ClassAreaGeometryDecoder.polygonize(coverage, classValue, level, window, this.workingCRS);
+      } catch (IllegalArgumentException e) {
+        throw new SWRLBuiltInException("Class area could not be transformed: " + e.getMessage());
+      }
+      area=this.geometryArguments.cache(literal, this.workingCRS, area);
+    }
+    if (area.isEmpty())
+      return false;
+
+    SWRLAPIOWLDataFactory dataFactory=getSWRLAPIOWLDataFactory();
+    return processResultArgument(arguments, 0, dataFactory.getOWLLiteral(literal,
+      dataFactory.getOWLDatatype(IRI.create(ClassAreaGeometryDecoder.CLASS_AREA_LITERAL))));
+  }
+
+  /**
+   * Adds two coverages, or a coverage and a number, cell by cell, e.g. <code>st_add(?sum, "a", "b")</code>. Like all
+   * map algebra built-ins, it binds a coverage expression such as <code>add(a,b)</code> that the sampling and
+   * classification built-ins accept as coverage; its cells are only computed where those read them.
+   * @param arguments the result, and two coverages or a coverage and a number
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_add(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("add", arguments);
+  }
+
+  /**
+   * Subtracts the second operand from the first cell by cell.
+   * @param arguments the result, and two coverages or a coverage and a number
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_subtract(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("subtract", arguments);
+  }
+
+  /**
+   * Multiplies two operands cell by cell, e.g. <code>st_multiply(?feet, "dem", 3.28084)</code>.
+   * @param arguments the result, and two coverages or a coverage and a number
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_multiply(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("multiply", arguments);
+  }
+
+  /**
+   * Divides the first operand by the second cell by cell; cells divided by zero have no data.
+   * @param arguments the result, and two coverages or a coverage and a number
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_divide(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("divide", arguments);
+  }
+
+  /**
+   * Computes the normalized difference vegetation index (nir - red) / (nir + red) of two bands, e.g.
+   * <code>st_ndvi(?ndvi, "nir", "red")</code>.
+   * @param arguments the result, the near infrared and the red band
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_ndvi(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("ndvi", arguments);
+  }
+
+  /**
+   * Computes the slope in degrees of an elevation coverage in metres, e.g. <code>st_slope(?slope, "dem")</code>.
+   * @param arguments the result and the elevation coverage
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_slope(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 2);
+    String expression="slope(" + getArgumentAsAnOperand(1, arguments) + ")";
+    getCoverage(expression);
+    return processResultArgument(arguments, 0, expression);
+  }
+
+  /**
+   * Masks the cells greater than a threshold, e.g. <code>st_greaterThan(?steep, ?slope, 15)</code>. Masked cells are 1,
+   * the others 0, so <code>st_classArea(?area, ?steep, 1, ?county)</code> polygonizes them.
+   * @param arguments the result, and two coverages or a coverage and a number
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_greaterThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("greaterThan", arguments);
+  }
+
+  /**
+   * Masks the cells smaller than a threshold with 1, the others with 0.
+   * @param arguments the result, and two coverages or a coverage and a number
+   * @return true
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean st_lessThan(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return processCoverageExpression("lessThan", arguments);
+  }
+
+  /**
+   * Binds the expression applying a local operator to the two operand arguments, after checking that it compiles.
+   */
+  private boolean processCoverageExpression(String operator, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 3);
+    String expression=operator + "(" + getArgumentAsAnOperand(1, arguments) + "," + getArgumentAsAnOperand(2, arguments)
+      + ")";
+    getCoverage(expression);
+    return processResultArgument(arguments, 0, expression);
+  }
+
+  private String getArgumentAsAnOperand(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    if (isArgumentNumeric(argumentNumber, arguments))
+      return Double.toString(getArgumentAsADouble(argumentNumber, arguments));
+    return getLiteralArgumentAsAString(argumentNumber, arguments);
+  }
+
+  /**
+   * Samples the coverage named by an argument at the point given by the next one.
+   */
+  private double sampleCoverage(int coverageArgumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    String name=getLiteralArgumentAsAString(coverageArgumentNumber, arguments);
+    TiledCoverage coverage=getArgumentAsACoverage(coverageArgumentNumber, arguments);
+    Geometry point=getArgumentAsAGeometry(coverageArgumentNumber + 1, arguments, getCoverageCRS(name, coverage));
+    if (!(point instanceof Point) || point.isEmpty())
+      throw new InvalidSWRLBuiltInArgumentException("Coverages can only be sampled at a point");
+
+    // the precision is the optional fourth argument of all sampling built-ins
+    double precision=arguments.size() > 3 ? getArgumentAsADouble(3, arguments) : 0;
+    return coverage.sample(((Point)point).getX(), ((Point)point).getY(), coverage.getLevel(precision));
+  }
+
+  private TiledCoverage getArgumentAsACoverage(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    return getCoverage(getLiteralArgumentAsAString(argumentNumber, arguments));
+  }
+
+  private TiledCoverage getCoverage(String name) throws SWRLBuiltInException
+  {
+    TiledCoverage coverage;
+    try {
+      coverage=CoverageRegistry.getInstance().get(name);
+    } catch (IOException e) {
+      throw new SWRLBuiltInException("Coverage " + name + " could not be opened: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      throw new InvalidSWRLBuiltInArgumentException(e.getMessage());
+    }
+    if (coverage == null)
+      throw new InvalidSWRLBuiltInArgumentException("No coverage registered as " + name);
+    return coverage;
+  }
+
+  private CoordinateReferenceSystem getCoverageCRS(String name, TiledCoverage coverage) throws SWRLBuiltInException
+  {
+    try {
+      return CoordinateReferenceSystem.forEPSGCode(coverage.getSRID());
+    } catch (IllegalArgumentException e) {
+      throw new SWRLBuiltInException("Coverage " + name + " uses an unsupported CRS: " + e.getMessage());
+    }
+  }
+
+  private Geometry getArgumentAsAGeometry(int argumentNumber, List<SWRLBuiltInArgument> arguments,
+    CoordinateReferenceSystem crs) throws SWRLBuiltInException
+  {
+    return this.geometryArguments.parse(getArgumentAsAnOWLLiteral(argumentNumber, arguments), crs);
+  }
+}
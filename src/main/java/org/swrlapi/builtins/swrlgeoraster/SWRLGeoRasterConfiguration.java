@@ -0,0 +1,44 @@
+package org.swrlapi.builtins.swrlgeoraster;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the swrlgeoraster built-in library, read from system properties like the
+ * {@link org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration} of swrlgeo, e.g.
+ * <code>-Dswrlgeo.coverage.elevation=/data/dem</code>. The geometry settings of swrlgeo, such as the working CRS,
+ * apply to the geometry arguments of the raster built-ins as well.
+ */
+public final class SWRLGeoRasterConfiguration
+{
+  /** The number of decoded raster tiles kept in memory by the swrlgeoraster built-ins. */
+  public static final String TILE_CACHE_SIZE_PROPERTY = "swrlgeo.tileCacheSize";
+
+  /**
+   * Prefix of the properties naming the pyramid directories of coverages, e.g.
+   * <code>-Dswrlgeo.coverage.elevation=/data/dem</code> for the coverage <code>elevation</code>.
+   */
+  public static final String COVERAGE_PROPERTY_PREFIX = "swrlgeo.coverage.";
+
+  private SWRLGeoRasterConfiguration()
+  {
+  }
+
+  /**
+   * @return the configured raster tile cache size
+   */
+  public static int getTileCacheSize()
+  {
+    return Integer.getInteger(TILE_CACHE_SIZE_PROPERTY, 256);
+  }
+
+  /**
+   * @param name the name of a coverage
+   * @return the configured pyramid directory of the coverage, or null
+   */
+  public static Path getCoveragePath(String name)
+  {
+    String directory = System.getProperty(COVERAGE_PROPERTY_PREFIX + name);
+    return directory == null ? null : Paths.get(directory);
+  }
+}
@@ -0,0 +1,112 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+import java.util.Arrays;
+
+/**
+ * A coverage computed cell by cell from coverages on the same grid by a chain of local operators, as bound by the map
+ * algebra built-ins, e.g. <code>ndvi(nir,red)</code> or <code>greaterThan(slope(dem),15.0)</code>. Creating an
+ * expression computes nothing. A tile is evaluated when it is read, e.g. by the polygonization behind
+ * <code>st_classArea</code>, and cached like a tile read from disk; sampling a point evaluates only the cells it
+ * interpolates between.
+ * <p>
+ * The operators are fused into one postfix program that runs over a tile row by row: the operand rows are loaded into
+ * a small stack of row buffers and every operator combines the top two, so the whole chain is evaluated in a single
+ * pass over the operand tiles without creating intermediate tiles. Focal operators such as <code>slope</code> need the
+ * neighbours of a cell and are evaluated as separate coverages that the program reads like any other operand.
+ * <p>
+ * Overview levels are computed from the overview levels of the operands.
+ */
+public final class CoverageExpression extends TiledCoverage
+{
+  static final int LOAD = -1;
+  static final int CONSTANT = -2;
+
+  private final String expression;
+  private final TiledCoverage[] operands;
+  // postfix instructions: LOAD or CONSTANT followed by an operand or constant index, or an operator ordinal
+  private final int[] program;
+  private final double[] constants;
+  private final int stackDepth;
+
+  CoverageExpression(String expression, TiledCoverage[] operands, int[] program, double[] constants, int stackDepth)
+  {
+    super(operands[0]);
+    this.expression = expression;
+    this.operands = operands;
+    this.program = program;
+    this.constants = constants;
+    this.stackDepth = stackDepth;
+  }
+
+  @Override public float getNoData()
+  {
+    return Float.NaN;
+  }
+
+  @Override protected float[] loadTile(int level, int tileColumn, int tileRow)
+  {
+    int tileSize = getTileSize();
+    float[][] tiles = new float[this.operands.length][];
+    for (int i = 0; i < tiles.length; i++)
+      tiles[i] = this.operands[i].getTile(level, tileColumn, tileRow);
+    double[][] stack = new double[this.stackDepth][tileSize];
+    float[] tile = new float[tileSize * tileSize];
+
+    for (int row = 0, offset = 0; row < tileSize; row++, offset += tileSize) {
+      int top = -1;
+      for (int pc = 0; pc < this.program.length; pc++) {
+        int instruction = this.program[pc];
+        if (instruction == LOAD) {
+          int operand = this.program[++pc];
+          float[] source = tiles[operand];
+          float noData = this.operands[operand].getNoData();
+          double[] target = stack[++top];
+          for (int x = 0; x < tileSize; x++) {
+            float value = source[offset + x];
+            target[x] = value == noData ? Double.NaN : value;
+          }
+        } else if (instruction == CONSTANT)
+          Arrays.fill(stack[++top], this.constants[this.program[++pc]]);
+        else {
+          Operator.forOrdinal(instruction).apply(stack[top - 1], stack[top], tileSize);
+          top--;
+        }
+      }
+      double[] result = stack[0];
+      for (int x = 0; x < tileSize; x++)
+        tile[offset + x] = (float)result[x];
+    }
+    return tile;
+  }
+
+  /**
+   * Evaluates the program for a single cell, reading the operand cells rather than whole tiles.
+   */
+  @Override public double getCellValue(int level, int column, int row)
+  {
+    if (column < 0 || row < 0 || column >= getWidth(level) || row >= getHeight(level))
+      return Double.NaN;
+    double[] stack = new double[this.stackDepth];
+    int top = -1;
+    for (int pc = 0; pc < this.program.length; pc++) {
+      int instruction = this.program[pc];
+      if (instruction == LOAD)
+        stack[++top] = this.operands[this.program[++pc]].getCellValue(level, column, row);
+      else if (instruction == CONSTANT)
+        stack[++top] = this.constants[this.program[++pc]];
+      else {
+        stack[top - 1] = Operator.forOrdinal(instruction).apply(stack[top - 1], stack[top]);
+        top--;
+      }
+    }
+    // rounded like the cells of a tile, so sampling and classification agree
+    return (float)stack[0];
+  }
+
+  @Override public String toString()
+  {
+    return this.expression;
+  }
+}
@@ -0,0 +1,184 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+import org.swrlapi.builtins.swrlgeoraster.pyramid.CoverageRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles coverage expressions such as <code>greaterThan(slope(dem),15.0)</code> into lazy coverages. An expression
+ * is a coverage name, a number, or an operator applied to expressions: <code>add</code>, <code>subtract</code>,
+ * <code>multiply</code>, <code>divide</code>, <code>ndvi</code>, <code>greaterThan</code> and <code>lessThan</code>
+ * take two, <code>slope</code> takes one. Coverage names are looked up in the {@link CoverageRegistry}, so they may not
+ * contain parentheses or commas.
+ * <p>
+ * Local operators are compiled into one postfix program of a {@link CoverageExpression}; every <code>slope</code>
+ * becomes a coverage of its own that the program reads as an operand.
+ */
+public final class CoverageExpressionParser
+{
+  private final String text;
+  private final CoverageRegistry registry;
+  private final List<TiledCoverage> operands = new ArrayList<>();
+  private final List<Double> constants = new ArrayList<>();
+  private int[] program = new int[16];
+  private int programLength;
+  private int depth;
+  private int maxDepth;
+  private int position;
+
+  private CoverageExpressionParser(String text, int position, CoverageRegistry registry)
+  {
+    this.text = text;
+    this.position = position;
+    this.registry = registry;
+  }
+
+  /**
+   * @param name a coverage name or expression
+   * @return true if the name is an expression rather than the name of a coverage
+   */
+  public static boolean isExpression(String name)
+  {
+    return name.indexOf('(') >= 0;
+  }
+
+  /**
+   * @param expression a coverage expression
+   * @param registry the registry to look up coverage names in
+   * @return the coverage the expression evaluates to
+   * @throws IllegalArgumentException if the expression is malformed, names an unknown coverage, or combines coverages
+   * on different grids
+   * @throws IOException if a configured coverage cannot be opened
+   */
+  public static TiledCoverage parse(String expression, CoverageRegistry registry) throws IOException
+  {
+    CoverageExpressionParser parser = new CoverageExpressionParser(expression, 0, registry);
+    TiledCoverage coverage = parser.compile();
+    parser.skipSpaces();
+    if (parser.position != expression.length())
+      throw parser.error("unexpected " + expression.charAt(parser.position));
+    return coverage;
+  }
+
+  private TiledCoverage compile() throws IOException
+  {
+    int start = this.position;
+    term();
+    if (this.operands.isEmpty())
+      throw error("expression refers to no coverage");
+    // a bare coverage or a single focal operator needs no program
+    if (this.programLength == 2 && this.program[0] == CoverageExpression.LOAD)
+      return this.operands.get(0);
+
+    TiledCoverage grid = this.operands.get(0);
+    for (TiledCoverage operand : this.operands)
+      if (!operand.isAlignedWith(grid))
+        throw new IllegalArgumentException("The coverages of " + this.text + " are not on the same grid");
+    double[] constants = new double[this.constants.size()];
+    for (int i = 0; i < constants.length; i++)
+      constants[i] = this.constants.get(i);
+    return new CoverageExpression(this.text.substring(start, this.position).trim(),
+      this.operands.toArray(new TiledCoverage[this.operands.size()]), Arrays.copyOf(this.program, this.programLength),
+      constants, this.maxDepth);
+  }
+
+  private void term() throws IOException
+  {
+    skipSpaces();
+    int start = this.position;
+    while (this.position < this.text.length() && "(),".indexOf(this.text.charAt(this.position)) < 0)
+      this.position++;
+    String token = this.text.substring(start, this.position).trim();
+    if (token.isEmpty())
+      throw error("expecting a coverage, number or operator");
+
+    if (this.position < this.text.length() && this.text.charAt(this.position) == '(') {
+      this.position++;
+      if (token.equals("slope")) {
+        // the argument is compiled on its own, as the slope of a cell needs its neighbours
+        int argumentStart = this.position;
+        CoverageExpressionParser argument = new CoverageExpressionParser(this.text, this.position, this.registry);
+        TiledCoverage elevation = argument.compile();
+        this.position = argument.position;
+        expect(')');
+        load(new SlopeCoverage("slope(" + this.text.substring(argumentStart, this.position - 1).trim() + ")",
+          elevation));
+        return;
+      }
+      Operator operator = Operator.forName(token);
+      if (operator == null)
+        throw error("unknown operator " + token);
+      term();
+      expect(',');
+      term();
+      expect(')');
+      emit(operator.ordinal());
+      this.depth--;
+      return;
+    }
+
+    double value;
+    try {
+      value = Double.parseDouble(token);
+    } catch (NumberFormatException e) {
+      TiledCoverage coverage = this.registry.get(token);
+      if (coverage == null)
+        throw error("no coverage registered as " + token);
+      load(coverage);
+      return;
+    }
+    emit(CoverageExpression.CONSTANT);
+    emit(this.constants.size());
+    this.constants.add(value);
+    push();
+  }
+
+  private void load(TiledCoverage coverage)
+  {
+    int index = this.operands.indexOf(coverage);
+    if (index < 0) {
+      index = this.operands.size();
+      this.operands.add(coverage);
+    }
+    emit(CoverageExpression.LOAD);
+    emit(index);
+    push();
+  }
+
+  private void push()
+  {
+    this.depth++;
+    this.maxDepth = Math.max(this.maxDepth, this.depth);
+  }
+
+  private void emit(int instruction)
+  {
+    if (this.programLength == this.program.length)
+      this.program = Arrays.copyOf(this.program, 2 * this.program.length);
+    this.program[this.programLength++] = instruction;
+  }
+
+  private void expect(char c)
+  {
+    skipSpaces();
+    if (this.position >= this.text.length() || this.text.charAt(this.position) != c)
+      throw error("expecting " + c);
+    this.position++;
+  }
+
+  private void skipSpaces()
+  {
+    while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position)))
+      this.position++;
+  }
+
+  private IllegalArgumentException error(String message)
+  {
+    return new IllegalArgumentException(
+      "Malformed coverage expression " + this.text + " at position " + this.position + ": " + message);
+  }
+}
@@ -0,0 +1,103 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+/**
+ * The local operators of coverage expressions, combining two cell values into one. Cells without data are NaN and
+ * yield NaN, as do divisions by zero.
+ */
+enum Operator
+{
+  ADD("add"), SUBTRACT("subtract"), MULTIPLY("multiply"), DIVIDE("divide"), NDVI("ndvi"),
+  GREATER_THAN("greaterThan"), LESS_THAN("lessThan");
+
+  private static final Operator[] operators = values();
+
+  private final String name;
+
+  Operator(String name)
+  {
+    this.name = name;
+  }
+
+  String getName()
+  {
+    return this.name;
+  }
+
+  static Operator forOrdinal(int ordinal)
+  {
+    return operators[ordinal];
+  }
+
+  /**
+   * @param name the name of an operator in an expression
+   * @return the operator, or null if there is none of the name
+   */
+  static Operator forName(String name)
+  {
+    for (Operator operator : operators)
+      if (operator.name.equals(name))
+        return operator;
+    return null;
+  }
+
+  double apply(double a, double b)
+  {
+    switch (this) {
+    case ADD:
+      return a + b;
+    case SUBTRACT:
+      return a - b;
+    case MULTIPLY:
+      return a * b;
+    case DIVIDE:
+      return b == 0 ? Double.NaN : a / b;
+    case NDVI:
+      return a + b == 0 ? Double.NaN : (a - b) / (a + b);
+    case GREATER_THAN:
+      return Double.isNaN(a) || Double.isNaN(b) ? Double.NaN : a > b ? 1 : 0;
+    default:
+      return Double.isNaN(a) || Double.isNaN(b) ? Double.NaN : a < b ? 1 : 0;
+    }
+  }
+
+  /**
+   * Applies the operator to rows of cells, with one loop per operator so that the JIT compiles each to a tight loop.
+   * @param a the left operands, replaced by the results
+   * @param b the right operands
+   * @param length the number of cells
+   */
+  void apply(double[] a, double[] b, int length)
+  {
+    switch (this) {
+    case ADD:
+      for (int i = 0; i < length; i++)
+        a[i] += b[i];
+      break;
+    case SUBTRACT:
+      for (int i = 0; i < length; i++)
+        a[i] -= b[i];
+      break;
+    case MULTIPLY:
+      for (int i = 0; i < length; i++)
+        a[i] *= b[i];
+      break;
+    case DIVIDE:
+      for (int i = 0; i < length; i++)
+        a[i] = b[i] == 0 ? Double.NaN : a[i] / b[i];
+      break;
+    case NDVI:
+      for (int i = 0; i < length; i++) {
+        double sum = a[i] + b[i];
+        a[i] = sum == 0 ? Double.NaN : (a[i] - b[i]) / sum;
+      }
+      break;
+    case GREATER_THAN:
+      for (int i = 0; i < length; i++)
+        a[i] = Double.isNaN(a[i]) || Double.isNaN(b[i]) ? Double.NaN : a[i] > b[i] ? 1 : 0;
+      break;
+    default:
+      for (int i = 0; i < length; i++)
+        a[i] = Double.isNaN(a[i]) || Double.isNaN(b[i]) ? Double.NaN : a[i] < b[i] ? 1 : 0;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+/**
+ * The slope in degrees of an elevation coverage, computed with Horn's 3x3 finite differences. Neighbours without data
+ * or beyond the grid are replaced by the centre cell. Elevations are taken to be in metres; in a geographic CRS the
+ * cell size is converted to metres at the latitude of each row.
+ */
+final class SlopeCoverage extends TiledCoverage
+{
+  private static final double METRES_PER_DEGREE_LATITUDE = 110574;
+  private static final double METRES_PER_DEGREE_LONGITUDE = 111320;
+
+  private final String expression;
+  private final TiledCoverage elevation;
+  private final double top;
+  private final boolean geographic;
+
+  SlopeCoverage(String expression, TiledCoverage elevation)
+  {
+    super(elevation);
+    this.expression = expression;
+    this.elevation = elevation;
+    this.top = elevation.getEnvelope().getMaxY();
+    boolean geographic;
+    try {
+      geographic = CoordinateReferenceSystem.forEPSGCode(elevation.getSRID()).isGeographic();
+    } catch (IllegalArgumentException e) {
+      geographic = false;
+    }
+    this.geographic = geographic;
+  }
+
+  @Override public float getNoData()
+  {
+    return Float.NaN;
+  }
+
+  @Override protected float[] loadTile(int level, int tileColumn, int tileRow)
+  {
+    int tileSize = getTileSize(), haloSize = tileSize + 2;
+    int width = getWidth(level), height = getHeight(level);
+    int firstColumn = tileColumn * tileSize - 1, firstRow = tileRow * tileSize - 1;
+    float noData = this.elevation.getNoData();
+
+    // the elevations of the tile and a one cell border, gathered from the tile and its neighbours
+    double[] halo = new double[haloSize * haloSize];
+    float[][] tiles = new float[9][];
+    for (int y = 0; y < haloSize; y++) {
+      int row = firstRow + y;
+      for (int x = 0; x < haloSize; x++) {
+        int column = firstColumn + x;
+        double value = Double.NaN;
+        if (row >= 0 && row < height && column >= 0 && column < width) {
+          int neighbour = (row / tileSize - tileRow + 1) * 3 + column / tileSize - tileColumn + 1;
+          if (tiles[neighbour] == null)
+            tiles[neighbour] = this.elevation.getTile(level, column / tileSize, row / tileSize);
+          float cell = tiles[neighbour][(row % tileSize) * tileSize + column % tileSize];
+          value = cell == noData ? Double.NaN : cell;
+        }
+        halo[y * haloSize + x] = value;
+      }
+    }
+
+    float[] tile = new float[tileSize * tileSize];
+    for (int y = 0; y < tileSize; y++) {
+      int row = firstRow + 1 + y;
+      double cellWidth = getCellWidth(level, row), cellHeight = getCellHeight(level);
+      for (int x = 0; x < tileSize; x++) {
+        int i = (y + 1) * haloSize + x + 1;
+        tile[y * tileSize + x] = row >= height || firstColumn + 1 + x >= width ?
+          Float.NaN :
+          (float)slope(halo[i - haloSize - 1], halo[i - haloSize], halo[i - haloSize + 1], halo[i - 1], halo[i],
+            halo[i + 1], halo[i + haloSize - 1], halo[i + haloSize], halo[i + haloSize + 1], cellWidth, cellHeight);
+      }
+    }
+    return tile;
+  }
+
+  @Override public double getCellValue(int level, int column, int row)
+  {
+    if (column < 0 || row < 0 || column >= getWidth(level) || row >= getHeight(level))
+      return Double.NaN;
+    double[] window = new double[9];
+    for (int y = 0; y < 3; y++)
+      for (int x = 0; x < 3; x++)
+        window[y * 3 + x] = this.elevation.getCellValue(level, column + x - 1, row + y - 1);
+    return (float)slope(window[0], window[1], window[2], window[3], window[4], window[5], window[6], window[7],
+      window[8], getCellWidth(level, row), getCellHeight(level));
+  }
+
+  private double getCellWidth(int level, int row)
+  {
+    double size = getCellSize(level);
+    if (!this.geographic)
+      return size;
+    double latitude = this.top - (row + 0.5) * size;
+    return size * METRES_PER_DEGREE_LONGITUDE * Math.cos(Math.toRadians(latitude));
+  }
+
+  private double getCellHeight(int level)
+  {
+    double size = getCellSize(level);
+    return this.geographic ? size * METRES_PER_DEGREE_LATITUDE : size;
+  }
+
+  /**
+   * @return the slope in degrees at the centre e of the window a b c / d e f / g h i, or NaN if e has no data
+   */
+  private static double slope(double a, double b, double c, double d, double e, double f, double g, double h,
+    double i, double cellWidth, double cellHeight)
+  {
+    if (Double.isNaN(e))
+      return Double.NaN;
+    a = Double.isNaN(a) ? e : a;
+    b = Double.isNaN(b) ? e : b;
+    c = Double.isNaN(c) ? e : c;
+    d = Double.isNaN(d) ? e : d;
+    f = Double.isNaN(f) ? e : f;
+    g = Double.isNaN(g) ? e : g;
+    h = Double.isNaN(h) ? e : h;
+    i = Double.isNaN(i) ? e : i;
+    double dzdx = (c + 2 * f + i - a - 2 * d - g) / (8 * cellWidth);
+    double dzdy = (g + 2 * h + i - a - 2 * b - c) / (8 * cellHeight);
+    return Math.toDegrees(Math.atan(Math.sqrt(dzdx * dzdx + dzdy * dzdy)));
+  }
+
+  @Override public String toString()
+  {
+    return this.expression;
+  }
+}
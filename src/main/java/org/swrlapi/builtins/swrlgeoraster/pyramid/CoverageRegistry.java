@@ -0,0 +1,95 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import org.swrlapi.builtins.swrlgeo.BoundedCache;
+import org.swrlapi.builtins.swrlgeoraster.SWRLGeoRasterConfiguration;
+import org.swrlapi.builtins.swrlgeoraster.algebra.CoverageExpressionParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named coverages the swrlgeoraster sampling built-ins read. A coverage is either registered by the application
+ * or opened on first use from the pyramid directory configured with
+ * <code>-Dswrlgeo.coverage.&lt;name&gt;=&lt;directory&gt;</code>. Names may also be coverage expressions, as bound by
+ * the map algebra built-ins, which are compiled by {@link CoverageExpressionParser} and kept in a bounded cache.
+ */
+public final class CoverageRegistry
+{
+  private static final CoverageRegistry instance = new CoverageRegistry();
+
+  private static final int EXPRESSION_CACHE_SIZE = 256;
+
+  private final Map<String, TiledCoverage> coverages = new ConcurrentHashMap<>();
+  private final BoundedCache<String, TiledCoverage> expressions = new BoundedCache<>(EXPRESSION_CACHE_SIZE);
+
+  private CoverageRegistry()
+  {
+  }
+
+  /**
+   * @return the registry shared by the swrlgeoraster library
+   */
+  public static CoverageRegistry getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param name the name of the coverage
+   * @param coverage the coverage, e.g. a pyramid, replacing an earlier coverage of the same name
+   */
+  public void register(String name, TiledCoverage coverage)
+  {
+    TiledCoverage previous = this.coverages.put(name, coverage);
+    if (previous != null && previous != coverage)
+      previous.close();
+    // compiled expressions may refer to the replaced coverage
+    this.expressions.clear();
+  }
+
+  /**
+   * @param name the name of a coverage or a coverage expression
+   * @return the coverage, or null if none is registered or configured under the name
+   * @throws IOException if the configured pyramid cannot be opened
+   * @throws IllegalArgumentException if the name is a malformed expression or combines coverages on different grids
+   */
+  public TiledCoverage get(String name) throws IOException
+  {
+    TiledCoverage coverage = this.coverages.get(name);
+    if (coverage != null)
+      return coverage;
+    if (CoverageExpressionParser.isExpression(name)) {
+      coverage = this.expressions.get(name);
+      if (coverage == null) {
+        coverage = CoverageExpressionParser.parse(name, this);
+        this.expressions.put(name, coverage);
+      }
+      return coverage;
+    }
+
+    Path directory = SWRLGeoRasterConfiguration.getCoveragePath(name);
+    if (directory == null)
+      return null;
+    synchronized (this) {
+      coverage = this.coverages.get(name);
+      if (coverage == null) {
+        coverage = RasterPyramid.open(directory);
+        this.coverages.put(name, coverage);
+      }
+      return coverage;
+    }
+  }
+
+  /**
+   * @param name the name of the coverage to remove
+   */
+  public void remove(String name)
+  {
+    TiledCoverage coverage = this.coverages.remove(name);
+    if (coverage != null)
+      coverage.close();
+    this.expressions.clear();
+  }
+}
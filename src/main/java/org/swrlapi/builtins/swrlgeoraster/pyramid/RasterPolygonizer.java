@@ -0,0 +1,361 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the cells of a {@link TiledCoverage} level that hold a class value into polygons. The window is scanned tile
+ * by tile and row by row, so only one tile of cells is held at a time, together with the last row of the tiles above
+ * and the last column of the tile to the left. Every side between a selected and an unselected cell becomes a
+ * boundary edge, directed so that the selected cell lies on its left; edges on both sides of a tile seam end at the
+ * same grid nodes, so the boundaries of polygons crossing seams join without any polygon union. The edges are then
+ * linked into rings, counter-clockwise rings becoming shells and clockwise rings holes.
+ * <p>
+ * Cells that touch only at a corner belong to different polygons, which then touch at that point.
+ */
+public final class RasterPolygonizer
+{
+  private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+  // edge directions in counter-clockwise order, so a left turn adds one
+  private static final byte EAST = 0, NORTH = 1, WEST = 2, SOUTH = 3;
+
+  private RasterPolygonizer()
+  {
+  }
+
+  /**
+   * @param coverage the coverage
+   * @param level the level to polygonize
+   * @param classValue the cell value to select
+   * @param window the extent to polygonize in CRS units; all cells overlapping it are considered
+   * @return the area of the selected cells in the CRS of the coverage, as a Polygon or MultiPolygon, empty if no cell
+   * holds the value
+   */
+  public static Geometry polygonize(TiledCoverage coverage, int level, double classValue, Envelope window)
+  {
+    Envelope extent = coverage.getEnvelope();
+    double cellSize = coverage.getCellSize(level);
+    int firstColumn = (int)Math.max(0, Math.floor((window.getMinX() - extent.getMinX()) / cellSize));
+    int endColumn = (int)Math.min(coverage.getWidth(level),
+      Math.ceil((window.getMaxX() - extent.getMinX()) / cellSize));
+    int firstRow = (int)Math.max(0, Math.floor((extent.getMaxY() - window.getMaxY()) / cellSize));
+    int endRow = (int)Math.min(coverage.getHeight(level), Math.ceil((extent.getMaxY() - window.getMinY()) / cellSize));
+
+    float target = (float)classValue;
+    List<Polygon> polygons = new ArrayList<>();
+    if (firstColumn < endColumn && firstRow < endRow && target != coverage.getNoData() && !Float.isNaN(target)) {
+      Boundary boundary = traceBoundary(coverage, level, target, firstColumn, endColumn, firstRow, endRow);
+      Grid grid = new Grid(extent.getMinX() + firstColumn * cellSize, extent.getMaxY() - firstRow * cellSize, cellSize,
+        endColumn - firstColumn + 1);
+      assemblePolygons(boundary, grid, polygons);
+    }
+
+    Geometry area = polygons.isEmpty() ?
+      geometryFactory.createMultiPolygon(new Polygon[0]) :
+      geometryFactory.buildGeometry(polygons);
+    area.setSRID(coverage.getSRID());
+    return area;
+  }
+
+  private static Boundary traceBoundary(TiledCoverage coverage, int level, float target, int firstColumn,
+    int endColumn, int firstRow, int endRow)
+  {
+    int tileSize = coverage.getTileSize(), width = endColumn - firstColumn, height = endRow - firstRow;
+    Boundary boundary = new Boundary(width + 1, height);
+    // the selection of the row above each column, and of the column left of each row of the current tile row
+    boolean[] above = new boolean[width];
+    boolean[] left = new boolean[tileSize];
+
+    for (int tileRow = firstRow / tileSize; tileRow * tileSize < endRow; tileRow++) {
+      int top = Math.max(firstRow, tileRow * tileSize), bottom = Math.min(endRow, (tileRow + 1) * tileSize);
+      Arrays.fill(left, false);
+      for (int tileColumn = firstColumn / tileSize; tileColumn * tileSize < endColumn; tileColumn++) {
+        int start = Math.max(firstColumn, tileColumn * tileSize);
+        int end = Math.min(endColumn, (tileColumn + 1) * tileSize);
+        float[] tile = coverage.getTile(level, tileColumn, tileRow);
+
+        for (int row = top; row < bottom; row++) {
+          int offset = (row - tileRow * tileSize) * tileSize - tileColumn * tileSize, y = row - firstRow;
+          boolean west = left[row - top];
+          for (int column = start; column < end; column++) {
+            int x = column - firstColumn;
+            boolean inside = tile[offset + column] == target;
+            if (inside != above[x]) {
+              if (inside)
+                boundary.add(x + 1, y, x, y, WEST);
+              else
+                boundary.add(x, y, x + 1, y, EAST);
+            }
+            if (inside != west) {
+              if (inside)
+                boundary.add(x, y, x, y + 1, SOUTH);
+              else
+                boundary.add(x, y + 1, x, y, NORTH);
+            }
+            if (inside && x == width - 1)
+              boundary.add(x + 1, y + 1, x + 1, y, NORTH);
+            if (inside && y == height - 1)
+              boundary.add(x, y + 1, x + 1, y + 1, EAST);
+            above[x] = inside;
+            west = inside;
+          }
+          left[row - top] = west;
+        }
+      }
+    }
+    return boundary;
+  }
+
+  /**
+   * Links the boundary edges into rings. Where two selected cells touch at a corner, a ring turns left, so it stays
+   * around the cell it came from. A ring passing such a corner twice is split there into a shell and a hole, or into
+   * two holes, touching at the corner.
+   */
+  private static void assemblePolygons(Boundary boundary, Grid grid, List<Polygon> polygons)
+  {
+    int edges = boundary.count;
+    int indexBits = 64 - Long.numberOfLeadingZeros(Math.max(1, edges - 1));
+    if (indexBits + 64 - Long.numberOfLeadingZeros(boundary.nodes()) > 63)
+      throw new IllegalArgumentException("window of " + boundary.nodes() + " grid nodes is too large to polygonize");
+    long[] order = new long[edges];
+    for (int edge = 0; edge < edges; edge++)
+      order[edge] = boundary.from[edge] << indexBits | edge;
+    Arrays.sort(order);
+    long indexMask = (1L << indexBits) - 1;
+
+    Rings rings = new Rings(grid);
+    boolean[] used = new boolean[edges];
+    long[] corners = new long[16];
+
+    for (int start = 0; start < edges; start++) {
+      if (used[start])
+        continue;
+      used[start] = true;
+      int cornerCount = 0, edge = start;
+      boolean cornerTouch = false;
+      while (true) {
+        long node = boundary.to[edge];
+        byte direction = boundary.direction[edge];
+        int next = -1, outgoing = 0;
+        // outgoing edges of a node are adjacent in the order; there are two where selected cells touch at a corner
+        int position = firstPosition(order, node, indexBits);
+        for (; position < edges && order[position] >>> indexBits == node; position++, outgoing++) {
+          int candidate = (int)(order[position] & indexMask);
+          if (used[candidate] && candidate != start)
+            continue;
+          if (next == -1 || turn(direction, boundary.direction[candidate]) > turn(direction, boundary.direction[next]))
+            next = candidate;
+        }
+        cornerTouch |= outgoing > 1;
+        if (boundary.direction[next] != direction) {
+          if (cornerCount == corners.length)
+            corners = Arrays.copyOf(corners, 2 * cornerCount);
+          corners[cornerCount++] = node;
+        }
+        if (next == start)
+          break;
+        used[next] = true;
+        edge = next;
+      }
+
+      if (cornerTouch)
+        splitAtRepeatedCorners(corners, cornerCount, rings);
+      else
+        rings.add(corners, 0, cornerCount);
+    }
+
+    List<List<LinearRing>> shellHoles = new ArrayList<>(rings.shells.size());
+    for (int i = 0; i < rings.shells.size(); i++)
+      shellHoles.add(new ArrayList<>());
+    if (!rings.holes.isEmpty())
+      assignHoles(rings, shellHoles);
+    for (int i = 0; i < rings.shells.size(); i++)
+      polygons.add(geometryFactory.createPolygon(rings.shells.get(i),
+        shellHoles.get(i).toArray(new LinearRing[shellHoles.get(i).size()])));
+  }
+
+  /**
+   * Cuts a closed sequence of corners into simple loops: whenever a corner repeats, the corners since its first visit
+   * form a loop and are removed.
+   */
+  private static void splitAtRepeatedCorners(long[] corners, int cornerCount, Rings rings)
+  {
+    long[] stack = new long[cornerCount];
+    Map<Long, Integer> positions = new HashMap<>();
+    int size = 0;
+    for (int i = 0; i < cornerCount; i++) {
+      Integer position = positions.get(corners[i]);
+      if (position == null) {
+        positions.put(corners[i], size);
+        stack[size++] = corners[i];
+      } else {
+        rings.add(stack, position, size);
+        for (int j = position + 1; j < size; j++)
+          positions.remove(stack[j]);
+        size = position + 1;
+      }
+    }
+    rings.add(stack, 0, size);
+  }
+
+  /**
+   * Assigns each hole to the smallest shell containing the midpoint of its first side, which lies on no other ring.
+   */
+  private static void assignHoles(Rings rings, List<List<LinearRing>> shellHoles)
+  {
+    STRtree index = new STRtree();
+    for (int i = 0; i < rings.shells.size(); i++)
+      index.insert(rings.shells.get(i).getEnvelopeInternal(), i);
+    IndexedPointInAreaLocator[] locators = new IndexedPointInAreaLocator[rings.shells.size()];
+
+    for (LinearRing hole : rings.holes) {
+      Coordinate from = hole.getCoordinateN(0), to = hole.getCoordinateN(1);
+      Coordinate point = new Coordinate((from.x + to.x) / 2, (from.y + to.y) / 2);
+      int owner = -1;
+      for (Object candidate : index.query(new Envelope(point))) {
+        int shell = (Integer)candidate;
+        if (owner != -1 && rings.shellAreas.get(shell) >= rings.shellAreas.get(owner))
+          continue;
+        if (locators[shell] == null)
+          locators[shell] = new IndexedPointInAreaLocator(geometryFactory.createPolygon(rings.shells.get(shell), null));
+        if (locators[shell].locate(point) == Location.INTERIOR)
+          owner = shell;
+      }
+      if (owner != -1)
+        shellHoles.get(owner).add(hole);
+    }
+  }
+
+  private static int firstPosition(long[] order, long node, int indexBits)
+  {
+    int position = Arrays.binarySearch(order, node << indexBits);
+    return position < 0 ? -position - 1 : position;
+  }
+
+  /**
+   * @return 2 for a left turn, 1 for going straight and 0 for a right turn
+   */
+  private static int turn(byte from, byte to)
+  {
+    return (to - from + 5) % 4;
+  }
+
+  /**
+   * The rings linked so far, counter-clockwise shells and clockwise holes.
+   */
+  private static final class Rings
+  {
+    private final Grid grid;
+    private final List<LinearRing> shells = new ArrayList<>();
+    private final List<Long> shellAreas = new ArrayList<>();
+    private final List<LinearRing> holes = new ArrayList<>();
+
+    Rings(Grid grid)
+    {
+      this.grid = grid;
+    }
+
+    void add(long[] corners, int start, int end)
+    {
+      int cornerCount = end - start;
+      Coordinate[] coordinates = new Coordinate[cornerCount + 1];
+      long area = 0;
+      for (int i = 0; i < cornerCount; i++) {
+        long node1 = corners[start + i], node2 = corners[start + (i + 1) % cornerCount];
+        coordinates[i] = this.grid.toCoordinate(node1);
+        area += this.grid.x(node1) * -this.grid.y(node2) - this.grid.x(node2) * -this.grid.y(node1);
+      }
+      coordinates[cornerCount] = coordinates[0];
+      LinearRing ring = geometryFactory.createLinearRing(coordinates);
+      if (area > 0) {
+        this.shells.add(ring);
+        this.shellAreas.add(area);
+      } else
+        this.holes.add(ring);
+    }
+  }
+
+  /**
+   * The boundary edges traced so far, as grid nodes numbered row by row.
+   */
+  private static final class Boundary
+  {
+    private final int nodesPerRow;
+    private final int rows;
+    private long[] from = new long[1024];
+    private long[] to = new long[1024];
+    private byte[] direction = new byte[1024];
+    private int count;
+
+    Boundary(int nodesPerRow, int rows)
+    {
+      this.nodesPerRow = nodesPerRow;
+      this.rows = rows;
+    }
+
+    long nodes()
+    {
+      return (long)this.nodesPerRow * (this.rows + 1);
+    }
+
+    void add(int fromX, int fromY, int toX, int toY, byte direction)
+    {
+      if (this.count == this.from.length) {
+        this.from = Arrays.copyOf(this.from, 2 * this.count);
+        this.to = Arrays.copyOf(this.to, 2 * this.count);
+        this.direction = Arrays.copyOf(this.direction, 2 * this.count);
+      }
+      this.from[this.count] = (long)fromY * this.nodesPerRow + fromX;
+      this.to[this.count] = (long)toY * this.nodesPerRow + toX;
+      this.direction[this.count++] = direction;
+    }
+  }
+
+  /**
+   * Maps grid nodes of the window to coordinates.
+   */
+  private static final class Grid
+  {
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int nodesPerRow;
+
+    Grid(double originX, double originY, double cellSize, int nodesPerRow)
+    {
+      this.originX = originX;
+      this.originY = originY;
+      this.cellSize = cellSize;
+      this.nodesPerRow = nodesPerRow;
+    }
+
+    long x(long node)
+    {
+      return node % this.nodesPerRow;
+    }
+
+    long y(long node)
+    {
+      return node / this.nodesPerRow;
+    }
+
+    Coordinate toCoordinate(long node)
+    {
+      return new Coordinate(this.originX + x(node) * this.cellSize, this.originY - y(node) * this.cellSize);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A single-band coverage stored on disk as a pyramid of overview levels, as written by {@link RasterPyramidWriter}.
+ * Level 0 holds the cells at full resolution; every further level halves the resolution by averaging 2x2 cells, until
+ * a level fits in one tile.
+ * <p>
+ * The directory holds a <code>pyramid.properties</code> file with the grid geometry and one file per level,
+ * <code>level-&lt;n&gt;.tiles</code>, of square tiles of little-endian 32-bit floats, row by row. The level files are
+ * memory-mapped, so sampling a point reads only the pages of the tiles it touches; decoded tiles are kept in the
+ * shared {@link TileCache}. Mapped files stay mapped until the pyramid is garbage collected.
+ * <p>
+ * If the metadata names a {@link TileEncoding} other than raw, every level file starts with a tile index: the magic
+ * number <code>SGRT</code>, the format version and the number of tiles as little-endian 32-bit integers, followed by
+ * the file offsets of all tiles and of the end of the last tile as little-endian 64-bit integers. The encoded tiles
+ * follow in the same order as raw tiles.
+ */
+public final class RasterPyramid extends TiledCoverage
+{
+  /** The name of the metadata file of a pyramid directory. */
+  public static final String METADATA_FILE = "pyramid.properties";
+
+  static final int TILE_INDEX_MAGIC = 0x54524753;
+  static final int TILE_INDEX_VERSION = 1;
+
+  private final Path directory;
+  private final float noData;
+  private final TileEncoding encoding;
+  private final Level[] levels;
+
+  private RasterPyramid(Path directory, Properties metadata) throws IOException
+  {
+    super(Integer.parseInt(required(metadata, "width")), Integer.parseInt(required(metadata, "height")),
+      Integer.parseInt(required(metadata, "tileSize")), Integer.parseInt(required(metadata, "levels")),
+      Double.parseDouble(required(metadata, "originX")), Double.parseDouble(required(metadata, "originY")),
+      Double.parseDouble(required(metadata, "cellSize")), Integer.parseInt(required(metadata, "srid")));
+    this.directory = directory;
+    this.noData = Float.parseFloat(required(metadata, "noData"));
+    this.encoding = TileEncoding.fromMetadata(metadata);
+    this.levels = new Level[getLevelCount()];
+
+    for (int level = 0; level < this.levels.length; level++)
+      this.levels[level] = new Level(directory.resolve(levelFileName(level)), getWidth(level), getHeight(level),
+        getTileSize(), this.encoding);
+  }
+
+  /**
+   * @param directory a pyramid directory
+   * @return the pyramid
+   * @throws IOException if the pyramid cannot be read or is malformed
+   */
+  public static RasterPyramid open(Path directory) throws IOException
+  {
+    Properties metadata = new Properties();
+    try (InputStream in = Files.newInputStream(directory.resolve(METADATA_FILE))) {
+      metadata.load(in);
+    }
+    return new RasterPyramid(directory, metadata);
+  }
+
+  static String levelFileName(int level)
+  {
+    return "level-" + level + ".tiles";
+  }
+
+  static int tileIndexSize(int tiles)
+  {
+    return 12 + 8 * (tiles + 1);
+  }
+
+  /**
+   * @return the directory of the pyramid
+   */
+  public Path getDirectory()
+  {
+    return this.directory;
+  }
+
+  /**
+   * @return how the tiles are stored
+   */
+  public TileEncoding getEncoding()
+  {
+    return this.encoding;
+  }
+
+  @Override public float getNoData()
+  {
+    return this.noData;
+  }
+
+  @Override protected float[] loadTile(int level, int tileColumn, int tileRow)
+  {
+    return this.levels[level].readTile(tileRow * this.levels[level].tileColumns + tileColumn);
+  }
+
+  private static String required(Properties metadata, String key) throws IOException
+  {
+    String value = metadata.getProperty(key);
+    if (value == null)
+      throw new IOException("pyramid metadata lacks " + key);
+    return value.trim();
+  }
+
+  private static final class Level
+  {
+    private final int tileSize;
+    private final int tileColumns;
+    private final TileEncoding encoding;
+    private final MappedByteBuffer[] segments;
+    // raw tiles have a fixed size, so segments hold the same number of tiles
+    private final int tilesPerSegment;
+    // encoded tiles vary in size, so segments start at the tiles listed here and tile offsets come from the index
+    private final int[] segmentFirstTiles;
+    private final long[] offsets;
+
+    Level(Path file, int width, int height, int tileSize, TileEncoding encoding) throws IOException
+    {
+      this.tileSize = tileSize;
+      this.tileColumns = (width + tileSize - 1) / tileSize;
+      this.encoding = encoding;
+      int tiles = this.tileColumns * ((height + tileSize - 1) / tileSize);
+
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        if (encoding.isRaw()) {
+          long tileBytes = 4L * tileSize * tileSize;
+          // a mapping is limited to 2 GB, so large levels are mapped in segments of whole tiles
+          this.tilesPerSegment = (int)Math.max(1, Integer.MAX_VALUE / tileBytes);
+          this.segments = new MappedByteBuffer[(tiles + this.tilesPerSegment - 1) / this.tilesPerSegment];
+          this.segmentFirstTiles = null;
+          this.offsets = null;
+          if (channel.size() < tiles * tileBytes)
+            throw new IOException(file + " holds " + channel.size() + " bytes, expecting " + tiles * tileBytes);
+          for (int segment = 0; segment < this.segments.length; segment++) {
+            int segmentTiles = Math.min(this.tilesPerSegment, tiles - segment * this.tilesPerSegment);
+            this.segments[segment] = channel
+              .map(FileChannel.MapMode.READ_ONLY, segment * this.tilesPerSegment * tileBytes, segmentTiles * tileBytes);
+          }
+        } else {
+          this.tilesPerSegment = 0;
+          this.offsets = readTileIndex(file, channel, tiles);
+          List<Integer> firstTiles = new ArrayList<>();
+          for (int first = 0, end; first < tiles; first = end) {
+            end = first + 1;
+            while (end < tiles && this.offsets[end + 1] - this.offsets[first] <= Integer.MAX_VALUE)
+              end++;
+            firstTiles.add(first);
+          }
+          this.segments = new MappedByteBuffer[firstTiles.size()];
+          this.segmentFirstTiles = new int[firstTiles.size()];
+          for (int segment = 0; segment < this.segments.length; segment++) {
+            int first = firstTiles.get(segment);
+            int end = segment + 1 < this.segments.length ? firstTiles.get(segment + 1) : tiles;
+            this.segmentFirstTiles[segment] = first;
+            this.segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, this.offsets[first],
+              this.offsets[end] - this.offsets[first]);
+          }
+        }
+      }
+    }
+
+    private static long[] readTileIndex(Path file, FileChannel channel, int tiles) throws IOException
+    {
+      ByteBuffer index = ByteBuffer.allocate(tileIndexSize(tiles)).order(ByteOrder.LITTLE_ENDIAN);
+      while (index.hasRemaining())
+        if (channel.read(index, index.position()) < 0)
+          throw new IOException(file + " ends within its tile index");
+      index.flip();
+      if (index.getInt() != TILE_INDEX_MAGIC)
+        throw new IOException(file + " is not an encoded level file");
+      int version = index.getInt();
+      if (version != TILE_INDEX_VERSION)
+        throw new IOException(file + " has an unsupported version " + version);
+      int count = index.getInt();
+      if (count != tiles)
+        throw new IOException(file + " indexes " + count + " tiles, expecting " + tiles);
+
+      long[] offsets = new long[tiles + 1];
+      for (int tile = 0; tile <= tiles; tile++) {
+        offsets[tile] = index.getLong();
+        if (tile == 0 ? offsets[tile] < index.capacity() : offsets[tile] < offsets[tile - 1])
+          throw new IOException(file + " has a corrupt tile index");
+      }
+      if (offsets[tiles] > channel.size())
+        throw new IOException(file + " holds " + channel.size() + " bytes, expecting " + offsets[tiles]);
+      return offsets;
+    }
+
+    float[] readTile(int tileIndex)
+    {
+      int cells = this.tileSize * this.tileSize;
+      float[] tile = new float[cells];
+      if (this.offsets == null) {
+        // a duplicate has its own position, so tiles can be read concurrently
+        FloatBuffer buffer = this.segments[tileIndex / this.tilesPerSegment].duplicate().order(ByteOrder.LITTLE_ENDIAN)
+          .asFloatBuffer();
+        buffer.position((tileIndex % this.tilesPerSegment) * cells);
+        buffer.get(tile);
+      } else {
+        int segment = Arrays.binarySearch(this.segmentFirstTiles, tileIndex);
+        if (segment < 0)
+          segment = -segment - 2;
+        long segmentStart = this.offsets[this.segmentFirstTiles[segment]];
+        ByteBuffer buffer = this.segments[segment].duplicate();
+        buffer.limit((int)(this.offsets[tileIndex + 1] - segmentStart));
+        buffer.position((int)(this.offsets[tileIndex] - segmentStart));
+        this.encoding.decode(buffer, tile, this.tileSize);
+      }
+      return tile;
+    }
+  }
+}
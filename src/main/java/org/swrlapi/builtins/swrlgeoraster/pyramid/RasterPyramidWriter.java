@@ -0,0 +1,458 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a grid of cell values as a {@link RasterPyramid} directory, computing the overview levels by averaging 2x2
+ * cells with data. Rows stream through all levels at once, so only a band of tiles per level is held in memory. Grids
+ * in the ESRI ASCII format or the ESRI binary float format, a <code>.flt</code> file next to its <code>.hdr</code>
+ * header, can be converted from the command line:
+ * <pre>
+ *   RasterPyramidWriter [--compression none|deflate] [--predictor none|floatingPoint]
+ *     &lt;grid file&gt; &lt;pyramid directory&gt; [EPSG code] [tile size]
+ * </pre>
+ * The EPSG code defaults to 4326, the tile size to {@link #DEFAULT_TILE_SIZE} cells and the tiles are written raw.
+ */
+public final class RasterPyramidWriter
+{
+  /** The default number of cells along the side of a tile. */
+  public static final int DEFAULT_TILE_SIZE = 256;
+
+  private RasterPyramidWriter()
+  {
+  }
+
+  public static void main(String[] args) throws IOException
+  {
+    TileEncoding.Compression compression = TileEncoding.Compression.NONE;
+    TileEncoding.Predictor predictor = TileEncoding.Predictor.NONE;
+    List<String> arguments = new ArrayList<>();
+    for (int i = 0; i < args.length; i++)
+      if (args[i].equals("--compression") && i + 1 < args.length)
+        compression = TileEncoding.Compression.parse(args[++i]);
+      else if (args[i].equals("--predictor") && i + 1 < args.length)
+        predictor = TileEncoding.Predictor.parse(args[++i]);
+      else
+        arguments.add(args[i]);
+    if (arguments.size() < 2 || arguments.size() > 4) {
+      System.err.println("Usage: RasterPyramidWriter [--compression none|deflate] [--predictor none|floatingPoint] "
+        + "<grid file> <pyramid directory> [EPSG code] [tile size]");
+      System.exit(-1);
+    }
+
+    Path file = Paths.get(arguments.get(0)), directory = Paths.get(arguments.get(1));
+    int srid = arguments.size() > 2 ? Integer.parseInt(arguments.get(2)) : CoordinateReferenceSystem.CRS84_SRID;
+    int tileSize = arguments.size() > 3 ? Integer.parseInt(arguments.get(3)) : DEFAULT_TILE_SIZE;
+    TileEncoding encoding = compression == TileEncoding.Compression.NONE && predictor == TileEncoding.Predictor.NONE ?
+      TileEncoding.RAW :
+      new TileEncoding(compression, predictor, Deflater.DEFAULT_COMPRESSION);
+    int levels = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".flt") ?
+      convertFloatGrid(file, directory, srid, tileSize, encoding) :
+      write(directory, readAsciiGrid(file), srid, tileSize, encoding);
+    System.out.println("Wrote " + levels + " levels of " + encoding + " tiles to " + directory);
+  }
+
+  /**
+   * @param directory the pyramid directory, created if necessary
+   * @param grid the cell values at full resolution
+   * @param srid the SRID of the CRS of the grid
+   * @param tileSize the number of cells along the side of a tile
+   * @return the number of levels written
+   * @throws IOException if a file cannot be written
+   */
+  public static int write(Path directory, Grid grid, int srid, int tileSize) throws IOException
+  {
+    return write(directory, grid, srid, tileSize, TileEncoding.RAW);
+  }
+
+  /**
+   * @param directory the pyramid directory, created if necessary
+   * @param grid the cell values at full resolution
+   * @param srid the SRID of the CRS of the grid
+   * @param tileSize the number of cells along the side of a tile
+   * @param encoding how to store the tiles
+   * @return the number of levels written
+   * @throws IOException if a file cannot be written
+   */
+  public static int write(Path directory, Grid grid, int srid, int tileSize, TileEncoding encoding) throws IOException
+  {
+    try (LevelWriter writer = LevelWriter.create(directory, grid.width, grid.height, tileSize, grid.noData,
+      encoding)) {
+      for (int row = 0; row < grid.height; row++)
+        writer.addRow(grid.values, row * grid.width);
+      writer.finish();
+    }
+    return writeMetadata(directory, grid.width, grid.height, tileSize, grid.originX, grid.originY, grid.cellSize,
+      grid.noData, srid, encoding);
+  }
+
+  /**
+   * Converts a grid in the ESRI binary float format row by row, so grids larger than the heap can be converted.
+   * @param file the <code>.flt</code> file; the header is read from the <code>.hdr</code> file next to it
+   * @param directory the pyramid directory, created if necessary
+   * @param srid the SRID of the CRS of the grid
+   * @param tileSize the number of cells along the side of a tile
+   * @param encoding how to store the tiles
+   * @return the number of levels written
+   * @throws IOException if a file cannot be read, is malformed or a file cannot be written
+   */
+  public static int convertFloatGrid(Path file, Path directory, int srid, int tileSize, TileEncoding encoding)
+    throws IOException
+  {
+    String name = file.getFileName().toString();
+    Path headerFile = file.resolveSibling(name.substring(0, name.lastIndexOf('.') + 1) + "hdr");
+    Properties header = new Properties();
+    try (BufferedReader in = Files.newBufferedReader(headerFile, StandardCharsets.US_ASCII)) {
+      readHeader(in, header);
+    }
+
+    try {
+      int width = Integer.parseInt(required(header, "ncols")), height = Integer.parseInt(required(header, "nrows"));
+      double cellSize = Double.parseDouble(required(header, "cellsize"));
+      float noData = Float.parseFloat(header.getProperty("nodata_value", "-9999"));
+      String byteOrder = header.getProperty("byteorder", "LSBFIRST").toUpperCase(Locale.ROOT);
+      ByteBuffer row = ByteBuffer.allocate(4 * width)
+        .order(byteOrder.startsWith("M") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+      float[] values = new float[width];
+
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        LevelWriter writer = LevelWriter.create(directory, width, height, tileSize, noData, encoding)) {
+        if (channel.size() != 4L * width * height)
+          throw new IOException(file + " holds " + channel.size() + " bytes, expecting " + 4L * width * height);
+        for (int r = 0; r < height; r++) {
+          row.clear();
+          while (row.hasRemaining())
+            if (channel.read(row) < 0)
+              throw new IOException(file + " ends at row " + r);
+          row.flip();
+          row.asFloatBuffer().get(values);
+          writer.addRow(values, 0);
+        }
+        writer.finish();
+      }
+      return writeMetadata(directory, width, height, tileSize, originX(header, cellSize),
+        lowerY(header, cellSize) + height * cellSize, cellSize, noData, srid, encoding);
+    } catch (NumberFormatException e) {
+      throw new IOException("malformed grid header " + headerFile + ": " + e.getMessage());
+    }
+  }
+
+  private static int writeMetadata(Path directory, int width, int height, int tileSize, double originX,
+    double originY, double cellSize, float noData, int srid, TileEncoding encoding) throws IOException
+  {
+    int levels = levelCount(width, height, tileSize);
+    Properties metadata = new Properties();
+    metadata.setProperty("width", Integer.toString(width));
+    metadata.setProperty("height", Integer.toString(height));
+    metadata.setProperty("tileSize", Integer.toString(tileSize));
+    metadata.setProperty("levels", Integer.toString(levels));
+    metadata.setProperty("originX", Double.toString(originX));
+    metadata.setProperty("originY", Double.toString(originY));
+    metadata.setProperty("cellSize", Double.toString(cellSize));
+    metadata.setProperty("noData", Float.toString(noData));
+    metadata.setProperty("srid", Integer.toString(srid));
+    if (!encoding.isRaw())
+      encoding.toMetadata(metadata);
+    try (OutputStream out = Files.newOutputStream(directory.resolve(RasterPyramid.METADATA_FILE))) {
+      metadata.store(out, "Raster pyramid; generated by RasterPyramidWriter");
+    }
+    return levels;
+  }
+
+  private static int levelCount(int width, int height, int tileSize)
+  {
+    int level = 0;
+    while (RasterPyramid.levelSize(width, level) > tileSize || RasterPyramid.levelSize(height, level) > tileSize)
+      level++;
+    return level + 1;
+  }
+
+  /**
+   * Reads a grid in the ESRI ASCII format.
+   * @param file the grid file
+   * @return the grid
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static Grid readAsciiGrid(Path file) throws IOException
+  {
+    try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+      Properties header = new Properties();
+      String[] fields = readHeader(in, header);
+
+      int width = Integer.parseInt(required(header, "ncols"));
+      int height = Integer.parseInt(required(header, "nrows"));
+      double cellSize = Double.parseDouble(required(header, "cellsize"));
+      float noData = Float.parseFloat(header.getProperty("nodata_value", "-9999"));
+
+      float[] values = new float[width * height];
+      int count = 0;
+      while (fields != null) {
+        for (String field : fields)
+          if (!field.isEmpty()) {
+            if (count == values.length)
+              throw new IOException(file + " holds more than " + values.length + " cell values");
+            values[count++] = Float.parseFloat(field);
+          }
+        String line = in.readLine();
+        fields = line == null ? null : line.trim().split("\\s+");
+      }
+      if (count != values.length)
+        throw new IOException(file + " holds " + count + " cell values, expecting " + values.length);
+      return new Grid(values, width, height, originX(header, cellSize), lowerY(header, cellSize) + height * cellSize,
+        cellSize, noData);
+    } catch (NumberFormatException e) {
+      throw new IOException("malformed ASCII grid " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the key value lines of an ESRI grid header.
+   * @return the fields of the first line after the header, or null at the end of the input
+   */
+  private static String[] readHeader(BufferedReader in, Properties header) throws IOException
+  {
+    String line;
+    while ((line = in.readLine()) != null) {
+      String[] fields = line.trim().split("\\s+");
+      if (fields.length != 2 || !Character.isLetter(fields[0].charAt(0)))
+        return fields;
+      header.setProperty(fields[0].toLowerCase(Locale.ROOT), fields[1]);
+    }
+    return null;
+  }
+
+  private static double originX(Properties header, double cellSize) throws IOException
+  {
+    return header.containsKey("xllcenter") ?
+      Double.parseDouble(header.getProperty("xllcenter")) - cellSize / 2 :
+      Double.parseDouble(required(header, "xllcorner"));
+  }
+
+  private static double lowerY(Properties header, double cellSize) throws IOException
+  {
+    return header.containsKey("yllcenter") ?
+      Double.parseDouble(header.getProperty("yllcenter")) - cellSize / 2 :
+      Double.parseDouble(required(header, "yllcorner"));
+  }
+
+  private static String required(Properties header, String key) throws IOException
+  {
+    String value = header.getProperty(key);
+    if (value == null)
+      throw new IOException("grid header lacks " + key);
+    return value;
+  }
+
+  /**
+   * Writes the tiles of one level as its rows arrive and passes averaged rows on to the writer of the next level.
+   */
+  private static final class LevelWriter implements Closeable
+  {
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final float noData;
+    private final TileEncoding encoding;
+    private final FileChannel channel;
+    private final LevelWriter next;
+    // the rows of the current band of tiles
+    private final float[] band;
+    private final float[] tile;
+    private final ByteBuffer rawTile;
+    private final long[] offsets;
+    private final float[] pendingRow;
+    private final float[] overviewRow;
+    private int rows;
+    private int tilesWritten;
+
+    private LevelWriter(Path file, int width, int height, int tileSize, float noData, TileEncoding encoding,
+      LevelWriter next) throws IOException
+    {
+      this.width = width;
+      this.height = height;
+      this.tileSize = tileSize;
+      this.noData = noData;
+      this.encoding = encoding;
+      this.next = next;
+      this.band = new float[tileSize * width];
+      this.tile = new float[tileSize * tileSize];
+      this.pendingRow = next == null ? null : new float[width];
+      this.overviewRow = next == null ? null : new float[(width + 1) / 2];
+      int tiles = ((width + tileSize - 1) / tileSize) * ((height + tileSize - 1) / tileSize);
+      this.rawTile = encoding.isRaw() ? ByteBuffer.allocate(4 * this.tile.length).order(ByteOrder.LITTLE_ENDIAN) : null;
+      this.offsets = encoding.isRaw() ? null : new long[tiles + 1];
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+      if (this.offsets != null) {
+        this.offsets[0] = RasterPyramid.tileIndexSize(tiles);
+        this.channel.position(this.offsets[0]);
+      }
+    }
+
+    static LevelWriter create(Path directory, int width, int height, int tileSize, float noData,
+      TileEncoding encoding) throws IOException
+    {
+      if (tileSize < 1)
+        throw new IllegalArgumentException("expecting a positive tile size, got " + tileSize);
+      Files.createDirectories(directory);
+      LevelWriter next = null;
+      try {
+        for (int level = levelCount(width, height, tileSize) - 1; level >= 0; level--)
+          next = new LevelWriter(directory.resolve(RasterPyramid.levelFileName(level)),
+            RasterPyramid.levelSize(width, level), RasterPyramid.levelSize(height, level), tileSize, noData, encoding,
+            next);
+        return next;
+      } catch (IOException e) {
+        if (next != null)
+          next.close();
+        throw e;
+      }
+    }
+
+    void addRow(float[] values, int offset) throws IOException
+    {
+      System.arraycopy(values, offset, this.band, (this.rows % this.tileSize) * this.width, this.width);
+      this.rows++;
+      if (this.rows % this.tileSize == 0 || this.rows == this.height)
+        writeBand();
+
+      if (this.next != null)
+        if (this.rows % 2 == 1) {
+          System.arraycopy(values, offset, this.pendingRow, 0, this.width);
+          if (this.rows == this.height)
+            this.next.addRow(average(this.pendingRow, 0, null, 0), 0);
+        } else
+          this.next.addRow(average(this.pendingRow, 0, values, offset), 0);
+    }
+
+    private float[] average(float[] upper, int upperOffset, float[] lower, int lowerOffset)
+    {
+      for (int column = 0; column < this.overviewRow.length; column++) {
+        double sum = 0;
+        int count = 0;
+        for (int x = 2 * column; x < Math.min(2 * column + 2, this.width); x++)
+          for (int y = 0; y < (lower == null ? 1 : 2); y++) {
+            float value = y == 0 ? upper[upperOffset + x] : lower[lowerOffset + x];
+            if (value != this.noData && !Float.isNaN(value)) {
+              sum += value;
+              count++;
+            }
+          }
+        this.overviewRow[column] = count == 0 ? this.noData : (float)(sum / count);
+      }
+      return this.overviewRow;
+    }
+
+    private void writeBand() throws IOException
+    {
+      int bandRows = (this.rows - 1) % this.tileSize + 1;
+      for (int tileColumn = 0; tileColumn * this.tileSize < this.width; tileColumn++) {
+        for (int y = 0; y < this.tileSize; y++)
+          for (int x = 0; x < this.tileSize; x++) {
+            int column = tileColumn * this.tileSize + x;
+            this.tile[y * this.tileSize + x] = column < this.width && y < bandRows ?
+              this.band[y * this.width + column] :
+              this.noData;
+          }
+
+        ByteBuffer bytes;
+        if (this.rawTile != null) {
+          this.rawTile.clear();
+          this.rawTile.asFloatBuffer().put(this.tile);
+          bytes = this.rawTile;
+        } else {
+          bytes = ByteBuffer.wrap(this.encoding.encode(this.tile, this.tileSize));
+          this.offsets[this.tilesWritten + 1] = this.offsets[this.tilesWritten] + bytes.remaining();
+        }
+        while (bytes.hasRemaining())
+          this.channel.write(bytes);
+        this.tilesWritten++;
+      }
+    }
+
+    /**
+     * Completes the levels once all rows have been added.
+     */
+    void finish() throws IOException
+    {
+      if (this.rows != this.height)
+        throw new IllegalStateException("expecting " + this.height + " rows, got " + this.rows);
+      if (this.offsets != null) {
+        ByteBuffer index = ByteBuffer.allocate((int)this.offsets[0]).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(RasterPyramid.TILE_INDEX_MAGIC).putInt(RasterPyramid.TILE_INDEX_VERSION)
+          .putInt(this.offsets.length - 1);
+        for (long offset : this.offsets)
+          index.putLong(offset);
+        index.flip();
+        while (index.hasRemaining())
+          this.channel.write(index, index.position());
+      }
+      if (this.next != null)
+        this.next.finish();
+    }
+
+    @Override public void close() throws IOException
+    {
+      try {
+        this.channel.close();
+      } finally {
+        if (this.next != null)
+          this.next.close();
+      }
+    }
+  }
+
+  /**
+   * The cell values of a grid at full resolution, row by row from the top.
+   */
+  public static final class Grid
+  {
+    private final float[] values;
+    private final int width;
+    private final int height;
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final float noData;
+
+    /**
+     * @param values the cell values, row by row from the top; the array is used as given, not copied
+     * @param width the number of columns
+     * @param height the number of rows
+     * @param originX the x coordinate of the upper left corner
+     * @param originY the y coordinate of the upper left corner
+     * @param cellSize the side of a cell in CRS units
+     * @param noData the value of cells without data
+     */
+    public Grid(float[] values, int width, int height, double originX, double originY, double cellSize, float noData)
+    {
+      if (values.length != width * height)
+        throw new IllegalArgumentException("expecting " + width * height + " cell values, got " + values.length);
+      this.values = values;
+      this.width = width;
+      this.height = height;
+      this.originX = originX;
+      this.originY = originY;
+      this.cellSize = cellSize;
+      this.noData = noData;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import org.swrlapi.builtins.swrlgeo.BoundedCache;
+import org.swrlapi.builtins.swrlgeoraster.SWRLGeoRasterConfiguration;
+
+/**
+ * Cache of raster tiles shared by all open {@link TiledCoverage}s, so repeated samples from the same tile read
+ * the mapped level file once. The number of tiles held is set by
+ * {@link SWRLGeoRasterConfiguration#TILE_CACHE_SIZE_PROPERTY}.
+ */
+public final class TileCache
+{
+  private static final TileCache instance = new TileCache(SWRLGeoRasterConfiguration.getTileCacheSize());
+
+  private final BoundedCache<Key, float[]> tiles;
+
+  private TileCache(int maximumSize)
+  {
+    this.tiles = new BoundedCache<>(maximumSize);
+  }
+
+  /**
+   * @return the cache shared by the swrlgeoraster library
+   */
+  public static TileCache getInstance()
+  {
+    return instance;
+  }
+
+  float[] get(int pyramid, int level, int tile)
+  {
+    return this.tiles.get(new Key(pyramid, level, tile));
+  }
+
+  void put(int pyramid, int level, int tile, float[] values)
+  {
+    this.tiles.put(new Key(pyramid, level, tile), values);
+  }
+
+  void remove(int pyramid)
+  {
+    this.tiles.removeIf(key -> key.pyramid == pyramid);
+  }
+
+  /**
+   * @return the number of cached tiles
+   */
+  public int size()
+  {
+    return this.tiles.size();
+  }
+
+  /**
+   * @return the number of lookups answered from the cache
+   */
+  public long getHits()
+  {
+    return this.tiles.getHits();
+  }
+
+  /**
+   * @return the number of lookups that read a tile from its level file
+   */
+  public long getMisses()
+  {
+    return this.tiles.getMisses();
+  }
+
+  /**
+   * Removes all tiles.
+   */
+  public void clear()
+  {
+    this.tiles.clear();
+  }
+
+  private static final class Key
+  {
+    private final int pyramid;
+    private final int level;
+    private final int tile;
+
+    Key(int pyramid, int level, int tile)
+    {
+      this.pyramid = pyramid;
+      this.level = level;
+      this.tile = tile;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (!(o instanceof Key))
+        return false;
+      Key other = (Key)o;
+      return this.pyramid == other.pyramid && this.level == other.level && this.tile == other.tile;
+    }
+
+    @Override public int hashCode()
+    {
+      return (this.pyramid * 31 + this.level) * 31 + this.tile;
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * How the tiles of a {@link RasterPyramid} are stored. {@link #RAW} tiles are little-endian 32-bit floats of fixed
+ * size, sampled straight from the mapped level file. Other encodings first apply a predictor to each tile and then
+ * compress it, so tiles vary in size and a level file starts with an index of tile offsets that keeps access to any
+ * tile O(1).
+ * <p>
+ * The {@link Predictor#FLOATING_POINT} predictor is the floating point predictor of TIFF: the bytes of each row are
+ * split into planes from the most to the least significant byte and every byte is replaced by its difference to the
+ * previous one, which turns the slowly changing sign, exponent and high mantissa bytes of smooth coverages into runs
+ * of zeros that compress well.
+ */
+public final class TileEncoding
+{
+  /** Tiles stored uncompressed at fixed size. */
+  public static final TileEncoding RAW = new TileEncoding(Compression.NONE, Predictor.NONE, 0);
+
+  private static final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>()
+  {
+    @Override protected Buffers initialValue()
+    {
+      return new Buffers();
+    }
+  };
+
+  private final Compression compression;
+  private final Predictor predictor;
+  private final int compressionLevel;
+
+  /**
+   * @param compression the compression of the tiles
+   * @param predictor the predictor applied before compression
+   * @param compressionLevel the deflate level from 1, fastest, to 9, smallest, or -1 for the default level; ignored
+   *                         without compression
+   */
+  public TileEncoding(Compression compression, Predictor predictor, int compressionLevel)
+  {
+    if (compression == Compression.DEFLATE && compressionLevel != Deflater.DEFAULT_COMPRESSION && (compressionLevel < 1
+      || compressionLevel > 9))
+      throw new IllegalArgumentException("expecting a deflate level from 1 to 9, got " + compressionLevel);
+    this.compression = compression;
+    this.predictor = predictor;
+    this.compressionLevel = compressionLevel;
+  }
+
+  /**
+   * @return the compression of the tiles
+   */
+  public Compression getCompression()
+  {
+    return this.compression;
+  }
+
+  /**
+   * @return the predictor applied before compression
+   */
+  public Predictor getPredictor()
+  {
+    return this.predictor;
+  }
+
+  /**
+   * @return true if tiles are stored as plain floats at fixed size
+   */
+  public boolean isRaw()
+  {
+    return this.compression == Compression.NONE && this.predictor == Predictor.NONE;
+  }
+
+  static TileEncoding fromMetadata(Properties metadata) throws IOException
+  {
+    try {
+      Compression compression = Compression.parse(metadata.getProperty("compression", "none").trim());
+      Predictor predictor = Predictor.parse(metadata.getProperty("predictor", "none").trim());
+      return compression == Compression.NONE && predictor == Predictor.NONE ?
+        RAW :
+        new TileEncoding(compression, predictor, compression == Compression.DEFLATE ? Deflater.DEFAULT_COMPRESSION : 0);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("pyramid metadata: " + e.getMessage());
+    }
+  }
+
+  void toMetadata(Properties metadata)
+  {
+    metadata.setProperty("compression", this.compression.getName());
+    metadata.setProperty("predictor", this.predictor.getName());
+  }
+
+  /**
+   * @param tile the cells of a tile, row by row
+   * @param tileSize the number of cells along the side of a tile
+   * @return the encoded tile
+   */
+  byte[] encode(float[] tile, int tileSize)
+  {
+    byte[] bytes = new byte[4 * tile.length];
+    if (this.predictor == Predictor.FLOATING_POINT)
+      for (int row = 0; row < tileSize; row++) {
+        int start = 4 * row * tileSize;
+        for (int column = 0; column < tileSize; column++) {
+          int bits = Float.floatToRawIntBits(tile[row * tileSize + column]);
+          bytes[start + column] = (byte)(bits >>> 24);
+          bytes[start + tileSize + column] = (byte)(bits >>> 16);
+          bytes[start + 2 * tileSize + column] = (byte)(bits >>> 8);
+          bytes[start + 3 * tileSize + column] = (byte)bits;
+        }
+        for (int i = start + 4 * tileSize - 1; i > start; i--)
+          bytes[i] -= bytes[i - 1];
+      }
+    else
+      ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(tile);
+
+    if (this.compression == Compression.NONE)
+      return bytes;
+    Deflater deflater = new Deflater(this.compressionLevel);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      byte[] compressed = new byte[bytes.length / 4 + 64];
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == compressed.length)
+          compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+        length += deflater.deflate(compressed, length, compressed.length - length);
+      }
+      return Arrays.copyOf(compressed, length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decodes a tile through buffers pooled per thread, so reading a tile allocates nothing but the returned cells.
+   * @param source the encoded tile between its position and limit
+   * @param tile receives the cells of the tile, row by row
+   * @param tileSize the number of cells along the side of a tile
+   */
+  void decode(ByteBuffer source, float[] tile, int tileSize)
+  {
+    Buffers pooled = buffers.get();
+    byte[] bytes = pooled.bytes(4 * tile.length);
+    int length = source.remaining();
+    if (this.compression == Compression.NONE) {
+      if (length != bytes.length)
+        throw new IllegalStateException("corrupt tile of " + length + " bytes, expecting " + bytes.length);
+      source.get(bytes, 0, length);
+    } else {
+      byte[] compressed = pooled.compressed(length);
+      source.get(compressed, 0, length);
+      Inflater inflater = pooled.inflater;
+      inflater.reset();
+      inflater.setInput(compressed, 0, length);
+      try {
+        int inflated = 0;
+        while (inflated < bytes.length && !inflater.finished()) {
+          int count = inflater.inflate(bytes, inflated, bytes.length - inflated);
+          if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+            break;
+          inflated += count;
+        }
+        if (inflated != bytes.length)
+          throw new IllegalStateException("corrupt tile of " + inflated + " bytes, expecting " + bytes.length);
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("corrupt tile: " + e.getMessage());
+      }
+    }
+
+    if (this.predictor == Predictor.FLOATING_POINT)
+      for (int row = 0; row < tileSize; row++) {
+        int start = 4 * row * tileSize;
+        for (int i = start + 1; i < start + 4 * tileSize; i++)
+          bytes[i] += bytes[i - 1];
+        for (int column = 0; column < tileSize; column++)
+          tile[row * tileSize + column] = Float.intBitsToFloat((bytes[start + column] & 0xff) << 24
+            | (bytes[start + tileSize + column] & 0xff) << 16 | (bytes[start + 2 * tileSize + column] & 0xff) << 8
+            | bytes[start + 3 * tileSize + column] & 0xff);
+      }
+    else
+      ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(tile);
+  }
+
+  @Override public String toString()
+  {
+    return this.compression.getName() + "/" + this.predictor.getName();
+  }
+
+  /**
+   * The compression of encoded tiles.
+   */
+  public enum Compression
+  {
+    NONE("none"), DEFLATE("deflate");
+
+    private final String name;
+
+    Compression(String name)
+    {
+      this.name = name;
+    }
+
+    /**
+     * @return the name of the compression in the pyramid metadata
+     */
+    public String getName()
+    {
+      return this.name;
+    }
+
+    /**
+     * @param name the name of a compression, e.g. <code>deflate</code>
+     * @return the compression
+     * @throws IllegalArgumentException if there is no compression of the name
+     */
+    public static Compression parse(String name)
+    {
+      for (Compression compression : values())
+        if (compression.name.equalsIgnoreCase(name))
+          return compression;
+      throw new IllegalArgumentException("unknown tile compression " + name.toLowerCase(Locale.ROOT));
+    }
+  }
+
+  /**
+   * The predictor applied to tiles before compression.
+   */
+  public enum Predictor
+  {
+    NONE("none"), FLOATING_POINT("floatingPoint");
+
+    private final String name;
+
+    Predictor(String name)
+    {
+      this.name = name;
+    }
+
+    /**
+     * @return the name of the predictor in the pyramid metadata
+     */
+    public String getName()
+    {
+      return this.name;
+    }
+
+    /**
+     * @param name the name of a predictor, e.g. <code>floatingPoint</code>
+     * @return the predictor
+     * @throws IllegalArgumentException if there is no predictor of the name
+     */
+    public static Predictor parse(String name)
+    {
+      for (Predictor predictor : values())
+        if (predictor.name.equalsIgnoreCase(name))
+          return predictor;
+      throw new IllegalArgumentException("unknown tile predictor " + name);
+    }
+  }
+
+  /**
+   * The buffers a thread decodes tiles with.
+   */
+  private static final class Buffers
+  {
+    private final Inflater inflater = new Inflater();
+    private byte[] bytes = new byte[0];
+    private byte[] compressed = new byte[0];
+
+    byte[] bytes(int length)
+    {
+      if (this.bytes.length != length)
+        this.bytes = new byte[length];
+      return this.bytes;
+    }
+
+    byte[] compressed(int length)
+    {
+      if (this.compressed.length < length)
+        this.compressed = new byte[Math.max(length, 2 * this.compressed.length)];
+      return this.compressed;
+    }
+  }
+}
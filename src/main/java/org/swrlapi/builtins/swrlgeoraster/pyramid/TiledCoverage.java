@@ -0,0 +1,254 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single-band coverage on a grid of square tiles with overview levels, as read by the swrlgeoraster built-ins.
+ * Level 0 holds the cells at full resolution; every further level halves the resolution. Tiles are loaded by the
+ * subclass on first use, either from a {@link RasterPyramid} on disk or by evaluating a coverage expression, and kept
+ * in the shared {@link TileCache}.
+ */
+public abstract class TiledCoverage implements Closeable
+{
+  private static final AtomicInteger nextId = new AtomicInteger();
+
+  private final int id;
+  private final int width;
+  private final int height;
+  private final int tileSize;
+  private final int levelCount;
+  private final double originX;
+  private final double originY;
+  private final double cellSize;
+  private final int srid;
+  private final TileCache tileCache;
+
+  /**
+   * @param width the number of columns at full resolution
+   * @param height the number of rows at full resolution
+   * @param tileSize the number of cells along the side of a tile
+   * @param levelCount the number of levels, including the full resolution level 0
+   * @param originX the x coordinate of the upper left corner
+   * @param originY the y coordinate of the upper left corner
+   * @param cellSize the side of a cell at full resolution in CRS units
+   * @param srid the SRID of the CRS of the grid
+   */
+  protected TiledCoverage(int width, int height, int tileSize, int levelCount, double originX, double originY,
+    double cellSize, int srid)
+  {
+    this.id = nextId.incrementAndGet();
+    this.width = width;
+    this.height = height;
+    this.tileSize = tileSize;
+    this.levelCount = levelCount;
+    this.originX = originX;
+    this.originY = originY;
+    this.cellSize = cellSize;
+    this.srid = srid;
+    this.tileCache = TileCache.getInstance();
+  }
+
+  /**
+   * @param grid the coverage whose grid to share
+   */
+  protected TiledCoverage(TiledCoverage grid)
+  {
+    this(grid.width, grid.height, grid.tileSize, grid.levelCount, grid.originX, grid.originY, grid.cellSize,
+      grid.srid);
+  }
+
+  static int levelSize(int size, int level)
+  {
+    return (int)(((long)size + (1L << level) - 1) >> level);
+  }
+
+  /**
+   * @return the number of columns at full resolution
+   */
+  public int getWidth()
+  {
+    return this.width;
+  }
+
+  /**
+   * @return the number of rows at full resolution
+   */
+  public int getHeight()
+  {
+    return this.height;
+  }
+
+  /**
+   * @return the number of cells along the side of a tile
+   */
+  public int getTileSize()
+  {
+    return this.tileSize;
+  }
+
+  /**
+   * @param level a level
+   * @return the number of columns of the level
+   */
+  public int getWidth(int level)
+  {
+    return levelSize(this.width, level);
+  }
+
+  /**
+   * @param level a level
+   * @return the number of rows of the level
+   */
+  public int getHeight(int level)
+  {
+    return levelSize(this.height, level);
+  }
+
+  /**
+   * @return the number of levels, including the full resolution level 0
+   */
+  public int getLevelCount()
+  {
+    return this.levelCount;
+  }
+
+  /**
+   * @param level a level
+   * @return the cell size of the level in CRS units
+   */
+  public double getCellSize(int level)
+  {
+    return this.cellSize * (1L << level);
+  }
+
+  /**
+   * @return the SRID of the CRS of the grid
+   */
+  public int getSRID()
+  {
+    return this.srid;
+  }
+
+  /**
+   * @return the value of cells without data
+   */
+  public abstract float getNoData();
+
+  /**
+   * @return the extent of the grid in CRS units
+   */
+  public Envelope getEnvelope()
+  {
+    return new Envelope(this.originX, this.originX + this.width * this.cellSize,
+      this.originY - this.height * this.cellSize, this.originY);
+  }
+
+  /**
+   * @param other a coverage
+   * @return true if both coverages have the same cells and tiles on all levels
+   */
+  public boolean isAlignedWith(TiledCoverage other)
+  {
+    return this.width == other.width && this.height == other.height && this.tileSize == other.tileSize
+      && this.levelCount == other.levelCount && this.originX == other.originX && this.originY == other.originY
+      && this.cellSize == other.cellSize && this.srid == other.srid;
+  }
+
+  /**
+   * @param precision the coarsest acceptable cell size in CRS units; 0 or less for full resolution
+   * @return the coarsest level whose cells are not larger than the precision
+   */
+  public int getLevel(double precision)
+  {
+    int level = 0;
+    while (level + 1 < this.levelCount && getCellSize(level + 1) <= precision)
+      level++;
+    return level;
+  }
+
+  /**
+   * Interpolates the coverage bilinearly between the centres of the four cells nearest to a point. Cells without data
+   * are left out and the weights of the others are rescaled.
+   * @param x the x coordinate in the CRS of the grid
+   * @param y the y coordinate in the CRS of the grid
+   * @param level the level to sample
+   * @return the value, or NaN if the point lies outside the grid or no cell near it has data
+   */
+  public double sample(double x, double y, int level)
+  {
+    double size = getCellSize(level);
+    double column = (x - this.originX) / size, row = (this.originY - y) / size;
+    if (column < 0 || row < 0 || column > getWidth(level) || row > getHeight(level))
+      return Double.NaN;
+
+    double fx = column - 0.5, fy = row - 0.5;
+    int column0 = (int)Math.floor(fx), row0 = (int)Math.floor(fy);
+    double tx = fx - column0, ty = fy - row0;
+
+    double sum = 0, weights = 0;
+    for (int dy = 0; dy <= 1; dy++)
+      for (int dx = 0; dx <= 1; dx++) {
+        double weight = (dx == 0 ? 1 - tx : tx) * (dy == 0 ? 1 - ty : ty);
+        if (weight == 0)
+          continue;
+        double value = getCellValue(level, column0 + dx, row0 + dy);
+        if (!Double.isNaN(value)) {
+          sum += weight * value;
+          weights += weight;
+        }
+      }
+    return weights == 0 ? Double.NaN : sum / weights;
+  }
+
+  /**
+   * @param level a level
+   * @param column the column of a cell of the level
+   * @param row the row of a cell of the level
+   * @return the value of the cell, or NaN if it lies outside the grid or has no data
+   */
+  public double getCellValue(int level, int column, int row)
+  {
+    if (column < 0 || row < 0 || column >= getWidth(level) || row >= getHeight(level))
+      return Double.NaN;
+    float[] tile = getTile(level, column / this.tileSize, row / this.tileSize);
+    float value = tile[(row % this.tileSize) * this.tileSize + column % this.tileSize];
+    return value == getNoData() || Float.isNaN(value) ? Double.NaN : value;
+  }
+
+  /**
+   * @param level a level
+   * @param tileColumn the column of a tile of the level
+   * @param tileRow the row of a tile of the level
+   * @return the cells of the tile, row by row, padded with no data beyond the grid; shared, so not to be modified
+   */
+  public final float[] getTile(int level, int tileColumn, int tileRow)
+  {
+    int tileIndex = tileRow * ((getWidth(level) + this.tileSize - 1) / this.tileSize) + tileColumn;
+    float[] tile = this.tileCache.get(this.id, level, tileIndex);
+    if (tile == null) {
+      tile = loadTile(level, tileColumn, tileRow);
+      this.tileCache.put(this.id, level, tileIndex, tile);
+    }
+    return tile;
+  }
+
+  /**
+   * Loads a tile that is not in the tile cache.
+   * @param level a level
+   * @param tileColumn the column of a tile of the level
+   * @param tileRow the row of a tile of the level
+   * @return the cells of the tile, row by row, padded with no data beyond the grid
+   */
+  protected abstract float[] loadTile(int level, int tileColumn, int tileRow);
+
+  /**
+   * Drops the cached tiles of this coverage.
+   */
+  @Override public void close()
+  {
+    this.tileCache.remove(this.id);
+  }
+}
@@ -0,0 +1,180 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Allen's thirteen relations between two time intervals, read as "first relation second", with the names of the
+ * swrlapi temporal library. For instants, i.e. intervals whose start equals their end, more than one relation can
+ * hold.
+ */
+public enum AllenRelation
+{
+  BEFORE("before")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return e1 < s2;
+    }
+  },
+  AFTER("after")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return e2 < s1;
+    }
+  },
+  MEETS("meets")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return e1 == s2;
+    }
+  },
+  MET_BY("metBy")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return e2 == s1;
+    }
+  },
+  OVERLAPS("overlaps")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s1 < s2 && s2 < e1 && e1 < e2;
+    }
+  },
+  OVERLAPPED_BY("overlappedBy")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s2 < s1 && s1 < e2 && e2 < e1;
+    }
+  },
+  STARTS("starts")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s1 == s2 && e1 < e2;
+    }
+  },
+  STARTED_BY("startedBy")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s1 == s2 && e2 < e1;
+    }
+  },
+  DURING("during")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s2 < s1 && e1 < e2;
+    }
+  },
+  CONTAINS("contains")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s1 < s2 && e2 < e1;
+    }
+  },
+  FINISHES("finishes")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return e1 == e2 && s2 < s1;
+    }
+  },
+  FINISHED_BY("finishedBy")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return e1 == e2 && s1 < s2;
+    }
+  },
+  EQUALS("equals")
+  {
+    @Override boolean holds(long s1, long e1, long s2, long e2)
+    {
+      return s1 == s2 && e1 == e2;
+    }
+  };
+
+  /** The name of the relations of intervals with at least one instant in common, i.e. all but before and after. */
+  public static final String INTERSECTS = "intersects";
+
+  private final String name;
+
+  AllenRelation(String name)
+  {
+    this.name = name;
+  }
+
+  /**
+   * @return the name of the relation, e.g. <code>overlappedBy</code>
+   */
+  public String getName()
+  {
+    return this.name;
+  }
+
+  abstract boolean holds(long s1, long e1, long s2, long e2);
+
+  /**
+   * @param first the first interval
+   * @param second the second interval
+   * @return true if the relation holds between the intervals
+   */
+  public boolean holds(TimeInterval first, TimeInterval second)
+  {
+    return holds(first.getStart(), first.getEnd(), second.getStart(), second.getEnd());
+  }
+
+  /**
+   * @param relations relations
+   * @param first the first interval
+   * @param second the second interval
+   * @return true if any of the relations holds between the intervals
+   */
+  public static boolean anyHolds(Set<AllenRelation> relations, TimeInterval first, TimeInterval second)
+  {
+    for (AllenRelation relation : relations)
+      if (relation.holds(first, second))
+        return true;
+    return false;
+  }
+
+  /**
+   * Parses a disjunction of relations, e.g. <code>overlaps|during|equals</code>. The name
+   * <code>intersects</code> stands for all relations but before and after.
+   * @param names relation names separated by <code>|</code>
+   * @return the relations
+   * @throws IllegalArgumentException if a name is unknown
+   */
+  public static Set<AllenRelation> parse(String names)
+  {
+    Set<AllenRelation> relations = EnumSet.noneOf(AllenRelation.class);
+    for (String name : names.split("\\|")) {
+      String trimmed = name.trim();
+      if (trimmed.equals(INTERSECTS)) {
+        relations.addAll(EnumSet.complementOf(EnumSet.of(BEFORE, AFTER)));
+        continue;
+      }
+      AllenRelation relation = forName(trimmed);
+      if (relation == null)
+        throw new IllegalArgumentException("unknown Allen relation " + trimmed);
+      relations.add(relation);
+    }
+    return relations;
+  }
+
+  private static AllenRelation forName(String name)
+  {
+    for (AllenRelation relation : values())
+      if (relation.name.equals(name))
+        return relation;
+    return null;
+  }
+}
@@ -0,0 +1,175 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import org.swrlapi.builtins.AbstractIndexedSWRLBuiltInLibrary;
+import org.swrlapi.builtins.PureSWRLBuiltInLibrary;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.swrlgeo.GeometryArgumentParser;
+import org.swrlapi.builtins.swrlgeo.GeometryCache;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.exceptions.InvalidSWRLBuiltInArgumentException;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spatio-temporal built-ins for features that pair a geometry with a validity interval. A feature is passed as three
+ * arguments: its geometry literal and the start and end of its interval as <code>xsd:dateTime</code> literals. The
+ * built-ins combine the swrlgeo topological relations with Allen's interval relations; geometries are parsed, cached
+ * and normalized as in swrlgeo.
+ */
+public class SWRLBuiltInLibraryImpl extends AbstractIndexedSWRLBuiltInLibrary implements PureSWRLBuiltInLibrary
+{
+  /** The namespace of the swrlgeotime built-ins. */
+  public static final String NAMESPACE = "http://semgis.de/spatial/swrlgeotime#";
+
+  private static final Map<String, Integer> Arities = new HashMap<>();
+
+  static {
+    Arities.put("stt_intersects", 6);
+    Arities.put("stt_matching", 7);
+    Arities.put("stt_relate", 8);
+  }
+
+  private static final Set<String> PureBuiltInNames = Collections
+    .unmodifiableSet(new HashSet<>(Arrays.asList("stt_intersects", "stt_relate")));
+
+  private final CoordinateReferenceSystem workingCRS;
+  private final GeometryArgumentParser geometryArguments;
+
+  /**
+   * Constructor for this class.
+   */
+  public SWRLBuiltInLibraryImpl()
+  {
+    super("swrlgeotime", NAMESPACE, new HashSet<>(Arities.keySet()));
+    this.workingCRS = SWRLGeoConfiguration.getWorkingCRS();
+    this.geometryArguments =
+      new GeometryArgumentParser(GeometryCache.getInstance(), SWRLGeoConfiguration.getGeometryNormalizer());
+  }
+
+  @Override public void reset() { }
+
+  @Override public Set<String> getPureBuiltInNames()
+  {
+    return PureBuiltInNames;
+  }
+
+  @Override public int getBuiltInArity(String builtInName)
+  {
+    Integer arity = Arities.get(builtInName);
+    return arity == null ? -1 : arity;
+  }
+
+  /**
+   * Indicates if two features intersect in space while their validity intervals have at least one instant in common.
+   * @param arguments the geometry, start and end of the first and of the second feature
+   * @return true if the features intersect in space and time, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean stt_intersects(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 6);
+    TimeInterval interval1=getArgumentsAsATimeInterval(1, arguments);
+    TimeInterval interval2=getArgumentsAsATimeInterval(4, arguments);
+    if (!interval1.intersects(interval2.getStart(), interval2.getEnd()))
+      return false;
+    return getArgumentAsAGeometry(0, arguments).intersects(getArgumentAsAGeometry(3, arguments));
+  }
+
+  /**
+   * Indicates if a spatial relation and at least one of a disjunction of Allen relations hold between two features,
+   * e.g. <code>stt_relate(?g1, ?s1, ?e1, ?g2, ?s2, ?e2, "within", "during|equals")</code>.
+   * @param arguments the geometry, start and end of the first and of the second feature, the name of a swrlgeo
+   * topological relation and Allen relation names separated by <code>|</code>
+   * @return true if the relations hold, false otherwise
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean stt_relate(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 8);
+    SpatialRelation spatialRelation=getArgumentAsASpatialRelation(6, arguments);
+    Set<AllenRelation> allenRelations=getArgumentAsAllenRelations(7, arguments);
+    if (!AllenRelation.anyHolds(allenRelations, getArgumentsAsATimeInterval(1, arguments),
+      getArgumentsAsATimeInterval(4, arguments)))
+      return false;
+    return spatialRelation.holds(getArgumentAsAGeometry(0, arguments), getArgumentAsAGeometry(3, arguments));
+  }
+
+  /**
+   * Binds the identifiers of the features of a registered {@link SpatioTemporalIndex} to which a query feature is in
+   * a spatial relation and at least one of a disjunction of Allen relations, e.g.
+   * <code>stt_matching(?ids, ?area, ?from, ?to, "vessels", "contains", "intersects")</code>.
+   * @param arguments the unbound result, the geometry, start and end of the query feature, the name of the index, the
+   * name of a swrlgeo topological relation and Allen relation names separated by <code>|</code>
+   * @return true if at least one feature matches
+   * @throws SWRLBuiltInException on error
+   */
+  public boolean stt_matching(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 7);
+    SpatioTemporalIndex index=getArgumentAsASpatioTemporalIndex(4, arguments);
+    int[] matches=index.query(getArgumentAsAGeometry(1, arguments), getArgumentsAsATimeInterval(2, arguments),
+      getArgumentAsASpatialRelation(5, arguments), getArgumentAsAllenRelations(6, arguments));
+    List<SWRLBuiltInArgument> ids=new ArrayList<>(matches.length);
+    for (int match : matches)
+      ids.add(createLiteralBuiltInArgument(index.getId(match)));
+    return processResultArgument(arguments, 0, ids);
+  }
+
+  private Geometry getArgumentAsAGeometry(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    return this.geometryArguments.parse(getArgumentAsAnOWLLiteral(argumentNumber, arguments), this.workingCRS);
+  }
+
+  private TimeInterval getArgumentsAsATimeInterval(int startArgumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    try {
+      return TimeInterval.parse(getArgumentAsAnOWLLiteral(startArgumentNumber, arguments).getLiteral(),
+        getArgumentAsAnOWLLiteral(startArgumentNumber + 1, arguments).getLiteral());
+    } catch (IllegalArgumentException e) {
+      throw new InvalidSWRLBuiltInArgumentException("Invalid validity interval: " + e.getMessage());
+    }
+  }
+
+  private SpatialRelation getArgumentAsASpatialRelation(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    try {
+      return SpatialRelation.parse(getLiteralArgumentAsAString(argumentNumber, arguments));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidSWRLBuiltInArgumentException(e.getMessage());
+    }
+  }
+
+  private Set<AllenRelation> getArgumentAsAllenRelations(int argumentNumber, List<SWRLBuiltInArgument> arguments)
+    throws SWRLBuiltInException
+  {
+    try {
+      return AllenRelation.parse(getLiteralArgumentAsAString(argumentNumber, arguments));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidSWRLBuiltInArgumentException(e.getMessage());
+    }
+  }
+
+  private SpatioTemporalIndex getArgumentAsASpatioTemporalIndex(int argumentNumber,
+    List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    String name=getLiteralArgumentAsAString(argumentNumber, arguments);
+    SpatioTemporalIndex index=SpatioTemporalIndexRegistry.getInstance().get(name);
+    if (index == null)
+      throw new InvalidSWRLBuiltInArgumentException("No spatio-temporal index registered as " + name);
+    return index;
+  }
+}
@@ -0,0 +1,183 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
+/**
+ * The topological relations of the swrlgeo predicates of the same names, read as "first relation second".
+ */
+public enum SpatialRelation
+{
+  INTERSECTS("intersects")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.intersects(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.intersects(second);
+    }
+  },
+  DISJOINT("disjoint")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.disjoint(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.disjoint(second);
+    }
+  },
+  CONTAINS("contains")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.contains(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.contains(second);
+    }
+  },
+  WITHIN("within")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.within(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.within(second);
+    }
+  },
+  COVERS("covers")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.covers(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.covers(second);
+    }
+  },
+  COVERED_BY("coveredBy")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.coveredBy(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.coveredBy(second);
+    }
+  },
+  TOUCHES("touches")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.touches(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.touches(second);
+    }
+  },
+  CROSSES("crosses")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.crosses(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.crosses(second);
+    }
+  },
+  OVERLAPS("overlaps")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.overlaps(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.overlaps(second);
+    }
+  },
+  EQUALS("equals")
+  {
+    @Override public boolean holds(Geometry first, Geometry second)
+    {
+      return first.equals(second);
+    }
+
+    @Override public boolean holds(PreparedGeometry first, Geometry second)
+    {
+      return first.getGeometry().equals(second);
+    }
+  };
+
+  private final String name;
+
+  SpatialRelation(String name)
+  {
+    this.name = name;
+  }
+
+  /**
+   * @return the name of the relation, e.g. <code>coveredBy</code>
+   */
+  public String getName()
+  {
+    return this.name;
+  }
+
+  /**
+   * @return true if the envelopes of two geometries in the relation always intersect, so the relation can be
+   * answered from candidates found by envelope
+   */
+  public boolean requiresIntersection()
+  {
+    return this != DISJOINT;
+  }
+
+  /**
+   * @param first the first geometry
+   * @param second the second geometry
+   * @return true if the relation holds between the geometries
+   */
+  public abstract boolean holds(Geometry first, Geometry second);
+
+  /**
+   * @param first the first geometry, prepared for repeated tests
+   * @param second the second geometry
+   * @return true if the relation holds between the geometries
+   */
+  public abstract boolean holds(PreparedGeometry first, Geometry second);
+
+  /**
+   * @param name the name of a relation, e.g. <code>intersects</code>
+   * @return the relation
+   * @throws IllegalArgumentException if the name is unknown
+   */
+  public static SpatialRelation parse(String name)
+  {
+    String trimmed = name.trim();
+    for (SpatialRelation relation : values())
+      if (relation.name.equals(trimmed))
+        return relation;
+    throw new IllegalArgumentException("unknown spatial relation " + trimmed);
+  }
+}
@@ -0,0 +1,305 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable set of features, each a geometry in the working CRS with a validity interval and an identifier, indexed
+ * on both dimensions for <code>stt_matching</code>. The time span of the features is cut into buckets of equal width;
+ * every bucket holds an {@link STRtree} of the features whose intervals overlap it. Features spanning more than
+ * {@link #MAX_BUCKETS_PER_FEATURE} buckets are kept in one extra tree that every query searches, so long intervals are
+ * not copied into many buckets.
+ * <p>
+ * A query visits only the buckets overlapping the time window its Allen relations allow and only the features whose
+ * envelopes intersect the query geometry, unless the spatial relation is <code>disjoint</code>. Interval relations are
+ * tested next; the JTS predicate runs last, on the remaining candidates, against the query geometry prepared once.
+ */
+public final class SpatioTemporalIndex
+{
+  /** The number of buckets a feature is copied into at most; longer intervals go to the extra tree. */
+  public static final int MAX_BUCKETS_PER_FEATURE = 4;
+
+  /** The default number of time buckets. */
+  public static final int DEFAULT_BUCKETS = 64;
+
+  private final Geometry[] geometries;
+  private final long[] starts;
+  private final long[] ends;
+  private final String[] ids;
+  private final long origin;
+  private final long end;
+  private final long bucketWidth;
+  private final Bucket[] buckets;
+  private final Bucket longIntervals;
+
+  private SpatioTemporalIndex(Geometry[] geometries, long[] starts, long[] ends, String[] ids, int bucketCount)
+  {
+    this.geometries = geometries;
+    this.starts = starts;
+    this.ends = ends;
+    this.ids = ids;
+
+    long origin = Long.MAX_VALUE, end = Long.MIN_VALUE;
+    for (int i = 0; i < geometries.length; i++) {
+      origin = Math.min(origin, starts[i]);
+      end = Math.max(end, ends[i]);
+    }
+    this.origin = geometries.length == 0 ? 0 : origin;
+    this.end = geometries.length == 0 ? -1 : end;
+    this.bucketWidth = Math.max(1, (this.end - this.origin) / bucketCount + 1);
+    this.buckets = new Bucket[bucketCount];
+
+    int[] counts = new int[bucketCount];
+    int longCount = 0;
+    for (int i = 0; i < geometries.length; i++) {
+      int first = bucketOf(starts[i]), last = bucketOf(ends[i]);
+      if (last - first >= MAX_BUCKETS_PER_FEATURE)
+        longCount++;
+      else
+        for (int bucket = first; bucket <= last; bucket++)
+          counts[bucket]++;
+    }
+
+    int[][] members = new int[bucketCount][];
+    for (int bucket = 0; bucket < bucketCount; bucket++)
+      members[bucket] = new int[counts[bucket]];
+    int[] longMembers = new int[longCount];
+    Arrays.fill(counts, 0);
+    longCount = 0;
+    for (int i = 0; i < geometries.length; i++) {
+      int first = bucketOf(starts[i]), last = bucketOf(ends[i]);
+      if (last - first >= MAX_BUCKETS_PER_FEATURE)
+        longMembers[longCount++] = i;
+      else
+        for (int bucket = first; bucket <= last; bucket++)
+          members[bucket][counts[bucket]++] = i;
+    }
+
+    for (int bucket = 0; bucket < bucketCount; bucket++)
+      this.buckets[bucket] = new Bucket(members[bucket], geometries);
+    this.longIntervals = new Bucket(longMembers, geometries);
+  }
+
+  /**
+   * @return the number of features
+   */
+  public int size()
+  {
+    return this.geometries.length;
+  }
+
+  /**
+   * @param index the index of a feature
+   * @return the geometry of the feature
+   */
+  public Geometry getGeometry(int index)
+  {
+    return this.geometries[index];
+  }
+
+  /**
+   * @param index the index of a feature
+   * @return the validity interval of the feature
+   */
+  public TimeInterval getInterval(int index)
+  {
+    return new TimeInterval(this.starts[index], this.ends[index]);
+  }
+
+  /**
+   * @param index the index of a feature
+   * @return the identifier of the feature
+   */
+  public String getId(int index)
+  {
+    return this.ids[index];
+  }
+
+  /**
+   * Finds the features related to a query feature, reading the relations as "query relation feature".
+   * @param geometry the geometry of the query feature in the working CRS
+   * @param interval the validity interval of the query feature
+   * @param spatialRelation the spatial relation
+   * @param allenRelations the Allen relations, of which at least one must hold
+   * @return the indexes of the matching features, in increasing order
+   */
+  public int[] query(Geometry geometry, TimeInterval interval, SpatialRelation spatialRelation,
+    Set<AllenRelation> allenRelations)
+  {
+    // the time window the interval of a matching feature must overlap
+    long low = Long.MAX_VALUE, high = Long.MIN_VALUE;
+    for (AllenRelation relation : allenRelations) {
+      if (relation == AllenRelation.BEFORE) {
+        low = Math.min(low, interval.getEnd() + 1);
+        high = Long.MAX_VALUE;
+      } else if (relation == AllenRelation.AFTER) {
+        low = Long.MIN_VALUE;
+        high = Math.max(high, interval.getStart() - 1);
+      } else {
+        low = Math.min(low, interval.getStart());
+        high = Math.max(high, interval.getEnd());
+      }
+    }
+
+    Query query = new Query(geometry, interval, spatialRelation, allenRelations, low, high);
+    if (low <= high && low <= this.end && this.origin <= high) {
+      int first = bucketOf(Math.max(low, this.origin)), last = bucketOf(Math.min(high, this.end));
+      for (int bucket = first; bucket <= last; bucket++)
+        for (int index : this.buckets[bucket].candidates(query))
+          // a feature in several buckets is reported by the first visited bucket it is in
+          if (Math.max(bucketOf(this.starts[index]), first) == bucket)
+            query.test(index);
+    }
+    for (int index : this.longIntervals.candidates(query))
+      query.test(index);
+    return query.result();
+  }
+
+  private int bucketOf(long time)
+  {
+    long bucket = (time - this.origin) / this.bucketWidth;
+    return (int)Math.max(0, Math.min(this.buckets.length - 1, bucket));
+  }
+
+  private final class Query
+  {
+    private final Geometry geometry;
+    private final PreparedGeometry prepared;
+    private final TimeInterval interval;
+    private final SpatialRelation spatialRelation;
+    private final Set<AllenRelation> allenRelations;
+    private final long low;
+    private final long high;
+    private int[] matches = new int[16];
+    private int size;
+
+    Query(Geometry geometry, TimeInterval interval, SpatialRelation spatialRelation, Set<AllenRelation> allenRelations,
+      long low, long high)
+    {
+      this.geometry = geometry;
+      this.prepared = PreparedGeometryFactory.prepare(geometry);
+      this.interval = interval;
+      this.spatialRelation = spatialRelation;
+      this.allenRelations = allenRelations;
+      this.low = low;
+      this.high = high;
+    }
+
+    void test(int index)
+    {
+      long start = starts[index], end = ends[index];
+      if (start > this.high || end < this.low)
+        return;
+      boolean related = false;
+      for (AllenRelation relation : this.allenRelations)
+        if (relation.holds(this.interval.getStart(), this.interval.getEnd(), start, end)) {
+          related = true;
+          break;
+        }
+      if (!related || !this.spatialRelation.holds(this.prepared, geometries[index]))
+        return;
+      if (this.size == this.matches.length)
+        this.matches = Arrays.copyOf(this.matches, this.size * 2);
+      this.matches[this.size++] = index;
+    }
+
+    int[] result()
+    {
+      int[] result = Arrays.copyOf(this.matches, this.size);
+      Arrays.sort(result);
+      return result;
+    }
+  }
+
+  private static final class Bucket
+  {
+    private final int[] members;
+    private final STRtree tree;
+
+    Bucket(int[] members, Geometry[] geometries)
+    {
+      this.members = members;
+      if (members.length == 0)
+        this.tree = null;
+      else {
+        this.tree = new STRtree();
+        for (int index : members)
+          this.tree.insert(geometries[index].getEnvelopeInternal(), index);
+        // the tree is built lazily by the first query; build it while the index is not yet shared between threads
+        this.tree.build();
+      }
+    }
+
+    int[] candidates(Query query)
+    {
+      if (this.tree == null || !query.spatialRelation.requiresIntersection())
+        return this.members;
+      Envelope envelope = query.geometry.getEnvelopeInternal();
+      List<?> items = this.tree.query(envelope);
+      int[] candidates = new int[items.size()];
+      for (int i = 0; i < candidates.length; i++)
+        candidates[i] = (Integer)items.get(i);
+      return candidates;
+    }
+  }
+
+  /**
+   * Collects features into a {@link SpatioTemporalIndex}.
+   */
+  public static final class Builder
+  {
+    private final List<Geometry> geometries = new ArrayList<>();
+    private final List<TimeInterval> intervals = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+    private int buckets = DEFAULT_BUCKETS;
+
+    /**
+     * @param buckets the number of time buckets
+     * @return this builder
+     */
+    public Builder buckets(int buckets)
+    {
+      if (buckets < 1)
+        throw new IllegalArgumentException("expecting at least one bucket, got " + buckets);
+      this.buckets = buckets;
+      return this;
+    }
+
+    /**
+     * @param geometry the geometry in the working CRS
+     * @param interval the validity interval
+     * @param id the identifier of the feature
+     * @return this builder
+     */
+    public Builder add(Geometry geometry, TimeInterval interval, String id)
+    {
+      this.geometries.add(geometry);
+      this.intervals.add(interval);
+      this.ids.add(id);
+      return this;
+    }
+
+    /**
+     * @return the index; the builder must not be used afterwards
+     */
+    public SpatioTemporalIndex build()
+    {
+      long[] starts = new long[this.intervals.size()];
+      long[] ends = new long[this.intervals.size()];
+      for (int i = 0; i < starts.length; i++) {
+        starts[i] = this.intervals.get(i).getStart();
+        ends[i] = this.intervals.get(i).getEnd();
+      }
+      return new SpatioTemporalIndex(this.geometries.toArray(new Geometry[0]), starts, ends,
+        this.ids.toArray(new String[0]), this.buckets);
+    }
+  }
+}
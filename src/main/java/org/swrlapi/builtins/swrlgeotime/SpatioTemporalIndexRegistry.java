@@ -0,0 +1,59 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named spatio-temporal indexes <code>stt_matching</code> searches. Applications register an index before running
+ * rules that name it:
+ * <pre>
+ *   SpatioTemporalIndex.Builder builder = new SpatioTemporalIndex.Builder();
+ *   for (Position position : track)
+ *     builder.add(position.getGeometry(), new TimeInterval(position.getFrom(), position.getTo()), position.getId());
+ *   SpatioTemporalIndexRegistry.getInstance().register("vessels", builder.build());
+ * </pre>
+ */
+public final class SpatioTemporalIndexRegistry
+{
+  private static final SpatioTemporalIndexRegistry instance = new SpatioTemporalIndexRegistry();
+
+  private final Map<String, SpatioTemporalIndex> indexes = new ConcurrentHashMap<>();
+
+  private SpatioTemporalIndexRegistry()
+  {
+  }
+
+  /**
+   * @return the registry shared by the swrlgeotime library
+   */
+  public static SpatioTemporalIndexRegistry getInstance()
+  {
+    return instance;
+  }
+
+  /**
+   * @param name the name of the index
+   * @param index the index, replacing an earlier index of the same name
+   */
+  public void register(String name, SpatioTemporalIndex index)
+  {
+    this.indexes.put(name, index);
+  }
+
+  /**
+   * @param name the name of an index
+   * @return the index, or null if none is registered under the name
+   */
+  public SpatioTemporalIndex get(String name)
+  {
+    return this.indexes.get(name);
+  }
+
+  /**
+   * @param name the name of the index to remove
+   */
+  public void remove(String name)
+  {
+    this.indexes.remove(name);
+  }
+}
@@ -0,0 +1,113 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A closed validity interval in milliseconds since the epoch. An interval whose start equals its end is an instant.
+ */
+public final class TimeInterval
+{
+  private final long start;
+  private final long end;
+
+  /**
+   * @param start the start in milliseconds since the epoch
+   * @param end the end in milliseconds since the epoch
+   * @throws IllegalArgumentException if the end is before the start
+   */
+  public TimeInterval(long start, long end)
+  {
+    if (end < start)
+      throw new IllegalArgumentException("interval ends before it starts: " + start + " > " + end);
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Parses the bounds of an interval from their lexical forms, e.g. <code>xsd:dateTime</code> values. Date-times
+   * without a time zone and dates are taken as UTC, dates at the start of the day.
+   * @param start the lexical form of the start
+   * @param end the lexical form of the end
+   * @return the interval
+   * @throws IllegalArgumentException if a bound cannot be parsed or the end is before the start
+   */
+  public static TimeInterval parse(String start, String end)
+  {
+    return new TimeInterval(parseInstant(start), parseInstant(end));
+  }
+
+  /**
+   * @param lexicalForm the lexical form of an <code>xsd:dateTime</code> or <code>xsd:date</code> value
+   * @return the instant in milliseconds since the epoch
+   * @throws IllegalArgumentException if the value cannot be parsed
+   */
+  public static long parseInstant(String lexicalForm)
+  {
+    String value = lexicalForm.trim();
+    try {
+      return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      // no offset, or a date only
+    }
+    try {
+      return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC).toEpochMilli();
+    } catch (DateTimeParseException e) {
+      // a date only
+    }
+    try {
+      return LocalDate.parse(value).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("expecting a date or date-time, got " + lexicalForm);
+    }
+  }
+
+  /**
+   * @return the start in milliseconds since the epoch
+   */
+  public long getStart()
+  {
+    return this.start;
+  }
+
+  /**
+   * @return the end in milliseconds since the epoch
+   */
+  public long getEnd()
+  {
+    return this.end;
+  }
+
+  /**
+   * @param start the start of another interval
+   * @param end the end of the other interval
+   * @return true if the intervals have at least one instant in common
+   */
+  public boolean intersects(long start, long end)
+  {
+    return this.start <= end && start <= this.end;
+  }
+
+  @Override public boolean equals(Object object)
+  {
+    if (this == object)
+      return true;
+    if (!(object instanceof TimeInterval))
+      return false;
+    TimeInterval other = (TimeInterval)object;
+    return this.start == other.start && this.end == other.end;
+  }
+
+  @Override public int hashCode()
+  {
+    return Long.hashCode(this.start) * 31 + Long.hashCode(this.end);
+  }
+
+  @Override public String toString()
+  {
+    return "[" + this.start + ", " + this.end + "]";
+  }
+}
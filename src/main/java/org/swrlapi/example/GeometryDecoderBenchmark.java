@@ -0,0 +1,114 @@
+package org.swrlapi.example;
+
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+import org.swrlapi.builtins.swrlgeo.decode.GMLGeometryDecoder;
+import org.swrlapi.builtins.swrlgeo.decode.GeoJSONGeometryDecoder;
+import org.swrlapi.builtins.swrlgeo.decode.GeometryDecoder;
+import org.swrlapi.builtins.swrlgeo.decode.GeometryDecoderRegistry;
+import org.swrlapi.builtins.swrlgeo.decode.WKTGeometryDecoder;
+
+import com.vividsolutions.jts.io.ParseException;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the decoding throughput of WKT, GML and GeoJSON literals of the same polygons.
+ * Usage: <code>GeometryDecoderBenchmark [polygons] [vertices per polygon] [iterations]</code>.
+ */
+public class GeometryDecoderBenchmark
+{
+  public static void main(String[] args) throws ParseException
+  {
+    int polygons = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int vertices = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+    String[] wkt = new String[polygons];
+    String[] gml = new String[polygons];
+    String[] geoJSON = new String[polygons];
+    Random random = new Random(42);
+    for (int i = 0; i < polygons; i++) {
+      double[] ring = createRing(random, vertices);
+      wkt[i] = toWKT(ring);
+      gml[i] = toGML(ring);
+      geoJSON[i] = toGeoJSON(ring);
+    }
+
+    GeometryDecoderRegistry registry = GeometryDecoderRegistry.getInstance();
+    run("WKT", registry.getDecoder(WKTGeometryDecoder.WKT_LITERAL), wkt, vertices, iterations);
+    run("GML", registry.getDecoder(GMLGeometryDecoder.GML_LITERAL), gml, vertices, iterations);
+    run("GeoJSON", registry.getDecoder(GeoJSONGeometryDecoder.GEOJSON_LITERAL), geoJSON, vertices, iterations);
+  }
+
+  private static void run(String name, GeometryDecoder decoder, String[] literals, int vertices, int iterations)
+    throws ParseException
+  {
+    // warm up, then measure
+    decodeAll(decoder, literals, iterations);
+    long start = System.nanoTime();
+    int checksum = decodeAll(decoder, literals, iterations);
+    long elapsed = System.nanoTime() - start;
+
+    long operations = (long)literals.length * iterations;
+    System.out.println(String.format(Locale.ROOT, "%-8s %10.0f ns/op %14.0f vertices/s (checksum %d)", name,
+      (double)elapsed / operations, operations * (vertices + 1) / (elapsed / 1e9), checksum));
+  }
+
+  private static int decodeAll(GeometryDecoder decoder, String[] literals, int iterations) throws ParseException
+  {
+    int checksum = 0;
+    for (int i = 0; i < iterations; i++)
+      for (String literal : literals)
+        checksum += decoder.decode(literal, CoordinateReferenceSystem.CRS84).getNumPoints();
+    return checksum;
+  }
+
+  /**
+   * Creates a star-shaped ring around a random centre, as longitude/latitude pairs.
+   */
+  private static double[] createRing(Random random, int vertices)
+  {
+    double x = random.nextDouble() * 20 - 10;
+    double y = random.nextDouble() * 20 + 40;
+    double[] ring = new double[2 * vertices];
+    for (int i = 0; i < vertices; i++) {
+      double angle = 2 * Math.PI * i / vertices;
+      double radius = 0.01 + random.nextDouble() * 0.01;
+      ring[2 * i] = x + radius * Math.cos(angle);
+      ring[2 * i + 1] = y + radius * Math.sin(angle);
+    }
+    return ring;
+  }
+
+  private static String toWKT(double[] ring)
+  {
+    StringBuilder builder = new StringBuilder("POLYGON((");
+    for (int i = 0; i <= ring.length / 2; i++) {
+      int j = 2 * (i % (ring.length / 2));
+      builder.append(i == 0 ? "" : ", ").append(ring[j]).append(' ').append(ring[j + 1]);
+    }
+    return builder.append("))").toString();
+  }
+
+  private static String toGML(double[] ring)
+  {
+    StringBuilder builder = new StringBuilder("<gml:Polygon xmlns:gml=\"http://www.opengis.net/gml/3.2\" "
+      + "srsName=\"http://www.opengis.net/def/crs/OGC/1.3/CRS84\"><gml:exterior><gml:LinearRing><gml:posList>");
+    for (int i = 0; i <= ring.length / 2; i++) {
+      int j = 2 * (i % (ring.length / 2));
+      builder.append(i == 0 ? "" : " ").append(ring[j]).append(' ').append(ring[j + 1]);
+    }
+    return builder.append("</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon>").toString();
+  }
+
+  private static String toGeoJSON(double[] ring)
+  {
+    StringBuilder builder = new StringBuilder("{\"type\":\"Polygon\",\"coordinates\":[[");
+    for (int i = 0; i <= ring.length / 2; i++) {
+      int j = 2 * (i % (ring.length / 2));
+      builder.append(i == 0 ? "" : ",").append('[').append(ring[j]).append(',').append(ring[j + 1]).append(']');
+    }
+    return builder.append("]]}").toString();
+  }
+}
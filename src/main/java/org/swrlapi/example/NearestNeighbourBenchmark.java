@@ -0,0 +1,113 @@
+package org.swrlapi.example;
+
+import org.swrlapi.builtins.swrlgeo.nearest.FeatureSet;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures building a {@link FeatureSet} and the k-nearest-neighbour searches behind <code>st_nearest</code>, and
+ * compares them with a scan computing the distance to every feature, which is what rules emulating the search with
+ * <code>st_hasDistanceSmallerThan</code> amount to. The results of both are checked to be the same.
+ * Usage: <code>NearestNeighbourBenchmark [features] [k] [queries]</code>.
+ */
+public class NearestNeighbourBenchmark
+{
+  public static void main(String[] args)
+  {
+    int features = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    int k = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int queries = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+    GeometryFactory geometryFactory = new GeometryFactory();
+    Random random = new Random(42);
+    FeatureSet.Builder builder = new FeatureSet.Builder(features);
+    for (int i = 0; i < features; i++)
+      builder.add(createFeature(geometryFactory, random, i % 10 == 0), Integer.toString(i));
+
+    long start = System.nanoTime();
+    FeatureSet featureSet = builder.build();
+    System.out.println(String.format(Locale.ROOT, "build    %10d features %10.1f ms", features,
+      (System.nanoTime() - start) / 1e6));
+
+    Geometry[] queryGeometries = new Geometry[queries];
+    for (int i = 0; i < queries; i++)
+      queryGeometries[i] = createFeature(geometryFactory, random, false);
+
+    // warm up, then measure
+    search(featureSet, queryGeometries, k);
+    start = System.nanoTime();
+    long checksum = search(featureSet, queryGeometries, k);
+    long elapsed = System.nanoTime() - start;
+    System.out.println(String.format(Locale.ROOT, "nearest  %10d queries  %10.1f us/query (checksum %d)", queries,
+      elapsed / 1e3 / queries, checksum));
+
+    // a scan is a million distance computations per query, so a few queries give its rate
+    int scans = Math.min(queries, 20);
+    start = System.nanoTime();
+    for (int i = 0; i < scans; i++) {
+      int[] expected = scan(featureSet, queryGeometries[i], k);
+      int[] actual = featureSet.nearest(queryGeometries[i], k);
+      if (!sameDistances(featureSet, queryGeometries[i], expected, actual))
+        throw new IllegalStateException("index and scan disagree for query " + i);
+    }
+    elapsed = System.nanoTime() - start;
+    System.out.println(String.format(Locale.ROOT, "scan     %10d queries  %10.1f us/query (results agree)", scans,
+      elapsed / 1e3 / scans));
+  }
+
+  private static long search(FeatureSet featureSet, Geometry[] queries, int k)
+  {
+    long checksum = 0;
+    for (Geometry query : queries)
+      for (int index : featureSet.nearest(query, k))
+        checksum += index;
+    return checksum;
+  }
+
+  private static int[] scan(FeatureSet featureSet, Geometry query, int k)
+  {
+    double[] distances = new double[featureSet.size()];
+    Integer[] indexes = new Integer[featureSet.size()];
+    for (int i = 0; i < featureSet.size(); i++) {
+      distances[i] = featureSet.getGeometry(i).distance(query);
+      indexes[i] = i;
+    }
+    Arrays.sort(indexes, (a, b) -> Double.compare(distances[a], distances[b]));
+    int[] nearest = new int[Math.min(k, indexes.length)];
+    for (int i = 0; i < nearest.length; i++)
+      nearest[i] = indexes[i];
+    return nearest;
+  }
+
+  // features at equal distances may come in either order, so the distances are compared rather than the indexes
+  private static boolean sameDistances(FeatureSet featureSet, Geometry query, int[] expected, int[] actual)
+  {
+    if (expected.length != actual.length)
+      return false;
+    for (int i = 0; i < expected.length; i++)
+      if (featureSet.getGeometry(expected[i]).distance(query) != featureSet.getGeometry(actual[i]).distance(query))
+        return false;
+    return true;
+  }
+
+  /**
+   * Creates a point or a small square in a 100 km square of a metric working CRS.
+   */
+  private static Geometry createFeature(GeometryFactory geometryFactory, Random random, boolean polygon)
+  {
+    double x = random.nextDouble() * 100000;
+    double y = random.nextDouble() * 100000;
+    if (!polygon)
+      return geometryFactory.createPoint(new Coordinate(x, y));
+    double size = 10 + random.nextDouble() * 40;
+    return geometryFactory.createPolygon(geometryFactory.createLinearRing(new Coordinate[] {
+      new Coordinate(x, y), new Coordinate(x + size, y), new Coordinate(x + size, y + size),
+      new Coordinate(x, y + size), new Coordinate(x, y) }), null);
+  }
+}
@@ -0,0 +1,96 @@
+package org.swrlapi.example;
+
+import org.swrlapi.builtins.swrlgeo.pip.PointInPolygonKernel;
+import org.swrlapi.builtins.swrlgeo.pip.PointSet;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares testing a set of points against one polygon point by point, as a rule calling <code>st_within</code> per
+ * point does, with the batch {@link PointInPolygonKernel} behind <code>st_pointsWithin</code>.
+ * Usage: <code>PointInPolygonBenchmark [points] [polygon vertices] [iterations]</code>.
+ */
+public class PointInPolygonBenchmark
+{
+  public static void main(String[] args)
+  {
+    int points = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    int vertices = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+    GeometryFactory geometryFactory = new GeometryFactory();
+    Random random = new Random(42);
+    Geometry polygon = createPolygon(geometryFactory, random, vertices);
+
+    PointSet.Builder builder = new PointSet.Builder(points);
+    Point[] geometries = new Point[points];
+    for (int i = 0; i < points; i++) {
+      double x = random.nextDouble() * 2 - 1;
+      double y = random.nextDouble() * 2 - 1;
+      builder.add(x, y, Integer.toString(i));
+      geometries[i] = geometryFactory.createPoint(new Coordinate(x, y));
+    }
+    PointSet pointSet = builder.build();
+
+    // an unprepared relate per point is slow enough that a sample gives its rate
+    int sample = Math.min(points, 20000);
+    run("within", iterations, sample, () -> {
+      int count = 0;
+      for (int i = 0; i < sample; i++)
+        if (geometries[i].within(polygon))
+          count++;
+      return count;
+    });
+    PreparedGeometry prepared = PreparedGeometryFactory.prepare(polygon);
+    run("prepared", iterations, points, () -> {
+      int count = 0;
+      for (Point point : geometries)
+        if (prepared.contains(point))
+          count++;
+      return count;
+    });
+    run("kernel", iterations, points, () -> PointInPolygonKernel.countInterior(polygon, pointSet));
+  }
+
+  private interface Count
+  {
+    int run();
+  }
+
+  private static void run(String name, int iterations, int points, Count count)
+  {
+    // warm up, then measure
+    count.run();
+    long start = System.nanoTime();
+    int checksum = 0;
+    for (int i = 0; i < iterations; i++)
+      checksum = count.run();
+    long elapsed = System.nanoTime() - start;
+
+    System.out.println(String.format(Locale.ROOT, "%-9s %8d points %10.1f ms/pass %14.0f points/s (inside %d)", name,
+      points, elapsed / 1e6 / iterations, (double)points * iterations / (elapsed / 1e9), checksum));
+  }
+
+  /**
+   * Creates a star-shaped polygon around the origin that covers about half of the square the points are drawn from.
+   */
+  private static Geometry createPolygon(GeometryFactory geometryFactory, Random random, int vertices)
+  {
+    Coordinate[] ring = new Coordinate[vertices + 1];
+    for (int i = 0; i < vertices; i++) {
+      double angle = 2 * Math.PI * i / vertices;
+      double radius = 0.6 + random.nextDouble() * 0.3;
+      ring[i] = new Coordinate(radius * Math.cos(angle), radius * Math.sin(angle));
+    }
+    ring[vertices] = ring[0];
+    return geometryFactory.createPolygon(geometryFactory.createLinearRing(ring), null);
+  }
+}
@@ -0,0 +1,146 @@
+package org.swrlapi.example;
+
+import org.swrlapi.builtins.swrlgeoraster.SWRLGeoRasterConfiguration;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.RasterPyramid;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.RasterPyramidWriter;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TileCache;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TileEncoding;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the tile encodings of raster pyramids on a synthetic elevation model: the bytes on disk, the time to write
+ * the pyramid, the time to decode every tile of the full resolution level and the rate of sampling clusters of
+ * points through a tile cache too small to hold the level, so that every cluster decodes the tiles it touches.
+ * Usage: <code>RasterTileBenchmark [grid size] [samples] [iterations] [tile cache size]</code>.
+ */
+public class RasterTileBenchmark
+{
+  private static final int CLUSTER_SIZE = 1000;
+  private static final int CLUSTER_RADIUS = 200;
+
+  public static void main(String[] args) throws IOException
+  {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int samples = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+    // the tile cache reads its size once, so it must be set before the first pyramid is opened
+    System.setProperty(SWRLGeoRasterConfiguration.TILE_CACHE_SIZE_PROPERTY, args.length > 3 ? args[3] : "32");
+
+    RasterPyramidWriter.Grid grid = createElevationModel(size, new Random(42));
+    TileEncoding[] encodings = { TileEncoding.RAW,
+      new TileEncoding(TileEncoding.Compression.DEFLATE, TileEncoding.Predictor.NONE, 1),
+      new TileEncoding(TileEncoding.Compression.DEFLATE, TileEncoding.Predictor.NONE, 6),
+      new TileEncoding(TileEncoding.Compression.DEFLATE, TileEncoding.Predictor.FLOATING_POINT, 1),
+      new TileEncoding(TileEncoding.Compression.DEFLATE, TileEncoding.Predictor.FLOATING_POINT, 6) };
+    String[] names = { "raw", "deflate 1", "deflate 6", "deflate 1 + predictor", "deflate 6 + predictor" };
+
+    Path work = Files.createTempDirectory("swrlgeo-tiles");
+    try {
+      for (int i = 0; i < encodings.length; i++) {
+        Path directory = work.resolve("pyramid-" + i);
+        long start = System.nanoTime();
+        RasterPyramidWriter.write(directory, grid, 4326, RasterPyramidWriter.DEFAULT_TILE_SIZE, encodings[i]);
+        long written = System.nanoTime() - start;
+        try (RasterPyramid pyramid = RasterPyramid.open(directory)) {
+          run(names[i], directory, written, pyramid, samples, iterations);
+        }
+      }
+    } finally {
+      delete(work);
+    }
+  }
+
+  private static void run(String name, Path directory, long written, RasterPyramid pyramid, int samples,
+    int iterations) throws IOException
+  {
+    long bytes = Files.size(directory.resolve("level-0.tiles"));
+    int tileSize = pyramid.getTileSize();
+    int tileColumns = (pyramid.getWidth() + tileSize - 1) / tileSize;
+    int tileRows = (pyramid.getHeight() + tileSize - 1) / tileSize;
+    double bytesPerTile = (double)bytes / (tileColumns * tileRows);
+
+    // decode every tile of level 0, dropping the cached tiles before each pass
+    long decoding = 0;
+    double checksum = 0;
+    for (int pass = 0; pass <= iterations; pass++) {
+      pyramid.close();
+      long start = System.nanoTime();
+      for (int tileRow = 0; tileRow < tileRows; tileRow++)
+        for (int tileColumn = 0; tileColumn < tileColumns; tileColumn++)
+          checksum += valueOf(pyramid.getCellValue(0, tileColumn * tileSize, tileRow * tileSize));
+      if (pass > 0) // the first pass warms up
+        decoding += System.nanoTime() - start;
+    }
+    double decodedBytes = 4.0 * tileSize * tileSize * tileColumns * tileRows * iterations;
+
+    // sample clusters of points around random places, as rules sampling the features of a region do
+    Random random = new Random(7);
+    TileCache cache = TileCache.getInstance();
+    long sampling = 0, misses = 0;
+    for (int pass = 0; pass <= iterations; pass++) {
+      pyramid.close();
+      long missesBefore = cache.getMisses(), start = System.nanoTime();
+      int centerColumn = 0, centerRow = 0;
+      for (int i = 0; i < samples; i++) {
+        if (i % CLUSTER_SIZE == 0) {
+          centerColumn = random.nextInt(pyramid.getWidth());
+          centerRow = random.nextInt(pyramid.getHeight());
+        }
+        int column = centerColumn + random.nextInt(2 * CLUSTER_RADIUS + 1) - CLUSTER_RADIUS;
+        int row = centerRow + random.nextInt(2 * CLUSTER_RADIUS + 1) - CLUSTER_RADIUS;
+        checksum += valueOf(pyramid.getCellValue(0, column, row));
+      }
+      if (pass > 0) {
+        sampling += System.nanoTime() - start;
+        misses += cache.getMisses() - missesBefore;
+      }
+    }
+
+    System.out.println(String.format(Locale.ROOT,
+      "%-21s %7.1f MB level 0 %6.0f ms write | decode %7.1f ms/pass %7.0f MB/s | sample %10.0f samples/s "
+        + "%5.2f%% misses %7.1f MB read/pass (checksum %.0f)", name, bytes / 1e6,
+      written / 1e6, decoding / 1e6 / iterations, decodedBytes / 1e6 / (decoding / 1e9),
+      (double)samples * iterations / (sampling / 1e9), 100.0 * misses / ((double)samples * iterations),
+      misses * bytesPerTile / iterations / 1e6, checksum));
+  }
+
+  private static double valueOf(double value)
+  {
+    return Double.isNaN(value) ? 0 : value;
+  }
+
+  /**
+   * Creates a grid of smoothly varying heights with measurement noise and a lake without data.
+   */
+  private static RasterPyramidWriter.Grid createElevationModel(int size, Random random)
+  {
+    float noData = -9999;
+    float[] values = new float[size * size];
+    for (int row = 0; row < size; row++)
+      for (int column = 0; column < size; column++) {
+        double dx = column - size * 0.3, dy = row - size * 0.6;
+        values[row * size + column] = dx * dx + dy * dy < size * size / 100.0 ? noData : (float)(500
+          + 300 * Math.sin(column / 700.0) * Math.cos(row / 900.0) + 40 * Math.sin(column / 60.0 + row / 80.0)
+          + random.nextGaussian() * 0.05);
+      }
+    return new RasterPyramidWriter.Grid(values, size, size, 8.0, 50.0, 1.0 / size, noData);
+  }
+
+  private static void delete(Path directory) throws IOException
+  {
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries)
+        if (Files.isDirectory(entry))
+          delete(entry);
+        else
+          Files.delete(entry);
+    }
+    Files.delete(directory);
+  }
+}
@@ -0,0 +1,109 @@
+package org.swrlapi.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+import org.swrlapi.builtins.swrlgeo.optimize.RuleBodyOptimizer;
+import org.swrlapi.builtins.swrlgeo.optimize.StatisticsCostEstimator;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Runs a single SQWRL query against an ontology file and prints the result as tab-separated rows, preceded by a row of
+ * column names. Meant for short-lived batch jobs, whose startup an application class-data archive shortens.
+ * <p>
+ * Usage: <code>SQWRLQueryRunner [--timing] &lt;ontology file&gt; &lt;query | @query file&gt;</code>. With
+ * <code>--timing</code> the time spent loading the ontology, creating the query engine and running the query is
+ * printed to standard error.
+ */
+public class SQWRLQueryRunner
+{
+  public static void main(String[] args)
+  {
+    long start = System.nanoTime();
+    boolean timing = args.length > 0 && args[0].equals("--timing");
+    int first = timing ? 1 : 0;
+
+    if (args.length - first != 2) {
+      System.err.println("Usage: SQWRLQueryRunner [--timing] <ontology file> <query | @query file>");
+      System.exit(-1);
+    }
+
+    try {
+      String query = args[first + 1].startsWith("@") ?
+        new String(Files.readAllBytes(Paths.get(args[first + 1].substring(1))), StandardCharsets.UTF_8).trim() :
+        args[first + 1];
+
+      OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+      OWLOntology ontology = ontologyManager.loadOntologyFromOntologyDocument(new File(args[first]));
+      long loaded = System.nanoTime();
+
+      if (SWRLGeoConfiguration.isOptimizeRules())
+        new RuleBodyOptimizer(new StatisticsCostEstimator()).optimize(ontology);
+
+      SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+      long created = System.nanoTime();
+
+      SQWRLResult result = queryEngine.runSQWRLQuery("q", query);
+      long queried = System.nanoTime();
+
+      print(result);
+
+      if (timing)
+        System.err.println("load " + (loaded - start) / 1000000 + " ms, engine " + (created - loaded) / 1000000
+          + " ms, query " + (queried - created) / 1000000 + " ms");
+    } catch (IOException e) {
+      System.err.println("Error reading query file: " + e.getMessage());
+      System.exit(-1);
+    } catch (OWLOntologyCreationException e) {
+      System.err.println("Error loading ontology: " + e.getMessage());
+      System.exit(-1);
+    } catch (SWRLParseException e) {
+      System.err.println("Error parsing SQWRL query: " + e.getMessage());
+      System.exit(-1);
+    } catch (SQWRLException e) {
+      System.err.println("Error running SQWRL query: " + e.getMessage());
+      System.exit(-1);
+    } catch (RuntimeException e) {
+      System.err.println("Error starting application: " + e.getMessage());
+      System.exit(-1);
+    }
+  }
+
+  private static void print(SQWRLResult result) throws SQWRLException
+  {
+    System.out.println(String.join("\t", result.getColumnNames()));
+
+    StringBuilder row = new StringBuilder();
+    while (result.next()) {
+      row.setLength(0);
+      List<SQWRLResultValue> values = result.getRow();
+      for (int i = 0; i < values.size(); i++)
+        row.append(i == 0 ? "" : "\t").append(format(values.get(i)));
+      System.out.println(row);
+    }
+  }
+
+  private static String format(SQWRLResultValue value) throws SQWRLException
+  {
+    if (value.isLiteral())
+      return value.asLiteralResult().getValue();
+    else if (value.isEntity())
+      return value.asEntityResult().getPrefixedName();
+    else
+      return value.toString();
+  }
+}
@@ -0,0 +1,70 @@
+package org.swrlapi.builtins;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.factory.SWRLAPIInternalFactory;
+import org.swrlapi.factory.SWRLBuiltInArgumentFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Built-in arguments for invoking built-in methods directly in tests.
+ */
+public final class BuiltInArguments
+{
+  /** The IRI of the GeoSPARQL WKT literal datatype. */
+  public static final String WKT_LITERAL = "http://www.opengis.net/ont/geosparql#wktLiteral";
+
+  private static final OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
+  private static final SWRLBuiltInArgumentFactory argumentFactory = SWRLAPIInternalFactory
+    .createSWRLBuiltInArgumentFactory(SWRLAPIFactory.createIRIResolver());
+
+  private BuiltInArguments()
+  {
+  }
+
+  /**
+   * @return a mutable list of the arguments, as the rule engine passes them
+   */
+  public static List<SWRLBuiltInArgument> arguments(SWRLBuiltInArgument... arguments)
+  {
+    return new ArrayList<>(Arrays.asList(arguments));
+  }
+
+  public static SWRLBuiltInArgument wkt(String wkt)
+  {
+    return literal(wkt, WKT_LITERAL);
+  }
+
+  public static SWRLBuiltInArgument literal(String lexicalForm, String datatype)
+  {
+    return argumentFactory
+      .getLiteralBuiltInArgument(dataFactory.getOWLLiteral(lexicalForm, dataFactory.getOWLDatatype(IRI.create(datatype))));
+  }
+
+  public static SWRLBuiltInArgument number(double value)
+  {
+    return argumentFactory.getLiteralBuiltInArgument(dataFactory.getOWLLiteral(value));
+  }
+
+  public static SWRLBuiltInArgument integer(int value)
+  {
+    // getArgumentAsAnInt expects xsd:int, while OWLDataFactory.getOWLLiteral(int) types the literal xsd:integer
+    return literal(Integer.toString(value), "http://www.w3.org/2001/XMLSchema#int");
+  }
+
+  public static SWRLBuiltInArgument string(String value)
+  {
+    return argumentFactory.getLiteralBuiltInArgument(dataFactory.getOWLLiteral(value));
+  }
+
+  public static SWRLBuiltInArgument unbound(String name)
+  {
+    return argumentFactory.getUnboundVariableBuiltInArgument(IRI.create("urn:swrl:variable#" + name));
+  }
+}
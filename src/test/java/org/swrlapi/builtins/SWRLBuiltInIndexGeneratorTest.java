@@ -0,0 +1,86 @@
+package org.swrlapi.builtins;
+
+import org.junit.Test;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.indextest.SWRLBuiltInLibraryImplIndex;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.arguments;
+import static org.swrlapi.builtins.BuiltInArguments.string;
+import static org.swrlapi.builtins.BuiltInArguments.unbound;
+
+public class SWRLBuiltInIndexGeneratorTest
+{
+  @Test public void indexAndDescriptorAreGeneratedFromTheLibrary() throws Exception
+  {
+    Path sourceDirectory = Files.createTempDirectory("index-sources");
+    Path classDirectory = Files.createTempDirectory("index-classes");
+    try {
+      SWRLBuiltInIndexGenerator.generate("swrlgeotime", sourceDirectory, classDirectory);
+
+      String source = new String(Files.readAllBytes(
+        sourceDirectory.resolve("org/swrlapi/builtins/swrlgeotime/SWRLBuiltInLibraryImplIndex.java")),
+        StandardCharsets.UTF_8);
+      assertTrue(source, source.contains("case \"stt_intersects\":\n      return 6;"));
+      assertTrue(source, source.contains("case \"stt_relate\":\n      return implementation.stt_relate(arguments);"));
+
+      try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classDirectory.toUri().toURL() }, null)) {
+        Optional<SWRLBuiltInLibraryDescriptor> descriptor = SWRLBuiltInLibraryDescriptor
+          .read("org.swrlapi.builtins.swrlgeotime", "swrlgeotime", classLoader);
+        assertTrue(descriptor.isPresent());
+        assertEquals(3, descriptor.get().getBuiltInNames().size());
+        assertTrue(descriptor.get().getPureBuiltInNames().contains("stt_relate"));
+        assertEquals("org.swrlapi.builtins.swrlgeotime.SWRLBuiltInLibraryImplIndex",
+          descriptor.get().getIndexClassName().orElse(null));
+      }
+    } finally {
+      delete(sourceDirectory);
+      delete(classDirectory);
+    }
+  }
+
+  @Test public void indexedBuiltInsAreDispatchedThroughTheIndex() throws Exception
+  {
+    // the test library is on the class path, so an empty sub-directory named after its prefix registers it
+    Path directory = Files.createTempDirectory("builtins");
+    Files.createDirectory(directory.resolve("indextest"));
+    try {
+      SWRLBuiltInLibraryManager manager = new SWRLBuiltInLibraryManager();
+      manager.loadExternalSWRLBuiltInLibraries(directory.toFile());
+      TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge(manager);
+      int invocations = SWRLBuiltInLibraryImplIndex.invocations.get();
+
+      List<List<SWRLBuiltInArgument>> patterns = bridge
+        .invokeSWRLBuiltIn("test", "indextest:upperCase", 0, false, arguments(unbound("x"), string("abc")));
+      assertEquals(invocations + 1, SWRLBuiltInLibraryImplIndex.invocations.get());
+      assertEquals(1, patterns.size());
+      // the result bound through the dispatched arguments reaches the arguments of the rule engine
+      assertEquals("ABC", patterns.get(0).get(0).asSWRLLiteralBuiltInArgument().getLiteral().getLiteral());
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private static void delete(Path directory) throws IOException
+  {
+    List<Path> paths;
+    try (Stream<Path> walk = Files.walk(directory)) {
+      paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    }
+    for (Path path : paths)
+      Files.delete(path);
+  }
+}
@@ -0,0 +1,73 @@
+package org.swrlapi.builtins;
+
+import org.junit.Test;
+import org.swrlapi.exceptions.SWRLBuiltInLibraryException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SWRLBuiltInLibraryDescriptorTest
+{
+  @Test public void writtenDescriptorsAreReadBack() throws Exception
+  {
+    Path directory = Files.createTempDirectory("descriptors");
+    try {
+      new SWRLBuiltInLibraryDescriptor("example", "http://example.org/builtins#",
+        new HashSet<>(Arrays.asList("first", "second")), Collections.singleton("first"), "org.example.Index")
+        .write(directory, "org.example");
+
+      try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, null)) {
+        SWRLBuiltInLibraryDescriptor descriptor = SWRLBuiltInLibraryDescriptor
+          .read("org.example", "example", classLoader).get();
+        assertEquals("example", descriptor.getPrefix());
+        assertEquals("http://example.org/builtins#", descriptor.getNamespace());
+        assertEquals(new HashSet<>(Arrays.asList("first", "second")), descriptor.getBuiltInNames());
+        assertEquals(Collections.singleton("first"), descriptor.getPureBuiltInNames());
+        assertEquals(Optional.of("org.example.Index"), descriptor.getIndexClassName());
+
+        assertFalse(SWRLBuiltInLibraryDescriptor.read("org.other", "other", classLoader).isPresent());
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test public void descriptorsWithoutNamespaceAreRejected() throws Exception
+  {
+    Path directory = Files.createTempDirectory("descriptors");
+    try {
+      Path descriptor = directory.resolve("org/example/" + SWRLBuiltInLibraryDescriptor.DESCRIPTOR_RESOURCE_NAME);
+      Files.createDirectories(descriptor.getParent());
+      Files.write(descriptor, "builtIns=first, ,second\n".getBytes(StandardCharsets.ISO_8859_1));
+
+      try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, null)) {
+        SWRLBuiltInLibraryDescriptor.read("org.example", "example", classLoader);
+        assertTrue("expected a descriptor without namespace to be rejected", false);
+      } catch (SWRLBuiltInLibraryException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("no namespace"));
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private static void delete(Path directory) throws Exception
+  {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+}
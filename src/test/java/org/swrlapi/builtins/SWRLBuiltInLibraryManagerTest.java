@@ -0,0 +1,136 @@
+package org.swrlapi.builtins;
+
+import org.junit.Test;
+import org.swrlapi.builtins.puretest.SWRLBuiltInLibraryImpl;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.arguments;
+import static org.swrlapi.builtins.BuiltInArguments.string;
+import static org.swrlapi.builtins.BuiltInArguments.unbound;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class SWRLBuiltInLibraryManagerTest
+{
+  @Test public void pureBuiltInReturningUnboundArgumentsFails() throws Exception
+  {
+    Path directory = createLibraryDirectory();
+    try {
+      TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge(loadTestLibrary(directory));
+
+      assertTrue(bridge.invoke("puretest:anything", wkt("POINT(0 0)")));
+      try {
+        bridge.invoke("puretest:anything", unbound("g"));
+        assertTrue("expected unbound arguments to be reported", false);
+      } catch (SWRLBuiltInException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("returned with unbound arguments"));
+      }
+    } finally {
+      deleteLibraryDirectory(directory);
+    }
+  }
+
+  @Test public void degradedResultsAreNotMemoized() throws Exception
+  {
+    Path directory = createLibraryDirectory();
+    String memoizedPrefixes = System.getProperty(SWRLBuiltInLibraryManager.MEMOIZED_LIBRARY_PREFIXES_PROPERTY);
+    System.setProperty(SWRLBuiltInLibraryManager.MEMOIZED_LIBRARY_PREFIXES_PROPERTY, "puretest");
+    try {
+      SWRLBuiltInLibraryManager manager = loadTestLibrary(directory);
+      TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge(manager);
+      int invocations = SWRLBuiltInLibraryImpl.invocations.get();
+
+      for (int i = 0; i < 3; i++) {
+        assertTrue(bridge.invoke("puretest:anything", wkt("POINT(0 0)")));
+        assertTrue(bridge.invoke("puretest:approximately", wkt("POINT(0 0)")));
+      }
+      assertEquals(invocations + 4, SWRLBuiltInLibraryImpl.invocations.get());
+      assertEquals(2, manager.getMemoizedInvocationCount());
+    } finally {
+      if (memoizedPrefixes == null)
+        System.clearProperty(SWRLBuiltInLibraryManager.MEMOIZED_LIBRARY_PREFIXES_PROPERTY);
+      else
+        System.setProperty(SWRLBuiltInLibraryManager.MEMOIZED_LIBRARY_PREFIXES_PROPERTY, memoizedPrefixes);
+      deleteLibraryDirectory(directory);
+    }
+  }
+
+  @Test public void consequentInvocationsAreNotMemoized() throws Exception
+  {
+    TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge();
+    for (int i = 0; i < 2; i++)
+      bridge.invokeSWRLBuiltIn("test", "swrlgeo:st_intersects", 0, true,
+        arguments(wkt("POINT(21 21)"), wkt("POLYGON((20 20,22 20,22 22,20 22,20 20))")));
+    assertEquals(2, bridge.getManager().getBuiltInInvocationCount());
+    assertEquals(0, bridge.getManager().getMemoizedInvocationCount());
+  }
+
+  @Test public void boundInvocationsAreMemoizedPerSession() throws Exception
+  {
+    TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge();
+    SWRLBuiltInLibraryManager manager = bridge.getManager();
+
+    assertTrue(bridge.invoke("swrlgeo:st_intersects", wkt("POINT(1 1)"), wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))")));
+    assertTrue(bridge.invoke("swrlgeo:st_intersects", wkt("POINT(1 1)"), wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))")));
+    assertFalse(bridge.invoke("swrlgeo:st_intersects", wkt("POINT(3 3)"), wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))")));
+    assertFalse(bridge.invoke("swrlgeo:st_intersects", wkt("POINT(3 3)"), wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))")));
+    assertEquals(4, manager.getBuiltInInvocationCount());
+    assertEquals(2, manager.getMemoizedInvocationCount());
+
+    manager.endSession();
+    assertTrue(bridge.invoke("swrlgeo:st_intersects", wkt("POINT(1 1)"), wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))")));
+    assertEquals(0, manager.getMemoizedInvocationCount());
+  }
+
+  @Test public void describedLibrariesAreInstantiatedOnFirstUse() throws Exception
+  {
+    Path directory = createLibraryDirectory();
+    Files.createDirectory(directory.resolve("indextest"));
+    try {
+      int instances = org.swrlapi.builtins.indextest.SWRLBuiltInLibraryImpl.instances.get();
+      SWRLBuiltInLibraryManager manager = loadTestLibrary(directory);
+
+      // both libraries are registered, but only the one without a descriptor has been instantiated
+      assertTrue(manager.isSWRLBuiltIn("indextest:upperCase"));
+      assertTrue(manager.isSWRLBuiltIn("puretest:anything"));
+      assertEquals(instances, org.swrlapi.builtins.indextest.SWRLBuiltInLibraryImpl.instances.get());
+
+      TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge(manager);
+      for (int i = 0; i < 2; i++)
+        assertEquals(1,
+          bridge.invokeSWRLBuiltIn("test", "indextest:upperCase", 0, false, arguments(unbound("x"), string("a")))
+            .size());
+      assertEquals(instances + 1, org.swrlapi.builtins.indextest.SWRLBuiltInLibraryImpl.instances.get());
+    } finally {
+      Files.delete(directory.resolve("indextest"));
+      deleteLibraryDirectory(directory);
+    }
+  }
+
+  // the test library is on the class path, so an empty sub-directory named after its prefix registers it
+  private static Path createLibraryDirectory() throws IOException
+  {
+    Path directory = Files.createTempDirectory("builtins");
+    Files.createDirectory(directory.resolve("puretest"));
+    return directory;
+  }
+
+  private static SWRLBuiltInLibraryManager loadTestLibrary(Path directory)
+  {
+    SWRLBuiltInLibraryManager manager = new SWRLBuiltInLibraryManager();
+    manager.loadExternalSWRLBuiltInLibraries(directory.toFile());
+    return manager;
+  }
+
+  private static void deleteLibraryDirectory(Path directory) throws IOException
+  {
+    Files.delete(directory.resolve("puretest"));
+    Files.delete(directory);
+  }
+}
@@ -0,0 +1,100 @@
+package org.swrlapi.builtins;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.core.IRIResolver;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.factory.SWRLAPIInternalFactory;
+import org.swrlapi.factory.SWRLAPIOWLDataFactory;
+import org.swrlapi.sqwrl.SQWRLResultGenerator;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.swrlapi.builtins.BuiltInArguments.arguments;
+
+/**
+ * A built-in bridge without a rule engine, invoking built-ins through a {@link SWRLBuiltInLibraryManager} as the rule
+ * engine bridge does.
+ */
+public final class TestSWRLBuiltInBridge implements SWRLBuiltInBridge
+{
+  private final SWRLBuiltInLibraryManager manager;
+  private final IRIResolver iriResolver = SWRLAPIFactory.createIRIResolver();
+  private final SWRLAPIOWLDataFactory dataFactory = SWRLAPIInternalFactory.createSWRLAPIOWLDataFactory(this.iriResolver);
+  private final OWLOntology ontology;
+  private final Set<OWLAxiom> injectedAxioms = new HashSet<>();
+
+  public TestSWRLBuiltInBridge()
+  {
+    this(new SWRLBuiltInLibraryManager());
+  }
+
+  public TestSWRLBuiltInBridge(SWRLBuiltInLibraryManager manager)
+  {
+    this.manager = manager;
+    try {
+      this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    } catch (OWLOntologyCreationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @param prefixedName the prefixed name of a built-in, e.g. <code>swrlgeo:st_intersects</code>
+   * @param arguments the built-in arguments
+   * @return true if the built-in is satisfied
+   * @throws SWRLBuiltInException if the built-in fails
+   */
+  public boolean invoke(String prefixedName, SWRLBuiltInArgument... arguments) throws SWRLBuiltInException
+  {
+    return !invokeSWRLBuiltIn("test", prefixedName, 0, false, arguments(arguments)).isEmpty();
+  }
+
+  public SWRLBuiltInLibraryManager getManager()
+  {
+    return this.manager;
+  }
+
+  @Override public OWLOntology getOWLOntology()
+  {
+    return this.ontology;
+  }
+
+  @Override public SQWRLResultGenerator getSQWRLResultGenerator(String queryName) throws SQWRLException
+  {
+    throw new SQWRLException("no SQWRL query " + queryName);
+  }
+
+  @Override public SWRLAPIOWLDataFactory getSWRLAPIOWLDataFactory()
+  {
+    return this.dataFactory;
+  }
+
+  @Override public IRIResolver getIRIResolver()
+  {
+    return this.iriResolver;
+  }
+
+  @Override public List<List<SWRLBuiltInArgument>> invokeSWRLBuiltIn(String ruleName, String builtInName,
+    int builtInIndex, boolean isInConsequent, List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    return this.manager.invokeSWRLBuiltIn(this, ruleName, builtInName, builtInIndex, isInConsequent, arguments);
+  }
+
+  @Override public void injectOWLAxiom(OWLAxiom axiom)
+  {
+    this.injectedAxioms.add(axiom);
+  }
+
+  public Set<OWLAxiom> getInjectedAxioms()
+  {
+    return this.injectedAxioms;
+  }
+}
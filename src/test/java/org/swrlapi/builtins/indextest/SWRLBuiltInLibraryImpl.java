@@ -0,0 +1,38 @@
+package org.swrlapi.builtins.indextest;
+
+import org.swrlapi.builtins.AbstractIndexedSWRLBuiltInLibrary;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An indexed library with a built-in that binds its first argument, for testing dispatch through a
+ * {@link org.swrlapi.builtins.SWRLBuiltInIndex}.
+ */
+public class SWRLBuiltInLibraryImpl extends AbstractIndexedSWRLBuiltInLibrary
+{
+  /** The number of instances created, for testing that the library is only instantiated on first use. */
+  public static final AtomicInteger instances = new AtomicInteger();
+
+  public SWRLBuiltInLibraryImpl()
+  {
+    super("indextest", "http://example.org/indextest#", Collections.singleton("upperCase"));
+    instances.incrementAndGet();
+  }
+
+  @Override public void reset() { }
+
+  @Override public int getBuiltInArity(String builtInName)
+  {
+    return builtInName.equals("upperCase") ? 2 : -1;
+  }
+
+  public boolean upperCase(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    checkNumberOfArgumentsEqualTo(arguments.size(), 2);
+    return processResultArgument(arguments, 0, getArgumentAsAString(1, arguments).toUpperCase());
+  }
+}
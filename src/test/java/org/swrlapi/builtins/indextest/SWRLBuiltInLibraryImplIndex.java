@@ -0,0 +1,42 @@
+package org.swrlapi.builtins.indextest;
+
+import org.swrlapi.builtins.SWRLBuiltInIndex;
+import org.swrlapi.builtins.SWRLBuiltInLibrary;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The index {@link org.swrlapi.builtins.SWRLBuiltInIndexGenerator} would generate for the test library, counting the
+ * built-ins it dispatches.
+ */
+public final class SWRLBuiltInLibraryImplIndex implements SWRLBuiltInIndex
+{
+  public static final AtomicInteger invocations = new AtomicInteger();
+
+  @Override public Set<String> getBuiltInNames()
+  {
+    return Collections.singleton("upperCase");
+  }
+
+  @Override public int getArity(String builtInName)
+  {
+    return builtInName.equals("upperCase") ? 2 : -1;
+  }
+
+  @Override public boolean invoke(SWRLBuiltInLibrary library, String builtInName,
+    List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    invocations.incrementAndGet();
+    switch (builtInName) {
+    case "upperCase":
+      return ((SWRLBuiltInLibraryImpl)library).upperCase(arguments);
+    default:
+      throw new SWRLBuiltInException("built-in " + builtInName + " is not indexed in library indextest");
+    }
+  }
+}
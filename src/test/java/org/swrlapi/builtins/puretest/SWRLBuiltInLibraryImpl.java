@@ -0,0 +1,61 @@
+package org.swrlapi.builtins.puretest;
+
+import org.swrlapi.builtins.AbstractSWRLBuiltInLibrary;
+import org.swrlapi.builtins.PureSWRLBuiltInLibrary;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A library of pure built-ins that are satisfied whatever their arguments, including unbound ones, for testing how
+ * the {@link org.swrlapi.builtins.SWRLBuiltInLibraryManager} treats pure built-ins and memoizes their results.
+ */
+public class SWRLBuiltInLibraryImpl extends AbstractSWRLBuiltInLibrary implements PureSWRLBuiltInLibrary
+{
+  private static final Set<String> BuiltInNames = Collections
+    .unmodifiableSet(new HashSet<>(Arrays.asList("anything", "approximately")));
+
+  public static final AtomicInteger invocations = new AtomicInteger();
+
+  private boolean lastResultDegraded;
+
+  public SWRLBuiltInLibraryImpl()
+  {
+    super("puretest", "http://example.org/puretest#", BuiltInNames);
+  }
+
+  @Override public void reset() { }
+
+  @Override public Set<String> getPureBuiltInNames()
+  {
+    return BuiltInNames;
+  }
+
+  @Override public boolean isLastResultDegraded()
+  {
+    return this.lastResultDegraded;
+  }
+
+  public boolean anything(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    invocations.incrementAndGet();
+    this.lastResultDegraded = false;
+    return true;
+  }
+
+  /**
+   * Satisfied, but with a result reported as degraded, as if it had been approximated.
+   */
+  public boolean approximately(List<SWRLBuiltInArgument> arguments) throws SWRLBuiltInException
+  {
+    invocations.incrementAndGet();
+    this.lastResultDegraded = true;
+    return true;
+  }
+}
@@ -0,0 +1,66 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest
+{
+  @Test public void leastRecentlyUsedEntryIsEvicted()
+  {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.get("a");
+    cache.put("c", 3);
+
+    assertTrue(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    assertTrue(cache.containsKey("c"));
+  }
+
+  @Test public void peekDoesNotChangeEvictionOrder()
+  {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    assertEquals(Integer.valueOf(1), cache.peek("a"));
+    cache.put("c", 3);
+
+    assertFalse(cache.containsKey("a"));
+    assertTrue(cache.containsKey("b"));
+    assertEquals(0, cache.getHits() + cache.getMisses());
+  }
+
+  @Test public void taggedEntriesAreRemovedTogether()
+  {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(10, key -> Arrays.asList(key.split("\\+")));
+    cache.put("a+b", 1);
+    cache.put("b+c", 2);
+    cache.put("c+d", 3);
+
+    assertEquals(2, cache.removeTagged("b"));
+    assertFalse(cache.containsKey("a+b"));
+    assertFalse(cache.containsKey("b+c"));
+    assertTrue(cache.containsKey("c+d"));
+    assertEquals(0, cache.removeTagged("b"));
+  }
+
+  @Test public void evictedEntriesAreNoLongerTagged()
+  {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(1, key -> Arrays.asList(key.split("\\+")));
+    cache.put("a+b", 1);
+    cache.put("c+d", 2);
+    cache.put("a+b", 3);
+
+    // the first entry for a+b was evicted; only its re-insertion is removed
+    assertEquals(1, cache.removeTagged("a"));
+    assertNull(cache.peek("a+b"));
+    assertEquals(0, cache.size());
+  }
+}
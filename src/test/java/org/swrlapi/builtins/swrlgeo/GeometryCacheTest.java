@@ -0,0 +1,30 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GeometryCacheTest
+{
+  private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+  @Test public void changedLiteralIsDroppedForAllCRSs()
+  {
+    GeometryCache cache = new GeometryCache(100);
+    Geometry point = geometryFactory.createPoint(new Coordinate(8, 50));
+    cache.put("POINT(8 50)", 4326, point);
+    cache.put("POINT(8 50)", 25832, point);
+    cache.put("POINT(9 50)", 4326, point);
+
+    cache.geometryChanged("POINT(8 50)");
+
+    assertNull(cache.peek("POINT(8 50)", 4326));
+    assertNull(cache.peek("POINT(8 50)", 25832));
+    assertNotNull(cache.peek("POINT(9 50)", 4326));
+  }
+}
@@ -0,0 +1,66 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Envelope;
+import org.junit.Test;
+import org.swrlapi.builtins.TestSWRLBuiltInBridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.number;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class GeometryIndexTest
+{
+  private final TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge();
+
+  @Test public void envelopeDistanceOfIndexedLiterals()
+  {
+    GeometryIndex index = GeometryIndex.getInstance();
+    try {
+      index.insert("a", new Envelope(0, 1, 0, 1));
+      index.insert("b", new Envelope(4, 5, 0, 1));
+      index.insert("c", new Envelope(1, 2, 1, 2));
+      assertEquals(3.0, index.getEnvelopeDistance("a", "b"), 0.0);
+      assertEquals(0.0, index.getEnvelopeDistance("a", "c"), 0.0);
+      assertEquals(-1.0, index.getEnvelopeDistance("a", "d"), 0.0);
+      index.geometryChanged("b");
+      assertEquals(-1.0, index.getEnvelopeDistance("a", "b"), 0.0);
+    } finally {
+      index.clear();
+    }
+  }
+
+  @Test public void indexedPairsApartAreAnsweredWithoutParsing() throws Exception
+  {
+    // neither literal parses, so only the index can answer
+    GeometryIndex index = GeometryIndex.getInstance();
+    try {
+      index.insert("POINT(unparsable 1)", new Envelope(0, 1, 0, 1));
+      index.insert("POINT(unparsable 2)", new Envelope(4, 5, 0, 1));
+      assertFalse(this.bridge.invoke("swrlgeo:st_intersects", wkt("POINT(unparsable 1)"), wkt("POINT(unparsable 2)")));
+      assertFalse(this.bridge.invoke("swrlgeo:st_within", wkt("POINT(unparsable 1)"), wkt("POINT(unparsable 2)")));
+      assertTrue(this.bridge.invoke("swrlgeo:st_disjoint", wkt("POINT(unparsable 1)"), wkt("POINT(unparsable 2)")));
+      assertFalse(this.bridge.invoke("swrlgeo:st_isWithinDistance", wkt("POINT(unparsable 1)"),
+        wkt("POINT(unparsable 2)"), number(2.5)));
+    } finally {
+      index.clear();
+    }
+  }
+
+  @Test public void indexedPairsThatMeetAreEvaluated() throws Exception
+  {
+    GeometryIndex index = GeometryIndex.getInstance();
+    try {
+      index.insert("POLYGON((0 0,2 0,2 2,0 2,0 0))", new Envelope(0, 2, 0, 2));
+      index.insert("POINT(1 1)", new Envelope(1, 1, 1, 1));
+      index.insert("POINT(1.9 1.9)", new Envelope(1.9, 1.9, 1.9, 1.9));
+      assertTrue(this.bridge.invoke("swrlgeo:st_within", wkt("POINT(1 1)"), wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))")));
+      assertFalse(this.bridge.invoke("swrlgeo:st_equals", wkt("POINT(1 1)"), wkt("POINT(1.9 1.9)")));
+      assertTrue(this.bridge.invoke("swrlgeo:st_isWithinDistance", wkt("POINT(1 1)"), wkt("POINT(1.9 1.9)"),
+        number(1.5)));
+    } finally {
+      index.clear();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryNormalizerTest
+{
+  private final WKTReader reader = new WKTReader();
+
+  @Test public void bowTieIsRepairedWithBothLobes() throws Exception
+  {
+    Geometry bowTie = this.reader.read("POLYGON((0 0,2 2,2 0,0 2,0 0))");
+    assertFalse(bowTie.isValid());
+
+    Geometry repaired = new GeometryNormalizer(0, true).normalize(bowTie);
+    assertTrue(repaired.isValid());
+    assertEquals(2.0, repaired.getArea(), 1e-9);
+  }
+
+  @Test public void coordinatesAreSnappedToThePrecisionModel() throws Exception
+  {
+    Geometry point = this.reader.read("POINT(1.0004 2.0006)");
+    point.setSRID(25832);
+
+    Geometry snapped = new GeometryNormalizer(1000, false).normalize(point);
+    Coordinate coordinate = snapped.getCoordinate();
+    assertEquals(1.0, coordinate.x, 1e-12);
+    assertEquals(2.001, coordinate.y, 1e-12);
+    assertEquals(25832, snapped.getSRID());
+  }
+
+  @Test public void nearlyCoincidentEdgesBecomeTouching() throws Exception
+  {
+    // the gap of 1e-7 between the squares closes at millimetre precision
+    Geometry left = this.reader.read("POLYGON((0 0,1 0,1 1,0 1,0 0))");
+    Geometry right = this.reader.read("POLYGON((1.0000001 0,2 0,2 1,1.0000001 1,1.0000001 0))");
+    assertFalse(left.touches(right));
+
+    GeometryNormalizer normalizer = new GeometryNormalizer(1000, true);
+    assertTrue(normalizer.normalize(left).touches(normalizer.normalize(right)));
+  }
+
+  @Test public void disabledNormalizerKeepsGeometries() throws Exception
+  {
+    GeometryNormalizer normalizer = new GeometryNormalizer(0, false);
+    assertFalse(normalizer.isEnabled());
+    Geometry point = this.reader.read("POINT(1.0004 2.0006)");
+    assertEquals(1.0004, normalizer.normalize(point).getCoordinate().x, 0.0);
+  }
+}
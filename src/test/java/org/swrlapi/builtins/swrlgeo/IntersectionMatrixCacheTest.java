@@ -0,0 +1,37 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.geom.IntersectionMatrix;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class IntersectionMatrixCacheTest
+{
+  @Test public void reversedPairIsAnsweredWithTheTransposedMatrix()
+  {
+    IntersectionMatrixCache cache = new IntersectionMatrixCache(100);
+    // a polygon containing a point
+    cache.put("polygon", "point", new IntersectionMatrix("0F2FF1FF2"));
+
+    assertEquals("0F2FF1FF2", cache.get("polygon", "point").toString());
+    assertEquals("0FFFFF212", cache.get("point", "polygon").toString());
+    // transposing the reverse matrix leaves the cached one as it was
+    assertEquals("0F2FF1FF2", cache.get("polygon", "point").toString());
+  }
+
+  @Test public void changedLiteralDropsItsPairsInBothOrders()
+  {
+    IntersectionMatrixCache cache = new IntersectionMatrixCache(100);
+    cache.put("a", "b", new IntersectionMatrix("FF2FF1212"));
+    cache.put("c", "a", new IntersectionMatrix("FF2FF1212"));
+    cache.put("b", "c", new IntersectionMatrix("FF2FF1212"));
+
+    cache.geometryChanged("a");
+
+    assertNull(cache.get("a", "b"));
+    assertNull(cache.get("a", "c"));
+    assertNotNull(cache.get("c", "b"));
+  }
+}
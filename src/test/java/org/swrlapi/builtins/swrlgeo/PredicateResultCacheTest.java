@@ -0,0 +1,54 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.junit.Test;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.swrlapi.builtins.BuiltInArguments.arguments;
+import static org.swrlapi.builtins.BuiltInArguments.unbound;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class PredicateResultCacheTest
+{
+  private static final String A = "POINT(1 1)";
+  private static final String B = "POLYGON((0 0,2 0,2 2,0 2,0 0))";
+  private static final String C = "POLYGON((5 5,6 5,6 6,5 6,5 5))";
+
+  @Test public void changedLiteralDropsOnlyResultsMentioningIt()
+  {
+    PredicateResultCache cache = new PredicateResultCache(100);
+    cache.put(key("st_within", A, B), true);
+    cache.put(key("st_within", A, C), false);
+    cache.put(key("st_intersects", B, C), false);
+
+    cache.geometryChanged(C);
+
+    assertEquals(Boolean.TRUE, cache.get(key("st_within", A, B)));
+    assertNull(cache.get(key("st_within", A, C)));
+    assertNull(cache.get(key("st_intersects", B, C)));
+  }
+
+  @Test public void symmetricPredicatesShareTheirResult()
+  {
+    PredicateResultCache cache = new PredicateResultCache(100);
+    cache.put(key("st_intersects", B, C), false);
+
+    assertEquals(Boolean.FALSE, cache.get(key("st_intersects", C, B)));
+    assertNull(cache.get(key("st_within", C, B)));
+  }
+
+  @Test public void unboundArgumentsHaveNoKey()
+  {
+    List<SWRLBuiltInArgument> arguments = arguments(wkt(A), unbound("g"));
+
+    assertNull(PredicateResultCache.createKey("st_within", arguments));
+  }
+
+  private static PredicateResultCache.Key key(String builtInName, String literal1, String literal2)
+  {
+    return PredicateResultCache.createKey(builtInName, arguments(wkt(literal1), wkt(literal2)));
+  }
+}
@@ -0,0 +1,60 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.junit.Test;
+import org.swrlapi.builtins.TestSWRLBuiltInBridge;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.number;
+import static org.swrlapi.builtins.BuiltInArguments.string;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class SWRLBuiltInLibraryImplTest
+{
+  private final TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge();
+
+  @Test public void hausdorffDistanceEqualsKnownDistance() throws Exception
+  {
+    // every point of either line is 3 degrees from the other line
+    assertTrue(this.bridge.invoke("swrlgeo:st_hasHausdorffDistanceEqualTo", wkt("LINESTRING(0 0,10 0)"),
+      wkt("LINESTRING(0 3,10 3)"), number(3.0)));
+    assertFalse(this.bridge.invoke("swrlgeo:st_hasHausdorffDistanceEqualTo", wkt("LINESTRING(0 0,10 0)"),
+      wkt("LINESTRING(0 3,10 3)"), number(2.5)));
+  }
+
+  @Test public void relateMatchesIntersectionPatterns() throws Exception
+  {
+    String polygon = "POLYGON((0 0,4 0,4 4,0 4,0 0))";
+    // contains, within and touches as DE-9IM patterns
+    assertTrue(this.bridge.invoke("swrlgeo:st_relate", wkt(polygon), wkt("POINT(2 2)"), string("T*****FF*")));
+    assertTrue(this.bridge.invoke("swrlgeo:st_relate", wkt("POINT(2 2)"), wkt(polygon), string("T*F**F***")));
+    assertFalse(this.bridge.invoke("swrlgeo:st_relate", wkt("POINT(2 2)"), wkt(polygon), string("FT*******")));
+    assertTrue(this.bridge.invoke("swrlgeo:st_relate", wkt("POINT(4 2)"), wkt(polygon), string("FT*******")));
+  }
+
+  @Test public void relateRejectsMalformedPatterns() throws Exception
+  {
+    for (String pattern : new String[] { "T*F**F**", "T*F**F**X" })
+      try {
+        this.bridge.invoke("swrlgeo:st_relate", wkt("POINT(1 1)"), wkt("POINT(1 1)"), string(pattern));
+        assertTrue("expected pattern " + pattern + " to be rejected", false);
+      } catch (SWRLBuiltInException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains(pattern));
+      }
+  }
+
+  @Test public void topologicalPredicatesShareTheIntersectionMatrix() throws Exception
+  {
+    String polygon = "POLYGON((10 10,14 10,14 14,10 14,10 10))";
+    BoundedCache<?, ?> matrices = IntersectionMatrixCache.getInstance().getEntries();
+    assertTrue(this.bridge.invoke("swrlgeo:st_contains", wkt(polygon), wkt("POINT(12 12)")));
+    long hits = matrices.getHits();
+
+    // the same pair and the reversed pair are answered from the cached matrix
+    assertTrue(this.bridge.invoke("swrlgeo:st_covers", wkt(polygon), wkt("POINT(12 12)")));
+    assertTrue(this.bridge.invoke("swrlgeo:st_within", wkt("POINT(12 12)"), wkt(polygon)));
+    assertEquals(hits + 2, matrices.getHits());
+  }
+}
@@ -0,0 +1,98 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.search.EntitySearcher;
+import org.swrlapi.builtins.swrlgeo.optimize.BuiltInEstimate;
+import org.swrlapi.builtins.swrlgeo.optimize.MetadataCostEstimator;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SWRLGeoBuiltInsTest
+{
+  @Test public void metadataListsExactlyTheImplementedBuiltIns()
+  {
+    Set<String> implemented = new TreeSet<>();
+    for (Method method : SWRLBuiltInLibraryImpl.class.getMethods())
+      if (method.getName().startsWith("st_") && Modifier.isPublic(method.getModifiers())
+        && method.getReturnType() == boolean.class && method.getParameterTypes().length == 1
+        && method.getParameterTypes()[0] == List.class)
+        implemented.add(method.getName());
+
+    assertEquals(implemented, new TreeSet<>(SWRLGeoBuiltIns.getNames()));
+  }
+
+  @Test public void ontologyDeclaresTheBuiltInsWithTheirArity() throws Exception
+  {
+    OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    OWLOntology ontology;
+    try (InputStream in = getClass().getResourceAsStream("/owl/swrlgeo.owl")) {
+      ontology = manager.loadOntologyFromOntologyDocument(in);
+    }
+    OWLDataFactory dataFactory = manager.getOWLDataFactory();
+    OWLDataProperty minArgs = dataFactory.getOWLDataProperty(IRI.create("http://www.w3.org/2003/11/swrlb#minArgs"));
+    OWLDataProperty maxArgs = dataFactory.getOWLDataProperty(IRI.create("http://www.w3.org/2003/11/swrlb#maxArgs"));
+
+    for (BuiltInMetadata builtIn : SWRLGeoBuiltIns.getAll()) {
+      OWLNamedIndividual individual = dataFactory
+        .getOWLNamedIndividual(IRI.create(SWRLGeoBuiltIns.NAMESPACE + builtIn.getName()));
+      assertTrue(builtIn.getName(), ontology.containsIndividualInSignature(individual.getIRI()));
+      assertEquals(builtIn.getName(), builtIn.getArity(), argumentCount(individual, minArgs, ontology));
+      assertEquals(builtIn.getName(), builtIn.getArity(), argumentCount(individual, maxArgs, ontology));
+    }
+  }
+
+  @Test public void onlyBuiltInsWithoutResultsArePure()
+  {
+    assertTrue(SWRLGeoBuiltIns.get("st_intersects").isPure());
+    assertTrue(SWRLGeoBuiltIns.get("st_intersects").isSymmetric());
+    assertTrue(!SWRLGeoBuiltIns.get("st_within").isSymmetric());
+    assertTrue(!SWRLGeoBuiltIns.get("st_union").isPure());
+    assertEquals(BuiltInMetadata.ArgumentType.RESULT, SWRLGeoBuiltIns.get("st_union").getArgumentTypes().get(0));
+    assertNull(SWRLGeoBuiltIns.get("st_unknown"));
+    for (BuiltInMetadata builtIn : SWRLGeoBuiltIns.getAll())
+      assertTrue(builtIn.getName(), builtIn.getCost() > 0);
+  }
+
+  @Test public void costsAreEstimatedForPureBuiltInsAndComparisons()
+  {
+    MetadataCostEstimator estimator = new MetadataCostEstimator();
+
+    BuiltInEstimate intersects = estimator.estimate(IRI.create(SWRLGeoBuiltIns.NAMESPACE + "st_intersects"));
+    BuiltInEstimate equal = estimator.estimate(IRI.create("http://www.w3.org/2003/11/swrlb#equal"));
+    assertNotNull(intersects);
+    assertNotNull(equal);
+    assertEquals(SWRLGeoBuiltIns.get("st_intersects").getCost(), intersects.getCost(), 0.0);
+    assertTrue(equal.getRank() < intersects.getRank());
+
+    // built-ins that bind results cannot be moved, and unknown ones are not estimated
+    assertNull(estimator.estimate(IRI.create(SWRLGeoBuiltIns.NAMESPACE + "st_union")));
+    assertNull(estimator.estimate(IRI.create(SWRLGeoBuiltIns.NAMESPACE + "st_unknown")));
+    assertNull(estimator.estimate(IRI.create("http://www.w3.org/2003/11/swrlb#add")));
+  }
+
+  private static int argumentCount(OWLNamedIndividual individual, OWLDataProperty property, OWLOntology ontology)
+  {
+    Collection<OWLLiteral> values = EntitySearcher.getDataPropertyValues(individual, property, ontology);
+    assertEquals(individual.getIRI() + " " + property.getIRI(), 1, values.size());
+    return values.iterator().next().parseInteger();
+  }
+}
@@ -0,0 +1,79 @@
+package org.swrlapi.builtins.swrlgeo;
+
+import com.vividsolutions.jts.algorithm.distance.DiscreteHausdorffDistance;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimplificationLadderTest
+{
+  private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+  @Test public void levelsStayWithinTheirErrorBounds()
+  {
+    Geometry polygon = noisyCircle(0, 0, 1000, 2000, 1);
+    SimplificationLadder ladder = new SimplificationLadder(polygon);
+    assertEquals(SimplificationLadder.LEVELS, ladder.getLevelCount());
+
+    for (int level = 0; level < ladder.getLevelCount(); level++) {
+      Geometry simplified = ladder.getLevel(level);
+      assertTrue("level " + level, simplified.getNumPoints() < polygon.getNumPoints());
+      assertTrue("level " + level,
+        DiscreteHausdorffDistance.distance(simplified, polygon, 0.25) <= ladder.getTolerance(level));
+      assertTrue("level " + level,
+        Math.abs(simplified.getArea() - polygon.getArea()) <= ladder.getAreaErrorBound(level));
+    }
+    assertEquals(0.0, ladder.getTolerance(ladder.getLevelCount()), 0.0);
+  }
+
+  @Test public void smallGeometriesHaveNoLevels()
+  {
+    SimplificationLadder ladder = new SimplificationLadder(noisyCircle(0, 0, 1000, 32, 2));
+    assertEquals(0, ladder.getLevelCount());
+    assertTrue(ladder.getLevel(0) == ladder.getGeometry());
+  }
+
+  @Test public void approximateDistanceTestsAgreeWithFullResolution()
+  {
+    Geometry a = noisyCircle(0, 0, 1000, 2000, 3);
+    Geometry b = noisyCircle(2600, 0, 1000, 2000, 4);
+    SimplificationLadder ladderA = new SimplificationLadder(a);
+    SimplificationLadder ladderB = new SimplificationLadder(b);
+    double distance = a.distance(b);
+
+    for (double threshold : new double[] { 0, distance / 2, distance - 1e-6, distance, distance + 1e-6,
+      distance * 2, 10000 })
+      assertEquals("threshold " + threshold, distance <= threshold,
+        SimplificationLadder.testDistance(ladderA, ladderB, d -> d <= threshold));
+  }
+
+  @Test public void approximateAreaTestsAgreeWithFullResolution()
+  {
+    Geometry polygon = noisyCircle(0, 0, 1000, 2000, 5);
+    SimplificationLadder ladder = new SimplificationLadder(polygon);
+    double area = polygon.getArea();
+
+    for (double threshold : new double[] { 0, area / 2, area - 1e-3, area + 1e-3, area * 2 })
+      assertEquals("threshold " + threshold, area > threshold, ladder.testArea(a -> a > threshold));
+  }
+
+  // a circle whose radius varies by up to 2% from vertex to vertex
+  private static Geometry noisyCircle(double x, double y, double radius, int vertices, long seed)
+  {
+    Random random = new Random(seed);
+    Coordinate[] coordinates = new Coordinate[vertices + 1];
+    for (int i = 0; i < vertices; i++) {
+      double angle = 2 * Math.PI * i / vertices;
+      double r = radius * (0.98 + 0.02 * random.nextDouble());
+      coordinates[i] = new Coordinate(x + r * Math.cos(angle), y + r * Math.sin(angle));
+    }
+    coordinates[vertices] = coordinates[0];
+    return geometryFactory.createPolygon(coordinates);
+  }
+}
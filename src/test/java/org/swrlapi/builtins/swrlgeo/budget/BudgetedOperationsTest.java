@@ -0,0 +1,73 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+import com.vividsolutions.jts.algorithm.distance.DiscreteHausdorffDistance;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BudgetedOperationsTest
+{
+  private final WKTReader reader = new WKTReader();
+
+  @Test public void hausdorffDistanceMatchesJTS() throws Exception
+  {
+    Geometry g0 = this.reader.read("LINESTRING(0 0,4 1,8 0,12 3)");
+    Geometry g1 = this.reader.read("POLYGON((1 1,9 1,9 5,1 5,1 1))");
+    assertEquals(DiscreteHausdorffDistance.distance(g0, g1),
+      BudgetedOperations.hausdorffDistance(g0, g1, unlimited()), 1e-12);
+  }
+
+  @Test public void unionOfPolygonsMatchesJTS() throws Exception
+  {
+    Geometry g0 = this.reader.read("MULTIPOLYGON(((0 0,2 0,2 2,0 2,0 0)),((5 0,7 0,7 2,5 2,5 0)))");
+    Geometry g1 = this.reader.read("MULTIPOLYGON(((1 1,3 1,3 3,1 3,1 1)),((10 0,11 0,11 1,10 1,10 0)))");
+    Geometry union = BudgetedOperations.union(g0, g1, unlimited());
+    assertTrue(union.equalsTopo(g0.union(g1)));
+  }
+
+  @Test public void unionChecksTheVertexBudgetFirst() throws Exception
+  {
+    Geometry g0 = this.reader.read("POLYGON((0 0,2 0,2 2,0 2,0 0))");
+    Geometry g1 = this.reader.read("POLYGON((1 1,3 1,3 3,1 3,1 1))");
+    try {
+      BudgetedOperations.union(g0, g1, new OperationBudget("test:union", 0, 9, BudgetPolicy.FAIL));
+      assertTrue("expected the vertex budget to be exceeded", false);
+    } catch (BudgetExceededException e) {
+      assertEquals("test:union", e.getBuiltInName());
+    }
+  }
+
+  @Test public void expiredTimeBudgetStopsAtTheNextCheckpoint() throws Exception
+  {
+    OperationBudget budget = new OperationBudget("test:time", 1, 0, BudgetPolicy.FAIL);
+    Thread.sleep(5);
+    try {
+      BudgetedOperations.hausdorffDistance(this.reader.read("POINT(0 0)"), this.reader.read("POINT(1 1)"), budget);
+      assertTrue("expected the time budget to be exceeded", false);
+    } catch (BudgetExceededException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("time budget"));
+    }
+    // a restarted budget has its full time again
+    assertEquals(Math.sqrt(2), BudgetedOperations
+      .hausdorffDistance(this.reader.read("POINT(0 0)"), this.reader.read("POINT(1 1)"), budget.restart()), 1e-12);
+  }
+
+  @Test public void simplifyBoundsTheVertexCount() throws Exception
+  {
+    StringBuilder wkt = new StringBuilder("LINESTRING(");
+    for (int i = 0; i <= 1000; i++)
+      wkt.append(i == 0 ? "" : ",").append(i).append(' ').append(Math.sin(i / 10.0));
+    Geometry line = this.reader.read(wkt.append(')').toString());
+
+    assertTrue(BudgetedOperations.simplify(line, 100).getNumPoints() <= 100);
+    assertEquals(line.getNumPoints(), BudgetedOperations.simplify(line, 2000).getNumPoints());
+  }
+
+  private static OperationBudget unlimited()
+  {
+    return new OperationBudget("test", 0, 0, BudgetPolicy.FAIL);
+  }
+}
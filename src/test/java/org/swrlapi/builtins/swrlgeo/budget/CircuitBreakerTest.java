@@ -0,0 +1,65 @@
+package org.swrlapi.builtins.swrlgeo.budget;
+
+import org.junit.Test;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest
+{
+  private final CircuitBreaker breaker = CircuitBreaker.getInstance();
+
+  @Test public void breakerOpensAfterConsecutiveTripsForLargeInputsOnly()
+  {
+    this.breaker.configure(2, 60000);
+    try {
+      this.breaker.recordTrip("test:opens", 5000);
+      assertFalse(this.breaker.isOpen("test:opens", 5000));
+      this.breaker.recordTrip("test:opens", 3000);
+
+      assertTrue(this.breaker.isOpen("test:opens", 3000));
+      assertTrue(this.breaker.isOpen("test:opens", 10000));
+      assertFalse(this.breaker.isOpen("test:opens", 2999));
+      assertTrue(Arrays.asList(this.breaker.getOpenBreakers()).contains("test:opens"));
+      assertEquals(Long.valueOf(2), this.breaker.getTrips().get("test:opens"));
+      assertEquals(Long.valueOf(2), this.breaker.getShortCircuits().get("test:opens"));
+    } finally {
+      restore();
+    }
+  }
+
+  @Test public void successResetsTheConsecutiveTrips()
+  {
+    this.breaker.configure(2, 60000);
+    try {
+      this.breaker.recordTrip("test:resets", 5000);
+      this.breaker.recordSuccess("test:resets");
+      this.breaker.recordTrip("test:resets", 5000);
+      assertFalse(this.breaker.isOpen("test:resets", 5000));
+    } finally {
+      restore();
+    }
+  }
+
+  @Test public void breakerClosesAfterTheCooldown()
+  {
+    this.breaker.configure(1, 0);
+    try {
+      this.breaker.recordTrip("test:cools", 5000);
+      assertFalse(this.breaker.isOpen("test:cools", 5000));
+    } finally {
+      restore();
+    }
+  }
+
+  private void restore()
+  {
+    this.breaker.reset();
+    this.breaker
+      .configure(SWRLGeoConfiguration.getBreakerThreshold(), SWRLGeoConfiguration.getBreakerCooldown());
+  }
+}
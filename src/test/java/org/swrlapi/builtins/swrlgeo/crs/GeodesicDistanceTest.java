@@ -0,0 +1,51 @@
+package org.swrlapi.builtins.swrlgeo.crs;
+
+import org.junit.Test;
+import org.swrlapi.builtins.swrlgeo.GeometryLiteralParser;
+import org.swrlapi.builtins.swrlgeo.decode.WKTGeometryDecoder;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeodesicDistanceTest
+{
+  private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+  @Test public void nearestPairIsFoundAtContinentalScale() throws Exception
+  {
+    // the lines converge towards the pole, so they are nearest at their northern ends
+    double distance = distance("LINESTRING(0 40,0 70)", "LINESTRING(10 40,10 70)", WKTGeometryDecoder.WKT_LITERAL);
+
+    assertEquals(GeodesicDistance.vincenty(new Coordinate(0, 70), new Coordinate(10, 70)), distance, 0.01);
+    assertTrue(GeodesicDistance.isSmallerThan(point(0, 70), point(10, 70), distance + 1));
+    assertTrue(GeodesicDistance.isSmallerThan(line(0, 40, 0, 70), line(10, 40, 10, 70), distance + 1));
+  }
+
+  @Test public void nearestPointMayLieInsideAnEdge() throws Exception
+  {
+    double distance = distance("POINT(5 60)", "LINESTRING(0 50,10 50)", WKTGeometryDecoder.WKT_LITERAL);
+
+    assertEquals(GeodesicDistance.vincenty(new Coordinate(5, 60), new Coordinate(5, 50)), distance, 0.01);
+  }
+
+  private static Geometry point(double x, double y)
+  {
+    return geometryFactory.createPoint(new Coordinate(x, y));
+  }
+
+  private static Geometry line(double x1, double y1, double x2, double y2)
+  {
+    return geometryFactory.createLineString(new Coordinate[] { new Coordinate(x1, y1), new Coordinate(x2, y2) });
+  }
+
+  private static double distance(String a, String b, String datatype) throws Exception
+  {
+    Geometry geometryA = GeometryLiteralParser.parse(a, datatype, CoordinateReferenceSystem.CRS84);
+    Geometry geometryB = GeometryLiteralParser.parse(b, datatype, CoordinateReferenceSystem.CRS84);
+    return GeodesicDistance.distance(geometryA, geometryB);
+  }
+}
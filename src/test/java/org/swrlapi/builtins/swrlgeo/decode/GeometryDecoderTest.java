@@ -0,0 +1,78 @@
+package org.swrlapi.builtins.swrlgeo.decode;
+
+import org.junit.Test;
+import org.swrlapi.builtins.swrlgeo.GeometryLiteralParser;
+import org.swrlapi.builtins.swrlgeo.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryDecoderTest
+{
+  private static final String EPSG_4326_WKT = "<http://www.opengis.net/def/crs/EPSG/0/4326> POINT(50 8)";
+  private static final String EPSG_4326_GML = "<gml:Point xmlns:gml=\"http://www.opengis.net/gml\" "
+    + "srsName=\"urn:ogc:def:crs:EPSG::4326\"><gml:pos>50 8</gml:pos></gml:Point>";
+
+  private static final String WKT_POLYGON = "POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,4 2,4 4,2 4,2 2))";
+  private static final String GML_POLYGON = "<gml:Polygon xmlns:gml=\"http://www.opengis.net/gml\">"
+    + "<gml:exterior><gml:LinearRing><gml:posList>0 0 10 0 10 10 0 10 0 0</gml:posList></gml:LinearRing>"
+    + "</gml:exterior><gml:interior><gml:LinearRing><gml:posList>2 2 4 2 4 4 2 4 2 2</gml:posList>"
+    + "</gml:LinearRing></gml:interior></gml:Polygon>";
+  private static final String GEOJSON_POLYGON = "{\"type\":\"Polygon\",\"coordinates\":"
+    + "[[[0,0],[10,0],[10,10],[0,10],[0,0]],[[2,2],[4,2],[4,4],[2,4],[2,2]]]}";
+
+  @Test public void formatsDecodeToTheSameGeometry() throws Exception
+  {
+    Geometry wkt = GeometryLiteralParser
+      .parse(WKT_POLYGON, WKTGeometryDecoder.WKT_LITERAL, CoordinateReferenceSystem.CRS84);
+    Geometry gml = GeometryLiteralParser
+      .parse(GML_POLYGON, GMLGeometryDecoder.GML_LITERAL, CoordinateReferenceSystem.CRS84);
+    Geometry geoJSON = GeometryLiteralParser
+      .parse(GEOJSON_POLYGON, GeoJSONGeometryDecoder.GEOJSON_LITERAL, CoordinateReferenceSystem.CRS84);
+
+    assertTrue(gml.toText(), wkt.equalsExact(gml));
+    assertTrue(geoJSON.toText(), wkt.equalsExact(geoJSON));
+  }
+
+  @Test public void latitudeFirstWKTIsSwappedToCRS84() throws Exception
+  {
+    Geometry point = GeometryLiteralParser
+      .parse(EPSG_4326_WKT, WKTGeometryDecoder.WKT_LITERAL, CoordinateReferenceSystem.CRS84);
+
+    assertCoordinate(8, 50, point.getCoordinate(), 0);
+  }
+
+  @Test public void latitudeFirstGMLIsSwappedToCRS84() throws Exception
+  {
+    Geometry point = GeometryLiteralParser
+      .parse(EPSG_4326_GML, GMLGeometryDecoder.GML_LITERAL, CoordinateReferenceSystem.CRS84);
+
+    assertCoordinate(8, 50, point.getCoordinate(), 0);
+  }
+
+  @Test public void axisOrderDoesNotDependOnWorkingCRS() throws Exception
+  {
+    CoordinateReferenceSystem utm = CoordinateReferenceSystem.forEPSGCode(25832);
+    Geometry tagged = GeometryLiteralParser.parse(EPSG_4326_WKT, WKTGeometryDecoder.WKT_LITERAL, utm);
+    Geometry untagged = GeometryLiteralParser.parse("POINT(8 50)", WKTGeometryDecoder.WKT_LITERAL, utm);
+
+    assertCoordinate(untagged.getCoordinate().x, untagged.getCoordinate().y, tagged.getCoordinate(), 1e-6);
+  }
+
+  @Test public void longitudeFirstLiteralIsNotSwapped() throws Exception
+  {
+    Geometry point = GeometryLiteralParser.parse("<http://www.opengis.net/def/crs/OGC/1.3/CRS84> POINT(8 50)",
+      WKTGeometryDecoder.WKT_LITERAL, CoordinateReferenceSystem.CRS84);
+
+    assertCoordinate(8, 50, point.getCoordinate(), 0);
+  }
+
+  private static void assertCoordinate(double x, double y, Coordinate coordinate, double tolerance)
+  {
+    assertEquals(x, coordinate.x, tolerance);
+    assertEquals(y, coordinate.y, tolerance);
+  }
+}
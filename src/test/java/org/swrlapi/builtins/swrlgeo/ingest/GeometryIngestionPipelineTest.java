@@ -0,0 +1,85 @@
+package org.swrlapi.builtins.swrlgeo.ingest;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.swrlapi.builtins.swrlgeo.GeometryIndex;
+import org.swrlapi.builtins.swrlgeo.GeometryLiteralParser;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryIngestionPipelineTest
+{
+  private static final String NAMESPACE = "http://example.org/features#";
+  private static final IRI HAS_GEOMETRY = IRI.create(NAMESPACE + "hasGeometry");
+
+  @Test public void geoJSONFeaturesAreAddedAndIndexed() throws Exception
+  {
+    String geoJSON = "{\"type\":\"FeatureCollection\",\"name\":\"parcels\",\"features\":["
+      + "{\"type\":\"Feature\",\"id\":\"p1\",\"properties\":{\"area\":12.5},"
+      + "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]]]}},"
+      + "{\"type\":\"Feature\",\"id\":\"p2\",\"properties\":{},\"geometry\":null},"
+      + "{\"type\":\"Feature\",\"id\":\"p3\",\"properties\":{},"
+      + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[5,6]}}]}";
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    // a batch size of one flushes every feature on its own
+    GeometryIngestionPipeline pipeline = new GeometryIngestionPipeline(ontology, NAMESPACE, HAS_GEOMETRY, null, 1);
+
+    try {
+      assertEquals(2, pipeline.ingest(new GeoJSONFeatureSource(new StringReader(geoJSON))));
+
+      Map<String, String> literals = getGeometryLiterals(ontology);
+      assertEquals(2, literals.size());
+      // the geometry and the area of the first parcel
+      assertEquals(2, ontology.getDataPropertyAssertionAxioms(
+        ontology.getOWLOntologyManager().getOWLDataFactory().getOWLNamedIndividual(IRI.create(NAMESPACE + "p1")))
+        .size());
+      for (String literal : literals.values()) {
+        // the index holds the envelope the built-ins would compute from the literal
+        assertNotNull(literal, GeometryIndex.getInstance().getEnvelope(literal));
+        assertEquals(GeometryLiteralParser.parse(literal, SWRLGeoConfiguration.getWorkingCRS()).getEnvelopeInternal(),
+          GeometryIndex.getInstance().getEnvelope(literal));
+      }
+    } finally {
+      GeometryIndex.getInstance().clear();
+    }
+  }
+
+  @Test public void wktLinesBecomeNamedFeatures() throws Exception
+  {
+    String wkt = "# comment\n" + "a\tPOINT(1 2)\n" + "\n" + "POINT(3 4)\n";
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    GeometryIngestionPipeline pipeline = new GeometryIngestionPipeline(ontology, NAMESPACE, HAS_GEOMETRY, null,
+      GeometryIngestionPipeline.DEFAULT_BATCH_SIZE);
+
+    try {
+      assertEquals(2, pipeline.ingest(new WKTFeatureSource(new BufferedReader(new StringReader(wkt)))));
+
+      Map<String, String> literals = getGeometryLiterals(ontology);
+      assertTrue(literals.toString(), literals.get(NAMESPACE + "a").endsWith("POINT (1 2)"));
+      assertTrue(literals.toString(), literals.get(NAMESPACE + "feature1").endsWith("POINT (3 4)"));
+    } finally {
+      GeometryIndex.getInstance().clear();
+    }
+  }
+
+  private static Map<String, String> getGeometryLiterals(OWLOntology ontology)
+  {
+    Map<String, String> literals = new HashMap<>();
+    for (OWLDataPropertyAssertionAxiom axiom : ontology.getAxioms(AxiomType.DATA_PROPERTY_ASSERTION))
+      if (axiom.getProperty().asOWLDataProperty().getIRI().equals(HAS_GEOMETRY))
+        literals.put(axiom.getSubject().asOWLNamedIndividual().getIRI().toString(), axiom.getObject().getLiteral());
+    return literals;
+  }
+}
@@ -0,0 +1,102 @@
+package org.swrlapi.builtins.swrlgeo.nearest;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import org.junit.Test;
+import org.swrlapi.builtins.TestSWRLBuiltInBridge;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.arguments.SWRLLiteralBuiltInArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.arguments;
+import static org.swrlapi.builtins.BuiltInArguments.integer;
+import static org.swrlapi.builtins.BuiltInArguments.string;
+import static org.swrlapi.builtins.BuiltInArguments.unbound;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class FeatureSetTest
+{
+  private final WKTReader reader = new WKTReader();
+
+  @Test public void nearestMatchesBruteForceDistances() throws Exception
+  {
+    Random random = new Random(7);
+    FeatureSet.Builder builder = new FeatureSet.Builder();
+    for (int i = 0; i < 500; i++) {
+      double x = random.nextDouble() * 100, y = random.nextDouble() * 100;
+      builder.add(this.reader.read(i % 2 == 0 ? "POINT(" + x + " " + y + ")"
+        : "LINESTRING(" + x + " " + y + ", " + (x + 3) + " " + (y + 1) + ")"), "f" + i);
+    }
+    FeatureSet features = builder.build();
+    Geometry query = this.reader.read("POLYGON((40 40, 45 40, 45 45, 40 45, 40 40))");
+
+    int[] nearest = features.nearest(query, 10);
+    double[] expected = IntStream.range(0, features.size()).mapToDouble(i -> features.getGeometry(i).distance(query))
+      .sorted().limit(10).toArray();
+
+    assertEquals(10, nearest.length);
+    for (int i = 0; i < nearest.length; i++)
+      assertEquals(expected[i], features.getGeometry(nearest[i]).distance(query), 0.0);
+  }
+
+  @Test public void exactDistancesDecideBetweenOverlappingEnvelopes() throws Exception
+  {
+    // the diagonal line's envelope contains the query, but the line itself is further away than the point
+    FeatureSet features = new FeatureSet.Builder().add(this.reader.read("LINESTRING(0 0, 10 10)"), "diagonal")
+      .add(this.reader.read("POINT(2 7)"), "point").build();
+
+    int[] nearest = features.nearest(this.reader.read("POINT(2 8)"), 2);
+
+    assertEquals("point", features.getId(nearest[0]));
+    assertEquals("diagonal", features.getId(nearest[1]));
+  }
+
+  @Test public void fewerGeometriesThanRequestedAreAllReturned() throws Exception
+  {
+    FeatureSet features = new FeatureSet.Builder().add(this.reader.read("POINT(0 0)"), "a")
+      .add(this.reader.read("POINT(5 0)"), "b").build();
+    Geometry query = this.reader.read("POINT(4 0)");
+
+    assertTrue(Arrays.equals(new int[] { 1, 0 }, features.nearest(query, 5)));
+    assertEquals(0, features.nearest(query, 0).length);
+    assertEquals(0, new FeatureSet.Builder().build().nearest(query, 3).length);
+  }
+
+  @Test public void emptyGeometriesAreRejected() throws Exception
+  {
+    try {
+      new FeatureSet.Builder().add(this.reader.read("POINT EMPTY"), "empty");
+      assertTrue("expected an empty geometry to be rejected", false);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("empty"));
+    }
+  }
+
+  @Test public void nearestBindsTheIdentifiersOfRegisteredFeatures() throws Exception
+  {
+    FeatureSetRegistry.getInstance().register("featureSetTest", new FeatureSet.Builder()
+      .add(this.reader.read("POINT(0 0)"), "origin").add(this.reader.read("POINT(1 1)"), "near")
+      .add(this.reader.read("POINT(50 50)"), "far").build());
+    try {
+      List<List<SWRLBuiltInArgument>> patterns = new TestSWRLBuiltInBridge().invokeSWRLBuiltIn("test",
+        "swrlgeo:st_nearest", 0, false, arguments(unbound("id"), wkt("POINT(1 2)"), string("featureSetTest"),
+          integer(2)));
+
+      List<String> ids = new ArrayList<>();
+      for (List<SWRLBuiltInArgument> pattern : patterns)
+        ids.add(((SWRLLiteralBuiltInArgument)pattern.get(0)).getLiteral().getLiteral());
+      ids.sort(Comparator.naturalOrder());
+      assertEquals(Arrays.asList("near", "origin"), ids);
+    } finally {
+      FeatureSetRegistry.getInstance().remove("featureSetTest");
+    }
+  }
+}
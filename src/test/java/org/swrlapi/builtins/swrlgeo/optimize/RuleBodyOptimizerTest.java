@@ -0,0 +1,121 @@
+package org.swrlapi.builtins.swrlgeo.optimize;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLDArgument;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.SWRLVariable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RuleBodyOptimizerTest
+{
+  private static final String NAMESPACE = "http://example.org/rules#";
+
+  private final OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
+  // expensive filters reject half of their bindings, cheap ones nine in ten
+  private final RuleBodyOptimizer optimizer = new RuleBodyOptimizer(builtIn -> {
+    switch (builtIn.getShortForm()) {
+    case "expensive":
+      return new BuiltInEstimate(100, 0.5);
+    case "cheap":
+      return new BuiltInEstimate(1, 0.1);
+    case "moderate":
+      return new BuiltInEstimate(10, 0.5);
+    default:
+      return null;
+    }
+  });
+
+  private final SWRLVariable a = variable("a"), b = variable("b"), ga = variable("ga"), gb = variable("gb"),
+    x = variable("x");
+
+  @Test public void filtersAreOrderedByRankBehindTheAtomsBindingThem()
+  {
+    SWRLRule rule = rule(geometry(a, ga), builtIn("expensive", ga, gb), geometry(b, gb), builtIn("expensive", ga),
+      feature(a), builtIn("cheap", ga, gb), builtIn("moderate", gb));
+
+    // the first expensive filter runs before gb is bound, so it may bind it and stays in place
+    assertEquals(Arrays.asList(geometry(a, ga), builtIn("expensive", ga, gb), geometry(b, gb), feature(a),
+      builtIn("cheap", ga, gb), builtIn("moderate", gb), builtIn("expensive", ga)), body(optimize(rule)));
+  }
+
+  @Test public void filtersAreNotMovedAcrossUnknownBuiltIns()
+  {
+    SWRLRule rule = rule(geometry(a, ga), builtIn("expensive", ga), builtIn("binds", x, ga), builtIn("cheap", ga),
+      feature(a));
+
+    assertEquals(Arrays.asList(geometry(a, ga), builtIn("expensive", ga), builtIn("binds", x, ga), feature(a),
+      builtIn("cheap", ga)), body(optimize(rule)));
+  }
+
+  @Test public void rulesInTheBestOrderAreKept()
+  {
+    SWRLRule rule = rule(geometry(a, ga), feature(a), builtIn("cheap", ga), builtIn("expensive", ga));
+    assertTrue(optimize(rule) == rule);
+  }
+
+  @Test public void ontologyRulesAreReplaced() throws Exception
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRule unordered = rule(geometry(a, ga), builtIn("expensive", ga), builtIn("cheap", ga));
+    SWRLRule ordered = rule(geometry(b, gb), builtIn("cheap", gb));
+    ontology.getOWLOntologyManager().addAxioms(ontology, new LinkedHashSet<>(Arrays.asList(unordered, ordered)));
+
+    assertEquals(1, this.optimizer.optimize(ontology));
+    assertEquals(2, ontology.getAxiomCount(AxiomType.SWRL_RULE));
+    assertTrue(ontology.containsAxiom(ordered));
+    assertTrue(ontology.containsAxiom(optimize(unordered)));
+  }
+
+  private SWRLRule optimize(SWRLRule rule)
+  {
+    return this.optimizer.optimize(rule, this.dataFactory);
+  }
+
+  private static List<SWRLAtom> body(SWRLRule rule)
+  {
+    return new ArrayList<>(rule.getBody());
+  }
+
+  private SWRLRule rule(SWRLAtom... body)
+  {
+    return this.dataFactory.getSWRLRule(new LinkedHashSet<>(Arrays.asList(body)),
+      Collections.singleton(this.dataFactory.getSWRLClassAtom(
+        this.dataFactory.getOWLClass(IRI.create(NAMESPACE + "Matched")), this.a)));
+  }
+
+  private SWRLAtom geometry(SWRLVariable feature, SWRLVariable geometry)
+  {
+    return this.dataFactory.getSWRLDataPropertyAtom(
+      this.dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + "hasGeometry")), feature, geometry);
+  }
+
+  private SWRLAtom feature(SWRLVariable feature)
+  {
+    return this.dataFactory.getSWRLClassAtom(this.dataFactory.getOWLClass(IRI.create(NAMESPACE + "Feature")),
+      feature);
+  }
+
+  private SWRLAtom builtIn(String name, SWRLDArgument... arguments)
+  {
+    return this.dataFactory.getSWRLBuiltInAtom(IRI.create(NAMESPACE + name), Arrays.asList(arguments));
+  }
+
+  private SWRLVariable variable(String name)
+  {
+    return this.dataFactory.getSWRLVariable(IRI.create(NAMESPACE + name));
+  }
+}
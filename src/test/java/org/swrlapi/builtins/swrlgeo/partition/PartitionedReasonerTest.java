@@ -0,0 +1,162 @@
+package org.swrlapi.builtins.swrlgeo.partition;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLDArgument;
+import org.semanticweb.owlapi.model.SWRLVariable;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoBuiltIns;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.factory.SWRLAPIFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionedReasonerTest
+{
+  private static final String NS = "http://example.org/partition#";
+  private static final String WKT_LITERAL = "http://www.opengis.net/ont/geosparql#wktLiteral";
+
+  // geohash cells of precision 5 are 0.0439453125 degrees wide; one border lies at 7.998046875 degrees east
+  private static final int PRECISION = 5;
+  private static final double HALO = 500;
+
+  private final OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+  private final OWLDataFactory factory = this.ontologyManager.getOWLDataFactory();
+  private final OWLDataProperty hasGeometry = this.factory.getOWLDataProperty(IRI.create(NS + "hasGeometry"));
+  private final OWLObjectProperty ownedBy = this.factory.getOWLObjectProperty(IRI.create(NS + "ownedBy"));
+  private final OWLObjectProperty sameOwner = this.factory.getOWLObjectProperty(IRI.create(NS + "sameOwner"));
+  private final OWLObjectProperty near = this.factory.getOWLObjectProperty(IRI.create(NS + "near"));
+
+  @Test public void partitionsShareIndividualsWithoutGeometries() throws Exception
+  {
+    OWLOntology ontology = createOntology();
+    Map<String, Set<OWLAxiom>> partitions = new SpatialPartitioner(PRECISION, HALO,
+      Collections.<IRI>emptySet()).partition(ontology);
+
+    OWLAxiom ownedByFirst = ownership("parcel1", "owner");
+    OWLAxiom ownedBySecond = ownership("parcel2", "owner");
+    boolean joined = false;
+    for (Set<OWLAxiom> axioms : partitions.values())
+      joined |= axioms.contains(ownedByFirst) && axioms.contains(ownedBySecond);
+    assertTrue("both ownerships in one partition", joined);
+  }
+
+  @Test public void partitionedResultsEqualSingleJVMResults() throws Exception
+  {
+    OWLOntology ontology = createOntology();
+    File workDirectory = Files.createTempDirectory("swrlgeo-partitions").toFile();
+    Set<OWLAxiom> partitioned;
+    try {
+      partitioned = new PartitionedReasoner(
+        new SpatialPartitioner(PRECISION, HALO, Collections.<IRI>emptySet()), 2, workDirectory).infer(ontology);
+    } finally {
+      File[] files = workDirectory.listFiles();
+      if (files != null)
+        for (File file : files)
+          file.delete();
+      workDirectory.delete();
+    }
+
+    // reasoning in this JVM adds the inferred axioms to the ontology, so it comes second
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    ruleEngine.infer();
+    Set<OWLAxiom> single = ruleEngine.getInferredOWLAxioms();
+
+    Set<OWLAxiom> expected = ruleConclusions(single);
+    assertTrue(expected.contains(relation(this.sameOwner, "parcel1", "parcel2")));
+    assertTrue(expected.contains(relation(this.near, "well1", "well2")));
+    assertEquals(expected, ruleConclusions(partitioned));
+  }
+
+  /**
+   * Two parcels far apart with a common owner that has no geometry, and two wells close to each other on either side
+   * of a cell border.
+   */
+  private OWLOntology createOntology() throws Exception
+  {
+    OWLOntology ontology = this.ontologyManager.createOntology(IRI.create(NS));
+    Set<OWLAxiom> axioms = new HashSet<>();
+    axioms.add(location("parcel1", "POINT(8.2 50.0)"));
+    axioms.add(location("parcel2", "POINT(12.4 48.1)"));
+    axioms.add(location("parcel3", "POINT(12.6 48.1)"));
+    axioms.add(location("well1", "POINT(7.997 50.0)"));
+    axioms.add(location("well2", "POINT(7.999 50.0)"));
+    axioms.add(ownership("parcel1", "owner"));
+    axioms.add(ownership("parcel2", "owner"));
+    axioms.add(ownership("parcel3", "otherOwner"));
+
+    SWRLVariable a = variable("a"), b = variable("b"), o = variable("o"), ga = variable("ga"), gb = variable("gb");
+    SWRLDArgument halo = this.factory.getSWRLLiteralArgument(this.factory.getOWLLiteral(HALO));
+    axioms.add(this.factory.getSWRLRule(
+      new HashSet<SWRLAtom>(Arrays.asList(this.factory.getSWRLObjectPropertyAtom(this.ownedBy, a, o),
+        this.factory.getSWRLObjectPropertyAtom(this.ownedBy, b, o))),
+      Collections.<SWRLAtom>singleton(this.factory.getSWRLObjectPropertyAtom(this.sameOwner, a, b))));
+    axioms.add(this.factory.getSWRLRule(
+      new HashSet<SWRLAtom>(Arrays.asList(this.factory.getSWRLDataPropertyAtom(this.hasGeometry, a, ga),
+        this.factory.getSWRLDataPropertyAtom(this.hasGeometry, b, gb),
+        this.factory.getSWRLBuiltInAtom(IRI.create(SWRLGeoBuiltIns.NAMESPACE + "st_isWithinGeodesicDistance"),
+          Arrays.<SWRLDArgument>asList(ga, gb, halo)))),
+      Collections.<SWRLAtom>singleton(this.factory.getSWRLObjectPropertyAtom(this.near, a, b))));
+
+    this.ontologyManager.addAxioms(ontology, axioms);
+    return ontology;
+  }
+
+  private Set<OWLAxiom> ruleConclusions(Set<OWLAxiom> inferred)
+  {
+    Set<OWLAxiom> conclusions = new HashSet<>();
+    for (OWLAxiom axiom : inferred)
+      if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+        OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom)axiom;
+        if (assertion.getProperty().equals(this.sameOwner) || assertion.getProperty().equals(this.near))
+          conclusions.add(assertion.getAxiomWithoutAnnotations());
+      }
+    return conclusions;
+  }
+
+  private OWLAxiom location(String individual, String wkt)
+  {
+    OWLDatatype wktLiteral = this.factory.getOWLDatatype(IRI.create(WKT_LITERAL));
+    return this.factory.getOWLDataPropertyAssertionAxiom(this.hasGeometry, individual(individual),
+      this.factory.getOWLLiteral(wkt, wktLiteral));
+  }
+
+  private OWLAxiom ownership(String parcel, String owner)
+  {
+    return relation(this.ownedBy, parcel, owner);
+  }
+
+  private OWLAxiom relation(OWLObjectProperty property, String subject, String object)
+  {
+    return this.factory.getOWLObjectPropertyAssertionAxiom(property, individual(subject), individual(object));
+  }
+
+  private OWLNamedIndividual individual(String name)
+  {
+    return this.factory.getOWLNamedIndividual(IRI.create(NS + name));
+  }
+
+  private SWRLVariable variable(String name)
+  {
+    return this.factory.getSWRLVariable(IRI.create(NS + name));
+  }
+}
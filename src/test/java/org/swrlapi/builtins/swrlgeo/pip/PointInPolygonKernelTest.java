@@ -0,0 +1,87 @@
+package org.swrlapi.builtins.swrlgeo.pip;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.io.WKTReader;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PointInPolygonKernelTest
+{
+  private final WKTReader reader = new WKTReader();
+  private final GeometryFactory factory = new GeometryFactory();
+
+  @Test public void chunkedResultsMatchGeometryContains() throws Exception
+  {
+    Geometry polygon = this.reader.read("MULTIPOLYGON(((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 8 2, 8 8, 2 8, 2 2)), "
+      + "((20 0, 30 5, 20 10, 20 0)))");
+    Random random = new Random(42);
+    int count = 2 * PointInPolygonKernel.CHUNK_SIZE + 100;
+    PointSet.Builder builder = new PointSet.Builder(count);
+    for (int i = 0; i < count; i++)
+      builder.add(random.nextDouble() * 40 - 5, random.nextDouble() * 20 - 5, "p" + i);
+    PointSet points = builder.build();
+
+    int[] expected = IntStream.range(0, count)
+      .filter(i -> polygon.contains(this.factory.createPoint(new Coordinate(points.getX(i), points.getY(i)))))
+      .toArray();
+    int[] interior = PointInPolygonKernel.locateInterior(polygon, points);
+
+    assertTrue(expected.length > 0);
+    assertTrue(Arrays.equals(expected, interior));
+    assertEquals(expected.length, PointInPolygonKernel.countInterior(polygon, points));
+  }
+
+  @Test public void boundaryAndHolePointsAreNotInterior() throws Exception
+  {
+    Geometry polygon = this.reader.read("POLYGON((0 0, 10 0, 10 10, 0 10, 0 0), (4 4, 6 4, 6 6, 4 6, 4 4))");
+    PointSet points = new PointSet.Builder().add(0, 5, "edge").add(10, 10, "vertex").add(5, 5, "hole")
+      .add(4, 5, "holeEdge").add(1, 1, "inside").add(11, 5, "outside").build();
+
+    int[] interior = PointInPolygonKernel.locateInterior(polygon, points);
+
+    assertEquals(1, interior.length);
+    assertEquals("inside", points.getId(interior[0]));
+  }
+
+  @Test public void pointsOutsideThePolygonEnvelopeAreSkipped() throws Exception
+  {
+    Geometry polygon = this.reader.read("POLYGON((0 0, 1 0, 1 1, 0 1, 0 0))");
+    PointSet points = new PointSet.Builder().add(5, 5, "a").add(6, 6, "b").build();
+
+    assertEquals(0, PointInPolygonKernel.locateInterior(polygon, points).length);
+    assertEquals(0, PointInPolygonKernel.locateInterior(polygon, new PointSet.Builder().build()).length);
+  }
+
+  @Test public void nonPolygonalGeometriesAreRejected() throws Exception
+  {
+    PointSet points = new PointSet.Builder().add(0, 0, "a").build();
+    try {
+      PointInPolygonKernel.locateInterior(this.reader.read("LINESTRING(0 0, 1 1)"), points);
+      assertTrue("expected a line to be rejected", false);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("LineString"));
+    }
+  }
+
+  @Test public void builderGrowsBeyondTheExpectedSize()
+  {
+    PointSet.Builder builder = new PointSet.Builder(1);
+    for (int i = 0; i < 100; i++)
+      builder.add(i, -i, Integer.toString(i));
+    PointSet points = builder.build();
+
+    assertEquals(100, points.size());
+    assertEquals(99.0, points.getX(99), 0.0);
+    assertEquals(-99.0, points.getY(99), 0.0);
+    assertEquals("99", points.getId(99));
+    assertEquals(-99.0, points.getEnvelope().getMinY(), 0.0);
+  }
+}
@@ -0,0 +1,56 @@
+package org.swrlapi.builtins.swrlgeo.stats;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PredicateStatisticsTest
+{
+  @Test public void selectivityAndMeanLatencyAreTakenFromTheSamples()
+  {
+    PredicateStatistics statistics = new PredicateStatistics();
+    assertTrue(Double.isNaN(statistics.getSelectivity()));
+    assertTrue(Double.isNaN(statistics.getMeanNanos()));
+
+    statistics.record(true, 1000, 4);
+    statistics.record(false, 3000, 4);
+    statistics.record(false, 5000, 4);
+    statistics.record(true, 7000, 4);
+
+    assertEquals(4, statistics.getSamples());
+    assertEquals(2, statistics.getTrueResults());
+    assertEquals(0.5, statistics.getSelectivity(), 0.0);
+    assertEquals(4000.0, statistics.getMeanNanos(), 0.0);
+  }
+
+  @Test public void histogramsHavePowerOfTwoBuckets()
+  {
+    PredicateStatistics statistics = new PredicateStatistics();
+    statistics.record(true, 500, 1);
+    statistics.record(true, 2000, 2);
+    statistics.record(true, 3999, 3);
+    statistics.record(true, 1024000, 1024);
+    statistics.record(true, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    long[] latency = statistics.getLatencyHistogram();
+    assertEquals(1, latency[0]);
+    assertEquals(2, latency[1]);
+    assertEquals(1, latency[10]);
+    assertEquals(1, latency[PredicateStatistics.BUCKETS - 1]);
+
+    long[] vertices = statistics.getVertexHistogram();
+    assertEquals(1, vertices[0]);
+    assertEquals(2, vertices[1]);
+    assertEquals(1, vertices[10]);
+    assertEquals(1, vertices[30]);
+  }
+
+  @Test public void histogramsAreCopies()
+  {
+    PredicateStatistics statistics = new PredicateStatistics();
+    statistics.record(true, 0, 0);
+    statistics.getVertexHistogram()[0] = 42;
+    assertEquals(1, statistics.getVertexHistogram()[0]);
+  }
+}
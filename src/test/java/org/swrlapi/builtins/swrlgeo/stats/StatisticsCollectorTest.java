@@ -0,0 +1,87 @@
+package org.swrlapi.builtins.swrlgeo.stats;
+
+import org.junit.Test;
+import org.swrlapi.builtins.swrlgeo.SWRLGeoConfiguration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatisticsCollectorTest
+{
+  private final StatisticsCollector collector = StatisticsCollector.getInstance();
+
+  @Test public void invocationsAreSampledPerPredicate()
+  {
+    int interval = SWRLGeoConfiguration.getStatisticsSampleInterval();
+    if (interval <= 0) {
+      assertFalse(this.collector.sample("sampleFirst"));
+      return;
+    }
+    // interleaving two predicates must not hide either of them from sampling
+    int firstSamples = 0, secondSamples = 0;
+    for (int i = 0; i < 2 * interval; i++) {
+      if (this.collector.sample("sampleFirst"))
+        firstSamples++;
+      if (this.collector.sample("sampleSecond"))
+        secondSamples++;
+    }
+    assertEquals(2, firstSamples);
+    assertEquals(2, secondSamples);
+  }
+
+  @Test public void recordedStatisticsAreReportedByName()
+  {
+    assertNull(this.collector.get("recordUnknown"));
+    this.collector.record("recordReported", true, 2000, 8);
+    this.collector.record("recordReported", false, 4000, 8);
+
+    assertEquals(2, this.collector.get("recordReported").getSamples());
+    assertEquals(Long.valueOf(2), this.collector.getSamples().get("recordReported"));
+    assertEquals(0.5, this.collector.getSelectivities().get("recordReported"), 0.0);
+    assertEquals(3000.0, this.collector.getMeanLatencies().get("recordReported"), 0.0);
+  }
+
+  @Test public void savedStatisticsAreAddedOnLoad() throws Exception
+  {
+    this.collector.record("savedPredicate", true, 3000, 100);
+    PredicateStatistics saved = this.collector.get("savedPredicate");
+    long samples = saved.getSamples(), trueResults = saved.getTrueResults(), nanos = saved.getTotalNanos();
+    long[] vertices = saved.getVertexHistogram();
+
+    Path file = Files.createTempFile("swrlgeo-statistics", ".properties");
+    try {
+      this.collector.save(file);
+      this.collector.load(file);
+    } finally {
+      Files.delete(file);
+    }
+
+    PredicateStatistics loaded = this.collector.get("savedPredicate");
+    assertEquals(2 * samples, loaded.getSamples());
+    assertEquals(2 * trueResults, loaded.getTrueResults());
+    assertEquals(2 * nanos, loaded.getTotalNanos());
+    for (int i = 0; i < vertices.length; i++)
+      vertices[i] *= 2;
+    assertArrayEquals(vertices, loaded.getVertexHistogram());
+  }
+
+  @Test public void malformedStatisticsAreIgnored() throws Exception
+  {
+    Path file = Files.createTempFile("swrlgeo-statistics", ".properties");
+    try {
+      Files.write(file, "malformedPredicate.samples=many\nloadedPredicate.samples=3\nloadedPredicate.true=1\n"
+        .getBytes("ISO-8859-1"));
+      this.collector.load(file);
+    } finally {
+      Files.delete(file);
+    }
+    assertNull(this.collector.get("malformedPredicate"));
+    assertTrue(this.collector.get("loadedPredicate").getSamples() >= 3);
+  }
+}
@@ -0,0 +1,103 @@
+package org.swrlapi.builtins.swrlgeoraster;
+
+import org.junit.Test;
+import org.swrlapi.builtins.TestSWRLBuiltInBridge;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.builtins.arguments.SWRLLiteralBuiltInArgument;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.CoverageRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.RasterPyramid;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.RasterPyramidWriter;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.arguments;
+import static org.swrlapi.builtins.BuiltInArguments.number;
+import static org.swrlapi.builtins.BuiltInArguments.string;
+import static org.swrlapi.builtins.BuiltInArguments.unbound;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class SWRLBuiltInLibraryImplTest
+{
+  private final TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge();
+
+  @Test public void coveragesAreSampledAtPoints() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try {
+      registerSlope(directory, "samplingTest");
+
+      // the coverage rises by 1 per unit east: 0.5 at the centre of the first column
+      assertTrue(this.bridge.invoke("swrlgeoraster:st_hasValueGreaterThan", string("samplingTest"),
+        wkt("POINT(3.25 1.5)"), number(3.0)));
+      assertFalse(this.bridge.invoke("swrlgeoraster:st_hasValueGreaterThan", string("samplingTest"),
+        wkt("POINT(3.25 1.5)"), number(3.5)));
+      assertTrue(this.bridge.invoke("swrlgeoraster:st_hasValueSmallerThan", string("samplingTest"),
+        wkt("POINT(3.25 1.5)"), number(3.5)));
+      // points outside the coverage have no value to compare
+      assertFalse(this.bridge.invoke("swrlgeoraster:st_hasValueSmallerThan", string("samplingTest"),
+        wkt("POINT(20 1.5)"), number(100)));
+
+      List<List<SWRLBuiltInArgument>> patterns = this.bridge.invokeSWRLBuiltIn("test", "swrlgeoraster:st_valueAt", 0,
+        false, arguments(unbound("value"), string("samplingTest"), wkt("POINT(3.25 1.5)")));
+      assertEquals(1, patterns.size());
+      assertEquals(3.25,
+        ((SWRLLiteralBuiltInArgument)patterns.get(0).get(0)).getLiteral().parseDouble(), 1e-5);
+      assertFalse(this.bridge.invoke("swrlgeoraster:st_valueAt", unbound("value"), string("samplingTest"),
+        wkt("POINT(20 1.5)")));
+    } finally {
+      CoverageRegistry.getInstance().remove("samplingTest");
+      delete(directory);
+    }
+  }
+
+  @Test public void coveragesAreOnlySampledAtPoints() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try {
+      registerSlope(directory, "samplingTest");
+      this.bridge.invoke("swrlgeoraster:st_hasValueGreaterThan", string("samplingTest"),
+        wkt("LINESTRING(1 1, 2 2)"), number(0));
+      assertTrue("expected a line to be rejected", false);
+    } catch (SWRLBuiltInException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("point"));
+    } finally {
+      CoverageRegistry.getInstance().remove("samplingTest");
+      delete(directory);
+    }
+  }
+
+  @Test public void unknownCoveragesAreRejected() throws Exception
+  {
+    try {
+      this.bridge.invoke("swrlgeoraster:st_hasValueGreaterThan", string("unknownCoverage"), wkt("POINT(1 1)"),
+        number(0));
+      assertTrue("expected an unknown coverage to be rejected", false);
+    } catch (SWRLBuiltInException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("unknownCoverage"));
+    }
+  }
+
+  private static void registerSlope(Path directory, String name) throws Exception
+  {
+    float[] values = new float[8 * 4];
+    for (int i = 0; i < values.length; i++)
+      values[i] = i % 8 + 0.5f;
+    RasterPyramidWriter.write(directory, new RasterPyramidWriter.Grid(values, 8, 4, 0, 4, 1, -9999), 4326, 4);
+    CoverageRegistry.getInstance().register(name, RasterPyramid.open(directory));
+  }
+
+  private static void delete(Path directory) throws Exception
+  {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+}
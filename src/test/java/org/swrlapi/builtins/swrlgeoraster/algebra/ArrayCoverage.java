@@ -0,0 +1,43 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+import java.util.Arrays;
+
+/**
+ * A single-level coverage held in memory, with its upper left corner at (0, rows * cellSize).
+ */
+final class ArrayCoverage extends TiledCoverage
+{
+  static final float NO_DATA = -9999;
+
+  private final float[] values;
+
+  /**
+   * @param values the cell values, row by row from the top
+   */
+  ArrayCoverage(float[] values, int width, int tileSize, double cellSize, int srid)
+  {
+    super(width, values.length / width, tileSize, 1, 0, values.length / width * cellSize, cellSize, srid);
+    this.values = values;
+  }
+
+  @Override public float getNoData()
+  {
+    return NO_DATA;
+  }
+
+  @Override protected float[] loadTile(int level, int tileColumn, int tileRow)
+  {
+    int tileSize = getTileSize();
+    float[] tile = new float[tileSize * tileSize];
+    Arrays.fill(tile, NO_DATA);
+    for (int row = 0; row < tileSize; row++)
+      for (int column = 0; column < tileSize; column++) {
+        int gridRow = tileRow * tileSize + row, gridColumn = tileColumn * tileSize + column;
+        if (gridRow < getHeight() && gridColumn < getWidth())
+          tile[row * tileSize + column] = this.values[gridRow * getWidth() + gridColumn];
+      }
+    return tile;
+  }
+}
@@ -0,0 +1,131 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+import org.junit.Test;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.CoverageRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoverageExpressionParserTest
+{
+  private static final int WIDTH = 10, HEIGHT = 6, TILE_SIZE = 4;
+
+  private final CoverageRegistry registry = CoverageRegistry.getInstance();
+
+  @Test public void tilesAndCellsEvaluateTheSameProgram() throws Exception
+  {
+    register();
+    try {
+      TiledCoverage coverage = CoverageExpressionParser.parse("subtract(add(multiply(algebraA, 2), algebraB), 0.5)",
+        this.registry);
+
+      for (int row = 0; row < HEIGHT; row++)
+        for (int column = 0; column < WIDTH; column++) {
+          double expected = 2 * a(column, row) + b(column, row) - 0.5;
+          float[] tile = coverage.getTile(0, column / TILE_SIZE, row / TILE_SIZE);
+          assertEquals(expected, tile[(row % TILE_SIZE) * TILE_SIZE + column % TILE_SIZE], 1e-4);
+          assertEquals(expected, coverage.getCellValue(0, column, row), 1e-4);
+        }
+      assertEquals("subtract(add(multiply(algebraA, 2), algebraB), 0.5)", coverage.toString());
+    } finally {
+      unregister();
+    }
+  }
+
+  @Test public void cellsWithoutDataYieldNoData() throws Exception
+  {
+    register();
+    try {
+      TiledCoverage coverage = CoverageExpressionParser.parse("greaterThan(algebraB,0)", this.registry);
+      // the first cell of algebraB has no data
+      assertTrue(Double.isNaN(coverage.getCellValue(0, 0, 0)));
+      assertTrue(Float.isNaN(coverage.getTile(0, 0, 0)[0]));
+      assertEquals(1.0, coverage.getCellValue(0, 1, 0), 0.0);
+    } finally {
+      unregister();
+    }
+  }
+
+  @Test public void operatorsFollowTheirDefinitions()
+  {
+    assertEquals(0.5, Operator.NDVI.apply(3, 1), 0.0);
+    assertTrue(Double.isNaN(Operator.NDVI.apply(1, -1)));
+    assertTrue(Double.isNaN(Operator.DIVIDE.apply(1, 0)));
+    assertEquals(0.0, Operator.GREATER_THAN.apply(1, 1), 0.0);
+    assertEquals(1.0, Operator.LESS_THAN.apply(0, 1), 0.0);
+    assertTrue(Double.isNaN(Operator.LESS_THAN.apply(Double.NaN, 1)));
+
+    // the row loops agree with the cell functions
+    double[] left = { 3, 1, 2, Double.NaN }, right = { 1, -1, 0, 4 };
+    for (Operator operator : Operator.values()) {
+      double[] row = left.clone();
+      operator.apply(row, right, row.length);
+      for (int i = 0; i < row.length; i++)
+        assertEquals(operator.getName(), operator.apply(left[i], right[i]), row[i], 0.0);
+      assertTrue(Operator.forName(operator.getName()) == operator);
+    }
+    assertTrue(Operator.forName("modulo") == null);
+  }
+
+  @Test public void coverageNamesAreNotWrapped() throws Exception
+  {
+    register();
+    try {
+      assertTrue(CoverageExpressionParser.parse(" algebraA ", this.registry) == this.registry.get("algebraA"));
+      assertTrue(CoverageExpressionParser.isExpression("add(algebraA,algebraB)"));
+      assertTrue(!CoverageExpressionParser.isExpression("algebraA"));
+    } finally {
+      unregister();
+    }
+  }
+
+  @Test public void malformedExpressionsAreRejected() throws Exception
+  {
+    register();
+    this.registry.register("algebraOther", new ArrayCoverage(new float[WIDTH * HEIGHT], WIDTH, TILE_SIZE, 2, 25832));
+    try {
+      String[] expressions = { "add(algebraA)", "modulo(algebraA,2)", "add(algebraA,algebraB))", "add(1,2)",
+        "add(algebraA,unknownCoverage)", "add(algebraA,algebraOther)", "add(algebraA," };
+      for (String expression : expressions)
+        try {
+          CoverageExpressionParser.parse(expression, this.registry);
+          assertTrue("expected " + expression + " to be rejected", false);
+        } catch (IllegalArgumentException e) {
+          assertTrue(e.getMessage(), e.getMessage().contains(expression));
+        }
+    } finally {
+      this.registry.remove("algebraOther");
+      unregister();
+    }
+  }
+
+  private void register()
+  {
+    float[] a = new float[WIDTH * HEIGHT], b = new float[WIDTH * HEIGHT];
+    for (int row = 0; row < HEIGHT; row++)
+      for (int column = 0; column < WIDTH; column++) {
+        a[row * WIDTH + column] = (float)a(column, row);
+        b[row * WIDTH + column] = (float)b(column, row);
+      }
+    b[0] = ArrayCoverage.NO_DATA;
+    this.registry.register("algebraA", new ArrayCoverage(a, WIDTH, TILE_SIZE, 1, 25832));
+    this.registry.register("algebraB", new ArrayCoverage(b, WIDTH, TILE_SIZE, 1, 25832));
+  }
+
+  private void unregister()
+  {
+    this.registry.remove("algebraA");
+    this.registry.remove("algebraB");
+  }
+
+  private static double a(int column, int row)
+  {
+    return column + 0.25 * row;
+  }
+
+  private static double b(int column, int row)
+  {
+    return 10 - row;
+  }
+}
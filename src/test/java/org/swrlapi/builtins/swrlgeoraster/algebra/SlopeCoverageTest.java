@@ -0,0 +1,82 @@
+package org.swrlapi.builtins.swrlgeoraster.algebra;
+
+import org.junit.Test;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.CoverageRegistry;
+import org.swrlapi.builtins.swrlgeoraster.pyramid.TiledCoverage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlopeCoverageTest
+{
+  private static final int WIDTH = 10, HEIGHT = 6, TILE_SIZE = 4;
+
+  @Test public void planesHaveTheirInclinationAwayFromTheEdges()
+  {
+    // rises 0.5 m per metre east and 0.25 m per metre south
+    SlopeCoverage slope = new SlopeCoverage("slope(plane)", plane(0.5, 0.25, 2, 25832));
+    double expected = Math.toDegrees(Math.atan(Math.sqrt(0.5 * 0.5 + 0.25 * 0.25)));
+
+    for (int row = 1; row < HEIGHT - 1; row++)
+      for (int column = 1; column < WIDTH - 1; column++)
+        assertEquals(expected, slope.getCellValue(0, column, row), 1e-4);
+    // beyond the grid the centre cell stands in for its neighbours, flattening the edge
+    assertTrue(slope.getCellValue(0, 0, 2) < expected);
+  }
+
+  @Test public void tilesAgreeWithCellsAcrossSeamsAndEdges()
+  {
+    float[] values = new float[WIDTH * HEIGHT];
+    for (int i = 0; i < values.length; i++)
+      values[i] = (float)((i % WIDTH) * (i % WIDTH) + 3 * Math.sin(i));
+    values[2 * WIDTH + 3] = ArrayCoverage.NO_DATA;
+    SlopeCoverage slope = new SlopeCoverage("slope(bumps)", new ArrayCoverage(values, WIDTH, TILE_SIZE, 1, 25832));
+
+    for (int row = 0; row < HEIGHT; row++)
+      for (int column = 0; column < WIDTH; column++) {
+        float[] tile = slope.getTile(0, column / TILE_SIZE, row / TILE_SIZE);
+        assertEquals(slope.getCellValue(0, column, row), tile[(row % TILE_SIZE) * TILE_SIZE + column % TILE_SIZE],
+          0.0);
+      }
+    assertTrue(Double.isNaN(slope.getCellValue(0, 3, 2)));
+  }
+
+  @Test public void geographicCellsAreConvertedToMetres()
+  {
+    // rises 100 m per column of 0.001 degrees, about 111 m wide near the equator
+    double cellSize = 0.001;
+    float[] values = new float[3 * 3];
+    for (int i = 0; i < values.length; i++)
+      values[i] = 100 * (i % 3);
+    ArrayCoverage elevation = new ArrayCoverage(values, 3, TILE_SIZE, cellSize, 4326);
+    SlopeCoverage slope = new SlopeCoverage("slope(hill)", elevation);
+    double latitude = elevation.getEnvelope().getMaxY() - 1.5 * cellSize;
+    double metres = cellSize * 111320 * Math.cos(Math.toRadians(latitude));
+
+    assertEquals(Math.toDegrees(Math.atan(100 / metres)), slope.getCellValue(0, 1, 1), 1e-3);
+  }
+
+  @Test public void slopeExpressionsAreCompiled() throws Exception
+  {
+    CoverageRegistry registry = CoverageRegistry.getInstance();
+    registry.register("slopePlane", plane(0.5, 0, 1, 25832));
+    try {
+      TiledCoverage steep = CoverageExpressionParser.parse("greaterThan(slope(slopePlane),20)", registry);
+      TiledCoverage gentle = CoverageExpressionParser.parse("greaterThan(slope(slopePlane),30)", registry);
+      assertEquals(1.0, steep.getCellValue(0, 4, 3), 0.0);
+      assertEquals(0.0, gentle.getCellValue(0, 4, 3), 0.0);
+      assertEquals("slope(slopePlane)", CoverageExpressionParser.parse("slope( slopePlane )", registry).toString());
+    } finally {
+      registry.remove("slopePlane");
+    }
+  }
+
+  private static ArrayCoverage plane(double east, double south, double cellSize, int srid)
+  {
+    float[] values = new float[WIDTH * HEIGHT];
+    for (int row = 0; row < HEIGHT; row++)
+      for (int column = 0; column < WIDTH; column++)
+        values[row * WIDTH + column] = (float)(cellSize * (east * column + south * row));
+    return new ArrayCoverage(values, WIDTH, TILE_SIZE, cellSize, srid);
+  }
+}
@@ -0,0 +1,137 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RasterPolygonizerTest
+{
+  private static final int TILE_SIZE = 4;
+
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+
+  @Test public void ringAcrossTileSeamsBecomesAPolygonWithAHole()
+  {
+    // class 1 surrounds a hole of class 2 spanning all four tiles of the 8x8 grid
+    int[][] cells = new int[8][8];
+    for (int row = 1; row < 7; row++)
+      for (int column = 1; column < 7; column++)
+        cells[row][column] = row == 1 || row == 6 || column == 1 || column == 6 ? 1 : 2;
+    GridCoverage coverage = new GridCoverage(cells);
+
+    Geometry area = RasterPolygonizer.polygonize(coverage, 0, 1, coverage.getEnvelope());
+
+    assertTrue(area instanceof Polygon);
+    assertTrue(area.isValid());
+    assertEquals(1, ((Polygon)area).getNumInteriorRing());
+    assertEquals(20.0, area.getArea(), 0.0);
+    assertTrue(area.equalsTopo(cellUnion(coverage, cells, 1, coverage.getEnvelope())));
+  }
+
+  @Test public void cellsTouchingAtACornerFormSeparatePolygons()
+  {
+    int[][] cells = new int[4][4];
+    cells[1][1] = 1;
+    cells[2][2] = 1;
+    GridCoverage coverage = new GridCoverage(cells);
+
+    Geometry area = RasterPolygonizer.polygonize(coverage, 0, 1, coverage.getEnvelope());
+
+    assertEquals(2, area.getNumGeometries());
+    assertTrue(area.isValid());
+    assertEquals(2.0, area.getArea(), 0.0);
+  }
+
+  @Test public void polygonsEqualTheUnionOfTheirCells()
+  {
+    Random random = new Random(3);
+    int[][] cells = new int[11][13];
+    for (int[] row : cells)
+      for (int column = 0; column < row.length; column++)
+        row[column] = random.nextInt(3);
+    GridCoverage coverage = new GridCoverage(cells);
+    Envelope window = new Envelope(2.5, 11.2, 1.5, 9);
+
+    for (int classValue = 0; classValue < 3; classValue++) {
+      Geometry area = RasterPolygonizer.polygonize(coverage, 0, classValue, window);
+      Geometry expected = cellUnion(coverage, cells, classValue, window);
+      assertEquals(expected.getArea(), area.getArea(), 0.0);
+      assertTrue("class " + classValue, area.isValid());
+      assertTrue("class " + classValue, area.equalsTopo(expected));
+    }
+  }
+
+  @Test public void windowsWithoutTheClassAreEmpty()
+  {
+    int[][] cells = new int[4][4];
+    cells[0][0] = 1;
+    GridCoverage coverage = new GridCoverage(cells);
+
+    assertTrue(RasterPolygonizer.polygonize(coverage, 0, 1, new Envelope(2, 4, 0, 2)).isEmpty());
+    assertTrue(RasterPolygonizer.polygonize(coverage, 0, 5, coverage.getEnvelope()).isEmpty());
+    assertTrue(RasterPolygonizer.polygonize(coverage, 0, 1, new Envelope(10, 12, 10, 12)).isEmpty());
+    assertEquals(4326, RasterPolygonizer.polygonize(coverage, 0, 1, coverage.getEnvelope()).getSRID());
+  }
+
+  private Geometry cellUnion(GridCoverage coverage, int[][] cells, int classValue, Envelope window)
+  {
+    Envelope extent = coverage.getEnvelope();
+    List<Geometry> squares = new ArrayList<>();
+    for (int row = 0; row < cells.length; row++)
+      for (int column = 0; column < cells[row].length; column++) {
+        Envelope cell = new Envelope(extent.getMinX() + column, extent.getMinX() + column + 1,
+          extent.getMaxY() - row - 1, extent.getMaxY() - row);
+        if (cells[row][column] == classValue && cell.intersects(window) && !touchesOnly(cell, window))
+          squares.add(this.geometryFactory.toGeometry(cell));
+      }
+    return this.geometryFactory.buildGeometry(squares).union();
+  }
+
+  private static boolean touchesOnly(Envelope cell, Envelope window)
+  {
+    Envelope intersection = cell.intersection(window);
+    return intersection.getWidth() == 0 || intersection.getHeight() == 0;
+  }
+
+  /**
+   * An in-memory coverage of unit cells with its upper left corner at (0, rows).
+   */
+  private static final class GridCoverage extends TiledCoverage
+  {
+    private final int[][] cells;
+
+    GridCoverage(int[][] cells)
+    {
+      super(cells[0].length, cells.length, TILE_SIZE, 1, 0, cells.length, 1, 4326);
+      this.cells = cells;
+    }
+
+    @Override public float getNoData()
+    {
+      return -1;
+    }
+
+    @Override protected float[] loadTile(int level, int tileColumn, int tileRow)
+    {
+      float[] tile = new float[TILE_SIZE * TILE_SIZE];
+      Arrays.fill(tile, getNoData());
+      for (int row = 0; row < TILE_SIZE; row++)
+        for (int column = 0; column < TILE_SIZE; column++) {
+          int gridRow = tileRow * TILE_SIZE + row, gridColumn = tileColumn * TILE_SIZE + column;
+          if (gridRow < this.cells.length && gridColumn < this.cells[gridRow].length)
+            tile[row * TILE_SIZE + column] = this.cells[gridRow][gridColumn];
+        }
+      return tile;
+    }
+  }
+}
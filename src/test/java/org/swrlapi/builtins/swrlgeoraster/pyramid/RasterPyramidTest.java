@@ -0,0 +1,140 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RasterPyramidTest
+{
+  private static final int WIDTH = 10, HEIGHT = 6, TILE_SIZE = 4;
+  private static final float NO_DATA = -9999;
+
+  /**
+   * A 10x6 grid of unit cells with its upper left corner at (0, 6), holding the linear field
+   * <code>2 * column + 3 * row</code>, which bilinear interpolation and averaging reproduce exactly.
+   */
+  static RasterPyramidWriter.Grid linearGrid()
+  {
+    float[] values = new float[WIDTH * HEIGHT];
+    for (int row = 0; row < HEIGHT; row++)
+      for (int column = 0; column < WIDTH; column++)
+        values[row * WIDTH + column] = 2 * column + 3 * row;
+    return new RasterPyramidWriter.Grid(values, WIDTH, HEIGHT, 0, HEIGHT, 1, NO_DATA);
+  }
+
+  /**
+   * @return the value of the linear field at a point between cell centres
+   */
+  static double linearValue(double x, double y)
+  {
+    return 2 * (x - 0.5) + 3 * (HEIGHT - y - 0.5);
+  }
+
+  @Test public void samplesInterpolateBetweenCellCentres() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try (RasterPyramid pyramid = write(directory, linearGrid())) {
+      assertEquals(3, pyramid.getLevelCount());
+      assertEquals(5, pyramid.getWidth(1));
+      assertEquals(3, pyramid.getHeight(1));
+      assertEquals(2.0, pyramid.getCellSize(1), 0.0);
+
+      assertEquals(linearValue(3.5, 2.5), pyramid.sample(3.5, 2.5, 0), 1e-5);
+      assertEquals(linearValue(3.2, 2.7), pyramid.sample(3.2, 2.7, 0), 1e-5);
+      assertEquals(linearValue(8.9, 5.1), pyramid.sample(8.9, 5.1, 0), 1e-5);
+      // overview cells average 2x2 cells, so the field stays linear between their centres
+      assertEquals(linearValue(3.2, 2.7), pyramid.sample(3.2, 2.7, 1), 1e-5);
+      assertEquals(linearValue(8.5, 1.5), pyramid.sample(8.5, 1.5, 1), 1e-5);
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test public void pointsOutsideTheGridHaveNoValue() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try (RasterPyramid pyramid = write(directory, linearGrid())) {
+      assertTrue(Double.isNaN(pyramid.sample(-0.1, 3, 0)));
+      assertTrue(Double.isNaN(pyramid.sample(3, 6.1, 0)));
+      assertTrue(Double.isNaN(pyramid.sample(10.1, 3, 0)));
+      assertTrue(Double.isNaN(pyramid.getCellValue(0, WIDTH, 0)));
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test public void cellsWithoutDataAreLeftOut() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    float[] values = new float[WIDTH * HEIGHT];
+    for (int i = 0; i < values.length; i++)
+      values[i] = 2 * (i % WIDTH) + 3 * (i / WIDTH);
+    values[2 * WIDTH + 4] = NO_DATA;
+    try (RasterPyramid pyramid = write(directory,
+      new RasterPyramidWriter.Grid(values, WIDTH, HEIGHT, 0, HEIGHT, 1, NO_DATA))) {
+      // the centre of the cell without data
+      assertTrue(Double.isNaN(pyramid.sample(4.5, 3.5, 0)));
+      // halfway to the next cell, whose weight is rescaled to 1
+      assertEquals(16.0, pyramid.sample(5.0, 3.5, 0), 1e-5);
+      assertTrue(Double.isNaN(pyramid.getCellValue(0, 4, 2)));
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test public void levelIsTheCoarsestWithinThePrecision() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try (RasterPyramid pyramid = write(directory, linearGrid())) {
+      assertEquals(0, pyramid.getLevel(0));
+      assertEquals(0, pyramid.getLevel(1.5));
+      assertEquals(1, pyramid.getLevel(2));
+      assertEquals(2, pyramid.getLevel(1000));
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test public void truncatedLevelFilesAreRejected() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try {
+      RasterPyramidWriter.write(directory, linearGrid(), 4326, TILE_SIZE);
+      Path level = directory.resolve(RasterPyramid.levelFileName(0));
+      Files.write(level, new byte[(int)Files.size(level) - 4]);
+      try {
+        RasterPyramid.open(directory).close();
+        assertTrue("expected a truncated level file to be rejected", false);
+      } catch (IOException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("expecting"));
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  static RasterPyramid write(Path directory, RasterPyramidWriter.Grid grid) throws IOException
+  {
+    return write(directory, grid, TileEncoding.RAW);
+  }
+
+  static RasterPyramid write(Path directory, RasterPyramidWriter.Grid grid, TileEncoding encoding) throws IOException
+  {
+    RasterPyramidWriter.write(directory, grid, 4326, TILE_SIZE, encoding);
+    return RasterPyramid.open(directory);
+  }
+
+  static void delete(Path directory) throws IOException
+  {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.swrlapi.builtins.swrlgeoraster.pyramid;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TileEncodingTest
+{
+  private static final int TILE_SIZE = 16;
+
+  private static final TileEncoding[] ENCODINGS = { TileEncoding.RAW,
+    new TileEncoding(TileEncoding.Compression.NONE, TileEncoding.Predictor.FLOATING_POINT, 0),
+    new TileEncoding(TileEncoding.Compression.DEFLATE, TileEncoding.Predictor.NONE, Deflater.DEFAULT_COMPRESSION),
+    new TileEncoding(TileEncoding.Compression.DEFLATE, TileEncoding.Predictor.FLOATING_POINT, 9) };
+
+  @Test public void tilesDecodeToTheirExactBits()
+  {
+    float[] tile = smoothTile();
+    tile[3] = Float.NaN;
+    tile[4] = -0.0f;
+    tile[5] = -9999;
+    tile[6] = Float.MAX_VALUE;
+    tile[7] = Float.MIN_VALUE;
+
+    for (TileEncoding encoding : ENCODINGS) {
+      float[] decoded = new float[tile.length];
+      encoding.decode(ByteBuffer.wrap(encoding.encode(tile, TILE_SIZE)), decoded, TILE_SIZE);
+      for (int i = 0; i < tile.length; i++)
+        assertEquals(encoding + " cell " + i, Float.floatToRawIntBits(tile[i]), Float.floatToRawIntBits(decoded[i]));
+    }
+  }
+
+  @Test public void predictorShrinksSmoothTiles()
+  {
+    float[] tile = smoothTile();
+    int deflated = ENCODINGS[2].encode(tile, TILE_SIZE).length;
+    int predicted = ENCODINGS[3].encode(tile, TILE_SIZE).length;
+
+    assertEquals(4 * tile.length, TileEncoding.RAW.encode(tile, TILE_SIZE).length);
+    assertTrue(predicted + " >= " + deflated, predicted < deflated);
+    assertTrue(deflated < 4 * tile.length);
+  }
+
+  @Test public void corruptTilesAreRejected()
+  {
+    byte[] encoded = ENCODINGS[3].encode(smoothTile(), TILE_SIZE);
+    try {
+      ENCODINGS[3].decode(ByteBuffer.wrap(encoded, 0, encoded.length / 2), new float[TILE_SIZE * TILE_SIZE],
+        TILE_SIZE);
+      assertTrue("expected a truncated tile to be rejected", false);
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("corrupt"));
+    }
+  }
+
+  @Test public void encodingsRoundTripThroughMetadata() throws Exception
+  {
+    for (TileEncoding encoding : ENCODINGS) {
+      Properties metadata = new Properties();
+      encoding.toMetadata(metadata);
+      TileEncoding parsed = TileEncoding.fromMetadata(metadata);
+      assertEquals(encoding.getCompression(), parsed.getCompression());
+      assertEquals(encoding.getPredictor(), parsed.getPredictor());
+    }
+    assertTrue(TileEncoding.fromMetadata(new Properties()) == TileEncoding.RAW);
+
+    Properties unknown = new Properties();
+    unknown.setProperty("compression", "lzw");
+    try {
+      TileEncoding.fromMetadata(unknown);
+      assertTrue("expected an unknown compression to be rejected", false);
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("lzw"));
+    }
+  }
+
+  @Test public void encodedPyramidsSampleLikeRawPyramids() throws Exception
+  {
+    Path rawDirectory = Files.createTempDirectory("pyramid");
+    try (RasterPyramid raw = RasterPyramidTest.write(rawDirectory, RasterPyramidTest.linearGrid())) {
+      for (TileEncoding encoding : ENCODINGS) {
+        Path directory = Files.createTempDirectory("pyramid");
+        try (RasterPyramid pyramid = RasterPyramidTest.write(directory, RasterPyramidTest.linearGrid(), encoding)) {
+          assertEquals(encoding.isRaw(), pyramid.getEncoding().isRaw());
+          for (int level = 0; level < raw.getLevelCount(); level++)
+            for (int row = 0; row < raw.getHeight(level); row++)
+              for (int column = 0; column < raw.getWidth(level); column++)
+                assertEquals(encoding + " level " + level, raw.getCellValue(level, column, row),
+                  pyramid.getCellValue(level, column, row), 0.0);
+        } finally {
+          RasterPyramidTest.delete(directory);
+        }
+      }
+    } finally {
+      RasterPyramidTest.delete(rawDirectory);
+    }
+  }
+
+  @Test public void corruptTileIndexesAreRejected() throws Exception
+  {
+    Path directory = Files.createTempDirectory("pyramid");
+    try {
+      RasterPyramidWriter.write(directory, RasterPyramidTest.linearGrid(), 4326, 4, ENCODINGS[3]);
+      Path level = directory.resolve(RasterPyramid.levelFileName(0));
+      byte[] bytes = Files.readAllBytes(level);
+      // make the offset of the second tile precede the first
+      ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(20, 0);
+      Files.write(level, bytes);
+      try {
+        RasterPyramid.open(directory).close();
+        assertTrue("expected a corrupt tile index to be rejected", false);
+      } catch (IOException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("corrupt tile index"));
+      }
+    } finally {
+      RasterPyramidTest.delete(directory);
+    }
+  }
+
+  private static float[] smoothTile()
+  {
+    float[] tile = new float[TILE_SIZE * TILE_SIZE];
+    for (int row = 0; row < TILE_SIZE; row++)
+      for (int column = 0; column < TILE_SIZE; column++)
+        tile[row * TILE_SIZE + column] = 512.25f + 0.125f * column + 0.0625f * row;
+    return tile;
+  }
+}
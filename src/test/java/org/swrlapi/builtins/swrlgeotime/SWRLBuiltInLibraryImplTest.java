@@ -0,0 +1,45 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import org.junit.Test;
+import org.swrlapi.builtins.TestSWRLBuiltInBridge;
+import org.swrlapi.builtins.arguments.SWRLBuiltInArgument;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.swrlapi.builtins.BuiltInArguments.literal;
+import static org.swrlapi.builtins.BuiltInArguments.wkt;
+
+public class SWRLBuiltInLibraryImplTest
+{
+  private static final String DATE_TIME = "http://www.w3.org/2001/XMLSchema#dateTime";
+
+  private final TestSWRLBuiltInBridge bridge = new TestSWRLBuiltInBridge();
+
+  @Test public void featuresIntersectInSpaceAndTime() throws Exception
+  {
+    SWRLBuiltInArgument area = wkt("POLYGON((0 0,2 0,2 2,0 2,0 0))");
+    assertTrue(this.bridge.invoke("swrlgeotime:stt_intersects", wkt("POINT(1 1)"), time("2020-01-01T00:00:00"),
+      time("2020-01-31T00:00:00"), area, time("2020-01-15T00:00:00"), time("2020-02-15T00:00:00")));
+    assertFalse(this.bridge.invoke("swrlgeotime:stt_intersects", wkt("POINT(1 1)"), time("2020-01-01T00:00:00"),
+      time("2020-01-31T00:00:00"), area, time("2020-02-01T00:00:00"), time("2020-02-15T00:00:00")));
+    assertFalse(this.bridge.invoke("swrlgeotime:stt_intersects", wkt("POINT(3 3)"), time("2020-01-01T00:00:00"),
+      time("2020-01-31T00:00:00"), area, time("2020-01-15T00:00:00"), time("2020-02-15T00:00:00")));
+  }
+
+  @Test public void unparsableGeometryIsReported() throws Exception
+  {
+    try {
+      this.bridge.invoke("swrlgeotime:stt_intersects", wkt("POINT(1"), time("2020-01-01T00:00:00"),
+        time("2020-01-31T00:00:00"), wkt("POINT(1 1)"), time("2020-01-15T00:00:00"), time("2020-02-15T00:00:00"));
+      assertTrue("expected the geometry to fail to parse", false);
+    } catch (SWRLBuiltInException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("Geometry failed to parse"));
+    }
+  }
+
+  private static SWRLBuiltInArgument time(String lexicalForm)
+  {
+    return literal(lexicalForm, DATE_TIME);
+  }
+}
@@ -0,0 +1,88 @@
+package org.swrlapi.builtins.swrlgeotime;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpatioTemporalIndexTest
+{
+  private final GeometryFactory factory = new GeometryFactory();
+
+  @Test public void featuresInSeveralBucketsAreReportedOnce()
+  {
+    // ten buckets of width 10 over [0, 99]
+    SpatioTemporalIndex index = new SpatioTemporalIndex.Builder().buckets(10)
+      .add(point(1, 1), new TimeInterval(5, 35), "spansFourBuckets")
+      .add(point(1, 1), new TimeInterval(0, 99), "spansAllBuckets")
+      .add(point(1, 1), new TimeInterval(50, 55), "inOneBucket")
+      .build();
+    Geometry area = box(0, 0, 2, 2);
+    Set<AllenRelation> intersects = AllenRelation.parse(AllenRelation.INTERSECTS);
+
+    assertEquals(Arrays.toString(new int[] { 0, 1, 2 }), Arrays
+      .toString(index.query(area, new TimeInterval(0, 99), SpatialRelation.parse("intersects"), intersects)));
+    // the first bucket visited is not the first bucket of the feature
+    assertEquals(Arrays.toString(new int[] { 0, 1 }), Arrays
+      .toString(index.query(area, new TimeInterval(20, 30), SpatialRelation.parse("intersects"), intersects)));
+  }
+
+  @Test public void queriesMatchAScanOfAllFeatures()
+  {
+    Random random = new Random(7);
+    SpatioTemporalIndex.Builder builder = new SpatioTemporalIndex.Builder().buckets(16);
+    List<Geometry> geometries = new ArrayList<>();
+    List<TimeInterval> intervals = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      Geometry geometry = point(random.nextInt(100), random.nextInt(100));
+      long start = random.nextInt(1000);
+      TimeInterval interval = new TimeInterval(start, start + random.nextInt(random.nextBoolean() ? 50 : 400));
+      builder.add(geometry, interval, "f" + i);
+      geometries.add(geometry);
+      intervals.add(interval);
+    }
+    SpatioTemporalIndex index = builder.build();
+
+    for (String relations : new String[] { AllenRelation.INTERSECTS, "before", "after|during" })
+      for (String spatialRelation : new String[] { "intersects", "disjoint" }) {
+        Geometry area = box(20, 20, 60, 60);
+        TimeInterval interval = new TimeInterval(300, 500);
+        Set<AllenRelation> allenRelations = AllenRelation.parse(relations);
+        SpatialRelation relation = SpatialRelation.parse(spatialRelation);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < geometries.size(); i++)
+          if (AllenRelation.anyHolds(allenRelations, interval, intervals.get(i)) && relation
+            .holds(area, geometries.get(i)))
+            expected.add(i);
+        int[] actual = index.query(area, interval, relation, allenRelations);
+        assertEquals(relations + " " + spatialRelation, expected.toString(), toList(actual).toString());
+      }
+  }
+
+  private Geometry point(double x, double y)
+  {
+    return this.factory.createPoint(new Coordinate(x, y));
+  }
+
+  private Geometry box(double minX, double minY, double maxX, double maxY)
+  {
+    return this.factory.toGeometry(new Envelope(minX, maxX, minY, maxY));
+  }
+
+  private static List<Integer> toList(int[] values)
+  {
+    List<Integer> list = new ArrayList<>();
+    for (int value : values)
+      list.add(value);
+    return list;
+  }
+}